@@ -1,14 +1,26 @@
 package fr.upmc.colins.farm3;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import fr.upmc.colins.farm3.admission.AdmissionControl;
+import fr.upmc.colins.farm3.balancing.LoadBalancingMode;
 import fr.upmc.colins.farm3.connectors.ApplicationRequestServiceConnector;
+import fr.upmc.colins.farm3.conrolapp.ApplicationControl;
+import fr.upmc.colins.farm3.core.Core;
 import fr.upmc.colins.farm3.cpu.Cpu;
+import fr.upmc.colins.farm3.dispatcher.RequestDispatcher;
 import fr.upmc.colins.farm3.generator.RequestGenerator;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
+import fr.upmc.colins.farm3.utils.OverflowStrategy;
 import fr.upmc.colins.farm3.utils.TimeProcessing;
+import fr.upmc.colins.farm3.vm.VM;
+import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.ComponentI.ComponentTask;
 import fr.upmc.components.cvm.AbstractCVM;
+import fr.upmc.components.executors.ComponentExecutors;
+import fr.upmc.components.executors.ExecutionBackend;
 import fr.upmc.components.ports.PortI;
 
 /**
@@ -22,6 +34,24 @@ import fr.upmc.components.ports.PortI;
  * This main supports the following components : core, admission control,
  * request dispatcher, virtual machine, cpu
  *
+ * When <code>VIRTUAL_TIME</code> is true, an <code>EventCalendar</code> is
+ * installed before the creation of the components and the simulation runs in
+ * virtual time for <code>SIMULATION_DURATION</code> ms, as fast as the events
+ * can be processed, instead of sleeping in wall-clock time.  Messages among
+ * components then take a transfer latency, which is the lookahead allowing
+ * the components to be simulated in parallel: the events of all components
+ * falling in the same window of that many ms run concurrently.  A request
+ * and its response cross <code>TRANSFERS_PER_REQUEST</code> components
+ * (generator, dispatcher, virtual machine, core, and back to the dispatcher
+ * and its application controller), and the latency is chosen so that these
+ * transfers take at most <code>TRANSFER_SHARE</code> of the service time of
+ * the shortest requests, i.e. requests of <code>MEAN_NROF_INSTRUCTIONS</code>
+ * minus three <code>STANDARD_DEVIATION</code> instructions on a core at
+ * <code>MAX_CLOCK_SPEED</code>; with the values below, 350 ms of service and
+ * a latency of 5 ms.  The latency is never below the 1 ms resolution of the
+ * calendar, where only simultaneous events run concurrently, and it can be
+ * set with <code>-Dfr.upmc.colins.farm3.transferLatency=ms</code>.
+ *
  * <p>
  * How to launch : https://i.imgur.com/cvT1RMb.png
  * </p>
@@ -40,6 +70,64 @@ public class CVM extends AbstractCVM {
 	// Settings
 	/** the main sleep's duration										*/
 	protected static final long 	MAIN_SLEEPING_DURATION = 15000L;
+	/** true if the simulation runs in virtual time						*/
+	protected static final boolean	VIRTUAL_TIME = false;
+	/** the simulated duration in virtual time mode						*/
+	protected static final long 	SIMULATION_DURATION = 3600000L;
+	/** the maximum share of the service time of the shortest requests
+	 *  taken by the transfers of a request and its response, which gives
+	 *  the lookahead in virtual time mode								*/
+	protected static final double 	TRANSFER_SHARE = 0.1;
+	/** the number of messages transferring a request and its response	*/
+	protected static final int 		TRANSFERS_PER_REQUEST = 6;
+	/** the system property overriding the transfer latency in ms		*/
+	protected static final String 	TRANSFER_LATENCY_PROPERTY =
+									"fr.upmc.colins.farm3.transferLatency";
+	/** the default backend providing the threads of the components, which
+	 *  may be overridden with -Dfr.upmc.components.executionBackend=...	*/
+	protected static final ExecutionBackend EXECUTION_BACKEND =
+										ExecutionBackend.DEDICATED_THREADS;
+	/** execute the synchronous requests to an idle component in the
+	 *  calling thread instead of handing them off to the component		*/
+	protected static final boolean INLINE_SYNCHRONOUS_REQUESTS = true;
+	/** the window in ms within which the generated requests are sent in
+	 *  a single batch, 0 to send each request on its own				*/
+	protected static final long 	REQUEST_BATCH_WINDOW = 0L;
+	/** the period in ms at which the cores and the virtual machines send
+	 *  the statistics of their responses, 0 to send each response		*/
+	protected static final long 	RESPONSE_FLUSH_PERIOD = 0L;
+	/** the number of service times averaged by the application controllers
+	 *  before adapting the clock speeds, 1 to adapt upon each sample	*/
+	protected static final long 	CONTROL_WINDOW_SIZE = 1L;
+	/** the policy used by the request dispatchers to choose the virtual
+	 *  machine of each request											*/
+	protected static final LoadBalancingMode RD_LOAD_BALANCING =
+										LoadBalancingMode.ROUND_ROBIN;
+	/** the policy used by the virtual machines to choose the core of each
+	 *  request															*/
+	protected static final LoadBalancingMode VM_LOAD_BALANCING =
+										LoadBalancingMode.ROUND_ROBIN;
+	/** true if the cores of a virtual machine share its queue and pull
+	 *  requests from it when they have less than VM_CORE_QUEUE_THRESHOLD
+	 *  outstanding requests, false to push the requests to the cores	*/
+	protected static final boolean 	VM_WORK_SHARING = false;
+	/** the maximum number of outstanding requests per core when the
+	 *  virtual machines share their queue								*/
+	protected static final int 		VM_CORE_QUEUE_THRESHOLD = 1;
+	/** the maximum number of pending requests of a request dispatcher,
+	 *  0 for an unbounded queue										*/
+	protected static final int 		RD_QUEUE_CAPACITY = 0;
+	/** the maximum number of pending requests of a virtual machine,
+	 *  0 for an unbounded queue										*/
+	protected static final int 		VM_QUEUE_CAPACITY = 0;
+	/** the maximum number of pending requests of a core, 0 for an
+	 *  unbounded queue													*/
+	protected static final int 		CORE_QUEUE_CAPACITY = 0;
+	/** what the components do with the requests arriving when their
+	 *  queue is full: reject them, drop the oldest ones or block the
+	 *  sender (replaced by reject in virtual time)						*/
+	protected static final OverflowStrategy QUEUE_OVERFLOW_STRATEGY =
+										OverflowStrategy.REJECT;
 	/** the default clock speed											*/
 	protected static final Double 	CLOCK_SPEED = 1.0;
 	/** the maximum clock speed											*/
@@ -60,6 +148,8 @@ public class CVM extends AbstractCVM {
 	protected static final double 	STANDARD_DEVIATION = 100.0;
 	/** the mean number of instructions 								*/
 	protected static final double 	MEAN_NROF_INSTRUCTIONS = 1000.0;
+	/** the expected processing time of a request						*/
+	protected static final Double 	EXPECTED_TIME = 800.0;
 	
 	// Components' URIs
 	protected static final String RG_ARGOP = "rg-argop";
@@ -100,6 +190,7 @@ public class CVM extends AbstractCVM {
 		
 		// Create a list of Request Arrival Inbound Port from the cores
 		ArrayList<String> coreRequestArrivalInboundPortUris = new ArrayList<>();
+		HashMap<String,ArrayList<String>> cpuRequestArrivalInboundPortUris = new HashMap<String, ArrayList<String>>();
 		
 		// Create the cpu
 		mCpus = new ArrayList<Cpu>();
@@ -115,15 +206,18 @@ public class CVM extends AbstractCVM {
 			this.deployedComponents.add(cpu);
 			mCpus.add(cpu);
 			coreRequestArrivalInboundPortUris.addAll(cpu.getCoresRequestArrivalInboundPortUris());
+			cpuRequestArrivalInboundPortUris.put(CPU_CRAIP_PREFIX + i,cpu.getCoresRequestArrivalInboundPortUris());
 		}
 
 		mAdmissionControl = new AdmissionControl(
 				NROF_CPU * NROF_CORES_PER_CPU, 
+				NROF_CPU,
 				NROF_CORES_PER_VM, 
 				NROF_VM_PER_DISPATCHER, 
 				AC_CRGOP_PREFIX, 
 				AC_ARAIP, 
-				coreRequestArrivalInboundPortUris
+				coreRequestArrivalInboundPortUris,
+				cpuRequestArrivalInboundPortUris
 				);
 		this.deployedComponents.add(mAdmissionControl);
 		
@@ -136,7 +230,8 @@ public class CVM extends AbstractCVM {
 				MEAN_NROF_INSTRUCTIONS, 
 				STANDARD_DEVIATION, 
 				RG_RGOP_PREFIX, 
-				RG_ARGOP
+				RG_ARGOP,
+				EXPECTED_TIME
 				);
 		this.deployedComponents.add(this.mRequestGenerator);
 
@@ -186,9 +281,31 @@ public class CVM extends AbstractCVM {
 		super.shutdown();
 	}
 
+	/**
+	 * return the transfer latency of the messages in virtual time mode,
+	 * given by the system property <code>TRANSFER_LATENCY_PROPERTY</code> if
+	 * set, and otherwise such that the <code>TRANSFERS_PER_REQUEST</code>
+	 * transfers of a request take at most <code>TRANSFER_SHARE</code> of the
+	 * minimum service time of a request, and at least 1 ms.
+	 * 
+	 * @return	the transfer latency in ms, used as lookahead.
+	 */
+	protected static long transferLatency() {
+		String latency = System.getProperty(TRANSFER_LATENCY_PROPERTY);
+		if (latency != null) {
+			return Long.parseLong(latency);
+		}
+		double minServiceTime = Math.max(0.0,
+				MEAN_NROF_INSTRUCTIONS - 3.0 * STANDARD_DEVIATION)
+				/ MAX_CLOCK_SPEED;
+		return Math.max(1L, (long) (TRANSFER_SHARE * minServiceTime
+				/ TRANSFERS_PER_REQUEST));
+	}
+
 	/**
 	 * create the virtual machine, deploy the components, start them, launch the
-	 * request generation and then shut down after 15 seconds of execution.
+	 * request generation and then shut down after 15 seconds of execution,
+	 * or after the simulated duration in virtual time mode.
 	 * 
 	 * <p>
 	 * <strong>Contract</strong>
@@ -202,6 +319,29 @@ public class CVM extends AbstractCVM {
 	 * @param args
 	 */
 	public static void main(String[] args) {
+		ComponentExecutors.configureBackend(EXECUTION_BACKEND);
+		AbstractComponent.INLINE_SYNCHRONOUS_REQUESTS =
+											INLINE_SYNCHRONOUS_REQUESTS;
+		RequestGenerator.BATCH_WINDOW = REQUEST_BATCH_WINDOW;
+		ResponseStatistics.FLUSH_PERIOD = RESPONSE_FLUSH_PERIOD;
+		ApplicationControl.WINDOW_SIZE = CONTROL_WINDOW_SIZE;
+		RequestDispatcher.LOAD_BALANCING = RD_LOAD_BALANCING;
+		VM.LOAD_BALANCING = VM_LOAD_BALANCING;
+		VM.WORK_SHARING = VM_WORK_SHARING;
+		VM.CORE_QUEUE_THRESHOLD = VM_CORE_QUEUE_THRESHOLD;
+		RequestDispatcher.QUEUE_CAPACITY = RD_QUEUE_CAPACITY;
+		RequestDispatcher.OVERFLOW_STRATEGY = QUEUE_OVERFLOW_STRATEGY;
+		VM.QUEUE_CAPACITY = VM_QUEUE_CAPACITY;
+		VM.OVERFLOW_STRATEGY = QUEUE_OVERFLOW_STRATEGY;
+		Core.QUEUE_CAPACITY = CORE_QUEUE_CAPACITY;
+		Core.OVERFLOW_STRATEGY = QUEUE_OVERFLOW_STRATEGY;
+		if (VIRTUAL_TIME) {
+			long transferLatency = transferLatency();
+			System.out.println(logId + " Transfer latency and lookahead of "
+					+ transferLatency + " ms");
+			EventCalendar.install(new EventCalendar(
+					System.currentTimeMillis(), transferLatency));
+		}
 		CVM a = new CVM();
 		try {
 			a.deploy();
@@ -210,8 +350,8 @@ public class CVM extends AbstractCVM {
 
 			final RequestGenerator fcg = a.mRequestGenerator;
 			System.out.println(logId + " Kick start request at "
-					+ TimeProcessing.toString(System.currentTimeMillis()));
-			fcg.runTask(new ComponentTask() {
+					+ TimeProcessing.toString(EventCalendar.currentTimeMillis()));
+			ComponentTask kickStart = new ComponentTask() {
 				@Override
 				public void run() {
 					try {
@@ -220,8 +360,20 @@ public class CVM extends AbstractCVM {
 						e.printStackTrace();
 					}
 				}
-			});
-			Thread.sleep(MAIN_SLEEPING_DURATION);
+			};
+			if (VIRTUAL_TIME) {
+				EventCalendar calendar = EventCalendar.getCalendar();
+				calendar.scheduleAfter(fcg, kickStart, 0L);
+				long wallClockStart = System.currentTimeMillis();
+				calendar.run(SIMULATION_DURATION);
+				System.out.println(logId + " " + calendar.getExecutedEvents()
+						+ " events simulated in " + calendar.getExecutedRounds()
+						+ " rounds in "
+						+ (System.currentTimeMillis() - wallClockStart) + " ms");
+			} else {
+				fcg.runTask(kickStart);
+				Thread.sleep(MAIN_SLEEPING_DURATION);
+			}
 			a.shutdown();
 			System.out.println(logId + " Ending...");
 			System.exit(0);
@@ -2,15 +2,26 @@ package fr.upmc.colins.farm3;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 import fr.upmc.colins.farm3.admission.AdmissionControl;
 import fr.upmc.colins.farm3.connectors.ApplicationRequestServiceConnector;
+import fr.upmc.colins.farm3.core.RequestArrivalI;
+import fr.upmc.colins.farm3.core.ResponseArrivalI;
 import fr.upmc.colins.farm3.cpu.Cpu;
 import fr.upmc.colins.farm3.generator.RequestGenerator;
+import fr.upmc.colins.farm3.objects.ObjectCodecs;
 import fr.upmc.colins.farm3.utils.TimeProcessing;
 import fr.upmc.components.ComponentI.ComponentTask;
+import fr.upmc.components.connectors.AbstractAsyncConnector;
+import fr.upmc.components.connectors.ConnectionBuilder;
+import fr.upmc.components.cvm.AbstractCVM;
 import fr.upmc.components.cvm.AbstractDistributedCVM;
+import fr.upmc.components.executors.ComponentExecutors;
+import fr.upmc.components.executors.ExecutionBackend;
 import fr.upmc.components.ports.PortI;
+import fr.upmc.components.registry.ConnectionType;
+import fr.upmc.components.transport.SocketTransport;
 
 /**
  * The class <code>DistributedCVM</code> contains the main used the launch the
@@ -52,6 +63,16 @@ public class DistributedCVM extends AbstractDistributedCVM {
 	protected static final Long NROF_CORES_PER_CPU = 4L;
 	/** the number of applications to be submitted by the consumer		*/
 	protected static final Long NROF_APPS = 2L;
+	/** the default backend providing the threads of the components, which
+	 *  may be overridden with -Dfr.upmc.components.executionBackend=...	*/
+	protected static final ExecutionBackend EXECUTION_BACKEND =
+										ExecutionBackend.DEDICATED_THREADS;
+	/** send the requests, responses and statistics between JVMs without
+	 *  blocking the sender for the network round trip					*/
+	protected static final boolean ASYNCHRONOUS_ONE_WAY_CALLS = true;
+	/** type of the connections between JVMs, RMI or the socket transport	*/
+	protected static final ConnectionType CONNECTION_TYPE =
+										ConnectionType.SOCKET;
 
 	// Components' URIs
 	protected static final String RG_ARGOP = "rg-argop";
@@ -118,19 +139,32 @@ public class DistributedCVM extends AbstractDistributedCVM {
 			ArrayList<String> coreRequestArrivalInboundPortUris = new ArrayList<>();
 			HashMap<String,ArrayList<String>> cpuRequestArrivalInboundPortUris = new HashMap<String, ArrayList<String>>();
 			
-			// Create the cpu
-			mCpus = new ArrayList<Cpu>();
+			// Create the cpu in parallel, each creating its cores in
+			// parallel; the ports are published in the global registry in
+			// batches at the end of the phase
+			final AbstractCVM cvm = this;
+			ArrayList<Callable<Cpu>> cpuTasks = new ArrayList<Callable<Cpu>>();
 			for (int i = 0; i < NROF_CPU; i++) {
-				Cpu cpu = new Cpu(
-						i, 
-						NROF_CORES_PER_CPU, 
-						CLOCK_SPEED, 
-						MAX_CLOCK_SPEED,
-						CPU_CRAIP_PREFIX + i,
-						this
-						);
+				final int cpuId = i;
+				cpuTasks.add(new Callable<Cpu>() {
+					@Override
+					public Cpu call() throws Exception {
+						return new Cpu(
+								cpuId, 
+								NROF_CORES_PER_CPU, 
+								CLOCK_SPEED, 
+								MAX_CLOCK_SPEED,
+								CPU_CRAIP_PREFIX + cpuId,
+								cvm
+								);
+					}
+				});
+			}
+			mCpus = new ArrayList<Cpu>(
+							AbstractCVM.instantiateInParallel(cpuTasks));
+			for (int i = 0; i < NROF_CPU; i++) {
+				Cpu cpu = mCpus.get(i);
 				this.deployedComponents.add(cpu);
-				mCpus.add(cpu);
 				coreRequestArrivalInboundPortUris.addAll(cpu.getCoresRequestArrivalInboundPortUris());
 				cpuRequestArrivalInboundPortUris.put(CPU_CRAIP_PREFIX + i,cpu.getCoresRequestArrivalInboundPortUris());
 			}
@@ -291,6 +325,21 @@ public class DistributedCVM extends AbstractDistributedCVM {
 	public static void main(String[] args) {
 		System.out.println("Beginning");
 		try {
+			ComponentExecutors.configureBackend(EXECUTION_BACKEND);
+			AbstractAsyncConnector.ASYNCHRONOUS_ONE_WAY_CALLS =
+											ASYNCHRONOUS_ONE_WAY_CALLS;
+			SocketTransport.ENABLED =
+								CONNECTION_TYPE == ConnectionType.SOCKET;
+			if (ASYNCHRONOUS_ONE_WAY_CALLS) {
+				// the connection methods of these interfaces stay synchronous
+				SocketTransport.declareOneWay(RequestArrivalI.class,
+									"acceptRequest", "acceptRequests");
+				SocketTransport.declareOneWay(ResponseArrivalI.class,
+									"acceptResponse",
+									"acceptResponseStatistics");
+			}
+			ConnectionBuilder.DEFAULT_CONNECTION_TYPE = CONNECTION_TYPE;
+			ObjectCodecs.register();
 			DistributedCVM da = new DistributedCVM(args);
 			da.deploy();
 			System.out.println("starting...");
@@ -1,15 +1,20 @@
 package fr.upmc.colins.farm3.admission;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
+import fr.upmc.colins.farm3.connectors.RDBindingConnector;
+import fr.upmc.colins.farm3.connectors.VMBindingConnector;
 import fr.upmc.colins.farm3.conrolapp.ApplicationControl;
 import fr.upmc.colins.farm3.coordCpu.CooridationCoreInCPU;
 import fr.upmc.colins.farm3.core.ControlRequestArrivalI;
 import fr.upmc.colins.farm3.cpu.ControlRequestGeneratorOutboundPort;
+import fr.upmc.colins.farm3.dispatcher.RDBindingI;
 import fr.upmc.colins.farm3.dispatcher.dynamic.DynamicRequestDispatcher;
 import fr.upmc.colins.farm3.objects.Application;
+import fr.upmc.colins.farm3.vm.VMBindingI;
 import fr.upmc.colins.farm3.vm.dynamic.DynamicVM;
 import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.cvm.AbstractCVM;
@@ -30,6 +35,21 @@ import fr.upmc.components.exceptions.ComponentStartException;
  * When uploading an application the admission control allocate a predefined number
  * of virtual machines and a dedicated request dispatcher. The admission control then
  * return the uri of the request dispatcher.
+ * The virtual machines and request dispatchers are created in advance, idle, in
+ * the provider's JVM: the admission control keeps a pool of them large enough for
+ * <code>POOLED_APPLICATIONS</code> applications, so that admitting an application
+ * only binds idle components to its cores. The pool is filled when the admission
+ * control starts, and replenished after each admission by a task posted on the
+ * request lane, where the admissions also run, so that the pool is only ever
+ * accessed by one thread. When the pool is exhausted, the components are created
+ * upon admission.
+ * The free cores and the cores allocated to each application are kept in a
+ * <code>CoreInventory</code>, which places the cores of each virtual machine on
+ * a single cpu and the virtual machines of an application on distinct cpus when
+ * possible.
+ * The binding ports of the virtual machines and request dispatcher of each
+ * application are kept, so that when the application leaves, they are unbound
+ * from its cores, returned to the pool, and only then are its cores freed.
  *  
  * <p>Created on : december 2014</p>
  * 
@@ -68,11 +88,38 @@ public class AdmissionControl extends AbstractComponent {
 
 	/** count of request dispatchers instanciated				 			*/
 	protected int requestDispatcherCount ;
+
+	/** number of applications which virtual machines and request dispatcher
+	 *  are kept idle by the admission controls created hereafter, 0 to
+	 *  create them upon admission.											*/
+	public static int POOLED_APPLICATIONS = 2 ;
+	/** prefix uri of the binding inbound port of the idle vm				*/
+	protected static final String VM_BIP_PREFIX = "vm-bip-";
+	/** prefix uri of the binding outbound port to the idle vm				*/
+	protected static final String VM_BOP_PREFIX = "vm-bop-";
+	/** prefix uri of the binding inbound port of the idle dispatchers		*/
+	protected static final String RD_BIP_PREFIX = "rd-bip-";
+	/** prefix uri of the binding outbound port to the idle dispatchers		*/
+	protected static final String RD_BOP_PREFIX = "rd-bop-";
+	/** number of idle virtual machines kept in the pool					*/
+	protected final int vmPoolSize ;
+	/** number of idle request dispatchers kept in the pool					*/
+	protected final int rdPoolSize ;
+	/** binding ports to the idle virtual machines						*/
+	protected final ArrayDeque<VMBindingOutboundPort> idleVirtualMachines ;
+	/** binding ports to the idle request dispatchers						*/
+	protected final ArrayDeque<RDBindingOutboundPort> idleRequestDispatchers ;
+	/** true while a replenishment of the pool is posted or running			*/
+	protected boolean replenishing ;
+	/** binding ports to the virtual machines bound to each application,
+	 *  until they are unbound upon its release								*/
+	protected final HashMap<Integer,ArrayList<VMBindingOutboundPort>> boundVirtualMachines ;
+	/** binding port to the request dispatcher bound to each application,
+	 *  until it is unbound upon its release									*/
+	protected final HashMap<Integer,RDBindingOutboundPort> boundRequestDispatchers ;
 	
-	/** list of the uris of the core request arrival inbound port 			*/
-	protected List<String> coreRequestArrivalInboundPortUris;
-	/** list of the used uris of the core request arrival inbound port		*/
-	protected List<String> usedCoreRequestArrivalInboundPortUris;
+	/** free cores of the cpus and cores allocated to the applications		*/
+	protected final CoreInventory inventory;
 	
 	/** dynamic component creation outbound port to the provider's JVM		*/
 	protected DynamicComponentCreationOutboundPort portToProviderJVM;
@@ -153,13 +200,24 @@ public class AdmissionControl extends AbstractComponent {
 		
 		this.virtualMachineCount = 0;
 		this.requestDispatcherCount = 0;
+		this.vmPoolSize = POOLED_APPLICATIONS * nrofVMPerDispatcher ;
+		this.rdPoolSize = POOLED_APPLICATIONS ;
+		this.idleVirtualMachines = new ArrayDeque<VMBindingOutboundPort>() ;
+		this.idleRequestDispatchers = new ArrayDeque<RDBindingOutboundPort>() ;
+		this.replenishing = false ;
+		this.boundVirtualMachines = new HashMap<Integer, ArrayList<VMBindingOutboundPort>>() ;
+		this.boundRequestDispatchers = new HashMap<Integer, RDBindingOutboundPort>() ;
 		
-		this.coreRequestArrivalInboundPortUris = coreRequestArrivalInboundPortUris;
-		this.usedCoreRequestArrivalInboundPortUris = new ArrayList<>();
+		this.inventory = new CoreInventory(cpuRequestArrivalInboundPortUris);
+		assert this.inventory.getNrofFreeCores() ==
+								coreRequestArrivalInboundPortUris.size();
 		
 		// for the dynamic stuff below
 		this.addRequiredInterface(DynamicComponentCreationI.class) ;
 		this.addRequiredInterface(DynamicallyConnectableComponentI.class) ;
+		// for the binding of the idle virtual machines and dispatchers
+		this.addRequiredInterface(VMBindingI.class) ;
+		this.addRequiredInterface(RDBindingI.class) ;
 		
 		System.out.println(logId + " Admission control created");
 	}
@@ -185,98 +243,45 @@ public class AdmissionControl extends AbstractComponent {
 		System.out.println(logId + " Begin creation of application "
 				+ a.getUri());
 		
-		Integer requestDispatcherId = requestDispatcherCount++;
 		ArrayList<String> rdRequestGeneratorOutboundPortUris = new ArrayList<>();
 		for (int i = 0; i < nrofVMPerDispatcher; i++) {
-			rdRequestGeneratorOutboundPortUris.add(RD_RGOP_PREFIX + requestDispatcherId + i);
+			rdRequestGeneratorOutboundPortUris.add(RD_RGOP_PREFIX + a.getUri() + "-" + i);
 		}
 
 
+		// allocate the cores of all of the virtual machines at once
+		ArrayList<ArrayList<String>> vmCoreRequestArrivalInboundPortUrisList =
+				this.inventory.allocateApplication(
+						a.getUri(), nrofVMPerDispatcher, nrofCoresPerVM);
+		if (vmCoreRequestArrivalInboundPortUrisList == null) {
+			// TODO the case when we run out of free cores is not yet implemented
+			// returning the empty string as an uri will throw an exception when
+			// the request generator will try to connect to it.
+			System.err.println("The cluster ran out of available cores, sorry.");
+			return "";
+		}
+
 		ArrayList<String> vmRequestArrivalInboundPortUris = new ArrayList<>();
 		ArrayList<String> allCoeurapp = new ArrayList<>();
-
-		
+		// the ports of each virtual machine, bound once the application
+		// control exists
+		ArrayList<ArrayList<String>> vmRequestGeneratorOutboundPortUrisList = new ArrayList<>();
 		for (int i = 0; i < nrofVMPerDispatcher; i++) {
-
-			// build the vm
-			// FIXME select only available cores
-			// TODO select from cpu instead of cores
-			Integer virtualMachineId = virtualMachineCount++;
 			ArrayList<String> vmRequestGeneratorOutboundPortUris = new ArrayList<>();
-			ArrayList<String> assignedCoreRequestArrivalInboundPortUris = new ArrayList<>();
 			for (int j = 0; j < nrofCoresPerVM; j++) {
-				vmRequestGeneratorOutboundPortUris.add(VM_RGOP_PREFIX + virtualMachineId + j);
-				if(this.coreRequestArrivalInboundPortUris.size() <= 0){
-					// TODO we assume the number of cores available is always positive
-					// the case when we run out of free cores is not yet implemented
-					// returning the empty string as an uri will throw an exception when
-					// the request generator will try to connect to it.
-					System.err.println("The cluster ran out of available cores, sorry.");
-					return "";
-				}
-				//Coeur de diférence proc
-				String uri;
-				if(i % 2 == 0){
-					uri = this.coreRequestArrivalInboundPortUris.remove(0);
-				}else{
-					uri = this.coreRequestArrivalInboundPortUris.remove(coreRequestArrivalInboundPortUris.size()-1);
-				}
-				assignedCoreRequestArrivalInboundPortUris.add(uri);
-
-				this.usedCoreRequestArrivalInboundPortUris.add(uri);
+				vmRequestGeneratorOutboundPortUris.add(VM_RGOP_PREFIX + a.getUri() + "-" + i + "-" + j);
 			}
+			vmRequestGeneratorOutboundPortUrisList.add(vmRequestGeneratorOutboundPortUris);
 			//On prends tous les couers des  toutes les VM
-			allCoeurapp.addAll(assignedCoreRequestArrivalInboundPortUris);
-			
-			//On ajoute le liste VM / Coeur
-			appVMInboundPortUris.put(a.getUri()+"", assignedCoreRequestArrivalInboundPortUris);
-
-			this.portToProviderJVM.createComponent(
-					DynamicVM.class.getCanonicalName(),
-					new Object[]{ 
-						virtualMachineId, 
-						VM_RAIP_PREFIX + virtualMachineId, 
-						vmRequestGeneratorOutboundPortUris,
-						assignedCoreRequestArrivalInboundPortUris
-					}
-					);
-
-			vmRequestArrivalInboundPortUris.add(VM_RAIP_PREFIX + virtualMachineId);
-			// the connection between the cores and the vm are done in the constructor
-			// of the virtual machine
-
+			allCoeurapp.addAll(vmCoreRequestArrivalInboundPortUrisList.get(i));
 		}
 		
-		System.out.println(logId+ " l'App "+a.getUri()+" est lié avec les coeurs "+allCoeurapp + " et les VM "+vmRequestArrivalInboundPortUris);
-
-		//On ajoute les vm a une app
-		appVMInboundPortUris.put(a.getUri()+"", vmRequestArrivalInboundPortUris);
-
-		
 		//Liste des cpu/core aloué pour une app
-		HashMap<String,ArrayList<String>> cpuCoreDist = new HashMap<String, ArrayList<String>>();
-		for(int i = 0;i < allCoeurapp.size(); i++){
-			ArrayList<String> listCore = new ArrayList<String>();
-			String key = "cpu-craip-"+ allCoeurapp.get(i).split("-")[1]; 
-			
-			if(cpuCoreDist.containsKey(key)){
-				listCore = cpuCoreDist.get(key);
-				listCore.add(allCoeurapp.get(i));
-				cpuCoreDist.put(key, listCore );
-				
-				
-			}else{
-				listCore.add(allCoeurapp.get(i));
-				cpuCoreDist.put(key, listCore);
-				
-			}
-		}
+		HashMap<String,ArrayList<String>> cpuCoreDist = this.inventory.getCpuCores(a.getUri());
+		appCoreInboundPortUris.put(a.getUri()+"", allCoeurapp);
 		
-		
-		
-
-		
-		// build the request dispatcher
+		// build the application control, before the request dispatcher
+		// connecting to it
 		this.portToProviderJVM.createComponent(
 				ApplicationControl.class.getCanonicalName(),
 				new Object[]{ 
@@ -286,32 +291,250 @@ public class AdmissionControl extends AbstractComponent {
 					a.getPrio() //priorité de l'app
 				}
 				);
+
+		// bind idle virtual machines to the cores, keeping their binding
+		// ports to unbind them upon the release of the application
+		ArrayList<VMBindingOutboundPort> vmbops = new ArrayList<>();
+		for (int i = 0; i < nrofVMPerDispatcher; i++) {
+			VMBindingOutboundPort vmbop = this.takeIdleVirtualMachine();
+			vmRequestArrivalInboundPortUris.add(
+					vmbop.bindCores(
+						vmRequestGeneratorOutboundPortUrisList.get(i),
+						vmCoreRequestArrivalInboundPortUrisList.get(i)));
+			vmbops.add(vmbop);
+		}
+		this.boundVirtualMachines.put(a.getUri(), vmbops);
 		
-		
-		
-		// build the request dispatcher
-		this.portToProviderJVM.createComponent(
-				DynamicRequestDispatcher.class.getCanonicalName(),
-				new Object[]{ 
+		System.out.println(logId+ " l'App "+a.getUri()+" est lié avec les coeurs "+allCoeurapp + " et les VM "+vmRequestArrivalInboundPortUris);
+
+		//On ajoute les vm a une app
+		appVMInboundPortUris.put(a.getUri()+"", vmRequestArrivalInboundPortUris);
+
+		// bind an idle request dispatcher to the virtual machines
+		RDBindingOutboundPort rdbop = this.takeIdleRequestDispatcher();
+		String requestDispatcherUri =
+				rdbop.bindVirtualMachines(
 					a.getUri(),
-					RD_RAIP_PREFIX + requestDispatcherId,
 					rdRequestGeneratorOutboundPortUris,
 					vmRequestArrivalInboundPortUris,
 					a.getMeanNrofInstructions(),
 					a.getStandardDeviation()
-					}
-				);
-		
-	
+					);
+		this.boundRequestDispatchers.put(a.getUri(), rdbop);
 
-		
+		this.postReplenishment();
 
 		System.out
 				.println(logId + " End creation of application " + a.getUri());
 		System.out
-		.println(logId + " Deployed application " + a.getUri() + " is available from " + RD_RAIP_PREFIX + requestDispatcherId);
+		.println(logId + " Deployed application " + a.getUri() + " is available from " + requestDispatcherUri);
+
+		return requestDispatcherUri;
+	}
+
+	/**
+	 * release an application which leaves: unbind its request dispatcher,
+	 * then its virtual machines, return them to the pool and only then free
+	 * its cores; called through the offered interface
+	 * <code>ApplicationRequestArrivalI</code>, on the request lane.
+	 * The request generator of the application must have disconnected from
+	 * its request dispatcher.  A component still having requests in progress
+	 * refuses to be unbound, in which case the release stops there and the
+	 * cores stay allocated; a later release resumes with the components
+	 * still bound.  The application control of the application no longer
+	 * receives statistics once the request dispatcher is unbound.
+	 * 
+	 * @param applicationUri	uri of the application.
+	 * @return					true if the cores of the application have been freed.
+	 * @throws Exception
+	 */
+	boolean releaseApplication(Integer applicationUri) throws Exception {
+		ArrayList<VMBindingOutboundPort> vmbops =
+						this.boundVirtualMachines.get(applicationUri);
+		if (vmbops == null) {
+			return false;
+		}
+		// the dispatcher first, so that no request reaches the virtual
+		// machines anymore
+		RDBindingOutboundPort rdbop =
+						this.boundRequestDispatchers.get(applicationUri);
+		if (rdbop != null) {
+			if (!rdbop.unbindVirtualMachines()) {
+				return false;
+			}
+			this.boundRequestDispatchers.remove(applicationUri);
+			this.idleRequestDispatchers.add(rdbop);
+		}
+		while (!vmbops.isEmpty()) {
+			VMBindingOutboundPort vmbop = vmbops.get(vmbops.size() - 1);
+			if (!vmbop.unbindCores()) {
+				return false;
+			}
+			vmbops.remove(vmbops.size() - 1);
+			this.idleVirtualMachines.add(vmbop);
+		}
+		this.boundVirtualMachines.remove(applicationUri);
+		appCoreInboundPortUris.remove(applicationUri+"");
+		appVMInboundPortUris.remove(applicationUri+"");
+		System.out.println(logId + " Released application " + applicationUri);
+		return this.inventory.releaseApplication(applicationUri);
+	}
+
+	/**
+	 * return the binding port of an idle virtual machine, taken from the
+	 * pool or created at once if the pool is exhausted.
+	 * 
+	 * @return	a binding port connected to an idle virtual machine.
+	 * @throws Exception
+	 */
+	protected VMBindingOutboundPort takeIdleVirtualMachine() throws Exception
+	{
+		if (!this.idleVirtualMachines.isEmpty()) {
+			return this.idleVirtualMachines.poll();
+		}
+		ArrayList<VMBindingOutboundPort> vms = new ArrayList<>();
+		this.createIdleComponents(1, 0, vms, new ArrayList<RDBindingOutboundPort>());
+		return vms.get(0);
+	}
+
+	/**
+	 * return the binding port of an idle request dispatcher, taken from the
+	 * pool or created at once if the pool is exhausted.
+	 * 
+	 * @return	a binding port connected to an idle request dispatcher.
+	 * @throws Exception
+	 */
+	protected RDBindingOutboundPort takeIdleRequestDispatcher() throws Exception
+	{
+		if (!this.idleRequestDispatchers.isEmpty()) {
+			return this.idleRequestDispatchers.poll();
+		}
+		ArrayList<RDBindingOutboundPort> rds = new ArrayList<>();
+		this.createIdleComponents(0, 1, new ArrayList<VMBindingOutboundPort>(), rds);
+		return rds.get(0);
+	}
 
-		return RD_RAIP_PREFIX + requestDispatcherId;
+	/**
+	 * create idle virtual machines and request dispatchers in the provider's
+	 * JVM, in one call, and connect a binding port to each of them.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	nrofVMs >= 0 && nrofRDs >= 0
+	 * post	vms.size() == nrofVMs && rds.size() == nrofRDs
+	 * </pre>
+	 *
+	 * @param nrofVMs	number of virtual machines to be created.
+	 * @param nrofRDs	number of request dispatchers to be created.
+	 * @param vms		list receiving the binding ports to the virtual machines.
+	 * @param rds		list receiving the binding ports to the request dispatchers.
+	 * @throws Exception
+	 */
+	protected void		createIdleComponents(
+		int nrofVMs,
+		int nrofRDs,
+		List<VMBindingOutboundPort> vms,
+		List<RDBindingOutboundPort> rds
+		) throws Exception
+	{
+		assert nrofVMs >= 0 && nrofRDs >= 0;
+
+		Integer[] ids = new Integer[nrofVMs + nrofRDs];
+		for (int i = 0; i < nrofVMs; i++) {
+			ids[i] = this.virtualMachineCount++;
+		}
+		for (int i = nrofVMs; i < ids.length; i++) {
+			ids[i] = this.requestDispatcherCount++;
+		}
+		String[] classnames = new String[ids.length];
+		Object[][] constructorParams = new Object[ids.length][];
+		for (int i = 0; i < nrofVMs; i++) {
+			classnames[i] = DynamicVM.class.getCanonicalName();
+			constructorParams[i] = new Object[]{ 
+						ids[i],
+						VM_RAIP_PREFIX + ids[i],
+						VM_BIP_PREFIX + ids[i]
+					};
+		}
+		for (int i = nrofVMs; i < ids.length; i++) {
+			classnames[i] = DynamicRequestDispatcher.class.getCanonicalName();
+			constructorParams[i] = new Object[]{ 
+						ids[i],
+						RD_RAIP_PREFIX + ids[i],
+						RD_BIP_PREFIX + ids[i]
+					};
+		}
+		this.portToProviderJVM.createComponents(classnames, constructorParams);
+
+		// the binding ports are only used by the admission control, hence
+		// they are published locally, as the port to the provider's JVM
+		for (int i = 0; i < nrofVMs; i++) {
+			VMBindingOutboundPort vmbop =
+					new VMBindingOutboundPort(VM_BOP_PREFIX + ids[i], this);
+			this.addPort(vmbop);
+			vmbop.localPublishPort();
+			vmbop.doConnection(VM_BIP_PREFIX + ids[i],
+					VMBindingConnector.class.getCanonicalName());
+			vms.add(vmbop);
+		}
+		for (int i = nrofVMs; i < ids.length; i++) {
+			RDBindingOutboundPort rdbop =
+					new RDBindingOutboundPort(RD_BOP_PREFIX + ids[i], this);
+			this.addPort(rdbop);
+			rdbop.localPublishPort();
+			rdbop.doConnection(RD_BIP_PREFIX + ids[i],
+					RDBindingConnector.class.getCanonicalName());
+			rds.add(rdbop);
+		}
+	}
+
+	/**
+	 * create the idle virtual machines and request dispatchers missing in
+	 * the pool; runs on the request lane, like the admissions.
+	 * 
+	 * @throws Exception
+	 */
+	protected void		replenishPool() throws Exception
+	{
+		int nrofVMs = Math.max(0, this.vmPoolSize - this.idleVirtualMachines.size());
+		int nrofRDs = Math.max(0, this.rdPoolSize - this.idleRequestDispatchers.size());
+		if (nrofVMs + nrofRDs == 0) {
+			return;
+		}
+		ArrayList<VMBindingOutboundPort> vms = new ArrayList<>();
+		ArrayList<RDBindingOutboundPort> rds = new ArrayList<>();
+		this.createIdleComponents(nrofVMs, nrofRDs, vms, rds);
+		this.idleVirtualMachines.addAll(vms);
+		this.idleRequestDispatchers.addAll(rds);
+		System.out.println(logId + " Pool replenished with " + nrofVMs
+				+ " virtual machines and " + nrofRDs + " request dispatchers");
+	}
+
+	/**
+	 * post the replenishment of the pool on the request lane, after the
+	 * admission in progress, unless one is already posted or running;
+	 * called on the request lane.
+	 */
+	protected void		postReplenishment()
+	{
+		if (this.vmPoolSize + this.rdPoolSize > 0 && !this.replenishing) {
+			this.replenishing = true ;
+			final AdmissionControl ac = this ;
+			this.runTask(
+					new ComponentTask() {
+						@Override
+						public void run() {
+							try {
+								ac.replenishPool() ;
+							} catch (Exception e) {
+								e.printStackTrace() ;
+							} finally {
+								ac.replenishing = false ;
+							}
+						}
+					}) ;
+		}
 	}
 
 	/**
@@ -338,6 +561,21 @@ public class AdmissionControl extends AbstractComponent {
 
 		super.start() ;
 		
+		// fill the pool on the request lane, before any admission can run
+		final AdmissionControl ac = this ;
+		try {
+			this.handleRequestSync(
+					new ComponentService<Void>() {
+						@Override
+						public Void call() throws Exception {
+							ac.replenishPool() ;
+							return null ;
+						}
+					}) ;
+		} catch (Exception e) {
+			e.printStackTrace() ;
+			throw new ComponentStartException() ;
+		}
 	}
 	
 	
@@ -348,16 +586,19 @@ public class AdmissionControl extends AbstractComponent {
 		}
 		
 		
-		for(int i = 0; i< nrofCores/nbCore;i++)
+		int n = (int) (nrofCores/nbCore);
+		String[] classnames = new String[n];
+		Object[][] constructorParams = new Object[n][];
+		for(int i = 0; i< n;i++) {
 			//FULL HACK
-			this.portToProviderJVM.createComponent(
-					CooridationCoreInCPU.class.getCanonicalName(),
-					new Object[]{ 
+			classnames[i] = CooridationCoreInCPU.class.getCanonicalName();
+			constructorParams[i] = new Object[]{ 
 						i, 
 						coreFre, //HACK
 						"cpu-craip-"+i //HACK
-					}
-					);
+					};
+		}
+		this.portToProviderJVM.createComponents(classnames, constructorParams);
 	}
 
 
@@ -373,6 +614,30 @@ public class AdmissionControl extends AbstractComponent {
 			if (this.portToProviderJVM.connected()) {
 				this.portToProviderJVM.doDisconnection() ;
 			}
+			for (VMBindingOutboundPort vmbop : this.idleVirtualMachines) {
+				if (vmbop.connected()) {
+					vmbop.doDisconnection() ;
+				}
+			}
+			for (RDBindingOutboundPort rdbop : this.idleRequestDispatchers) {
+				if (rdbop.connected()) {
+					rdbop.doDisconnection() ;
+				}
+			}
+			for (ArrayList<VMBindingOutboundPort> vmbops :
+									this.boundVirtualMachines.values()) {
+				for (VMBindingOutboundPort vmbop : vmbops) {
+					if (vmbop.connected()) {
+						vmbop.doDisconnection() ;
+					}
+				}
+			}
+			for (RDBindingOutboundPort rdbop :
+									this.boundRequestDispatchers.values()) {
+				if (rdbop.connected()) {
+					rdbop.doDisconnection() ;
+				}
+			}
 		} catch (Exception e) {
 			throw new ComponentShutdownException() ;
 		}		
@@ -9,8 +9,10 @@ import fr.upmc.components.interfaces.TwoWayI;
  *
  * <p><strong>Description</strong></p>
  * 
- * The interface can be both required and offered, and it has only one method
- * <code>acceptApplication</code> passing a Application object as parameter.
+ * The interface can be both required and offered, and it has two methods:
+ * <code>acceptApplication</code> passing a Application object as parameter,
+ * and <code>releaseApplication</code> giving back the cores of an application
+ * which leaves.
  * 
  * <p>Created on : december 2014</p>
  * 
@@ -35,5 +37,27 @@ extends		TwoWayI
 	 * @return uri of the service provider for the application	
 	 */
 	String			acceptApplication(Application a) throws Exception ;
+
+	/**
+	 * release an application which leaves, whose request generator has
+	 * disconnected from its request dispatcher: its request dispatcher and
+	 * virtual machines are unbound and returned to the pool of idle
+	 * components, and then its cores are freed, so that they can be
+	 * allocated to the applications admitted hereafter.  The release is
+	 * refused while the components still have requests in progress, and
+	 * may be retried later.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	applicationUri != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param applicationUri	uri of the application.
+	 * @throws Exception
+	 * @return true if the cores of the application have been freed, false if it is not admitted or still has requests in progress.
+	 */
+	boolean			releaseApplication(Integer applicationUri) throws Exception ;
 	
 }
@@ -2,6 +2,7 @@ package fr.upmc.colins.farm3.admission;
 
 import fr.upmc.colins.farm3.objects.Application;
 import fr.upmc.components.ComponentI;
+import fr.upmc.components.ComponentI.ComponentService;
 import fr.upmc.components.ports.AbstractInboundPort;
 
 /**
@@ -12,7 +13,8 @@ import fr.upmc.components.ports.AbstractInboundPort;
  * 
  * The port implements the <code>ApplicationRequestArrivalI</code> interface as offered
  * and upon a call, passes it to the owner component that must also implement
- * the method <code>acceptApplication</code>.
+ * the methods <code>acceptApplication</code> and
+ * <code>releaseApplication</code>.
  * 
  * <p>Created on : december 2015</p>
  * 
@@ -34,7 +36,27 @@ public class ApplicationRequestArrivalInboundPort extends AbstractInboundPort
 
 	@Override
 	public String acceptApplication(Application a) throws Exception {
-		AdmissionControl c = (AdmissionControl) this.owner;
-		return c.acceptApplication(a);
+		final AdmissionControl c = (AdmissionControl) this.owner;
+		final Application fa = a;
+		// the admissions run on the request lane, with the replenishment
+		// of the pool of idle components
+		return c.handleRequestSync(new ComponentService<String>() {
+			@Override
+			public String call() throws Exception {
+				return c.acceptApplication(fa);
+			}
+		});
+	}
+
+	@Override
+	public boolean releaseApplication(Integer applicationUri) throws Exception {
+		final AdmissionControl c = (AdmissionControl) this.owner;
+		final Integer fapplicationUri = applicationUri;
+		return c.handleRequestSync(new ComponentService<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return c.releaseApplication(fapplicationUri);
+			}
+		});
 	}
 }
@@ -0,0 +1,361 @@
+package fr.upmc.colins.farm3.admission;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The class <code>CoreInventory</code> keeps track of the cores of the cpus
+ * which are free and of the cores allocated to each application.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The cpus and their cores are numbered when the inventory is created, and
+ * the inventory only handles these numbers afterwards: the free cores of
+ * each cpu are the bits of a <code>BitSet</code>, and the uris of the ports
+ * of the cores are looked up in an array.  The cpus are also linked in
+ * buckets by number of free cores, so that the cpu with the most free cores
+ * is found without scanning all of the cpus, and allocating or releasing a
+ * core takes constant time whatever the number of cpus.
+ *
+ * The cores of a virtual machine are taken on a single cpu when one has
+ * enough free cores, and the virtual machines of an application are placed
+ * on distinct cpus when possible, always choosing the cpu with the most
+ * free cores.  An application is allocated all of its cores or none, and
+ * its allocation is recorded under its uri until it is released.
+ *
+ * The inventory is thread-safe.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	nrofFreeCores == sum of freeCounts
+ * invariant	freeCounts[c] == freeCores[c].cardinality()
+ * invariant	c is in the bucket freeCounts[c]
+ * </pre>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			CoreInventory
+{
+	/**
+	 * The class <code>Allocation</code> records the cores allocated to an
+	 * application, as the numbers of their cpus and of the cores in them.
+	 */
+	protected static class	Allocation
+	{
+		/** cpu of each core of the application.							*/
+		protected final int[]		cpus ;
+		/** number of each core of the application in its cpu.				*/
+		protected final int[]		cores ;
+
+		protected			Allocation(int nrofCores)
+		{
+			this.cpus = new int[nrofCores] ;
+			this.cores = new int[nrofCores] ;
+		}
+	}
+
+	/** uri of the control port of each cpu.								*/
+	protected final String[]		cpuUris ;
+	/** uri of the request arrival port of each core of each cpu.			*/
+	protected final String[][]		coreUris ;
+	/** free cores of each cpu.												*/
+	protected final BitSet[]		freeCores ;
+	/** number of free cores of each cpu.									*/
+	protected final int[]			freeCounts ;
+	/** total number of free cores.											*/
+	protected int					nrofFreeCores ;
+
+	/** first cpu of the bucket of each number of free cores, -1 if none.	*/
+	protected final int[]			bucketHeads ;
+	/** next cpu in the bucket of each cpu, -1 if last.						*/
+	protected final int[]			nextInBucket ;
+	/** previous cpu in the bucket of each cpu, -1 if first.				*/
+	protected final int[]			previousInBucket ;
+	/** greatest number of free cores of a cpu.								*/
+	protected int					maxFreeCount ;
+
+	/** stamp of each cpu, marking the cpus used by the current allocation.	*/
+	protected final int[]			stamps ;
+	/** stamp of the current allocation.									*/
+	protected int					currentStamp ;
+
+	/** allocations of the applications, by uri of application.				*/
+	protected final HashMap<Integer,Allocation>	allocations ;
+
+	/**
+	 * create an inventory where all of the cores are free.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	cpuCoreUris != null
+	 * post	this.getNrofFreeCores() == total number of cores
+	 * </pre>
+	 *
+	 * @param cpuCoreUris	uris of the request arrival ports of the cores, by uri of the control port of their cpu.
+	 */
+	public				CoreInventory(
+		Map<String,? extends List<String>> cpuCoreUris
+		)
+	{
+		assert	cpuCoreUris != null ;
+
+		// number the cpus in the order of their uris
+		TreeMap<String,List<String>> sorted =
+									new TreeMap<String,List<String>>(cpuCoreUris) ;
+		int nrofCpus = sorted.size() ;
+		this.cpuUris = new String[nrofCpus] ;
+		this.coreUris = new String[nrofCpus][] ;
+		this.freeCores = new BitSet[nrofCpus] ;
+		this.freeCounts = new int[nrofCpus] ;
+		this.nextInBucket = new int[nrofCpus] ;
+		this.previousInBucket = new int[nrofCpus] ;
+		this.stamps = new int[nrofCpus] ;
+		int maxCores = 0 ;
+		int c = 0 ;
+		for (Map.Entry<String,List<String>> e : sorted.entrySet()) {
+			this.cpuUris[c] = e.getKey() ;
+			this.coreUris[c] =
+					e.getValue().toArray(new String[e.getValue().size()]) ;
+			maxCores = Math.max(maxCores, this.coreUris[c].length) ;
+			c++ ;
+		}
+		this.bucketHeads = new int[maxCores + 1] ;
+		for (int k = 0 ; k <= maxCores ; k++) {
+			this.bucketHeads[k] = -1 ;
+		}
+		this.nrofFreeCores = 0 ;
+		this.maxFreeCount = 0 ;
+		for (c = 0 ; c < nrofCpus ; c++) {
+			int n = this.coreUris[c].length ;
+			this.freeCores[c] = new BitSet(n) ;
+			this.freeCores[c].set(0, n) ;
+			this.freeCounts[c] = n ;
+			this.nrofFreeCores += n ;
+			this.linkInBucket(c, n) ;
+		}
+		this.currentStamp = 0 ;
+		this.allocations = new HashMap<Integer,Allocation>() ;
+	}
+
+	// -------------------------------------------------------------------------
+	// Buckets of cpus by number of free cores
+	// -------------------------------------------------------------------------
+
+	protected void		linkInBucket(int cpu, int freeCount)
+	{
+		this.previousInBucket[cpu] = -1 ;
+		this.nextInBucket[cpu] = this.bucketHeads[freeCount] ;
+		if (this.bucketHeads[freeCount] != -1) {
+			this.previousInBucket[this.bucketHeads[freeCount]] = cpu ;
+		}
+		this.bucketHeads[freeCount] = cpu ;
+		if (freeCount > this.maxFreeCount) {
+			this.maxFreeCount = freeCount ;
+		}
+	}
+
+	protected void		unlinkFromBucket(int cpu, int freeCount)
+	{
+		if (this.previousInBucket[cpu] != -1) {
+			this.nextInBucket[this.previousInBucket[cpu]] =
+												this.nextInBucket[cpu] ;
+		} else {
+			this.bucketHeads[freeCount] = this.nextInBucket[cpu] ;
+		}
+		if (this.nextInBucket[cpu] != -1) {
+			this.previousInBucket[this.nextInBucket[cpu]] =
+												this.previousInBucket[cpu] ;
+		}
+		while (this.maxFreeCount > 0 &&
+								this.bucketHeads[this.maxFreeCount] == -1) {
+			this.maxFreeCount-- ;
+		}
+	}
+
+	/**
+	 * mark a core as allocated.
+	 *
+	 * @param cpu	number of the cpu.
+	 * @param core	number of the core in the cpu.
+	 */
+	protected void		take(int cpu, int core)
+	{
+		assert	this.freeCores[cpu].get(core) ;
+
+		this.freeCores[cpu].clear(core) ;
+		this.unlinkFromBucket(cpu, this.freeCounts[cpu]) ;
+		this.freeCounts[cpu]-- ;
+		this.linkInBucket(cpu, this.freeCounts[cpu]) ;
+		this.nrofFreeCores-- ;
+	}
+
+	/**
+	 * mark a core as free.
+	 *
+	 * @param cpu	number of the cpu.
+	 * @param core	number of the core in the cpu.
+	 */
+	protected void		free(int cpu, int core)
+	{
+		assert	!this.freeCores[cpu].get(core) ;
+
+		this.freeCores[cpu].set(core) ;
+		this.unlinkFromBucket(cpu, this.freeCounts[cpu]) ;
+		this.freeCounts[cpu]++ ;
+		this.linkInBucket(cpu, this.freeCounts[cpu]) ;
+		this.nrofFreeCores++ ;
+	}
+
+	/**
+	 * return the cpu with the most free cores among the ones not yet used by
+	 * the current allocation, or among all of them if they are all used.
+	 *
+	 * @return	the number of the cpu, -1 if no core is free.
+	 */
+	protected int		selectCpu()
+	{
+		for (int k = this.maxFreeCount ; k > 0 ; k--) {
+			for (int c = this.bucketHeads[k] ; c != -1 ;
+												c = this.nextInBucket[c]) {
+				if (this.stamps[c] != this.currentStamp) {
+					return c ;
+				}
+			}
+		}
+		return this.maxFreeCount > 0 ?
+							this.bucketHeads[this.maxFreeCount] : -1 ;
+	}
+
+	// -------------------------------------------------------------------------
+	// Allocation services
+	// -------------------------------------------------------------------------
+
+	/**
+	 * return the total number of free cores.
+	 *
+	 * @return	the total number of free cores.
+	 */
+	public synchronized int		getNrofFreeCores()
+	{
+		return this.nrofFreeCores ;
+	}
+
+	/**
+	 * allocate the cores of the virtual machines of an application, all or
+	 * none of them.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	applicationUri is not allocated
+	 * pre	nrofVMs > 0 && nrofCoresPerVM > 0
+	 * post	ret == null || ret.size() == nrofVMs
+	 * </pre>
+	 *
+	 * @param applicationUri	uri of the application.
+	 * @param nrofVMs			number of virtual machines of the application.
+	 * @param nrofCoresPerVM	number of cores of each virtual machine.
+	 * @return					the uris of the request arrival ports of the cores of each virtual machine, or null if there are not enough free cores.
+	 */
+	public synchronized ArrayList<ArrayList<String>>	allocateApplication(
+		int applicationUri,
+		int nrofVMs,
+		int nrofCoresPerVM
+		)
+	{
+		assert	!this.allocations.containsKey(applicationUri) ;
+		assert	nrofVMs > 0 && nrofCoresPerVM > 0 ;
+
+		if (this.nrofFreeCores < nrofVMs * nrofCoresPerVM) {
+			return null ;
+		}
+		Allocation a = new Allocation(nrofVMs * nrofCoresPerVM) ;
+		ArrayList<ArrayList<String>> ret =
+									new ArrayList<ArrayList<String>>(nrofVMs) ;
+		this.currentStamp++ ;
+		int allocated = 0 ;
+		for (int vm = 0 ; vm < nrofVMs ; vm++) {
+			ArrayList<String> vmCores = new ArrayList<String>(nrofCoresPerVM) ;
+			int cpu = this.selectCpu() ;
+			this.stamps[cpu] = this.currentStamp ;
+			while (vmCores.size() < nrofCoresPerVM) {
+				if (this.freeCounts[cpu] == 0) {
+					// the cpu is full, go on with the next one
+					cpu = this.selectCpu() ;
+					this.stamps[cpu] = this.currentStamp ;
+				}
+				int core = this.freeCores[cpu].nextSetBit(0) ;
+				this.take(cpu, core) ;
+				a.cpus[allocated] = cpu ;
+				a.cores[allocated] = core ;
+				allocated++ ;
+				vmCores.add(this.coreUris[cpu][core]) ;
+			}
+			ret.add(vmCores) ;
+		}
+		this.allocations.put(applicationUri, a) ;
+		return ret ;
+	}
+
+	/**
+	 * return the uris of the request arrival ports of the cores allocated to
+	 * an application, by uri of the control port of their cpu.
+	 *
+	 * @param applicationUri	uri of the application.
+	 * @return					the cores of the application by cpu, or null if it is not allocated.
+	 */
+	public synchronized HashMap<String,ArrayList<String>>	getCpuCores(
+		int applicationUri
+		)
+	{
+		Allocation a = this.allocations.get(applicationUri) ;
+		if (a == null) {
+			return null ;
+		}
+		HashMap<String,ArrayList<String>> ret =
+								new HashMap<String,ArrayList<String>>() ;
+		for (int i = 0 ; i < a.cpus.length ; i++) {
+			ArrayList<String> cores = ret.get(this.cpuUris[a.cpus[i]]) ;
+			if (cores == null) {
+				cores = new ArrayList<String>() ;
+				ret.put(this.cpuUris[a.cpus[i]], cores) ;
+			}
+			cores.add(this.coreUris[a.cpus[i]][a.cores[i]]) ;
+		}
+		return ret ;
+	}
+
+	/**
+	 * free the cores allocated to an application which leaves.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	applicationUri is not allocated
+	 * </pre>
+	 *
+	 * @param applicationUri	uri of the application.
+	 * @return					true if the application was allocated cores.
+	 */
+	public synchronized boolean	releaseApplication(int applicationUri)
+	{
+		Allocation a = this.allocations.remove(applicationUri) ;
+		if (a == null) {
+			return false ;
+		}
+		for (int i = 0 ; i < a.cpus.length ; i++) {
+			this.free(a.cpus[i], a.cores[i]) ;
+		}
+		return true ;
+	}
+}
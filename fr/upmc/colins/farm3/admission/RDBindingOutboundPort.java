@@ -0,0 +1,87 @@
+package fr.upmc.colins.farm3.admission;
+
+import java.util.ArrayList;
+
+import fr.upmc.colins.farm3.dispatcher.RDBindingI;
+import fr.upmc.components.ComponentI;
+import fr.upmc.components.ports.AbstractOutboundPort;
+
+/**
+ * The class <code>RDBindingOutboundPort</code> implements the outbound port
+ * through which the admission control binds an idle request dispatcher to
+ * an application.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The port implements the <code>RDBindingI</code> interface as required and
+ * upon a call, passes it to the connector that must also implement the same
+ * interface.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	true
+ * </pre>
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			RDBindingOutboundPort
+extends		AbstractOutboundPort
+implements	RDBindingI
+{
+	/**
+	 * create the port with its URI and owner component.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	uri != null && owner != null
+	 * pre	owner.isRequiredInterface(RDBindingI.class)
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param uri
+	 * @param owner
+	 * @throws Exception
+	 */
+	public				RDBindingOutboundPort(
+		String uri,
+		ComponentI owner
+		) throws Exception
+	{
+		super(uri, RDBindingI.class, owner) ;
+
+		assert	uri != null ;
+		assert	owner.isRequiredInterface(RDBindingI.class) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.dispatcher.RDBindingI#bindVirtualMachines(java.lang.Integer, java.util.ArrayList, java.util.ArrayList, java.lang.Double, java.lang.Double)
+	 */
+	@Override
+	public String		bindVirtualMachines(
+		Integer applicationUri,
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> vmRequestArrivalInboundPortUris,
+		Double meanNrofInstructions,
+		Double standardDeviation
+		) throws Exception
+	{
+		return ((RDBindingI)this.connector).bindVirtualMachines(
+							applicationUri, outboundPortURIs,
+							vmRequestArrivalInboundPortUris,
+							meanNrofInstructions, standardDeviation) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.dispatcher.RDBindingI#unbindVirtualMachines()
+	 */
+	@Override
+	public boolean		unbindVirtualMachines() throws Exception
+	{
+		return ((RDBindingI)this.connector).unbindVirtualMachines() ;
+	}
+}
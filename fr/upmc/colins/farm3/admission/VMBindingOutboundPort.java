@@ -0,0 +1,82 @@
+package fr.upmc.colins.farm3.admission;
+
+import java.util.ArrayList;
+
+import fr.upmc.colins.farm3.vm.VMBindingI;
+import fr.upmc.components.ComponentI;
+import fr.upmc.components.ports.AbstractOutboundPort;
+
+/**
+ * The class <code>VMBindingOutboundPort</code> implements the outbound port
+ * through which the admission control binds an idle virtual machine to the
+ * cores of an application.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The port implements the <code>VMBindingI</code> interface as required and
+ * upon a call, passes it to the connector that must also implement the same
+ * interface.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	true
+ * </pre>
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			VMBindingOutboundPort
+extends		AbstractOutboundPort
+implements	VMBindingI
+{
+	/**
+	 * create the port with its URI and owner component.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	uri != null && owner != null
+	 * pre	owner.isRequiredInterface(VMBindingI.class)
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param uri
+	 * @param owner
+	 * @throws Exception
+	 */
+	public				VMBindingOutboundPort(
+		String uri,
+		ComponentI owner
+		) throws Exception
+	{
+		super(uri, VMBindingI.class, owner) ;
+
+		assert	uri != null ;
+		assert	owner.isRequiredInterface(VMBindingI.class) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.vm.VMBindingI#bindCores(java.util.ArrayList, java.util.ArrayList)
+	 */
+	@Override
+	public String		bindCores(
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> coreRequestArrivalInboundPortUris
+		) throws Exception
+	{
+		return ((VMBindingI)this.connector).bindCores(
+							outboundPortURIs, coreRequestArrivalInboundPortUris) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.vm.VMBindingI#unbindCores()
+	 */
+	@Override
+	public boolean		unbindCores() throws Exception
+	{
+		return ((VMBindingI)this.connector).unbindCores() ;
+	}
+}
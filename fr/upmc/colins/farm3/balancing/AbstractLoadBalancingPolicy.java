@@ -0,0 +1,145 @@
+package fr.upmc.colins.farm3.balancing;
+
+/**
+ * The class <code>AbstractLoadBalancingPolicy</code> implements the load
+ * information shared by the load balancing policies.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * For each target, the policy maintains the number of outstanding requests,
+ * i.e. sent and not yet completed, the last queue length and clock speed
+ * reported by the target, and the number of requests sent to the target
+ * since its last report.  Subclasses only have to implement
+ * <code>select</code>.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	outstanding.length == queueLengths.length
+ * invariant	outstanding.length == clockSpeeds.length
+ * invariant	outstanding.length == sinceReport.length
+ * </pre>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public abstract class	AbstractLoadBalancingPolicy
+implements	LoadBalancingPolicyI
+{
+	/** number of requests sent to each target and not yet completed.		*/
+	protected final long[]		outstanding ;
+	/** last queue length reported by each target.							*/
+	protected final int[]		queueLengths ;
+	/** last clock speed reported by each target.							*/
+	protected final double[]	clockSpeeds ;
+	/** number of requests sent to each target since its last report.		*/
+	protected final int[]		sinceReport ;
+
+	/**
+	 * create a policy for <code>nrofTargets</code> targets, all of them
+	 * idle with a unit clock speed until they report their load.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	nrofTargets > 0
+	 * post	getNumberOfTargets() == nrofTargets
+	 * </pre>
+	 *
+	 * @param nrofTargets	number of targets.
+	 */
+	public				AbstractLoadBalancingPolicy(int nrofTargets)
+	{
+		super() ;
+
+		assert	nrofTargets > 0 ;
+
+		this.outstanding = new long[nrofTargets] ;
+		this.queueLengths = new int[nrofTargets] ;
+		this.clockSpeeds = new double[nrofTargets] ;
+		this.sinceReport = new int[nrofTargets] ;
+		for (int i = 0 ; i < nrofTargets ; i++) {
+			this.clockSpeeds[i] = 1.0 ;
+		}
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#getNumberOfTargets()
+	 */
+	@Override
+	public int			getNumberOfTargets()
+	{
+		return this.outstanding.length ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#dispatched(int)
+	 */
+	@Override
+	public void			dispatched(int target)
+	{
+		this.outstanding[target]++ ;
+		this.sinceReport[target]++ ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#completed(int, long)
+	 */
+	@Override
+	public void			completed(int target, long count)
+	{
+		assert	count > 0 ;
+
+		this.outstanding[target] = Math.max(0L, this.outstanding[target] - count) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#reportLoad(int, int, double)
+	 */
+	@Override
+	public void			reportLoad(int target, int queueLength, double clockSpeed)
+	{
+		assert	queueLength >= 0 && clockSpeed > 0.0 ;
+
+		this.queueLengths[target] = queueLength ;
+		this.clockSpeeds[target] = clockSpeed ;
+		this.sinceReport[target] = 0 ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#getOutstanding(int)
+	 */
+	@Override
+	public long			getOutstanding(int target)
+	{
+		return this.outstanding[target] ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#getTotalOutstanding()
+	 */
+	@Override
+	public long			getTotalOutstanding()
+	{
+		long total = 0L ;
+		for (int i = 0 ; i < this.outstanding.length ; i++) {
+			total += this.outstanding[i] ;
+		}
+		return total ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#getTotalClockSpeed()
+	 */
+	@Override
+	public double		getTotalClockSpeed()
+	{
+		double total = 0.0 ;
+		for (int i = 0 ; i < this.clockSpeeds.length ; i++) {
+			total += this.clockSpeeds[i] ;
+		}
+		return total ;
+	}
+}
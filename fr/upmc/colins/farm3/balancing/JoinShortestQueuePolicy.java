@@ -0,0 +1,64 @@
+package fr.upmc.colins.farm3.balancing;
+
+/**
+ * The class <code>JoinShortestQueuePolicy</code> implements the load balancing
+ * policy sending each request to the target having the shortest queue.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The queue length of a target is estimated as the length it reported in
+ * its last response plus the number of requests sent to it since then.  Ties
+ * are broken in round robin.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			JoinShortestQueuePolicy
+extends		AbstractLoadBalancingPolicy
+{
+	/** index of the target from which the next search starts.				*/
+	protected int		start ;
+
+	/**
+	 * create a join the shortest queue policy.
+	 *
+	 * @param nrofTargets	number of targets.
+	 */
+	public				JoinShortestQueuePolicy(int nrofTargets)
+	{
+		super(nrofTargets) ;
+		this.start = 0 ;
+	}
+
+	/**
+	 * @param target	index of a target.
+	 * @return			the estimated queue length of the target.
+	 */
+	protected int		estimatedQueueLength(int target)
+	{
+		return this.queueLengths[target] + this.sinceReport[target] ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#select()
+	 */
+	@Override
+	public int			select()
+	{
+		int n = this.getNumberOfTargets() ;
+		int target = this.start ;
+		int shortest = this.estimatedQueueLength(target) ;
+		for (int k = 1 ; k < n ; k++) {
+			int i = (this.start + k) % n ;
+			int length = this.estimatedQueueLength(i) ;
+			if (length < shortest) {
+				target = i ;
+				shortest = length ;
+			}
+		}
+		this.start = (this.start + 1) % n ;
+		return target ;
+	}
+}
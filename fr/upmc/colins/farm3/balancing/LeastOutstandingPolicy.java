@@ -0,0 +1,51 @@
+package fr.upmc.colins.farm3.balancing;
+
+/**
+ * The class <code>LeastOutstandingPolicy</code> implements the load balancing
+ * policy sending each request to the target having the least outstanding
+ * requests, i.e. sent and not yet completed.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * Ties are broken in round robin, so that idle targets share the load.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			LeastOutstandingPolicy
+extends		AbstractLoadBalancingPolicy
+{
+	/** index of the target from which the next search starts.				*/
+	protected int		start ;
+
+	/**
+	 * create a least outstanding requests policy.
+	 *
+	 * @param nrofTargets	number of targets.
+	 */
+	public				LeastOutstandingPolicy(int nrofTargets)
+	{
+		super(nrofTargets) ;
+		this.start = 0 ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#select()
+	 */
+	@Override
+	public int			select()
+	{
+		int n = this.getNumberOfTargets() ;
+		int target = this.start ;
+		for (int k = 1 ; k < n ; k++) {
+			int i = (this.start + k) % n ;
+			if (this.outstanding[i] < this.outstanding[target]) {
+				target = i ;
+			}
+		}
+		this.start = (this.start + 1) % n ;
+		return target ;
+	}
+}
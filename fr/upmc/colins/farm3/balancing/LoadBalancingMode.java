@@ -0,0 +1,59 @@
+package fr.upmc.colins.farm3.balancing;
+
+/**
+ * The enumeration <code>LoadBalancingMode</code> defines the load balancing
+ * policies that can be selected for the request dispatchers and the virtual
+ * machines.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * Each mode creates a new policy for a given number of targets, as each
+ * component needs its own policy.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public enum				LoadBalancingMode
+{
+	/** send the requests to the targets in turn.							*/
+	ROUND_ROBIN,
+	/** send each request to the target with the least outstanding ones.	*/
+	LEAST_OUTSTANDING,
+	/** send each request to the target with the shortest queue.			*/
+	JOIN_SHORTEST_QUEUE,
+	/** send each request to the least loaded of two random targets.		*/
+	POWER_OF_TWO_CHOICES,
+	/** send each request to the target which would complete it first.		*/
+	SPEED_WEIGHTED ;
+
+	/**
+	 * create a policy of this mode.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	nrofTargets > 0
+	 * post	ret != null && ret.getNumberOfTargets() == nrofTargets
+	 * </pre>
+	 *
+	 * @param nrofTargets	number of targets.
+	 * @return				a new policy.
+	 */
+	public LoadBalancingPolicyI	newPolicy(int nrofTargets)
+	{
+		switch (this) {
+		case LEAST_OUTSTANDING :
+			return new LeastOutstandingPolicy(nrofTargets) ;
+		case JOIN_SHORTEST_QUEUE :
+			return new JoinShortestQueuePolicy(nrofTargets) ;
+		case POWER_OF_TWO_CHOICES :
+			return new PowerOfTwoChoicesPolicy(nrofTargets) ;
+		case SPEED_WEIGHTED :
+			return new SpeedWeightedPolicy(nrofTargets) ;
+		default :
+			return new RoundRobinPolicy(nrofTargets) ;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package fr.upmc.colins.farm3.balancing;
+
+/**
+ * The interface <code>LoadBalancingPolicyI</code> defines the policies used
+ * by request dispatchers and virtual machines to choose the target of each
+ * request among their downstream components.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The targets are identified by their index, from 0 to
+ * <code>getNumberOfTargets() - 1</code>, i.e. the index of the outbound port
+ * used to send them requests, which is also the index of the inbound port on
+ * which their responses are received.  The policy is fed with the requests
+ * sent to each target and with the response stream: the number of completed
+ * requests, and the queue length and the clock speed reported by the target.
+ *
+ * Policies are used by their owner component only, hence they need not be
+ * thread-safe.
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public interface		LoadBalancingPolicyI
+{
+	/**
+	 * @return	the number of targets among which the policy chooses.
+	 */
+	int				getNumberOfTargets() ;
+
+	/**
+	 * choose the target of the next request.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	ret >= 0 && ret < getNumberOfTargets()
+	 * </pre>
+	 *
+	 * @return	the index of the chosen target.
+	 */
+	int				select() ;
+
+	/**
+	 * record that a request has been sent to a target.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	target >= 0 && target < getNumberOfTargets()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param target	index of the target.
+	 */
+	void			dispatched(int target) ;
+
+	/**
+	 * record that requests sent to a target have been completed.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	target >= 0 && target < getNumberOfTargets() && count > 0
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param target	index of the target.
+	 * @param count		number of completed requests.
+	 */
+	void			completed(int target, long count) ;
+
+	/**
+	 * record the load reported by a target in its last response.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	target >= 0 && target < getNumberOfTargets()
+	 * pre	queueLength >= 0 && clockSpeed > 0.0
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param target		index of the target.
+	 * @param queueLength	number of requests waiting in the target.
+	 * @param clockSpeed	processing capacity of the target.
+	 */
+	void			reportLoad(int target, int queueLength, double clockSpeed) ;
+
+	/**
+	 * @param target	index of the target.
+	 * @return			the number of requests sent to the target and not yet
+	 * 					completed.
+	 */
+	long			getOutstanding(int target) ;
+
+	/**
+	 * @return	the number of requests sent to all of the targets and not yet
+	 * 			completed.
+	 */
+	long			getTotalOutstanding() ;
+
+	/**
+	 * @return	the sum of the clock speeds last reported by the targets, i.e.
+	 * 			their total processing capacity.
+	 */
+	double			getTotalClockSpeed() ;
+}
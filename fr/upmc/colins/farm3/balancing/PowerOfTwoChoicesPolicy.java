@@ -0,0 +1,56 @@
+package fr.upmc.colins.farm3.balancing;
+
+import java.util.Random;
+
+/**
+ * The class <code>PowerOfTwoChoicesPolicy</code> implements the load
+ * balancing policy sending each request to the least loaded of two targets
+ * drawn at random.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The load of a target is its number of outstanding requests.  Drawing two
+ * targets gives most of the benefit of a full search at a constant cost,
+ * which matters when the number of targets grows.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			PowerOfTwoChoicesPolicy
+extends		AbstractLoadBalancingPolicy
+{
+	/** random number generator used to draw the targets.					*/
+	protected final Random	rng ;
+
+	/**
+	 * create a power of two choices policy.
+	 *
+	 * @param nrofTargets	number of targets.
+	 */
+	public				PowerOfTwoChoicesPolicy(int nrofTargets)
+	{
+		super(nrofTargets) ;
+		this.rng = new Random() ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#select()
+	 */
+	@Override
+	public int			select()
+	{
+		int n = this.getNumberOfTargets() ;
+		if (n == 1) {
+			return 0 ;
+		}
+		int first = this.rng.nextInt(n) ;
+		int second = this.rng.nextInt(n - 1) ;
+		if (second >= first) {
+			second++ ;
+		}
+		return this.outstanding[second] < this.outstanding[first] ?
+														second : first ;
+	}
+}
@@ -0,0 +1,44 @@
+package fr.upmc.colins.farm3.balancing;
+
+/**
+ * The class <code>RoundRobinPolicy</code> implements the load balancing policy
+ * sending the requests to the targets in turn, whatever their load.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * This is the historical policy of the request dispatchers and the virtual
+ * machines.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			RoundRobinPolicy
+extends		AbstractLoadBalancingPolicy
+{
+	/** index of the next target.											*/
+	protected int		next ;
+
+	/**
+	 * create a round robin policy.
+	 *
+	 * @param nrofTargets	number of targets.
+	 */
+	public				RoundRobinPolicy(int nrofTargets)
+	{
+		super(nrofTargets) ;
+		this.next = 0 ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#select()
+	 */
+	@Override
+	public int			select()
+	{
+		int target = this.next ;
+		this.next = (this.next + 1) % this.getNumberOfTargets() ;
+		return target ;
+	}
+}
@@ -0,0 +1,68 @@
+package fr.upmc.colins.farm3.balancing;
+
+/**
+ * The class <code>SpeedWeightedPolicy</code> implements the load balancing
+ * policy sending each request to the target which would complete it first,
+ * given its clock speed.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The expected completion of a request sent to a target is proportional to
+ * its number of outstanding requests plus one divided by the clock speed it
+ * last reported, so that faster cores, e.g. after a frequency increase of
+ * the application controller, receive proportionally more requests.  Ties
+ * are broken in round robin.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SpeedWeightedPolicy
+extends		AbstractLoadBalancingPolicy
+{
+	/** index of the target from which the next search starts.				*/
+	protected int		start ;
+
+	/**
+	 * create a speed weighted policy.
+	 *
+	 * @param nrofTargets	number of targets.
+	 */
+	public				SpeedWeightedPolicy(int nrofTargets)
+	{
+		super(nrofTargets) ;
+		this.start = 0 ;
+	}
+
+	/**
+	 * @param target	index of a target.
+	 * @return			the expected completion of a new request sent to the
+	 * 					target.
+	 */
+	protected double	expectedCompletion(int target)
+	{
+		return (this.outstanding[target] + 1) / this.clockSpeeds[target] ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI#select()
+	 */
+	@Override
+	public int			select()
+	{
+		int n = this.getNumberOfTargets() ;
+		int target = this.start ;
+		double best = this.expectedCompletion(target) ;
+		for (int k = 1 ; k < n ; k++) {
+			int i = (this.start + k) % n ;
+			double completion = this.expectedCompletion(i) ;
+			if (completion < best) {
+				target = i ;
+				best = completion ;
+			}
+		}
+		this.start = (this.start + 1) % n ;
+		return target ;
+	}
+}
@@ -3,16 +3,37 @@ package fr.upmc.colins.farm3.connectors;
 import java.io.Serializable;
 
 import fr.upmc.colins.farm3.conrolapp.AppControlerInfoInboundPort;
-import fr.upmc.components.connectors.AbstractConnector;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.components.connectors.AbstractAsyncConnector;
 
 public class InfoControlAppServiceConnector
-extends		AbstractConnector
+extends		AbstractAsyncConnector
 implements AppControlerInfoInboundPort, Serializable{
 
 	@Override
-	public void receiveInfo(String response) throws Exception {
+	public void receiveSample(double serviceTime) throws Exception {
 		
-		((AppControlerInfoInboundPort)this.offering).receiveInfo(response) ;
+		final double fserviceTime = serviceTime ;
+		this.oneWay(new OneWayCall() {
+			@Override
+			public void call() throws Exception {
+				((AppControlerInfoInboundPort)offering).receiveSample(fserviceTime) ;
+			}
+		}) ;
+		
+	}
+
+	@Override
+	public void receiveStatistics(ResponseStatistics statistics)
+	throws Exception {
+		
+		final ResponseStatistics fstatistics = statistics ;
+		this.oneWay(new OneWayCall() {
+			@Override
+			public void call() throws Exception {
+				((AppControlerInfoInboundPort)offering).receiveStatistics(fstatistics) ;
+			}
+		}) ;
 		
 	}
 
@@ -0,0 +1,55 @@
+package fr.upmc.colins.farm3.connectors;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import fr.upmc.colins.farm3.dispatcher.RDBindingI;
+import fr.upmc.components.connectors.AbstractConnector;
+
+/**
+ * The class <code>RDBindingConnector</code> implements the connector
+ * between the outbound port of the admission control binding request
+ * dispatchers and the inbound port of an idle request dispatcher.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * Simply pass the method call to the offering inbound port.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	true
+ * </pre>
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			RDBindingConnector
+extends		AbstractConnector
+implements	RDBindingI, Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public String bindVirtualMachines(
+		Integer applicationUri,
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> vmRequestArrivalInboundPortUris,
+		Double meanNrofInstructions,
+		Double standardDeviation
+		) throws Exception
+	{
+		return ((RDBindingI)this.offering).bindVirtualMachines(
+							applicationUri, outboundPortURIs,
+							vmRequestArrivalInboundPortUris,
+							meanNrofInstructions, standardDeviation) ;
+	}
+
+	@Override
+	public boolean unbindVirtualMachines() throws Exception
+	{
+		return ((RDBindingI)this.offering).unbindVirtualMachines() ;
+	}
+}
@@ -2,10 +2,11 @@ package fr.upmc.colins.farm3.connectors;
 
 
 import java.io.Serializable;
+import java.util.ArrayList;
 
 import fr.upmc.colins.farm3.core.RequestArrivalI;
 import fr.upmc.colins.farm3.objects.Request;
-import fr.upmc.components.connectors.AbstractConnector;
+import fr.upmc.components.connectors.AbstractAsyncConnector;
 
 /**
  * The class <code>RequestServiceConnector</code> implements the connector
@@ -14,7 +15,9 @@ import fr.upmc.components.connectors.AbstractConnector;
  *
  * <p><strong>Description</strong></p>
  * 
- * Simply pass the request to the offering inbound port.
+ * Simply pass the request to the offering inbound port; as all of the
+ * methods are one-way calls, remote connectors can send them without
+ * blocking the caller (see <code>AbstractAsyncConnector</code>).
  * 
  * <p><strong>Invariant</strong></p>
  * 
@@ -29,7 +32,7 @@ import fr.upmc.components.connectors.AbstractConnector;
  * @version	$Name$ -- $Revision$ -- $Date$
  */
 public class			RequestServiceConnector
-extends		AbstractConnector
+extends		AbstractAsyncConnector
 implements	RequestArrivalI, Serializable
 {
 	private static final long serialVersionUID = 1L;
@@ -40,12 +43,46 @@ implements	RequestArrivalI, Serializable
 	@Override
 	public void			acceptRequest(Request c) throws Exception
 	{
-		((RequestArrivalI)this.offering).acceptRequest(c) ;
+		final Request fc = c ;
+		this.oneWay(new OneWayCall() {
+			@Override
+			public void call() throws Exception {
+				((RequestArrivalI)offering).acceptRequest(fc) ;
+			}
+		}) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.core.RequestArrivalI#acceptRequests(java.util.ArrayList)
+	 */
+	@Override
+	public void			acceptRequests(ArrayList<Request> rs) throws Exception
+	{
+		final ArrayList<Request> frs = rs ;
+		this.oneWay(new OneWayCall() {
+			@Override
+			public void call() throws Exception {
+				((RequestArrivalI)offering).acceptRequests(frs) ;
+			}
+		}) ;
 	}
 
 	@Override
 	public void connectResponseConnection(String vmResponseArrivalInboundPortUri) throws Exception {
-		((RequestArrivalI)this.offering).connectResponseConnection(vmResponseArrivalInboundPortUri) ;
+		final String furi = vmResponseArrivalInboundPortUri ;
+		this.oneWay(new OneWayCall() {
+			@Override
+			public void call() throws Exception {
+				((RequestArrivalI)offering).connectResponseConnection(furi) ;
+			}
+		}) ;
+	}
+
+	@Override
+	public void disconnectResponseConnection() throws Exception {
+		// synchronous, so that the disconnection precedes any later
+		// connection asked by another sender
+		((RequestArrivalI)offering).disconnectResponseConnection() ;
 	}
 
 }
@@ -5,7 +5,8 @@ import java.io.Serializable;
 
 import fr.upmc.colins.farm3.core.ResponseArrivalI;
 import fr.upmc.colins.farm3.objects.Response;
-import fr.upmc.components.connectors.AbstractConnector;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.components.connectors.AbstractAsyncConnector;
 
 /**
  * The class <code>ResponseServiceConnector</code> implements the connector
@@ -29,14 +30,32 @@ import fr.upmc.components.connectors.AbstractConnector;
  * @version	$Name$ -- $Revision$ -- $Date$
  */
 public class			ResponseServiceConnector
-extends		AbstractConnector
+extends		AbstractAsyncConnector
 implements	ResponseArrivalI, Serializable
 {
 	private static final long serialVersionUID = 1L;
 	
 	@Override
 	public void acceptResponse(Response response) throws Exception {
-		((ResponseArrivalI) this.offering).acceptResponse(response);
+		final Response fresponse = response ;
+		this.oneWay(new OneWayCall() {
+			@Override
+			public void call() throws Exception {
+				((ResponseArrivalI) offering).acceptResponse(fresponse);
+			}
+		}) ;
+	}
+
+	@Override
+	public void acceptResponseStatistics(ResponseStatistics statistics)
+	throws Exception {
+		final ResponseStatistics fstatistics = statistics ;
+		this.oneWay(new OneWayCall() {
+			@Override
+			public void call() throws Exception {
+				((ResponseArrivalI) offering).acceptResponseStatistics(fstatistics);
+			}
+		}) ;
 	}
 
 }
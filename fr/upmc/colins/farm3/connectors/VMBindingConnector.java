@@ -0,0 +1,50 @@
+package fr.upmc.colins.farm3.connectors;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import fr.upmc.colins.farm3.vm.VMBindingI;
+import fr.upmc.components.connectors.AbstractConnector;
+
+/**
+ * The class <code>VMBindingConnector</code> implements the connector
+ * between the outbound port of the admission control binding virtual
+ * machines and the inbound port of an idle virtual machine.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * Simply pass the method call to the offering inbound port.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	true
+ * </pre>
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			VMBindingConnector
+extends		AbstractConnector
+implements	VMBindingI, Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public String bindCores(
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> coreRequestArrivalInboundPortUris
+		) throws Exception
+	{
+		return ((VMBindingI)this.offering).bindCores(
+							outboundPortURIs, coreRequestArrivalInboundPortUris) ;
+	}
+
+	@Override
+	public boolean unbindCores() throws Exception
+	{
+		return ((VMBindingI)this.offering).unbindCores() ;
+	}
+}
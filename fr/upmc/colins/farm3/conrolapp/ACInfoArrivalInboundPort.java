@@ -1,5 +1,7 @@
 package fr.upmc.colins.farm3.conrolapp;
 
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
 import fr.upmc.components.ComponentI;
 import fr.upmc.components.ComponentI.ComponentService;
 import fr.upmc.components.ports.AbstractInboundPort;
@@ -22,15 +24,32 @@ implements AppControlerInfoInboundPort{
 	private static final long serialVersionUID = 1L;
 
 	@Override
-	public void receiveInfo(String inf) throws Exception {
+	public void receiveSample(double serviceTime) throws Exception {
 		
 		final ApplicationControl ac = (ApplicationControl) this.owner ;
-		final String info =  inf;
-		ac.handleRequestAsync(
+		final double fserviceTime = serviceTime;
+		EventCalendar.handleRequestAsync(ac,
 				new ComponentService<Void>() {
 					@Override
 					public Void call() throws Exception {
-						ac.infoArrivalEvent(info);
+						ac.sampleArrivalEvent(fserviceTime);
+						return null;
+					}
+				}) ;
+		
+	}
+
+	@Override
+	public void receiveStatistics(ResponseStatistics statistics)
+	throws Exception {
+		
+		final ApplicationControl ac = (ApplicationControl) this.owner ;
+		final ResponseStatistics fstatistics = statistics;
+		EventCalendar.handleRequestAsync(ac,
+				new ComponentService<Void>() {
+					@Override
+					public Void call() throws Exception {
+						ac.statisticsArrivalEvent(fstatistics);
 						return null;
 					}
 				}) ;
@@ -1,9 +1,24 @@
 package fr.upmc.colins.farm3.conrolapp;
 
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
 import fr.upmc.components.interfaces.TwoWayI;
 
 public interface AppControlerInfoInboundPort extends TwoWayI {
 	
-	void receiveInfo(String response) throws Exception;
+	/**
+	 * receive the service time of a response, or a mean of service times.
+	 * 
+	 * @param serviceTime	service time in ms.
+	 * @throws Exception
+	 */
+	void receiveSample(double serviceTime) throws Exception;
+
+	/**
+	 * receive the statistics aggregating the responses of a period.
+	 * 
+	 * @param statistics	aggregated statistics of the responses.
+	 * @throws Exception
+	 */
+	void receiveStatistics(ResponseStatistics statistics) throws Exception;
 
 }
@@ -6,11 +6,16 @@ import java.util.HashMap;
 
 import fr.upmc.colins.farm3.connectors.ControlRequestServiceConnector;
 import fr.upmc.colins.farm3.core.ControlRequestArrivalI;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
 import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.cvm.AbstractCVM;
 
 public class ApplicationControl extends AbstractComponent {
 	
+	/** number of service times aggregated in a window before adapting the
+	 *  clock speeds, 1 to adapt them upon each sample						*/
+	public static long WINDOW_SIZE = 1;
+
 	/** log constant	 													*/
 	protected String logId;
 	protected Integer id;
@@ -41,6 +46,12 @@ public class ApplicationControl extends AbstractComponent {
 	
 	private int marge = 0;
 	
+	/** sum of the service times of the current window					*/
+	protected double windowSum = 0.0;
+	
+	/** number of service times of the current window						*/
+	protected long windowCount = 0;
+	
 	
 	public ApplicationControl(
 			Integer id, 
@@ -99,18 +110,65 @@ public class ApplicationControl extends AbstractComponent {
 	}
 
 
-	public void infoArrivalEvent(String info) {
+	/**
+	 * aggregate the service time of a response, or a mean of service times,
+	 * in the current window.
+	 * 
+	 * @param serviceTime	service time in ms.
+	 */
+	public void sampleArrivalEvent(double serviceTime) {
+		this.aggregate(serviceTime, 1);
+	}
+
+	/**
+	 * aggregate the statistics of the responses of a period in the current
+	 * window.
+	 * 
+	 * @param statistics	aggregated statistics of the responses.
+	 */
+	public void statisticsArrivalEvent(ResponseStatistics statistics) {
+		if (!statistics.isEmpty()) {
+			this.aggregate(statistics.getSum(), statistics.getCount());
+		}
+	}
+
+	/**
+	 * add service times to the current window, and adapt the clock speeds
+	 * with the mean of the window once it holds WINDOW_SIZE service times.
+	 * 
+	 * @param sum	sum of the service times.
+	 * @param count	number of service times.
+	 */
+	protected void aggregate(double sum, long count) {
+		this.windowSum += sum;
+		this.windowCount += count;
+		if (this.windowCount >= WINDOW_SIZE) {
+			double mean = this.windowSum / this.windowCount;
+			this.windowSum = 0.0;
+			this.windowCount = 0;
+			this.adaptClockSpeeds(mean);
+		}
+	}
+
+	/**
+	 * update the mean time with a new sample and ask the cpus to change the
+	 * clock speed of the cores of the application if it deviates from the
+	 * expected time.
+	 * 
+	 * @param sample	mean service time in ms.
+	 */
+	protected void adaptClockSpeeds(double sample) {
 		double pourcent = 10.0;
 		double pHz = 0.2;
 		
-		this.meanTime = (this.meanTime + Double.parseDouble(info)) / 2.0;
+		this.meanTime = (this.meanTime + sample) / 2.0;
 			
 		System.out.println(logId + " New mean time : " + this.meanTime);
 		System.out.println(logId + " Time expected : " + this.timeExp);
 	
 		//Si la marge est atteinte et on est en / haut dessus du temps cible 
 		if (marge % 1 == 0 && (pourcent/100.0 * this.timeExp) + this.timeExp < this.meanTime){
-			this.meanTime = Double.parseDouble(info);// on rquilibre la coubre
+			this.meanTime = sample;// on rquilibre la coubre
 			//On parcourt les cpu 1  1 jusqu'a pouvoir changer la freq d'un coeur ( contraint max + diff 0.5) 
 			for(int i = 0; i< cop.size(); i++ ){
 				try {
@@ -127,7 +185,7 @@ public class ApplicationControl extends AbstractComponent {
 			}
 			
 		}else if(marge % 1 == 0 &&  this.timeExp - (pourcent/100.0 * this.timeExp)  > this.meanTime){
-			this.meanTime = Double.parseDouble(info);
+			this.meanTime = sample;
 			for(int i = 0; i< cop.size(); i++ ){
 				try {
 					if(cop.get(i).majClockSpeed(id+"-"+prio , - pHz, cpuCoreInboundPortUris.get("cpu-craip-"+cop.get(i).getServerPortURI().split("-")[1]))){
@@ -2,14 +2,17 @@ package fr.upmc.colins.farm3.core;
 
 import java.math.BigDecimal;
 import java.text.MessageFormat;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import fr.upmc.colins.farm3.connectors.ResponseServiceConnector;
 import fr.upmc.colins.farm3.objects.Request;
 import fr.upmc.colins.farm3.objects.Response;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
+import fr.upmc.colins.farm3.utils.BoundedRingBufferQueue;
+import fr.upmc.colins.farm3.utils.OverflowStrategy;
 import fr.upmc.colins.farm3.utils.TimeProcessing;
 import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.cvm.AbstractCVM;
@@ -36,6 +39,17 @@ import fr.upmc.components.ports.PortI;
  *   request processing event is immediately executed</li>
  * </ol>
  * 
+ * When an <code>EventCalendar</code> is installed, the end request processing
+ * events are registered in the calendar and the time is the virtual time of
+ * the calendar, otherwise they are scheduled as component tasks in wall-clock
+ * time.  In both cases, the end request processing events run on the
+ * request lane of the core, like the request arrivals and the clock speed
+ * updates, so that the queue of pending requests and the servicing state
+ * are only ever accessed by one thread at a time.  As cancelling a wall-clock
+ * end request processing event may fail once it has been posted to the
+ * request lane, each scheduled servicing gets a new epoch, and an end event
+ * of a former epoch is ignored.
+ * 
  * Total service times (waiting + processing) of requests is accumulated in the
  * variable <code>totalServicingTime</code> while the number of serviced
  * requests is accumulated in the variable
@@ -43,6 +57,18 @@ import fr.upmc.components.ports.PortI;
  * any end processing event already scheduled is cancelled, and the component
  * outputs the average service time of the completely serviced requests.
  * 
+ * When <code>ResponseStatistics.FLUSH_PERIOD</code> is positive, the service
+ * times of the responses are aggregated in a <code>ResponseStatistics</code>
+ * object sent to the virtual machine once per period, the period starting
+ * upon the first response after a flush, instead of sending one response per
+ * serviced request.
+ * 
+ * The queue of pending requests holds at most <code>QUEUE_CAPACITY</code>
+ * requests (0 for an unbounded queue); when it is full, the
+ * <code>OVERFLOW_STRATEGY</code> either rejects a request, sending a
+ * rejection response to the virtual machine, or blocks the sender until the
+ * core dequeues a request.
+ * 
  * TODO : Add check for valid clock speed in the updateClockSpeed method.
  * 
  * <p><strong>Invariant</strong></p>
@@ -65,6 +91,13 @@ extends		AbstractComponent
 
 	protected String logId;
 
+	/** maximum number of pending requests of the cores created hereafter,
+	 *  0 if unbounded.														*/
+	public static int					QUEUE_CAPACITY = 0 ;
+	/** strategy applied when the queue of pending requests is full.		*/
+	public static OverflowStrategy		OVERFLOW_STRATEGY =
+												OverflowStrategy.REJECT ;
+
 	// -------------------------------------------------------------------------
 	// Constructors and instance variables
 	// -------------------------------------------------------------------------
@@ -76,14 +109,18 @@ extends		AbstractComponent
 	/** request currently being serviced, null if any.						*/
 	protected Request					servicing ;
 	/** queue of pending requests.											*/
-	protected BlockingQueue<Request>	requestsQueue ;
+	protected BoundedRingBufferQueue<Request>	requestsQueue ;
 	/** sum of the service time of all completed requets.					*/
 	protected long						totalServicingTime ;
 	/** total number of completely serviced requests.						*/
 	protected int						totalNumberOfServicedRequests ;
+	/** total number of requests rejected because the queue was full.		*/
+	protected int						totalNumberOfRejectedRequests ;
 
 	/** a future pointing to the next end servicing task.					*/
 	protected Future<?>					nextEndServicingTaskFuture ;
+	/** epoch of the last scheduled servicing, to ignore stale end events.	*/
+	protected long						servicingEpoch ;
 
 	/** clock speed of the core 											*/
 	// naive unit : 1.0 equals to 1000 instructions per second	 	
@@ -102,6 +139,11 @@ extends		AbstractComponent
 	/** outbound port of the core to send response to the virtual machine	*/
 	protected CoreResponseGeneratorOutboundPort coreResponseGeneratorOutboundPort;
 
+	/** statistics of the responses since the last flush.					*/
+	protected ResponseStatistics		pendingStatistics ;
+	/** a future pointing to the next flush of the statistics, if any.		*/
+	protected Future<?>					nextFlushTaskFuture ;
+
 	/**
 	 * create a service provider.
 	 * 
@@ -135,12 +177,16 @@ extends		AbstractComponent
 		this.maxClockSpeed = maxClockSpeed;
 		this.coreIdle = true ;
 		this.servicing = null ;
-		this.requestsQueue = new LinkedBlockingQueue<Request>() ;
+		this.requestsQueue = new BoundedRingBufferQueue<Request>(
+										QUEUE_CAPACITY, OVERFLOW_STRATEGY) ;
 		this.totalServicingTime = 0L ;
 		this.totalNumberOfServicedRequests = 0 ;
+		this.totalNumberOfRejectedRequests = 0 ;
 		this.nextEndServicingTaskFuture = null ;
 		this.timeStart = 0;
 		this.remainingInstructions = 0;
+		this.pendingStatistics = new ResponseStatistics() ;
+		this.nextFlushTaskFuture = null ;
 
 		// inbound port for request arrival
 		this.addOfferedInterface(RequestArrivalI.class) ;
@@ -202,6 +248,11 @@ extends		AbstractComponent
 						this.nextEndServicingTaskFuture.isDone())) {
 			this.nextEndServicingTaskFuture.cancel(true) ;
 		}
+		if (this.nextFlushTaskFuture != null &&
+				!(this.nextFlushTaskFuture.isCancelled() ||
+						this.nextFlushTaskFuture.isDone())) {
+			this.nextFlushTaskFuture.cancel(true) ;
+		}
 		try {
 			if (this.coreResponseGeneratorOutboundPort.connected()) {
 				this.coreResponseGeneratorOutboundPort.doDisconnection();
@@ -235,19 +286,107 @@ extends		AbstractComponent
 	{
 		assert	r != null ;
 
-		long t = System.currentTimeMillis() ;
+		long t = EventCalendar.currentTimeMillis() ;
 		System.out.println(logId + " Accepting request       " + r + " at " +
 				TimeProcessing.toString(t)) ;
 		r.setArrivalTime(t) ;
-		this.requestsQueue.add(r) ;
+		this.enqueueRequest(r) ;
 		if (!this.coreIdle) {
 			System.out.println(logId + " Queueing request        " + r) ;
-		} else {
+		} else if (!this.requestsQueue.isEmpty()) {
+			this.beginServicingEvent() ;
+		}
+	}
+
+	/**
+	 * process the arrival of a batch of requests, queueing them in order and
+	 * then processing a begin servicing event if the core is currently idle.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	rs != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param rs
+	 * @throws Exception
+	 */
+	public void			requestsArrivalEvent(ArrayList<Request> rs)
+	throws Exception
+	{
+		assert	rs != null ;
+
+		long t = EventCalendar.currentTimeMillis() ;
+		for (Request r : rs) {
+			System.out.println(logId + " Accepting request       " + r + " at " +
+					TimeProcessing.toString(t)) ;
+			r.setArrivalTime(t) ;
+			this.enqueueRequest(r) ;
+		}
+		if (!this.coreIdle) {
+			System.out.println(logId + " Queueing requests       " + rs) ;
+		} else if (!this.requestsQueue.isEmpty()) {
 			this.beginServicingEvent() ;
 		}
 	}
 
 
+	/**
+	 * put a newly arrived request in the queue, rejecting the request shed by
+	 * the overflow strategy if the queue is full.
+	 *
+	 * @param r	the newly arrived request.
+	 * @throws Exception
+	 */
+	protected void		enqueueRequest(Request r) throws Exception
+	{
+		Request shed = this.requestsQueue.admit(r) ;
+		if (shed != null) {
+			this.rejectRequest(shed) ;
+		}
+	}
+
+	/**
+	 * reject a request shed by the overflow strategy, sending a rejection
+	 * response to the virtual machine.
+	 *
+	 * @param r	the rejected request.
+	 * @throws Exception
+	 */
+	protected void		rejectRequest(Request r) throws Exception
+	{
+		System.out.println(logId + " Rejecting request       " + r + " at " +
+				TimeProcessing.toString(EventCalendar.currentTimeMillis())) ;
+		this.totalNumberOfRejectedRequests++ ;
+		Response response = new Response(r.getUri()) ;
+		response.setRejected() ;
+		response.setLoad(this.requestsQueue.size(), this.clockSpeed) ;
+		if (this.coreResponseGeneratorOutboundPort.connected()) {
+			this.coreResponseGeneratorOutboundPort.acceptResponse(response) ;
+		}
+	}
+
+	/**
+	 * @return	true if the senders must acquire a slot in the queue of the
+	 * 			core before sending it a request.
+	 */
+	public boolean		blocksSenders()
+	{
+		return this.requestsQueue.blocksSenders() ;
+	}
+
+	/**
+	 * block the calling sender until the queue of the core has room for one
+	 * more request, if the overflow strategy blocks the senders.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void			acquireQueueSlot() throws InterruptedException
+	{
+		this.requestsQueue.acquireSlot() ;
+	}
+
 	public boolean		updateClockSpeed(Double clockS) throws Exception{
 
 		if( clockS + this.clockSpeed > maxClockSpeed || clockS + this.clockSpeed < 1.0 ){
@@ -275,7 +414,7 @@ extends		AbstractComponent
 			// reschedule currently served task
 			System.out.println(logId + " Reschedule currently served task");
 			// time capture
-			long timeCancel = System.currentTimeMillis();
+			long timeCancel = EventCalendar.currentTimeMillis();
 			long timeServed = timeCancel - timeStart;
 			// suspend the servicing task using his future
 			this.nextEndServicingTaskFuture.cancel(true);
@@ -311,7 +450,7 @@ extends		AbstractComponent
 		this.remainingInstructions = servicing.getNrofInstructions();
 
 		System.out.println(logId + " Begin servicing request " + this.servicing + " at "
-				+ TimeProcessing.toString(System.currentTimeMillis())) ;
+				+ TimeProcessing.toString(EventCalendar.currentTimeMillis())) ;
 		scheduleServicing();
 	}
 
@@ -320,25 +459,41 @@ extends		AbstractComponent
 	 * called by beginServicingEvent and also bvy 
 	 */
 	private void		scheduleServicing(){
-		this.timeStart = System.currentTimeMillis();
+		this.timeStart = EventCalendar.currentTimeMillis();
 
 		this.coreIdle = false ;
 		final Core fcore = (Core) this ;
 		final long fnrofInst = this.remainingInstructions;
 		final double fclockSpeed = this.clockSpeed;
+		final long fepoch = ++this.servicingEpoch ;
 		// generate the processing time using the clockSpeed
 		final long processingTime = (long) (fnrofInst / fclockSpeed);
 		final ComponentTask task = new ComponentTask() {
 			@Override
 			public void run() {
+				if (fepoch != fcore.servicingEpoch) {
+					// rescheduled by a clock speed update in the meantime
+					return ;
+				}
 				try {
 					fcore.endServicingEvent() ;
 				} catch (Exception e) {
 					e.printStackTrace() ;
 				}
 			}};
-			this.nextEndServicingTaskFuture = this.scheduleTask(task ,
-					processingTime, TimeUnit.MILLISECONDS) ;
+			if (EventCalendar.isVirtualTime()) {
+				this.nextEndServicingTaskFuture = EventCalendar.getCalendar().
+						scheduleAfter(this, task, processingTime) ;
+			} else {
+				// hop from the scheduled tasks thread to the request lane
+				this.nextEndServicingTaskFuture = this.scheduleTask(
+						new ComponentTask() {
+							@Override
+							public void run() {
+								fcore.runTask(task) ;
+							}},
+						processingTime, TimeUnit.MILLISECONDS) ;
+			}
 	}
 
 	/**
@@ -357,14 +512,19 @@ extends		AbstractComponent
 	 */
 	public void			endServicingEvent() throws Exception
 	{
-		long t = System.currentTimeMillis() ;
+		long t = EventCalendar.currentTimeMillis() ;
 		long st = t - this.servicing.getArrivalTime() ;
 
-		Response response = new Response(this.servicing.getUri());
-		response.setDuration(new Double(st));
+		if (ResponseStatistics.FLUSH_PERIOD > 0) {
+			this.aggregateResponse(st) ;
+		} else {
+			Response response = new Response(this.servicing.getUri());
+			response.setDuration(new Double(st));
+			response.setLoad(this.requestsQueue.size(), this.clockSpeed) ;
 
-		if(this.coreResponseGeneratorOutboundPort.connected()){
-			this.coreResponseGeneratorOutboundPort.acceptResponse(response);
+			if(this.coreResponseGeneratorOutboundPort.connected()){
+				this.coreResponseGeneratorOutboundPort.acceptResponse(response);
+			}
 		}
 		System.out.println(logId + " End servicing request   " + this.servicing +
 				" at " + TimeProcessing.toString(t) +
@@ -384,6 +544,64 @@ extends		AbstractComponent
 		}
 	}
 
+	/**
+	 * add the service time of a response to the pending statistics, and
+	 * schedule their flush at the end of the period if it is not already.
+	 *
+	 * @param serviceTime	service time of the response in ms.
+	 */
+	protected void		aggregateResponse(long serviceTime)
+	{
+		this.pendingStatistics.add(serviceTime) ;
+		if (this.nextFlushTaskFuture == null) {
+			final Core fcore = this ;
+			ComponentTask task = new ComponentTask() {
+				@Override
+				public void run() {
+					try {
+						fcore.flushStatistics() ;
+					} catch (Exception e) {
+						e.printStackTrace() ;
+					}
+				}} ;
+			if (EventCalendar.isVirtualTime()) {
+				this.nextFlushTaskFuture = EventCalendar.getCalendar().
+						scheduleAfter(this, task, ResponseStatistics.FLUSH_PERIOD) ;
+			} else {
+				// the flush swaps the pending statistics, so it must run on
+				// the request lane like the arrivals that fill them.
+				final ComponentTask flush = task ;
+				this.nextFlushTaskFuture = this.scheduleTask(
+						new ComponentTask() {
+							@Override
+							public void run() {
+								fcore.runTask(flush) ;
+							}},
+						ResponseStatistics.FLUSH_PERIOD, TimeUnit.MILLISECONDS) ;
+			}
+		}
+	}
+
+	/**
+	 * send the pending statistics to the virtual machine and start new ones.
+	 *
+	 * @throws Exception
+	 */
+	public void			flushStatistics() throws Exception
+	{
+		this.nextFlushTaskFuture = null ;
+		if (this.pendingStatistics.isEmpty()) {
+			return ;
+		}
+		ResponseStatistics statistics = this.pendingStatistics ;
+		this.pendingStatistics = new ResponseStatistics() ;
+		statistics.setLoad(this.requestsQueue.size(), this.clockSpeed) ;
+		if (this.coreResponseGeneratorOutboundPort.connected()) {
+			this.coreResponseGeneratorOutboundPort.
+								acceptResponseStatistics(statistics) ;
+		}
+	}
+
 	/**
 	 * Connect the virtual machine for response connection
 	 * @param furi	uri of outbound port of the virtual machine
@@ -398,4 +616,17 @@ extends		AbstractComponent
 			.doConnection(furi, ResponseServiceConnector.class.getCanonicalName());
 		}
 	}
+
+	/**
+	 * Disconnect the response connection from the virtual machine, which is
+	 * unbound from the core
+	 * @throws Exception
+	 */
+	public void disconnectResponseConnection() throws Exception 
+	{
+		System.out.println(logId + " Disconnect the response connection from the VM");
+		if (this.coreResponseGeneratorOutboundPort.connected()) {
+			this.coreResponseGeneratorOutboundPort.doDisconnection();
+		}
+	}
 }
@@ -3,6 +3,7 @@ package fr.upmc.colins.farm3.core;
 import java.util.ArrayList;
 
 import fr.upmc.components.ComponentI;
+import fr.upmc.components.ComponentI.ComponentService;
 import fr.upmc.components.ports.AbstractInboundPort;
 
 /**
@@ -59,7 +60,14 @@ implements	ControlRequestArrivalI
 	{
 		final Core sp = (Core) this.owner ;
 		final Double fcs = cs ;
-		return sp.updateClockSpeed(fcs);
+		// the update reschedules the current servicing, so it must run on
+		// the request lane of the core, with its arrivals and end events.
+		return sp.handleRequestSync(new ComponentService<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						return sp.updateClockSpeed(fcs) ;
+					}
+				}) ;
 	}
 
 
@@ -1,6 +1,9 @@
 package fr.upmc.colins.farm3.core;
 
+import java.util.ArrayList;
+
 import fr.upmc.colins.farm3.objects.Request;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
 import fr.upmc.components.ComponentI;
 import fr.upmc.components.ComponentI.ComponentService;
 import fr.upmc.components.ports.AbstractInboundPort;
@@ -66,8 +69,9 @@ implements	RequestArrivalI
 	public void			acceptRequest(Request c) throws Exception
 	{
 		final Core sp = (Core) this.owner ;
+		sp.acquireQueueSlot() ;
 		final Request fc = c ;
-		sp.handleRequestAsync(
+		EventCalendar.handleRequestAsync(sp,
 				new ComponentService<Void>() {
 					@Override
 					public Void call() throws Exception {
@@ -77,11 +81,36 @@ implements	RequestArrivalI
 				}) ;
 	}
 
+	/**
+	 * @see fr.upmc.colins.farm3.core.RequestArrivalI#acceptRequests(java.util.ArrayList)
+	 */
+	@Override
+	public void			acceptRequests(ArrayList<Request> rs) throws Exception
+	{
+		final Core sp = (Core) this.owner ;
+		if (sp.blocksSenders()) {
+			// acquire the slots one at a time, as the batch may exceed the queue
+			for (Request r : rs) {
+				this.acceptRequest(r) ;
+			}
+			return ;
+		}
+		final ArrayList<Request> frs = rs ;
+		EventCalendar.handleRequestAsync(sp,
+				new ComponentService<Void>() {
+					@Override
+					public Void call() throws Exception {
+						sp.requestsArrivalEvent(frs);
+						return null;
+					}
+				}) ;
+	}
+
 	@Override
 	public void connectResponseConnection(String vmResponseArrivalInboundPortUri) throws Exception {
 		final Core sp = (Core) this.owner ;
 		final String furi = vmResponseArrivalInboundPortUri ;
-		sp.handleRequestAsync(
+		EventCalendar.handleRequestAsync(sp,
 				new ComponentService<Void>() {
 					@Override
 					public Void call() throws Exception {
@@ -91,5 +120,18 @@ implements	RequestArrivalI
 				}) ;
 	}
 
+	@Override
+	public void disconnectResponseConnection() throws Exception {
+		final Core sp = (Core) this.owner ;
+		sp.handleRequestSync(
+				new ComponentService<Void>() {
+					@Override
+					public Void call() throws Exception {
+						sp.disconnectResponseConnection();
+						return null;
+					}
+				}) ;
+	}
+
 
 }
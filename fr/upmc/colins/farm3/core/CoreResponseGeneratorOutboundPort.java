@@ -1,6 +1,7 @@
 package fr.upmc.colins.farm3.core;
 
 import fr.upmc.colins.farm3.objects.Response;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
 import fr.upmc.components.ComponentI;
 import fr.upmc.components.ports.AbstractOutboundPort;
 
@@ -62,5 +63,11 @@ implements	ResponseArrivalI
 		((ResponseArrivalI)this.connector).acceptResponse(response) ;
 	}
 
+	@Override
+	public void acceptResponseStatistics(ResponseStatistics statistics)
+	throws Exception {
+		((ResponseArrivalI)this.connector).acceptResponseStatistics(statistics) ;
+	}
+
 
 }
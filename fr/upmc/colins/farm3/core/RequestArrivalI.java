@@ -1,5 +1,7 @@
 package fr.upmc.colins.farm3.core;
 
+import java.util.ArrayList;
+
 import fr.upmc.colins.farm3.objects.Request;
 import fr.upmc.components.interfaces.TwoWayI;
 
@@ -9,8 +11,11 @@ import fr.upmc.components.interfaces.TwoWayI;
  *
  * <p><strong>Description</strong></p>
  * 
- * The interface can be both required and offered, and it has only one method
- * <code>acceptRequest</code> passing a request object as parameter.
+ * The interface can be both required and offered, and it has the method
+ * <code>acceptRequest</code> passing a request object as parameter, and its
+ * batched version <code>acceptRequests</code> passing a list of requests, so
+ * that a burst of requests costs one call between the components (and one
+ * remote call in distributed mode) instead of one per request.
  * 
  * <p>Created on : 2 sept. 2014</p>
  * 
@@ -35,6 +40,22 @@ extends		TwoWayI
 	 */
 	void			acceptRequest(Request r) throws Exception ;
 
+	/**
+	 * accept a batch of new requests for servicing, in the order of the list;
+	 * equivalent to calling <code>acceptRequest</code> on each of them.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	rs != null && !rs.isEmpty()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param rs			requests to be serviced.
+	 * @throws Exception	
+	 */
+	void			acceptRequests(ArrayList<Request> rs) throws Exception ;
+
 	/**
 	 * connect the response outbound port to the port pointed by the URI
 	 * 
@@ -49,5 +70,21 @@ extends		TwoWayI
 	 * @throws Exception	
 	 */
 	void 			connectResponseConnection(String responseArrivalInboundPortUri) throws Exception;
+
+	/**
+	 * disconnect the response outbound port, before the sender of the
+	 * requests is bound to other components; the call returns once the
+	 * port is disconnected.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @throws Exception	
+	 */
+	void			disconnectResponseConnection() throws Exception ;
 	
 }
@@ -1,6 +1,7 @@
 package fr.upmc.colins.farm3.core;
 
 import fr.upmc.colins.farm3.objects.Response;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
 import fr.upmc.components.interfaces.TwoWayI;
 
 public interface ResponseArrivalI 
@@ -8,4 +9,19 @@ extends		TwoWayI {
 
 	void acceptResponse(Response response) throws Exception;
 
+	/**
+	 * accept the statistics aggregating the responses of a period.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	statistics != null && !statistics.isEmpty()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param statistics	aggregated statistics of the responses.
+	 * @throws Exception
+	 */
+	void acceptResponseStatistics(ResponseStatistics statistics) throws Exception;
+
 }
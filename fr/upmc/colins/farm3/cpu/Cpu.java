@@ -2,6 +2,7 @@ package fr.upmc.colins.farm3.cpu;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
 
 import fr.upmc.colins.farm3.connectors.ControlRequestServiceConnector;
 import fr.upmc.colins.farm3.core.ControlRequestArrivalI;
@@ -20,7 +21,7 @@ import fr.upmc.components.exceptions.ComponentStartException;
  * <p>
  * <strong>Description</strong>
  * </p>
- * This component also create in its constructor the cores. 
+ * This component also create in its constructor the cores, in parallel. 
  * The <code>Cpu</code> component is parameterized with a default clock speed,
  * a maximum clock speed and a number of cores.
  * 
@@ -92,10 +93,10 @@ public class Cpu extends AbstractComponent {
 	public Cpu(
 			Integer cpuId, 
 			Long nrofCores, 
-			Double clockSpeed,
-			Double maxClockSpeed,
+			final Double clockSpeed,
+			final Double maxClockSpeed,
 			String controlInboundPortURI,
-			AbstractCVM cvm
+			final AbstractCVM cvm
 			) throws Exception 
 	{
 		super(true, true);
@@ -114,37 +115,51 @@ public class Cpu extends AbstractComponent {
 		this.addRequiredInterface(ControlRequestArrivalI.class);
 		this.addOfferedInterface(ControlRequestArrivalI.class);
 		
-		this.controlRequestGeneratorOutboundPorts = new ArrayList<>();
+		// build the cores in parallel, their constructors and the connection
+		// of their control ports mostly waiting for the registries
+		final Cpu cpu = this;
+		ArrayList<Callable<ControlRequestGeneratorOutboundPort>> coreTasks =
+				new ArrayList<Callable<ControlRequestGeneratorOutboundPort>>();
+		for (int i = 0; i < this.nrofCores; i++) {
+			final int coreId = i;
+			final String crgopCpuUri = CPU_PREFIX + cpuId + CPU_CRGOP_PREFIX + i;
+			final String raipCoreUri= CPU_PREFIX + cpuId + CORE_RAIP_PREFIX + i;
+			final String craipCoreUri = CPU_PREFIX + cpuId + CORE_CRAIP_PREFIX + i;
+			coreTasks.add(new Callable<ControlRequestGeneratorOutboundPort>() {
+				@Override
+				public ControlRequestGeneratorOutboundPort call()
+				throws Exception {
+					// build the core
+					Core core = new Core(
+							coreId,
+							clockSpeed,
+							maxClockSpeed,
+							raipCoreUri,
+							craipCoreUri	
+							);
+					cvm.addDeployedComponent(core);
+
+					ControlRequestGeneratorOutboundPort crgop =
+						new ControlRequestGeneratorOutboundPort(crgopCpuUri, cpu);
+					if (AbstractCVM.isDistributed) {
+						crgop.publishPort();
+					} else {
+						crgop.localPublishPort();
+					}
+					crgop.doConnection(craipCoreUri, 
+							ControlRequestServiceConnector.class.getCanonicalName());
+					return crgop;
+				}
+			});
+		}
+		this.controlRequestGeneratorOutboundPorts = new ArrayList<>(
+				AbstractCVM.instantiateInParallel(coreTasks));
 		for (int i = 0; i < this.nrofCores; i++) {
-			String crgopCpuUri = CPU_PREFIX + cpuId + CPU_CRGOP_PREFIX + i;
-			String raipCoreUri= CPU_PREFIX + cpuId + CORE_RAIP_PREFIX + i;
-			String craipCoreUri = CPU_PREFIX + cpuId + CORE_CRAIP_PREFIX + i;
-			// build the core
-			Core core = new Core(
-					i,
-					clockSpeed,
-					maxClockSpeed,
-					raipCoreUri,
-					craipCoreUri	
-					);
-			cvm.addDeployedComponent(core);
-			
 			//On rajoutele coeur aux registre du cpu
 			coreFre.add(clockSpeed);
 
 			coreRequestArrivalInboundPortUris.add(CPU_PREFIX + cpuId + CORE_RAIP_PREFIX + i);
 			coreControlRequestArrivalInboundPortUris.add(CPU_PREFIX + cpuId + CORE_CRAIP_PREFIX + i);
-
-			ControlRequestGeneratorOutboundPort crgop = new ControlRequestGeneratorOutboundPort(crgopCpuUri, this);
-			this.controlRequestGeneratorOutboundPorts.add(crgop);			
-			if (AbstractCVM.isDistributed) {
-				crgop.publishPort();
-			} else {
-				crgop.localPublishPort();
-			}
-			crgop.doConnection(craipCoreUri, 
-					ControlRequestServiceConnector.class.getCanonicalName());
-
 		}
 
 		this.cpuInboundPort = new CpuControlRequestArrivalInboundPort(controlInboundPortURI, this);
@@ -1,6 +1,7 @@
 package fr.upmc.colins.farm3.dispatcher;
 
 import fr.upmc.colins.farm3.conrolapp.AppControlerInfoInboundPort;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
 import fr.upmc.components.ComponentI;
 import fr.upmc.components.ports.AbstractOutboundPort;
 
@@ -18,9 +19,17 @@ implements AppControlerInfoInboundPort{
 	}
 
 	@Override
-	public void receiveInfo(String response) throws Exception {
+	public void receiveSample(double serviceTime) throws Exception {
 		
-		((AppControlerInfoInboundPort)this.connector).receiveInfo(response) ;
+		((AppControlerInfoInboundPort)this.connector).receiveSample(serviceTime) ;
+		
+	}
+
+	@Override
+	public void receiveStatistics(ResponseStatistics statistics)
+	throws Exception {
+		
+		((AppControlerInfoInboundPort)this.connector).receiveStatistics(statistics) ;
 		
 	}
 
@@ -0,0 +1,69 @@
+package fr.upmc.colins.farm3.dispatcher;
+
+import java.util.ArrayList;
+
+import fr.upmc.components.interfaces.TwoWayI;
+
+/**
+ * The interface <code>RDBindingI</code> defines the protocol to bind an idle
+ * request dispatcher to the virtual machines of an application.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The interface can be both required and offered; it is offered by the
+ * request dispatchers created in advance by the admission control, before
+ * any application is admitted.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public interface		RDBindingI
+extends		TwoWayI
+{
+	/**
+	 * connect the request dispatcher to the virtual machines and to the
+	 * application controller of an application.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	applicationUri != null && outboundPortURIs != null
+	 * pre	outboundPortURIs.size() == vmRequestArrivalInboundPortUris.size()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param applicationUri					uri of the application.
+	 * @param outboundPortURIs					URIs of the ports used to send requests to the virtual machines.
+	 * @param vmRequestArrivalInboundPortUris	URIs of the ports of the virtual machines.
+	 * @param meanNrofInstructions				the mean number of instructions.
+	 * @param standardDeviation					the standard deviation.
+	 * @return									URI of the port receiving the requests of the application.
+	 * @throws Exception
+	 */
+	String				bindVirtualMachines(
+		Integer applicationUri,
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> vmRequestArrivalInboundPortUris,
+		Double meanNrofInstructions,
+		Double standardDeviation
+		) throws Exception ;
+
+	/**
+	 * disconnect the request dispatcher from the virtual machines and from
+	 * the application controller of its application once it has no more
+	 * requests in progress, so that it is idle again.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @return	true if the request dispatcher has been unbound, false if it still has requests in progress.
+	 * @throws Exception
+	 */
+	boolean				unbindVirtualMachines() throws Exception ;
+}
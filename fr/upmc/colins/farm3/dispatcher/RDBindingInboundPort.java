@@ -0,0 +1,99 @@
+package fr.upmc.colins.farm3.dispatcher;
+
+import java.util.ArrayList;
+
+import fr.upmc.components.ComponentI;
+import fr.upmc.components.ComponentI.ComponentService;
+import fr.upmc.components.ports.AbstractInboundPort;
+
+/**
+ * The class <code>RDBindingInboundPort</code> implements the inbound port
+ * through which an idle request dispatcher is bound to an application.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The port implements the <code>RDBindingI</code> interface as offered and
+ * upon a call, passes it to the owner request dispatcher, in one of the
+ * threads of the component.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			RDBindingInboundPort
+extends		AbstractInboundPort
+implements	RDBindingI
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * create an inbound port.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	uri != null && owner != null
+	 * pre	owner.isOfferedInterface(RDBindingI.class)
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param uri			URI of the port.
+	 * @param owner			owner component of the port.
+	 * @throws Exception
+	 */
+	public				RDBindingInboundPort(
+		String uri,
+		ComponentI owner
+		) throws Exception
+	{
+		super(uri, RDBindingI.class, owner) ;
+
+		assert	uri != null && owner != null ;
+		assert	owner.isOfferedInterface(RDBindingI.class) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.dispatcher.RDBindingI#bindVirtualMachines(java.lang.Integer, java.util.ArrayList, java.util.ArrayList, java.lang.Double, java.lang.Double)
+	 */
+	@Override
+	public String		bindVirtualMachines(
+		Integer applicationUri,
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> vmRequestArrivalInboundPortUris,
+		Double meanNrofInstructions,
+		Double standardDeviation
+		) throws Exception
+	{
+		final RequestDispatcher rd = (RequestDispatcher) this.owner ;
+		final Integer fa = applicationUri ;
+		final ArrayList<String> fops = outboundPortURIs ;
+		final ArrayList<String> fvms = vmRequestArrivalInboundPortUris ;
+		final Double fmean = meanNrofInstructions ;
+		final Double fstd = standardDeviation ;
+		return rd.handleRequestSync(
+				new ComponentService<String>() {
+					@Override
+					public String call() throws Exception {
+						return rd.bindVirtualMachines(fa, fops, fvms,
+													  fmean, fstd) ;
+					}
+				}) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.dispatcher.RDBindingI#unbindVirtualMachines()
+	 */
+	@Override
+	public boolean		unbindVirtualMachines() throws Exception
+	{
+		final RequestDispatcher rd = (RequestDispatcher) this.owner ;
+		return rd.handleRequestSync(
+				new ComponentService<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						return rd.unbindVirtualMachines() ;
+					}
+				}) ;
+	}
+}
@@ -1,7 +1,10 @@
 package fr.upmc.colins.farm3.dispatcher;
 
+import java.util.ArrayList;
+
 import fr.upmc.colins.farm3.core.RequestArrivalI;
 import fr.upmc.colins.farm3.objects.Request;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
 import fr.upmc.components.ComponentI;
 import fr.upmc.components.ComponentI.ComponentService;
 import fr.upmc.components.ports.AbstractInboundPort;
@@ -67,8 +70,9 @@ implements	RequestArrivalI
 	public void			acceptRequest(Request c) throws Exception
 	{
 		final RequestDispatcher sp = (RequestDispatcher) this.owner ;
+		sp.acquireQueueSlot() ;
 		final Request fc = c ;
-		sp.handleRequestAsync(
+		EventCalendar.handleRequestAsync(sp,
 				new ComponentService<Void>() {
 					@Override
 					public Void call() throws Exception {
@@ -78,10 +82,40 @@ implements	RequestArrivalI
 				}) ;
 	}
 
+	/**
+	 * @see fr.upmc.colins.farm3.core.RequestArrivalI#acceptRequests(java.util.ArrayList)
+	 */
+	@Override
+	public void			acceptRequests(ArrayList<Request> rs) throws Exception
+	{
+		final RequestDispatcher sp = (RequestDispatcher) this.owner ;
+		if (sp.blocksSenders()) {
+			// acquire the slots one at a time, as the batch may exceed the queue
+			for (Request r : rs) {
+				this.acceptRequest(r) ;
+			}
+			return ;
+		}
+		final ArrayList<Request> frs = rs ;
+		EventCalendar.handleRequestAsync(sp,
+				new ComponentService<Void>() {
+					@Override
+					public Void call() throws Exception {
+						sp.requestsArrivalEvent(frs);
+						return null;
+					}
+				}) ;
+	}
+
 	@Override
 	public void connectResponseConnection(String vmResponseArrivalInboundPortUri) throws Exception {
 		throw new Exception();
 	}
 
+	@Override
+	public void disconnectResponseConnection() throws Exception {
+		throw new Exception();
+	}
+
 
 }
@@ -2,6 +2,8 @@ package fr.upmc.colins.farm3.dispatcher;
 
 import fr.upmc.colins.farm3.core.ResponseArrivalI;
 import fr.upmc.colins.farm3.objects.Response;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
 import fr.upmc.components.ComponentI;
 import fr.upmc.components.ComponentI.ComponentService;
 import fr.upmc.components.ports.AbstractInboundPort;
@@ -14,12 +16,13 @@ import fr.upmc.components.ports.AbstractInboundPort;
  * 
  * The port implements the <code>ResponseArrivalI</code> interface as offered
  * and upon a call, passes it to the owner component that must also implement
- * the method <code>responseArrivalEvent</code>.
+ * the method <code>responseArrivalEvent</code>, together with the index of
+ * the virtual machine from which the port receives the responses.
  * 
  * <p><strong>Invariant</strong></p>
  * 
  * <pre>
- * invariant	true
+ * invariant	index >= 0
  * </pre>
  * 
  * <p>Created on : jan 2015</p>
@@ -33,45 +36,66 @@ implements	ResponseArrivalI
 {
 	private static final long serialVersionUID = 1L;
 
+	/** index of the virtual machine sending its responses to this port.			*/
+	protected final int		index ;
+
 	/**
 	 * create an inbound port.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * pre	uri != null && owner != null
+	 * pre	uri != null && owner != null && index >= 0
 	 * pre	owner.isOfferedInterface(RequestArrivalI.class)
 	 * post	true			// no postcondition.
 	 * </pre>
 	 *
 	 * @param uri			URI of the port.
 	 * @param owner			owner component of the port.
+	 * @param index			index of the virtual machine sending its responses to the port.
 	 * @throws Exception
 	 */
 	public				RDResponseArrivalInboundPort(
 		String uri,
-		ComponentI owner
+		ComponentI owner,
+		int index
 		) throws Exception
 	{
 		super(uri, ResponseArrivalI.class, owner) ;
 
-		assert	uri != null && owner != null ;
+		assert	uri != null && owner != null && index >= 0 ;
+		this.index = index ;
 		assert	owner.isOfferedInterface(ResponseArrivalI.class) ;
 	}
 
 	@Override
 	public void acceptResponse(Response resp) throws Exception {
 		final RequestDispatcher sp = (RequestDispatcher) this.owner ;
+		final int findex = this.index ;
 		final Response fresp = resp ;
-		sp.handleRequestAsync(
+		EventCalendar.handleRequestAsync(sp,
 				new ComponentService<Void>() {
 					@Override
 					public Void call() throws Exception {
-						sp.responseArrivalEvent(fresp);
+						sp.responseArrivalEvent(findex, fresp);
 						return null;
 					}
 				}) ;
 	}
 
-
+	@Override
+	public void acceptResponseStatistics(ResponseStatistics statistics)
+	throws Exception {
+		final RequestDispatcher sp = (RequestDispatcher) this.owner ;
+		final int findex = this.index ;
+		final ResponseStatistics fstatistics = statistics ;
+		EventCalendar.handleRequestAsync(sp,
+				new ComponentService<Void>() {
+					@Override
+					public Void call() throws Exception {
+						sp.responseStatisticsArrivalEvent(findex, fstatistics);
+						return null;
+					}
+				}) ;
+	}
 }
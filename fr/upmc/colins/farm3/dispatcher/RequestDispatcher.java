@@ -2,13 +2,13 @@ package fr.upmc.colins.farm3.dispatcher;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.commons.math3.distribution.NormalDistribution;
 
+import fr.upmc.colins.farm3.balancing.LoadBalancingMode;
+import fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI;
 import fr.upmc.colins.farm3.connectors.InfoControlAppServiceConnector;
 import fr.upmc.colins.farm3.connectors.RequestServiceConnector;
 import fr.upmc.colins.farm3.conrolapp.AppControlerInfoInboundPort;
@@ -17,6 +17,10 @@ import fr.upmc.colins.farm3.core.ResponseArrivalI;
 import fr.upmc.colins.farm3.generator.RequestGeneratorOutboundPort;
 import fr.upmc.colins.farm3.objects.Request;
 import fr.upmc.colins.farm3.objects.Response;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
+import fr.upmc.colins.farm3.utils.BoundedRingBufferQueue;
+import fr.upmc.colins.farm3.utils.OverflowStrategy;
 import fr.upmc.colins.farm3.utils.TimeProcessing;
 import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.cvm.AbstractCVM;
@@ -30,8 +34,16 @@ import fr.upmc.components.exceptions.ComponentShutdownException;
  * <strong>Description</strong>
  * </p>
  * A request dispatcher is a component that will forward received requests to
- * its dedicated virtual machine. The request dispatcher choose the least
- * recently used virtual machine when forwarding request.
+ * its dedicated virtual machine. The request dispatcher chooses the virtual
+ * machine of each request with its load balancing policy, set by
+ * <code>LOAD_BALANCING</code> (round robin by default), which is fed with the
+ * responses of the virtual machines and the load they report.
+ * The queue of the request dispatcher holds at most
+ * <code>QUEUE_CAPACITY</code> requests (0 for an unbounded queue), with the
+ * overflow strategy <code>OVERFLOW_STRATEGY</code>.  The dispatcher counts
+ * the requests completed and rejected by the whole application, which it
+ * outputs as its goodput when shut down; only completed requests are
+ * reported to the application controller.
  * 
  * 
  * <p>
@@ -46,6 +58,17 @@ extends		AbstractComponent
 {
 
 	protected String logId;
+
+	/** load balancing mode used by the request dispatchers created
+	 *  hereafter.															*/
+	public static LoadBalancingMode		LOAD_BALANCING =
+											LoadBalancingMode.ROUND_ROBIN ;
+	/** maximum number of pending requests of the request dispatchers
+	 *  created hereafter, 0 if unbounded.									*/
+	public static int					QUEUE_CAPACITY = 0 ;
+	/** strategy applied when the queue of pending requests is full.		*/
+	public static OverflowStrategy		OVERFLOW_STRATEGY =
+												OverflowStrategy.REJECT ;
     
 	// -------------------------------------------------------------------------
 	// Constructors and instance variables
@@ -61,11 +84,15 @@ extends		AbstractComponent
 	/** request currently being serviced, null if any.						*/
 	protected Request					servicing ;
 	/** queue of pending requests.											*/
-	protected BlockingQueue<Request>	requestsQueue ;
+	protected BoundedRingBufferQueue<Request>	requestsQueue ;
 	/** sum of the service time of all completed requets.					*/
 	protected long						totalServicingTime ;
 	/** total number of completely serviced requests.						*/
 	protected int						totalNumberOfServicedRequests ;
+	/** total number of requests completed by the virtual machines.			*/
+	protected long						totalNumberOfCompletedRequests ;
+	/** total number of requests rejected by the dispatcher or downstream.	*/
+	protected long						totalNumberOfRejectedRequests ;
 	
 	/** prefix uri of the information inbound port of the appication contorleur	*/
 	protected static final String AC_IIP_PREFIX = "ac-iip-";
@@ -82,8 +109,14 @@ extends		AbstractComponent
 	
 	/** inbound port for the request generator								*/
 	protected RDRequestArrivalInboundPort raip;
+	/** inbound port binding an idle request dispatcher to an application,
+	 *  if any.																*/
+	protected RDBindingInboundPort bip;
 	/** outbound ports to the core											*/
-	protected Queue<RequestGeneratorOutboundPort> rgops;
+	protected ArrayList<RequestGeneratorOutboundPort> rgops;
+	/** policy choosing the virtual machine of each request, indexed as
+	 *  rgops.																*/
+	protected LoadBalancingPolicyI		policy ;
 	
 	/** inbound ports for each cores (to obtain the response) 				*/
 	protected ArrayList<RDResponseArrivalInboundPort> respAips;
@@ -95,12 +128,13 @@ extends		AbstractComponent
 	protected boolean wtf = true;
 	
 	/**
-	 * create a request dispatcher
+	 * create a request dispatcher which is not yet connected to any virtual
+	 * machine.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * pre	true			// no precondition.
+	 * pre	id != null && inboundPortURI != null
 	 * post	true			// no postcondition.
 	 * </pre>
 	 *
@@ -109,39 +143,28 @@ extends		AbstractComponent
 	 * @param inboundPortURI		
 	 * 				URI of the port used to received requests, 
 	 * 				linked to a request generator
-	 * @param outboundPortURIs		
-	 * 				URI of the ports used to send requests,
-	 * 				linked to the virtual machines
-	 * @param vmRequestArrivalInboundPortUris 
-	 * 				URI of the ports to each virtual machines
-	 * @param meanNrofInstructions 
-	 * 				the mean number of instructions
-	 * @param standardDeviation 
-	 * 				the standard deviation
 	 * @throws Exception
 	 */
-	public				RequestDispatcher(
+	protected			RequestDispatcher(
 		Integer id,
-		String inboundPortURI,
-		ArrayList<String> outboundPortURIs,
-		ArrayList<String> vmRequestArrivalInboundPortUris, 
-		Double meanNrofInstructions, 
-		Double standardDeviation
+		String inboundPortURI
 		) throws Exception
 	{
 		super(true, true) ;
 
 		assert id != null;
 		assert inboundPortURI != null;
-		assert outboundPortURIs != null;
 		
 		this.logId = MessageFormat.format("[   RD {0}  ]", String.format("%04d", id));
 		this.id = id ;
 		this.dispatcherIdle = true ;
 		this.servicing = null ;
-		this.requestsQueue = new LinkedBlockingQueue<Request>() ;
+		this.requestsQueue = new BoundedRingBufferQueue<Request>(
+										QUEUE_CAPACITY, OVERFLOW_STRATEGY) ;
 		this.totalServicingTime = 0L ;
 		this.totalNumberOfServicedRequests = 0 ;
+		this.totalNumberOfCompletedRequests = 0L ;
+		this.totalNumberOfRejectedRequests = 0L ;
 
 		// inbound port for request arrival
 		this.addOfferedInterface(RequestArrivalI.class) ;
@@ -153,7 +176,7 @@ extends		AbstractComponent
 			this.raip.localPublishPort() ;
 		}
 		
-		this.rgops = new LinkedList<>(); 
+		this.rgops = new ArrayList<>(); 
 		this.respAips = new ArrayList<>();
 		// interface is added once.
 		this.addRequiredInterface(RequestArrivalI.class) ;
@@ -161,6 +184,138 @@ extends		AbstractComponent
 		// receive response from the virtual machines
 		this.addOfferedInterface(ResponseArrivalI.class) ;
 		
+		this.addRequiredInterface(AppControlerInfoInboundPort.class) ;
+
+		System.out.println(logId + " Request dispatcher (id " + id + ") created") ;
+		assert	id != null;
+		assert	!dispatcherIdle || (servicing == null) ;
+		assert	dispatcherIdle || (servicing != null) ;
+		assert	totalServicingTime >= 0 && totalNumberOfServicedRequests >= 0 ;
+	}
+
+	/**
+	 * create a request dispatcher
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param id					
+	 * 				identifier of the request dispatcher
+	 * @param inboundPortURI		
+	 * 				URI of the port used to received requests, 
+	 * 				linked to a request generator
+	 * @param outboundPortURIs		
+	 * 				URI of the ports used to send requests,
+	 * 				linked to the virtual machines
+	 * @param vmRequestArrivalInboundPortUris 
+	 * 				URI of the ports to each virtual machines
+	 * @param meanNrofInstructions 
+	 * 				the mean number of instructions
+	 * @param standardDeviation 
+	 * 				the standard deviation
+	 * @throws Exception
+	 */
+	public				RequestDispatcher(
+		Integer id,
+		String inboundPortURI,
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> vmRequestArrivalInboundPortUris, 
+		Double meanNrofInstructions, 
+		Double standardDeviation
+		) throws Exception
+	{
+		this(id, inboundPortURI) ;
+		this.bindVirtualMachines(id, outboundPortURIs,
+				vmRequestArrivalInboundPortUris, meanNrofInstructions,
+				standardDeviation) ;
+	}
+
+	/**
+	 * create an idle request dispatcher, which will be connected to the
+	 * virtual machines of an application through its binding inbound port.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	bindingInboundPortURI != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param id					
+	 * 				identifier of the request dispatcher
+	 * @param inboundPortURI		
+	 * 				URI of the port used to received requests, 
+	 * 				linked to a request generator
+	 * @param bindingInboundPortURI
+	 * 				URI of the port used to bind the request dispatcher to
+	 * 				an application
+	 * @throws Exception
+	 */
+	public				RequestDispatcher(
+		Integer id,
+		String inboundPortURI,
+		String bindingInboundPortURI
+		) throws Exception
+	{
+		this(id, inboundPortURI) ;
+
+		assert bindingInboundPortURI != null;
+
+		this.addOfferedInterface(RDBindingI.class) ;
+		this.bip = new RDBindingInboundPort(bindingInboundPortURI, this) ;
+		this.addPort(this.bip) ;
+		if (AbstractCVM.isDistributed) {
+			this.bip.publishPort() ;
+		} else {
+			this.bip.localPublishPort() ;
+		}
+	}
+
+	/**
+	 * connect the request dispatcher to the virtual machines and to the
+	 * application controller of an application, which must be done once
+	 * before the first request arrives.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	applicationUri != null && this.rgops.isEmpty()
+	 * pre	outboundPortURIs.size() == vmRequestArrivalInboundPortUris.size()
+	 * post	!this.rgops.isEmpty()
+	 * </pre>
+	 *
+	 * @param applicationUri
+	 * 				uri of the application, identifying its controller
+	 * @param outboundPortURIs		
+	 * 				URI of the ports used to send requests,
+	 * 				linked to the virtual machines
+	 * @param vmRequestArrivalInboundPortUris 
+	 * 				URI of the ports to each virtual machines
+	 * @param meanNrofInstructions 
+	 * 				the mean number of instructions
+	 * @param standardDeviation 
+	 * 				the standard deviation
+	 * @return	the URI of the port receiving the requests of the application.
+	 * @throws Exception
+	 */
+	public String		bindVirtualMachines(
+		Integer applicationUri,
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> vmRequestArrivalInboundPortUris, 
+		Double meanNrofInstructions, 
+		Double standardDeviation
+		) throws Exception
+	{
+		assert applicationUri != null;
+		assert outboundPortURIs != null;
+		assert this.rgops.isEmpty() ;
+		assert outboundPortURIs.size() ==
+								vmRequestArrivalInboundPortUris.size() ;
+
 		for (int i = 0; i < outboundPortURIs.size(); i++) {
 			String outboundPortURI = outboundPortURIs.get(i);
 			// outbound port for request departure (into a virtual machine)
@@ -181,7 +336,7 @@ extends		AbstractComponent
 			String rdResponseArrivalInboundPortUri = "rd-resp-raip-" + java.util.UUID.randomUUID();
 			
 			// create an inbound port for response from this virtual machine
-			RDResponseArrivalInboundPort respAip = new RDResponseArrivalInboundPort(rdResponseArrivalInboundPortUri, this);
+			RDResponseArrivalInboundPort respAip = new RDResponseArrivalInboundPort(rdResponseArrivalInboundPortUri, this, i);
 			this.respAips.add(respAip);
 			this.addPort(respAip);
 			if(AbstractCVM.isDistributed){
@@ -190,27 +345,72 @@ extends		AbstractComponent
 				respAip.localPublishPort();
 			}
 		}
-
-		
-		this.addRequiredInterface(AppControlerInfoInboundPort.class) ;
+		this.policy = LOAD_BALANCING.newPolicy(this.rgops.size()) ;
 		
-		iop = new InfoOutboundPort(AC_OIP_PREFIX + id, this);
+		iop = new InfoOutboundPort(AC_OIP_PREFIX + applicationUri, this);
 		this.addPort(this.iop) ;
 		if (AbstractCVM.isDistributed) {
 			this.iop.publishPort() ;
 		} else {
 			this.iop.localPublishPort() ;
 		}
-		iop.doConnection(AC_IIP_PREFIX + id, InfoControlAppServiceConnector.class.getCanonicalName());
+		iop.doConnection(AC_IIP_PREFIX + applicationUri, InfoControlAppServiceConnector.class.getCanonicalName());
 
 		this.nd = new NormalDistribution(meanNrofInstructions,
 				standardDeviation);
 
-		System.out.println(logId + " Request dispatcher (id " + id + ") created") ;
-		assert	id != null;
-		assert	!dispatcherIdle || (servicing == null) ;
-		assert	dispatcherIdle || (servicing != null) ;
-		assert	totalServicingTime >= 0 && totalNumberOfServicedRequests >= 0 ;
+		return this.raip.getPortURI() ;
+	}
+
+	/**
+	 * disconnect the request dispatcher from the virtual machines and from
+	 * the application controller of its application, once it has no more
+	 * pending or outstanding requests, so that it is idle again and may be
+	 * bound to another application; the request generator of the
+	 * application must have been disconnected before.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	!ret || this.rgops.isEmpty()
+	 * </pre>
+	 *
+	 * @return	true if the request dispatcher has been unbound, false if it
+	 * 			still has requests in progress.
+	 * @throws Exception
+	 */
+	public boolean		unbindVirtualMachines() throws Exception
+	{
+		if (this.policy != null && (!this.requestsQueue.isEmpty() ||
+								this.policy.getTotalOutstanding() > 0)) {
+			System.out.println(logId + " Requests in progress, not unbound") ;
+			return false ;
+		}
+		for (int i = 0; i < this.rgops.size(); i++) {
+			RequestGeneratorOutboundPort rgop = this.rgops.get(i) ;
+			if (rgop.connected()) {
+				// the virtual machines must no longer send their responses here
+				if (!this.wtf) {
+					rgop.disconnectResponseConnection() ;
+				}
+				rgop.doDisconnection() ;
+			}
+			rgop.destroyPort() ;
+			this.respAips.get(i).destroyPort() ;
+		}
+		this.rgops.clear() ;
+		this.respAips.clear() ;
+		if (this.iop != null) {
+			if (this.iop.connected()) {
+				this.iop.doDisconnection() ;
+			}
+			this.iop.destroyPort() ;
+			this.iop = null ;
+		}
+		this.wtf = true ;
+		System.out.println(logId + " Unbound from its virtual machines") ;
+		return true ;
 	}
 
 	// -------------------------------------------------------------------------
@@ -234,6 +434,9 @@ extends		AbstractComponent
 	@Override
 	public void			shutdown() throws ComponentShutdownException
 	{
+		System.out.println(logId + " Goodput : "
+				+ this.totalNumberOfCompletedRequests + " completed and "
+				+ this.totalNumberOfRejectedRequests + " rejected requests") ;
 		// disconnect rgops
 		for (RequestGeneratorOutboundPort rgop : this.rgops) {
 			try {
@@ -271,7 +474,57 @@ extends		AbstractComponent
 	public void			requestArrivalEvent(Request r) throws Exception
 	{
 		assert	r != null ;
-		long t = System.currentTimeMillis() ;
+
+		this.admitRequest(r) ;
+		if (!this.dispatcherIdle) {
+			System.out.println(logId + " Queueing request " + r) ;
+		} else if (!this.requestsQueue.isEmpty()) {
+			this.beginServicingEvent() ;
+		}
+	}
+
+	/**
+	 * process the arrival of a batch of requests, queueing them and then, if
+	 * the dispatcher is idle, dispatching all of the pending requests with
+	 * one call per virtual machine.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	rs != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param rs
+	 * @throws Exception
+	 */
+	public void			requestsArrivalEvent(ArrayList<Request> rs)
+	throws Exception
+	{
+		assert	rs != null ;
+
+		for (Request r : rs) {
+			this.admitRequest(r) ;
+		}
+		if (!this.dispatcherIdle) {
+			System.out.println(logId + " Queueing requests " + rs) ;
+		} else if (!this.requestsQueue.isEmpty()) {
+			this.dispatchPendingRequests() ;
+		}
+	}
+
+	/**
+	 * draw the number of instructions of a newly arrived request, timestamp
+	 * it and put it in the queue, rejecting the request shed by the overflow
+	 * strategy if the queue is full; upon the first arrival, ask the virtual
+	 * machines to connect their responses to the dispatcher.
+	 *
+	 * @param r	the newly arrived request.
+	 * @throws Exception
+	 */
+	protected void		admitRequest(Request r) throws Exception
+	{
+		long t = EventCalendar.currentTimeMillis() ;
 		Long nrofInstructions = (long) nd.sample();
 		
 		// ask the virtual machines to do the connection to the inbound port of the request dispatcher (for response)
@@ -279,12 +532,11 @@ extends		AbstractComponent
 		if( wtf == true ){
 			wtf = false;
 			System.out.println(logId + " Linking virtual machines to the request dispatcher for response connection");
-			RequestGeneratorOutboundPort[] rgopsArray = rgops.toArray(new RequestGeneratorOutboundPort[0]);
 			for (int i = 0; i < respAips.size(); i++) {
 				RDResponseArrivalInboundPort rdRespAip = respAips.get(i);
-				if (rgopsArray[i].connected()) {
+				if (rgops.get(i).connected()) {
 					try {
-						rgopsArray[i].connectResponseConnection(rdRespAip
+						rgops.get(i).connectResponseConnection(rdRespAip
 								.getServerPortURI());
 					} catch (Exception e) {
 						e.printStackTrace();
@@ -298,12 +550,87 @@ extends		AbstractComponent
 				+ TimeProcessing.toString(t) + " with " + nrofInstructions
 				+ " instructions");
 		r.setArrivalTime(t) ;
-		this.requestsQueue.add(r) ;
-		if (!this.dispatcherIdle) {
-			System.out.println(logId + " Queueing request " + r) ;
-		} else {
-			this.beginServicingEvent() ;
+		Request shed = this.requestsQueue.admit(r) ;
+		if (shed != null) {
+			this.rejectRequest(shed) ;
+		}
+	}
+
+	/**
+	 * reject a request shed by the overflow strategy; as the request
+	 * generator does not receive responses, the rejection is only counted.
+	 *
+	 * @param r	the rejected request.
+	 */
+	protected void		rejectRequest(Request r)
+	{
+		System.out.println(logId + " Rejecting request       " + r + " at " +
+				TimeProcessing.toString(EventCalendar.currentTimeMillis())) ;
+		this.totalNumberOfRejectedRequests++ ;
+	}
+
+	/**
+	 * @return	true if the senders must acquire a slot in the queue of the
+	 * 			request dispatcher before sending it a request.
+	 */
+	public boolean		blocksSenders()
+	{
+		return this.requestsQueue.blocksSenders() ;
+	}
+
+	/**
+	 * block the calling sender until the queue of the request dispatcher has
+	 * room for one more request, if the overflow strategy blocks the senders.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void			acquireQueueSlot() throws InterruptedException
+	{
+		this.requestsQueue.acquireSlot() ;
+	}
+
+	/**
+	 * dispatch all of the pending requests at once, choosing their virtual
+	 * machines with the load balancing policy as <code>scheduleServicing</code>
+	 * but grouping the requests per virtual machine, so that each virtual
+	 * machine receives its share of the burst in a single call.
+	 */
+	protected void		dispatchPendingRequests()
+	{
+		this.dispatcherIdle = false ;
+		long t = EventCalendar.currentTimeMillis() ;
+		LinkedHashMap<RequestGeneratorOutboundPort,ArrayList<Request>> batches =
+				new LinkedHashMap<RequestGeneratorOutboundPort,ArrayList<Request>>() ;
+		while (!this.requestsQueue.isEmpty()) {
+			Request r = this.requestsQueue.remove() ;
+			System.out.println(logId + " Dispatching request     " + r
+					+ " at " + TimeProcessing.toString(t)) ;
+			int target = this.policy.select() ;
+			this.policy.dispatched(target) ;
+			RequestGeneratorOutboundPort rgop = this.rgops.get(target) ;
+			ArrayList<Request> batch = batches.get(rgop) ;
+			if (batch == null) {
+				batch = new ArrayList<Request>() ;
+				batches.put(rgop, batch) ;
+			}
+			batch.add(r) ;
+			this.totalServicingTime += t - r.getArrivalTime() ;
+			this.totalNumberOfServicedRequests++ ;
+		}
+		for (Map.Entry<RequestGeneratorOutboundPort,ArrayList<Request>> e :
+														batches.entrySet()) {
+			try {
+				if (e.getValue().size() == 1) {
+					e.getKey().acceptRequest(e.getValue().get(0)) ;
+				} else {
+					e.getKey().acceptRequests(e.getValue()) ;
+				}
+			} catch (Exception ex) {
+				ex.printStackTrace() ;
+			}
 		}
+		this.servicing = null ;
+		this.dispatcherIdle = true ;
 	}
 
 	
@@ -336,10 +663,10 @@ extends		AbstractComponent
 		try {
 			System.out.println(logId + " Dispatching request     "
 					+ this.servicing + " at "
-					+ TimeProcessing.toString(System.currentTimeMillis())) ;
-			RequestGeneratorOutboundPort rgop = this.rgops.poll();		
-			rgop.acceptRequest(request);
-			this.rgops.add(rgop);
+					+ TimeProcessing.toString(EventCalendar.currentTimeMillis())) ;
+			int target = this.policy.select() ;
+			this.policy.dispatched(target) ;
+			this.rgops.get(target).acceptRequest(request) ;
 			this.endServicingEvent() ;
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -362,7 +689,7 @@ extends		AbstractComponent
 	 */
 	public void			endServicingEvent() throws Exception
 	{
-		long t = System.currentTimeMillis() ;
+		long t = EventCalendar.currentTimeMillis() ;
 		long st = t - this.servicing.getArrivalTime() ; 
 		this.totalServicingTime += st ;
 		this.totalNumberOfServicedRequests++ ;
@@ -380,9 +707,20 @@ extends		AbstractComponent
 	/**
 	 * update the mean time of request processing (from the virtual machine)
 	 * TODO and forward the mean of mean time to a controller
+	 * @param vm the index of the virtual machine which sent the response
 	 * @param response the received response
 	 */
-	public void responseArrivalEvent(Response response) {
+	public void responseArrivalEvent(int vm, Response response) {
+		this.policy.completed(vm, 1) ;
+		if (response.hasLoad()) {
+			this.policy.reportLoad(vm, response.getQueueLength(),
+											response.getClockSpeed()) ;
+		}
+		if (response.isRejected()) {
+			this.totalNumberOfRejectedRequests++ ;
+			return ;
+		}
+		this.totalNumberOfCompletedRequests++ ;
 		/*
 		if(this.meanTime < 0){
 			// first set
@@ -393,7 +731,7 @@ extends		AbstractComponent
 		System.out.println(logId + " New mean time : " + this.meanTime);
 		*/
 		try {
-			iop.receiveInfo(response.getDuration()+"");
+			iop.receiveSample(response.getDuration());
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
@@ -403,4 +741,35 @@ extends		AbstractComponent
 		// TODO send the new mean time of the request dispatcher to a controller
 
 	}
+
+	/**
+	 * forward the statistics received from a virtual machine to the
+	 * application controller.
+	 * 
+	 * @param vm			the index of the virtual machine which sent the
+	 * 						statistics.
+	 * @param statistics	the received statistics.
+	 */
+	public void			responseStatisticsArrivalEvent(
+		int vm,
+		ResponseStatistics statistics
+		)
+	{
+		assert	statistics != null ;
+
+		if (statistics.hasLoad()) {
+			this.policy.reportLoad(vm, statistics.getQueueLength(),
+											statistics.getClockSpeed()) ;
+		}
+		if (statistics.isEmpty()) {
+			return ;
+		}
+		this.policy.completed(vm, statistics.getCount()) ;
+		this.totalNumberOfCompletedRequests += statistics.getCount() ;
+		try {
+			iop.receiveStatistics(statistics);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
 }
@@ -32,5 +32,13 @@ public class DynamicRequestDispatcher extends RequestDispatcher {
 				meanNrofInstructions, standardDeviation);
 	}
 
+	public DynamicRequestDispatcher(
+			Integer id, 
+			String inboundPortURI,
+			String bindingInboundPortURI)
+			throws Exception {
+		super(id, inboundPortURI, bindingInboundPortURI);
+	}
+
 
 }
@@ -41,4 +41,9 @@ public class ApplicationRequestGeneratorOutboundPort extends
 		return ((ApplicationRequestArrivalI) this.connector).acceptApplication(a);
 	}
 
+	@Override
+	public boolean releaseApplication(Integer applicationUri) throws Exception {
+		return ((ApplicationRequestArrivalI) this.connector).releaseApplication(applicationUri);
+	}
+
 }
\ No newline at end of file
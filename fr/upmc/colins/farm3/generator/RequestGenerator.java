@@ -12,6 +12,7 @@ import fr.upmc.colins.farm3.connectors.RequestServiceConnector;
 import fr.upmc.colins.farm3.core.RequestArrivalI;
 import fr.upmc.colins.farm3.objects.Application;
 import fr.upmc.colins.farm3.objects.Request;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
 import fr.upmc.colins.farm3.utils.TimeProcessing;
 import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.exceptions.ComponentShutdownException;
@@ -32,7 +33,15 @@ import fr.upmc.components.exceptions.ComponentShutdownException;
  * run after the interarrival time also generated from its exponential
  * distribution. To stop the generation process, the method
  * <code>shutdown</code> uses the future returned when scheduling the next
- * request generation to cancel its execution.
+ * request generation to cancel its execution. When an
+ * <code>EventCalendar</code> is installed, the next generation is registered
+ * in the calendar instead, in virtual time.
+ * 
+ * At high arrival rates, the requests which arrive within
+ * <code>BATCH_WINDOW</code> ms of the first one are generated at once and
+ * sent with a single <code>acceptRequests</code> call per application,
+ * hence ahead of their arrival time by less than the window.  With the
+ * default null window, each request is sent on its own.
  * 
  * <p>
  * <strong>Invariant</strong>
@@ -56,6 +65,11 @@ public class RequestGenerator extends AbstractComponent {
 
 	private static final String logId = "[ RequestGen ]";
 
+	/** window in ms within which the arriving requests are coalesced in
+	 *  a batch, 0 to send each request on its own.							*/
+	public static long			BATCH_WINDOW = 0L ;
+	/** maximum number of requests coalesced in a batch.					*/
+	public static int			MAX_BATCH_SIZE = 64 ;
 
 	// -------------------------------------------------------------------------
 	// Constructors and instance variables
@@ -235,22 +249,45 @@ public class RequestGenerator extends AbstractComponent {
 			appCount++;
 		}
 		
-		// draw a random app from the deployed app
-		
-		int	requestedApp = 0;
-		if(appCount > 1){
-			requestedApp = this.rng.nextInt(0, appCount - 1);
+		// draw a random app from the deployed app, coalescing the requests
+		// arriving within the batch window
+
+		ArrayList<ArrayList<Request>> batches = new ArrayList<>() ;
+		for (int i = 0; i < appCount; i++) {
+			batches.add(new ArrayList<Request>()) ;
 		}
-		if(this.rgops.get(requestedApp).connected()){
-			this.rgops.get(requestedApp).acceptRequest(new Request(this.counter++, requestedApp));
+		int	requestedApp = 0;
+		int batched = 0 ;
+		long elapsed = 0L ;
+		long interArrivalDelay = 0L ;
+		do {
+			elapsed += interArrivalDelay ;
+			requestedApp = 0;
+			if(appCount > 1){
+				requestedApp = this.rng.nextInt(0, appCount - 1);
+			}
+			if(this.rgops.get(requestedApp).connected()){
+				batches.get(requestedApp).add(new Request(this.counter++, requestedApp));
+				batched++ ;
+			}
+			interArrivalDelay = (long) this.rng
+					.nextExponential(this.meanInterArrivalTime);
+		} while (elapsed + interArrivalDelay < BATCH_WINDOW
+									&& batched < MAX_BATCH_SIZE) ;
+		for (int i = 0; i < batches.size(); i++) {
+			ArrayList<Request> batch = batches.get(i) ;
+			if (batch.size() == 1) {
+				this.rgops.get(i).acceptRequest(batch.get(0)) ;
+			} else if (batch.size() > 1) {
+				this.rgops.get(i).acceptRequests(batch) ;
+			}
 		}
+		interArrivalDelay += elapsed ;
 		final RequestGenerator cg = this;
-		long interArrivalDelay = (long) this.rng
-				.nextExponential(this.meanInterArrivalTime);
 		System.out.println(logId +" App "+requestedApp  + " Scheduling request        at "
-				+ TimeProcessing.toString(System.currentTimeMillis()
+				+ TimeProcessing.toString(EventCalendar.currentTimeMillis()
 						+ interArrivalDelay));
-		this.nextRequestTaskFuture = this.scheduleTask(new ComponentTask() {
+		ComponentTask t = new ComponentTask() {
 			@Override
 			public void run() {
 				try {
@@ -259,6 +296,13 @@ public class RequestGenerator extends AbstractComponent {
 					e.printStackTrace();
 				}
 			}
-		}, interArrivalDelay, TimeUnit.MILLISECONDS);
+		};
+		if (EventCalendar.isVirtualTime()) {
+			this.nextRequestTaskFuture = EventCalendar.getCalendar()
+					.scheduleAfter(this, t, interArrivalDelay);
+		} else {
+			this.nextRequestTaskFuture = this.scheduleTask(t,
+					interArrivalDelay, TimeUnit.MILLISECONDS);
+		}
 	}
 }
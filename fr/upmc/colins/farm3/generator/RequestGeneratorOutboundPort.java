@@ -1,5 +1,7 @@
 package fr.upmc.colins.farm3.generator;
 
+import java.util.ArrayList;
+
 import fr.upmc.colins.farm3.core.RequestArrivalI;
 import fr.upmc.colins.farm3.objects.Request;
 import fr.upmc.components.ComponentI;
@@ -72,10 +74,33 @@ implements	RequestArrivalI
 	{
 		((RequestArrivalI)this.connector).acceptRequest(r) ;
 	}
+
+	/**
+	 * pass the batch of requests to the connector.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true				// no more preconditions.
+	 * post	true				// no more postconditions.
+	 * </pre>
+	 * 
+	 * @see fr.upmc.colins.farm3.core.RequestArrivalI#acceptRequests(java.util.ArrayList)
+	 */
+	@Override
+	public void			acceptRequests(ArrayList<Request> rs) throws Exception
+	{
+		((RequestArrivalI)this.connector).acceptRequests(rs) ;
+	}
 	
 	@Override
 	public void 			connectResponseConnection(String vmResponseArrivalInboundPortUri) throws Exception {
 		((RequestArrivalI)this.connector).connectResponseConnection(vmResponseArrivalInboundPortUri) ;
 	}
 
+	@Override
+	public void			disconnectResponseConnection() throws Exception {
+		((RequestArrivalI)this.connector).disconnectResponseConnection() ;
+	}
+
 }
@@ -1,6 +1,13 @@
 package fr.upmc.colins.farm3.objects;
 
-import java.io.Serializable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import fr.upmc.components.transport.CompactCodecs;
 
 /**
  * The class <code>Application</code> defines objects representing application
@@ -13,7 +20,9 @@ import java.io.Serializable;
  * creation time and a standard deviation.
  * 
  * As the object can be passed as parameter of a remote method call, the class
- * implements the Java interface <code>Serializable</code>.
+ * implements the Java interface <code>Externalizable</code>, with a compact
+ * encoding of its fields also used by the codec of the socket transport
+ * (see <code>ObjectCodecs</code>).
  * 
  * <p>
  * <strong>Invariant</strong>
@@ -31,7 +40,7 @@ import java.io.Serializable;
  * @version $Name$ -- $Revision$ -- $Date$
  */
 public class			Application
-implements 	Serializable
+implements 	Externalizable
 {
 	private static final long serialVersionUID = 1L;
 
@@ -49,6 +58,15 @@ implements 	Serializable
 	//priorit de l'app  = son id pour la coordination
 	private Integer prio;
 	
+	/**
+	 * create an empty application, which fields are read when it is received
+	 * from another JVM.
+	 */
+	public				Application()
+	{
+		super() ;
+	}
+
 	/**
 	 * create a new application with given uri, a mean number of instructions
 	 * and a standard deviation
@@ -205,6 +223,64 @@ implements 	Serializable
 	public void setPrio(Integer prio) {
 		this.prio = prio;
 	}
+
+	/**
+	 * write the fields of the application, the optional expected time and
+	 * priority being announced by a flag byte.
+	 *
+	 * @param out			output receiving the encoding.
+	 * @throws IOException
+	 */
+	public void			writeTo(DataOutput out) throws IOException
+	{
+		CompactCodecs.writeVarInt(out, this.uri) ;
+		out.writeDouble(this.meanNrofInstructions) ;
+		out.writeDouble(this.standardDeviation) ;
+		CompactCodecs.writeVarLong(out, this.arrivalTime) ;
+		out.writeByte((this.expectedTime != null ? 1 : 0) |
+					  (this.prio != null ? 2 : 0)) ;
+		if (this.expectedTime != null) {
+			out.writeDouble(this.expectedTime) ;
+		}
+		if (this.prio != null) {
+			CompactCodecs.writeVarInt(out, this.prio) ;
+		}
+	}
+
+	/**
+	 * read the fields of the application written by <code>writeTo</code>.
+	 *
+	 * @param in			input providing the encoding.
+	 * @throws IOException
+	 */
+	public void			readFrom(DataInput in) throws IOException
+	{
+		this.uri = CompactCodecs.readVarInt(in) ;
+		this.meanNrofInstructions = in.readDouble() ;
+		this.standardDeviation = in.readDouble() ;
+		this.arrivalTime = CompactCodecs.readVarLong(in) ;
+		int flags = in.readByte() ;
+		this.expectedTime = (flags & 1) != 0 ? in.readDouble() : null ;
+		this.prio = (flags & 2) != 0 ? CompactCodecs.readVarInt(in) : null ;
+	}
+
+	/**
+	 * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+	 */
+	@Override
+	public void			writeExternal(ObjectOutput out) throws IOException
+	{
+		this.writeTo(out) ;
+	}
+
+	/**
+	 * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
+	 */
+	@Override
+	public void			readExternal(ObjectInput in) throws IOException
+	{
+		this.readFrom(in) ;
+	}
 	
 	
 	
@@ -0,0 +1,124 @@
+package fr.upmc.colins.farm3.objects;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import fr.upmc.components.transport.CompactCodecs;
+
+/**
+ * The class <code>CodecBenchmark</code> compares the sizes and throughputs
+ * of the Java serialisation and of the compact codecs of the requests,
+ * responses and applications.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * Each object is encoded and decoded alone, as when it is the parameter of
+ * a remote call: in a fresh object stream for the Java serialisation, as
+ * RMI does for each call, and with <code>CompactCodecs</code> as the socket
+ * transport does.  The program prints, for each class and encoding, the
+ * size of the encoding of one object and the number of objects encoded and
+ * decoded per second.
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			CodecBenchmark
+{
+	/** number of objects encoded and decoded before the measures.			*/
+	protected static final int	WARM_UP = 50000 ;
+	/** number of objects encoded and decoded by a measure.				*/
+	protected static final int	ITERATIONS = 200000 ;
+
+	protected static byte[]		serialise(Object o) throws IOException
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(256) ;
+		ObjectOutputStream oos = new ObjectOutputStream(bos) ;
+		oos.writeObject(o) ;
+		oos.close() ;
+		return bos.toByteArray() ;
+	}
+
+	protected static Object		deserialise(byte[] bytes) throws Exception
+	{
+		ObjectInputStream ois =
+				new ObjectInputStream(new ByteArrayInputStream(bytes)) ;
+		Object o = ois.readObject() ;
+		ois.close() ;
+		return o ;
+	}
+
+	protected static byte[]		encode(Object o) throws IOException
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(64) ;
+		DataOutputStream dos = new DataOutputStream(bos) ;
+		CompactCodecs.writeValue(dos, o) ;
+		dos.flush() ;
+		return bos.toByteArray() ;
+	}
+
+	protected static Object		decode(byte[] bytes) throws IOException
+	{
+		return CompactCodecs.readValue(
+				new DataInputStream(new ByteArrayInputStream(bytes))) ;
+	}
+
+	/**
+	 * encode and decode an object repeatedly with both encodings, and print
+	 * the results.
+	 *
+	 * @param name			name of the class of the object.
+	 * @param o				object to be encoded.
+	 * @throws Exception
+	 */
+	protected static void	measure(String name, Object o) throws Exception
+	{
+		for (int i = 0 ; i < WARM_UP ; i++) {
+			deserialise(serialise(o)) ;
+			decode(encode(o)) ;
+		}
+		long start = System.nanoTime() ;
+		for (int i = 0 ; i < ITERATIONS ; i++) {
+			deserialise(serialise(o)) ;
+		}
+		long serialisation = System.nanoTime() - start ;
+		start = System.nanoTime() ;
+		for (int i = 0 ; i < ITERATIONS ; i++) {
+			decode(encode(o)) ;
+		}
+		long codec = System.nanoTime() - start ;
+		System.out.println(
+			String.format("%-12s serialisation : %4d bytes, %9.0f objects/s",
+						  name, serialise(o).length,
+						  ITERATIONS * 1.0e9 / serialisation)) ;
+		System.out.println(
+			String.format("%-12s codec         : %4d bytes, %9.0f objects/s",
+						  name, encode(o).length,
+						  ITERATIONS * 1.0e9 / codec)) ;
+	}
+
+	public static void	main(String[] args)
+	{
+		try {
+			ObjectCodecs.register() ;
+			Request r = new Request(1234, 2) ;
+			r.setNrofInstructions(1500000L) ;
+			r.setArrivalTime(System.currentTimeMillis()) ;
+			Response resp = new Response(1234) ;
+			resp.setDuration(1250.0) ;
+			resp.setLoad(3, 2.0) ;
+			Application a = new Application(2, 1500000.0, 100000.0, 1500.0, 2) ;
+			measure("Request", r) ;
+			measure("Response", resp) ;
+			measure("Application", a) ;
+		} catch (Exception e) {
+			e.printStackTrace() ;
+		}
+	}
+}
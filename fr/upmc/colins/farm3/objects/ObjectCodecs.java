@@ -0,0 +1,95 @@
+package fr.upmc.colins.farm3.objects;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import fr.upmc.components.transport.CompactCodecI;
+import fr.upmc.components.transport.CompactCodecs;
+
+/**
+ * The class <code>ObjectCodecs</code> registers the compact codecs of the
+ * requests, responses and applications sent between JVMs by the socket
+ * transport.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The codecs use the <code>writeTo</code> and <code>readFrom</code> methods
+ * of the objects, which also implement their <code>Externalizable</code>
+ * form used by RMI; with the codecs, a request is sent in a few bytes,
+ * without any class metadata.  The codecs must be registered in all of the
+ * JVM of an assembly, before their deployment.
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			ObjectCodecs
+{
+	/** identifier of the codec of the requests.							*/
+	public static final int		REQUEST_CODEC_ID = 1 ;
+	/** identifier of the codec of the responses.							*/
+	public static final int		RESPONSE_CODEC_ID = 2 ;
+	/** identifier of the codec of the applications.						*/
+	public static final int		APPLICATION_CODEC_ID = 3 ;
+
+	/** codec of the requests.												*/
+	public static final CompactCodecI<Request>		REQUEST_CODEC =
+		new CompactCodecI<Request>() {
+			@Override
+			public void encode(Request r, DataOutput out) throws IOException {
+				r.writeTo(out) ;
+			}
+			@Override
+			public Request decode(DataInput in) throws IOException {
+				Request r = new Request() ;
+				r.readFrom(in) ;
+				return r ;
+			}
+		} ;
+
+	/** codec of the responses.											*/
+	public static final CompactCodecI<Response>		RESPONSE_CODEC =
+		new CompactCodecI<Response>() {
+			@Override
+			public void encode(Response r, DataOutput out) throws IOException {
+				r.writeTo(out) ;
+			}
+			@Override
+			public Response decode(DataInput in) throws IOException {
+				Response r = new Response() ;
+				r.readFrom(in) ;
+				return r ;
+			}
+		} ;
+
+	/** codec of the applications.											*/
+	public static final CompactCodecI<Application>	APPLICATION_CODEC =
+		new CompactCodecI<Application>() {
+			@Override
+			public void encode(Application a, DataOutput out)
+			throws IOException {
+				a.writeTo(out) ;
+			}
+			@Override
+			public Application decode(DataInput in) throws IOException {
+				Application a = new Application() ;
+				a.readFrom(in) ;
+				return a ;
+			}
+		} ;
+
+	/**
+	 * register the codecs of the requests, responses and applications.
+	 */
+	public static void	register()
+	{
+		CompactCodecs.register(REQUEST_CODEC_ID, Request.class,
+							   REQUEST_CODEC) ;
+		CompactCodecs.register(RESPONSE_CODEC_ID, Response.class,
+							   RESPONSE_CODEC) ;
+		CompactCodecs.register(APPLICATION_CODEC_ID, Application.class,
+							   APPLICATION_CODEC) ;
+	}
+}
@@ -1,6 +1,13 @@
 package fr.upmc.colins.farm3.objects;
 
-import java.io.Serializable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import fr.upmc.components.transport.CompactCodecs;
 
 /**
  * The class <code>Request</code> defines objects representing requests.
@@ -16,7 +23,9 @@ import java.io.Serializable;
  * request.
  * 
  * As the object can be passed as parameter of a remote method call, the class
- * implements the Java interface <code>Serializable</code>.
+ * implements the Java interface <code>Externalizable</code>, with a compact
+ * encoding of its fields also used by the codec of the socket transport
+ * (see <code>ObjectCodecs</code>).
  * 
  * <p>
  * <strong>Invariant</strong>
@@ -35,7 +44,7 @@ import java.io.Serializable;
  * @version $Name$ -- $Revision$ -- $Date$
  */
 public class			Request
-implements 	Serializable
+implements 	Externalizable
 {
 	private static final long serialVersionUID = 1L;
 
@@ -50,6 +59,15 @@ implements 	Serializable
 	/** time attendu de traitement pour cette requette		    			*/
 	protected long		expectedTime ;
 
+	/**
+	 * create an empty request, which fields are read when it is received
+	 * from another JVM.
+	 */
+	public Request()
+	{
+		super() ;
+	}
+
 	/**
 	 * create a new request with given uri and processing time.
 	 * 
@@ -163,4 +181,52 @@ implements 	Serializable
 		return uri;
 	}
 
+	/**
+	 * write the fields of the request as variable length integers.
+	 *
+	 * @param out			output receiving the encoding.
+	 * @throws IOException
+	 */
+	public void			writeTo(DataOutput out) throws IOException
+	{
+		CompactCodecs.writeVarInt(out, this.uri) ;
+		CompactCodecs.writeVarInt(out, this.appId) ;
+		CompactCodecs.writeVarLong(out, this.nrofInstructions) ;
+		CompactCodecs.writeVarLong(out, this.arrivalTime) ;
+		CompactCodecs.writeVarLong(out, this.expectedTime) ;
+	}
+
+	/**
+	 * read the fields of the request written by <code>writeTo</code>.
+	 *
+	 * @param in			input providing the encoding.
+	 * @throws IOException
+	 */
+	public void			readFrom(DataInput in) throws IOException
+	{
+		this.uri = CompactCodecs.readVarInt(in) ;
+		this.appId = CompactCodecs.readVarInt(in) ;
+		this.nrofInstructions = CompactCodecs.readVarLong(in) ;
+		this.arrivalTime = CompactCodecs.readVarLong(in) ;
+		this.expectedTime = CompactCodecs.readVarLong(in) ;
+	}
+
+	/**
+	 * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+	 */
+	@Override
+	public void			writeExternal(ObjectOutput out) throws IOException
+	{
+		this.writeTo(out) ;
+	}
+
+	/**
+	 * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
+	 */
+	@Override
+	public void			readExternal(ObjectInput in) throws IOException
+	{
+		this.readFrom(in) ;
+	}
+
 }
@@ -1,6 +1,13 @@
 package fr.upmc.colins.farm3.objects;
 
-import java.io.Serializable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import fr.upmc.components.transport.CompactCodecs;
 
 /**
  * The class <code>Response</code> defines objects representing a response.
@@ -9,10 +16,16 @@ import java.io.Serializable;
  * <p>
  * <strong>Description</strong>
  * </p>
- * A response is composed of an uri and the duration time taken by the request
+ * A response is composed of an uri and the duration time taken by the request,
+ * together with the load of the component which sent it, i.e. its queue length
+ * and its clock speed, used by the load balancing policies of its receiver.
+ * A rejection response replaces the response of a request shed by a full
+ * queue; it carries no duration.
  *
  * As the object can be passed as parameter of a remote method call, the class
- * implements the Java interface <code>Serializable</code>.
+ * implements the Java interface <code>Externalizable</code>, with a compact
+ * encoding of its fields also used by the codec of the socket transport
+ * (see <code>ObjectCodecs</code>).
  * 
  * <p>
  * <strong>Invariant</strong>
@@ -30,7 +43,7 @@ import java.io.Serializable;
  * @version $Name$ -- $Revision$ -- $Date$
  */
 public class			Response
-    implements 	Serializable
+    implements 	Externalizable
 {
     private static final long serialVersionUID = 1L;
 
@@ -38,6 +51,21 @@ public class			Response
     protected int		uri ;
     /** time at which it has been received by the service consumer.			*/
     protected Double	duration ;
+    /** number of requests waiting in the sender, -1 if unknown.			*/
+    protected int		queueLength ;
+    /** clock speed, or processing capacity, of the sender, 0 if unknown.	*/
+    protected double	clockSpeed ;
+    /** true if the request has been rejected instead of serviced.			*/
+    protected boolean	rejected ;
+
+    /**
+     * create an empty response, which fields are read when it is received
+     * from another JVM.
+     */
+    public				Response()
+    {
+        super() ;
+    }
 
     /**
      * create a new response with given uri and processing time.
@@ -60,6 +88,9 @@ public class			Response
 
         this.uri = uri ;
         this.duration = 0.0 ;
+        this.queueLength = -1 ;
+        this.clockSpeed = 0.0 ;
+        this.rejected = false ;
 
         assert	this.duration >= 0 ;
     }
@@ -100,6 +131,73 @@ public class			Response
         this.duration = duration;
     }
 
+    /**
+     * @return	true if the request has been rejected instead of serviced.
+     */
+    public boolean		isRejected()
+    {
+        return this.rejected ;
+    }
+
+    /**
+     * mark the response as the rejection of its request.
+     *
+     * <p><strong>Contract</strong></p>
+     *
+     * <pre>
+     * pre	true			// no precondition.
+     * post	isRejected()
+     * </pre>
+     */
+    public void			setRejected()
+    {
+        this.rejected = true ;
+    }
+
+    /**
+     * @return	true if the sender has reported its load.
+     */
+    public boolean		hasLoad()
+    {
+        return this.queueLength >= 0 && this.clockSpeed > 0.0 ;
+    }
+
+    /**
+     * @return	the number of requests waiting in the sender.
+     */
+    public int			getQueueLength()
+    {
+        return this.queueLength ;
+    }
+
+    /**
+     * @return	the clock speed, or processing capacity, of the sender.
+     */
+    public double		getClockSpeed()
+    {
+        return this.clockSpeed ;
+    }
+
+    /**
+     * sets the load of the sender.
+     *
+     * <p><strong>Contract</strong></p>
+     *
+     * <pre>
+     * pre	queueLength >= 0 && clockSpeed > 0.0
+     * post	hasLoad()
+     * </pre>
+     *
+     * @param queueLength	number of requests waiting in the sender.
+     * @param clockSpeed	clock speed, or processing capacity, of the sender.
+     */
+    public void			setLoad(int queueLength, double clockSpeed)
+    {
+        assert	queueLength >= 0 && clockSpeed > 0.0 ;
+        this.queueLength = queueLength ;
+        this.clockSpeed = clockSpeed ;
+    }
+
     /**
      * @see java.lang.Object#toString()
      */
@@ -108,4 +206,60 @@ public class			Response
     {
         return "" + this.uri ;
     }
+
+    /**
+     * write the fields of the response, a flag byte giving the rejection
+     * and the presence of the duration and of the clock speed.
+     *
+     * @param out			output receiving the encoding.
+     * @throws IOException
+     */
+    public void			writeTo(DataOutput out) throws IOException
+    {
+        CompactCodecs.writeVarInt(out, this.uri) ;
+        out.writeByte((this.rejected ? 1 : 0) |
+                      (this.duration != null ? 2 : 0) |
+                      (this.clockSpeed != 0.0 ? 4 : 0)) ;
+        if (this.duration != null) {
+            out.writeDouble(this.duration) ;
+        }
+        CompactCodecs.writeVarInt(out, this.queueLength) ;
+        if (this.clockSpeed != 0.0) {
+            out.writeDouble(this.clockSpeed) ;
+        }
+    }
+
+    /**
+     * read the fields of the response written by <code>writeTo</code>.
+     *
+     * @param in			input providing the encoding.
+     * @throws IOException
+     */
+    public void			readFrom(DataInput in) throws IOException
+    {
+        this.uri = CompactCodecs.readVarInt(in) ;
+        int flags = in.readByte() ;
+        this.rejected = (flags & 1) != 0 ;
+        this.duration = (flags & 2) != 0 ? in.readDouble() : null ;
+        this.queueLength = CompactCodecs.readVarInt(in) ;
+        this.clockSpeed = (flags & 4) != 0 ? in.readDouble() : 0.0 ;
+    }
+
+    /**
+     * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+     */
+    @Override
+    public void			writeExternal(ObjectOutput out) throws IOException
+    {
+        this.writeTo(out) ;
+    }
+
+    /**
+     * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
+     */
+    @Override
+    public void			readExternal(ObjectInput in) throws IOException
+    {
+        this.readFrom(in) ;
+    }
 }
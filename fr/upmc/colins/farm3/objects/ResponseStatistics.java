@@ -0,0 +1,273 @@
+package fr.upmc.colins.farm3.objects;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The class <code>ResponseStatistics</code> defines objects aggregating the
+ * service times of a set of responses.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * Instead of sending one response per serviced request, cores accumulate
+ * the service times of their responses over a period of
+ * <code>FLUSH_PERIOD</code> ms in a statistics object which is then sent at
+ * once; virtual machines merge the statistics of their cores before
+ * forwarding them.  The statistics keep the count, the sum, the minimum and
+ * the maximum of the service times, as well as a histogram with buckets of
+ * <code>HISTOGRAM_BUCKET_WIDTH</code> ms, the last bucket counting all of
+ * the greater service times.  The statistics also carry the load of their
+ * sender when they are sent, for the load balancing policies of its receiver.
+ *
+ * As the object can be passed as parameter of a remote method call, the class
+ * implements the Java interface <code>Serializable</code>.  Once sent, a
+ * statistics object must no longer be modified by its sender.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	count >= 0 && sum >= 0
+ * invariant	count == 0 || min <= max
+ * </pre>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			ResponseStatistics
+implements	Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** period in ms at which the cores and the virtual machines send their
+	 *  statistics, 0 to send one response per serviced request.			*/
+	public static long			FLUSH_PERIOD = 0L ;
+	/** width of the buckets of the histogram in ms.						*/
+	public static long			HISTOGRAM_BUCKET_WIDTH = 100L ;
+	/** number of buckets of the histogram.									*/
+	public static int			HISTOGRAM_SIZE = 32 ;
+
+	/** number of aggregated service times.									*/
+	protected long				count ;
+	/** sum of the aggregated service times.								*/
+	protected long				sum ;
+	/** minimum of the aggregated service times.							*/
+	protected long				min ;
+	/** maximum of the aggregated service times.							*/
+	protected long				max ;
+	/** width of the buckets of the histogram in ms.						*/
+	protected final long		bucketWidth ;
+	/** number of service times per bucket.									*/
+	protected final long[]		histogram ;
+	/** number of requests waiting in the sender, -1 if unknown.			*/
+	protected int				queueLength ;
+	/** clock speed, or processing capacity, of the sender, 0 if unknown.	*/
+	protected double			clockSpeed ;
+
+	/**
+	 * create empty statistics.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	isEmpty()
+	 * </pre>
+	 */
+	public				ResponseStatistics()
+	{
+		super() ;
+
+		this.count = 0 ;
+		this.sum = 0 ;
+		this.min = Long.MAX_VALUE ;
+		this.max = Long.MIN_VALUE ;
+		this.bucketWidth = HISTOGRAM_BUCKET_WIDTH ;
+		this.histogram = new long[HISTOGRAM_SIZE] ;
+		this.queueLength = -1 ;
+		this.clockSpeed = 0.0 ;
+	}
+
+	/**
+	 * add a service time to the statistics.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	serviceTime >= 0
+	 * post	!isEmpty()
+	 * </pre>
+	 *
+	 * @param serviceTime	service time of a response in ms.
+	 */
+	public void			add(long serviceTime)
+	{
+		assert	serviceTime >= 0 ;
+
+		this.count++ ;
+		this.sum += serviceTime ;
+		this.min = Math.min(this.min, serviceTime) ;
+		this.max = Math.max(this.max, serviceTime) ;
+		int bucket = (int) Math.min(serviceTime / this.bucketWidth,
+									this.histogram.length - 1) ;
+		this.histogram[bucket]++ ;
+	}
+
+	/**
+	 * merge other statistics into these ones.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	other != null
+	 * pre	other.bucketWidth == bucketWidth
+	 * pre	other.histogram.length == histogram.length
+	 * post	getCount() == getCount()@pre + other.getCount()
+	 * </pre>
+	 *
+	 * @param other	statistics to be merged.
+	 */
+	public void			merge(ResponseStatistics other)
+	{
+		assert	other != null ;
+		assert	other.bucketWidth == this.bucketWidth ;
+		assert	other.histogram.length == this.histogram.length ;
+
+		this.count += other.count ;
+		this.sum += other.sum ;
+		this.min = Math.min(this.min, other.min) ;
+		this.max = Math.max(this.max, other.max) ;
+		for (int i = 0 ; i < this.histogram.length ; i++) {
+			this.histogram[i] += other.histogram[i] ;
+		}
+	}
+
+	/**
+	 * @return	true if no service time has been aggregated.
+	 */
+	public boolean		isEmpty()
+	{
+		return this.count == 0 ;
+	}
+
+	/**
+	 * @return	the number of aggregated service times.
+	 */
+	public long			getCount()
+	{
+		return this.count ;
+	}
+
+	/**
+	 * @return	the sum of the aggregated service times.
+	 */
+	public long			getSum()
+	{
+		return this.sum ;
+	}
+
+	/**
+	 * @return	the minimum of the aggregated service times.
+	 */
+	public long			getMin()
+	{
+		assert	!this.isEmpty() ;
+
+		return this.min ;
+	}
+
+	/**
+	 * @return	the maximum of the aggregated service times.
+	 */
+	public long			getMax()
+	{
+		assert	!this.isEmpty() ;
+
+		return this.max ;
+	}
+
+	/**
+	 * @return	the mean of the aggregated service times.
+	 */
+	public double		getMean()
+	{
+		assert	!this.isEmpty() ;
+
+		return ((double) this.sum) / this.count ;
+	}
+
+	/**
+	 * @return	the width of the buckets of the histogram in ms.
+	 */
+	public long			getBucketWidth()
+	{
+		return this.bucketWidth ;
+	}
+
+	/**
+	 * @return	a copy of the histogram of the service times.
+	 */
+	public long[]		getHistogram()
+	{
+		return Arrays.copyOf(this.histogram, this.histogram.length) ;
+	}
+
+	/**
+	 * @return	true if the sender has reported its load.
+	 */
+	public boolean		hasLoad()
+	{
+		return this.queueLength >= 0 && this.clockSpeed > 0.0 ;
+	}
+
+	/**
+	 * @return	the number of requests waiting in the sender.
+	 */
+	public int			getQueueLength()
+	{
+		return this.queueLength ;
+	}
+
+	/**
+	 * @return	the clock speed, or processing capacity, of the sender.
+	 */
+	public double		getClockSpeed()
+	{
+		return this.clockSpeed ;
+	}
+
+	/**
+	 * set the load of the sender, when sending the statistics.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	queueLength >= 0 && clockSpeed > 0.0
+	 * post	hasLoad()
+	 * </pre>
+	 *
+	 * @param queueLength	number of requests waiting in the sender.
+	 * @param clockSpeed	clock speed, or processing capacity, of the sender.
+	 */
+	public void			setLoad(int queueLength, double clockSpeed)
+	{
+		assert	queueLength >= 0 && clockSpeed > 0.0 ;
+
+		this.queueLength = queueLength ;
+		this.clockSpeed = clockSpeed ;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String		toString()
+	{
+		if (this.isEmpty()) {
+			return "ResponseStatistics[0]" ;
+		}
+		return "ResponseStatistics[" + this.count + ", mean " + this.getMean()
+				+ ", min " + this.min + ", max " + this.max + "]" ;
+	}
+}
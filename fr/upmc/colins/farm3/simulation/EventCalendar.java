@@ -0,0 +1,477 @@
+package fr.upmc.colins.farm3.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import fr.upmc.components.ComponentI;
+import fr.upmc.components.ComponentI.ComponentService;
+import fr.upmc.components.ComponentI.ComponentTask;
+
+/**
+ * The class <code>EventCalendar</code> implements the central event calendar
+ * of a virtual-time discrete-event simulation of the farm.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * In wall-clock mode, the components of the farm schedule their events with
+ * <code>scheduleTask</code>, so that the simulation runs in real time.  When
+ * an event calendar is installed with <code>install</code>, the components
+ * register their events in the calendar instead, and the calendar executes
+ * them in timestamp order as fast as possible, advancing its virtual clock
+ * from one event to the next.
+ *
+ * Each event is executed by its target component as a component task, and
+ * messages exchanged among components during an event are themselves
+ * registered as events (see <code>deliver</code>).  Each component hence
+ * acts as a logical process executed by its own thread, and the calendar
+ * runs the logical processes in parallel using a conservative windowed
+ * protocol: a message sent at virtual time <code>t</code> is received at
+ * <code>t + lookahead</code>, where the lookahead is the minimum transfer
+ * latency among components.  No event executed in the window
+ * <code>[T, T + lookahead)</code> can therefore cause an event in the same
+ * window on another component, and all the components having events in the
+ * window may execute them concurrently.  Within a window, the calendar
+ * proceeds by rounds, executing at most one event per component per round,
+ * in timestamp order, and waits for the completion of the round before the
+ * next one, so that the events scheduled by a component for itself are also
+ * executed in timestamp order.  With a zero lookahead, windows are 1 ms wide
+ * and only simultaneous events execute concurrently.
+ *
+ * While executing an event, a component sees the time of this event through
+ * <code>currentTimeMillis</code>; other threads see the start of the current
+ * window.  Synchronous calls among components are not subject to the
+ * lookahead and are executed at the time of the calling event.
+ *
+ * The calendar is meant for simulations running in one JVM; in a distributed
+ * deployment, the components keep using wall-clock time.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	events != null && inProgress >= 0 && lookahead >= 0
+ * </pre>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			EventCalendar
+{
+	/** calendar used by the components, null in wall-clock mode.			*/
+	protected static EventCalendar	CALENDAR = null ;
+	/** time of the event being executed by the current thread, -1 if none.	*/
+	protected static final ThreadLocal<long[]>	EVENT_TIME =
+		new ThreadLocal<long[]>() {
+			@Override
+			protected long[] initialValue() {
+				return new long[]{ -1L } ;
+			}
+		} ;
+
+	/** pending events ordered by time.										*/
+	protected final PriorityQueue<SimulationEvent>	events ;
+	/** start of the current window of virtual time, in ms.				*/
+	protected long					now ;
+	/** end (excluded) of the current window of virtual time, in ms.		*/
+	protected long					windowEnd ;
+	/** transfer latency of the messages among components, in ms.			*/
+	protected final long			lookahead ;
+	/** sequence number of the next scheduled event.						*/
+	protected long					nextSequence ;
+	/** number of dispatched events which are not yet completed.			*/
+	protected int					inProgress ;
+	/** number of events executed since the creation of the calendar.		*/
+	protected long					executedEvents ;
+	/** number of rounds executed since the creation of the calendar.		*/
+	protected long					executedRounds ;
+
+	/**
+	 * create an event calendar with a virtual clock starting at
+	 * <code>startTime</code> and no transfer latency among components.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	startTime > 0
+	 * post	this.currentTime() == startTime
+	 * </pre>
+	 *
+	 * @param startTime	initial virtual time, in ms.
+	 */
+	public				EventCalendar(long startTime)
+	{
+		this(startTime, 0L) ;
+	}
+
+	/**
+	 * create an event calendar with a virtual clock starting at
+	 * <code>startTime</code> where messages among components take
+	 * <code>lookahead</code> ms to be transferred.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	startTime > 0 && lookahead >= 0
+	 * post	this.currentTime() == startTime
+	 * </pre>
+	 *
+	 * @param startTime	initial virtual time, in ms.
+	 * @param lookahead	transfer latency of the messages among components, in ms.
+	 */
+	public				EventCalendar(long startTime, long lookahead)
+	{
+		super() ;
+
+		assert	startTime > 0 && lookahead >= 0 ;
+
+		this.events = new PriorityQueue<SimulationEvent>() ;
+		this.now = startTime ;
+		this.windowEnd = startTime ;
+		this.lookahead = lookahead ;
+		this.nextSequence = 0L ;
+		this.inProgress = 0 ;
+		this.executedEvents = 0L ;
+		this.executedRounds = 0L ;
+	}
+
+	// -------------------------------------------------------------------------
+	// Static access used by the components
+	// -------------------------------------------------------------------------
+
+	/**
+	 * install the calendar used by the components; must be called before
+	 * the creation of the components.
+	 *
+	 * @param calendar	the calendar to be used or null for wall-clock mode.
+	 */
+	public static void		install(EventCalendar calendar)
+	{
+		CALENDAR = calendar ;
+	}
+
+	/**
+	 * @return	the installed calendar, null in wall-clock mode.
+	 */
+	public static EventCalendar	getCalendar()
+	{
+		return CALENDAR ;
+	}
+
+	/**
+	 * @return	true if the components run in virtual time.
+	 */
+	public static boolean	isVirtualTime()
+	{
+		return CALENDAR != null ;
+	}
+
+	/**
+	 * return the current time as seen by the components, i.e. the virtual
+	 * time of the calendar if any, otherwise the wall-clock time.
+	 *
+	 * @return	the current time in ms.
+	 */
+	public static long		currentTimeMillis()
+	{
+		EventCalendar c = CALENDAR ;
+		if (c != null) {
+			return c.currentTime() ;
+		} else {
+			return System.currentTimeMillis() ;
+		}
+	}
+
+	/**
+	 * pass an asynchronous request to <code>target</code>, as a message
+	 * delivered through the calendar in virtual-time mode, otherwise through
+	 * <code>handleRequestAsync</code>; used by the inbound ports.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	target != null && request != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param target	component receiving the request.
+	 * @param request	request to be executed by the component.
+	 * @throws Exception
+	 */
+	public static void		handleRequestAsync(
+		ComponentI target,
+		final ComponentService<?> request
+		) throws Exception
+	{
+		assert	target != null && request != null ;
+
+		EventCalendar c = CALENDAR ;
+		if (c != null) {
+			c.deliver(target, new ComponentTask() {
+				@Override
+				public void run() {
+					try {
+						request.call() ;
+					} catch (Exception e) {
+						e.printStackTrace() ;
+					}
+				}
+			}) ;
+		} else {
+			target.handleRequestAsync(request) ;
+		}
+	}
+
+	// -------------------------------------------------------------------------
+	// Event scheduling
+	// -------------------------------------------------------------------------
+
+	/**
+	 * return the current virtual time, i.e. the time of the event being
+	 * executed by the current thread if any, otherwise the start of the
+	 * current window.
+	 *
+	 * @return	the current virtual time, in ms.
+	 */
+	public long			currentTime()
+	{
+		long t = EVENT_TIME.get()[0] ;
+		if (t >= 0) {
+			return t ;
+		}
+		synchronized (this) {
+			return this.now ;
+		}
+	}
+
+	/**
+	 * @return	the transfer latency of the messages among components, in ms.
+	 */
+	public long			getLookahead()
+	{
+		return this.lookahead ;
+	}
+
+	/**
+	 * @return	the number of events executed so far.
+	 */
+	public synchronized long	getExecutedEvents()
+	{
+		return this.executedEvents ;
+	}
+
+	/**
+	 * @return	the number of rounds executed so far.
+	 */
+	public synchronized long	getExecutedRounds()
+	{
+		return this.executedRounds ;
+	}
+
+	/**
+	 * schedule the execution of <code>task</code> by <code>target</code> at
+	 * the virtual time <code>time</code>.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	target != null && task != null
+	 * pre	time >= this.currentTime()
+	 * post	ret != null
+	 * </pre>
+	 *
+	 * @param target	component executing the task.
+	 * @param task		task to be executed.
+	 * @param time		virtual time of the event, in ms.
+	 * @return			the scheduled event, which may be used to cancel it.
+	 */
+	public synchronized SimulationEvent	scheduleAt(
+		ComponentI target,
+		ComponentTask task,
+		long time
+		)
+	{
+		assert	target != null && task != null ;
+		assert	time >= this.currentTime() ;
+
+		SimulationEvent e =
+			new SimulationEvent(time, this.nextSequence++, target, task) ;
+		this.events.add(e) ;
+		return e ;
+	}
+
+	/**
+	 * schedule the execution of <code>task</code> by <code>target</code>
+	 * after a delay of <code>delay</code> ms of virtual time.
+	 *
+	 * @param target	component executing the task.
+	 * @param task		task to be executed.
+	 * @param delay		delay in ms.
+	 * @return			the scheduled event, which may be used to cancel it.
+	 */
+	public synchronized SimulationEvent	scheduleAfter(
+		ComponentI target,
+		ComponentTask task,
+		long delay
+		)
+	{
+		assert	delay >= 0 ;
+
+		return this.scheduleAt(target, task, this.currentTime() + delay) ;
+	}
+
+	/**
+	 * deliver a message to <code>target</code>, that is schedule its
+	 * processing after the transfer latency; used by the inbound ports
+	 * instead of <code>handleRequestAsync</code> in virtual-time mode.
+	 *
+	 * @param target	component receiving the message.
+	 * @param task		processing of the message by the component.
+	 * @return			the scheduled event.
+	 */
+	public synchronized SimulationEvent	deliver(
+		ComponentI target,
+		ComponentTask task
+		)
+	{
+		return this.scheduleAt(target, task,
+							   this.currentTime() + this.lookahead) ;
+	}
+
+	// -------------------------------------------------------------------------
+	// Simulation loop
+	// -------------------------------------------------------------------------
+
+	/**
+	 * run the simulation until the calendar is empty or the virtual time
+	 * reaches <code>startTime + duration</code>.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	duration >= 0
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param duration	duration of the simulation in ms of virtual time.
+	 * @throws InterruptedException
+	 */
+	public void			run(long duration) throws InterruptedException
+	{
+		assert	duration >= 0 ;
+
+		long endTime ;
+		synchronized (this) {
+			endTime = this.now + duration ;
+		}
+		List<SimulationEvent> round = new ArrayList<SimulationEvent>() ;
+		while (this.nextRound(endTime, round)) {
+			for (SimulationEvent e : round) {
+				this.dispatch(e) ;
+			}
+			round.clear() ;
+		}
+		synchronized (this) {
+			this.now = Math.max(this.now, endTime) ;
+		}
+	}
+
+	/**
+	 * wait for the completion of the events in progress, then remove from
+	 * the calendar the next round of events, i.e. the earliest event of each
+	 * component in the current window, opening a new window when the current
+	 * one is exhausted.
+	 *
+	 * @param endTime	end time of the simulation.
+	 * @param round		list filled with the events of the round.
+	 * @return			false if the simulation is over.
+	 * @throws InterruptedException
+	 */
+	protected synchronized boolean	nextRound(
+		long endTime,
+		List<SimulationEvent> round
+		) throws InterruptedException
+	{
+		while (this.inProgress > 0) {
+			this.wait() ;
+		}
+		while (!this.events.isEmpty() && this.events.peek().isCancelled()) {
+			this.events.poll() ;
+		}
+		SimulationEvent first = this.events.peek() ;
+		if (first == null || first.getTime() > endTime) {
+			return false ;
+		}
+		if (first.getTime() >= this.windowEnd) {
+			this.now = first.getTime() ;
+			this.windowEnd = this.now + Math.max(this.lookahead, 1L) ;
+		}
+
+		Set<ComponentI> targets = Collections.newSetFromMap(
+									new IdentityHashMap<ComponentI,Boolean>()) ;
+		List<SimulationEvent> postponed = new ArrayList<SimulationEvent>() ;
+		while (!this.events.isEmpty() &&
+							this.events.peek().getTime() < this.windowEnd &&
+							this.events.peek().getTime() <= endTime) {
+			SimulationEvent e = this.events.poll() ;
+			if (e.isCancelled()) {
+				continue ;
+			}
+			if (targets.add(e.getTarget())) {
+				round.add(e) ;
+			} else {
+				postponed.add(e) ;
+			}
+		}
+		this.events.addAll(postponed) ;
+		this.inProgress += round.size() ;
+		this.executedRounds++ ;
+		return true ;
+	}
+
+	/**
+	 * execute the event by its target component, making its time the
+	 * current time of the executing thread.
+	 *
+	 * @param e	event to be executed.
+	 */
+	protected void		dispatch(final SimulationEvent e)
+	{
+		try {
+			e.getTarget().runTask(new ComponentTask() {
+				@Override
+				public void run() {
+					long[] eventTime = EVENT_TIME.get() ;
+					long previous = eventTime[0] ;
+					eventTime[0] = e.getTime() ;
+					try {
+						e.execute() ;
+					} finally {
+						eventTime[0] = previous ;
+						eventCompleted() ;
+					}
+				}
+			}) ;
+		} catch (RuntimeException ex) {
+			// the target has been shut down, the event is lost
+			ex.printStackTrace() ;
+			this.eventCompleted() ;
+		}
+	}
+
+	/**
+	 * signal the completion of a dispatched event.
+	 */
+	protected synchronized void	eventCompleted()
+	{
+		assert	this.inProgress > 0 ;
+
+		this.inProgress-- ;
+		this.executedEvents++ ;
+		this.notifyAll() ;
+	}
+}
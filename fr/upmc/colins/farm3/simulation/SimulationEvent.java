@@ -0,0 +1,208 @@
+package fr.upmc.colins.farm3.simulation;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import fr.upmc.components.ComponentI;
+import fr.upmc.components.ComponentI.ComponentTask;
+
+/**
+ * The class <code>SimulationEvent</code> implements a timestamped event
+ * registered in an event calendar.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * An event associates a virtual time, a target component and a task.  When the
+ * calendar reaches the time of the event, the task is executed by the target
+ * component as a component task, hence respecting the threading model of the
+ * component.  Events are ordered by time, then by creation order, so that
+ * simultaneous events are executed in the order they have been scheduled.
+ *
+ * Events implement <code>Future</code> so that they can replace the futures
+ * returned by <code>scheduleTask</code> in the components, mainly to cancel
+ * them.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	time >= 0 && target != null && task != null
+ * </pre>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SimulationEvent
+implements	Future<Void>, Comparable<SimulationEvent>
+{
+	/** virtual time at which the event occurs, in ms.						*/
+	protected final long			time ;
+	/** sequence number used to order simultaneous events.					*/
+	protected final long			sequence ;
+	/** component executing the event.										*/
+	protected final ComponentI		target ;
+	/** task to be executed when the event occurs.							*/
+	protected final ComponentTask	task ;
+	/** true if the event has been cancelled.								*/
+	protected boolean				cancelled ;
+	/** true if the event has been executed.								*/
+	protected boolean				done ;
+
+	/**
+	 * create an event.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	time >= 0 && target != null && task != null
+	 * post	!isCancelled() && !isDone()
+	 * </pre>
+	 *
+	 * @param time		virtual time at which the event occurs, in ms.
+	 * @param sequence	sequence number used to order simultaneous events.
+	 * @param target	component executing the event.
+	 * @param task		task to be executed when the event occurs.
+	 */
+	public				SimulationEvent(
+		long time,
+		long sequence,
+		ComponentI target,
+		ComponentTask task
+		)
+	{
+		super() ;
+
+		assert	time >= 0 && target != null && task != null ;
+
+		this.time = time ;
+		this.sequence = sequence ;
+		this.target = target ;
+		this.task = task ;
+		this.cancelled = false ;
+		this.done = false ;
+	}
+
+	/**
+	 * @return	the virtual time at which the event occurs, in ms.
+	 */
+	public long			getTime()
+	{
+		return this.time ;
+	}
+
+	/**
+	 * @return	the component executing the event.
+	 */
+	public ComponentI	getTarget()
+	{
+		return this.target ;
+	}
+
+	/**
+	 * execute the task of the event unless it has been cancelled in the
+	 * meantime; called by the calendar from the thread of the target.
+	 */
+	void				execute()
+	{
+		try {
+			if (!this.isCancelled()) {
+				this.task.run() ;
+			}
+		} finally {
+			synchronized (this) {
+				this.done = true ;
+				this.notifyAll() ;
+			}
+		}
+	}
+
+	/**
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int			compareTo(SimulationEvent o)
+	{
+		if (this.time != o.time) {
+			return this.time < o.time ? -1 : 1 ;
+		}
+		if (this.sequence != o.sequence) {
+			return this.sequence < o.sequence ? -1 : 1 ;
+		}
+		return 0 ;
+	}
+
+	/**
+	 * @see java.util.concurrent.Future#cancel(boolean)
+	 */
+	@Override
+	public synchronized boolean	cancel(boolean mayInterruptIfRunning)
+	{
+		if (this.done || this.cancelled) {
+			return false ;
+		}
+		this.cancelled = true ;
+		this.notifyAll() ;
+		return true ;
+	}
+
+	/**
+	 * @see java.util.concurrent.Future#isCancelled()
+	 */
+	@Override
+	public synchronized boolean	isCancelled()
+	{
+		return this.cancelled ;
+	}
+
+	/**
+	 * @see java.util.concurrent.Future#isDone()
+	 */
+	@Override
+	public synchronized boolean	isDone()
+	{
+		return this.done || this.cancelled ;
+	}
+
+	/**
+	 * @see java.util.concurrent.Future#get()
+	 */
+	@Override
+	public synchronized Void	get()
+	throws InterruptedException, ExecutionException
+	{
+		while (!this.isDone()) {
+			this.wait() ;
+		}
+		return null ;
+	}
+
+	/**
+	 * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public synchronized Void	get(long timeout, TimeUnit unit)
+	throws InterruptedException, ExecutionException, TimeoutException
+	{
+		long deadline = System.nanoTime() + unit.toNanos(timeout) ;
+		while (!this.isDone()) {
+			long remaining = deadline - System.nanoTime() ;
+			if (remaining <= 0) {
+				throw new TimeoutException() ;
+			}
+			TimeUnit.NANOSECONDS.timedWait(this, remaining) ;
+		}
+		return null ;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String		toString()
+	{
+		return "SimulationEvent[" + this.time + ", " + this.sequence + "]" ;
+	}
+}
@@ -0,0 +1,169 @@
+package fr.upmc.colins.farm3.utils;
+
+import java.util.concurrent.Semaphore;
+
+import fr.upmc.colins.farm3.simulation.EventCalendar;
+import fr.upmc.components.executors.ComponentExecutors;
+
+/**
+ * The class <code>BoundedRingBufferQueue</code> implements queues of pending
+ * requests limited to a capacity, with an overflow strategy applied to the
+ * elements arriving when the queue is full.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The owner component adds elements with <code>admit</code>, which returns
+ * the element shed by the overflow strategy, if any, so that the owner can
+ * reject it.  With the <code>BLOCK</code> strategy, the queue holds a
+ * semaphore with a permit per free place: senders acquire a permit with
+ * <code>acquireSlot</code> before submitting an element to the owner, and
+ * polling an element releases its permit, so that the queue never overflows
+ * and the senders are slowed down to the pace of the owner.  A capacity of
+ * 0 means an unbounded queue.
+ *
+ * Like its superclass, the queue is only modified by its owner component,
+ * but <code>acquireSlot</code> may be called by any thread.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	capacity >= 0
+ * invariant	capacity == 0 || size() <= capacity
+ * invariant	slots == null || strategy == OverflowStrategy.BLOCK
+ * </pre>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			BoundedRingBufferQueue<E>
+extends		RingBufferQueue<E>
+{
+	/** maximum number of elements, 0 if unbounded.							*/
+	protected final int					capacity ;
+	/** strategy applied to the elements arriving when the queue is full.	*/
+	protected final OverflowStrategy	strategy ;
+	/** free places of the queue if senders block, null otherwise.			*/
+	protected final Semaphore			slots ;
+
+	/**
+	 * create a queue of <code>capacity</code> elements, or an unbounded one
+	 * if <code>capacity</code> is 0; the strategy <code>BLOCK</code> is
+	 * replaced by <code>REJECT</code> in virtual time.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	capacity >= 0 && strategy != null
+	 * post	isEmpty()
+	 * </pre>
+	 *
+	 * @param capacity	maximum number of elements, 0 if unbounded.
+	 * @param strategy	strategy applied when the queue is full.
+	 */
+	public				BoundedRingBufferQueue(
+		int capacity,
+		OverflowStrategy strategy
+		)
+	{
+		super(capacity == 0 ? DEFAULT_CAPACITY
+							: Math.min(capacity, DEFAULT_CAPACITY)) ;
+
+		assert	capacity >= 0 && strategy != null ;
+
+		this.capacity = capacity ;
+		if (strategy == OverflowStrategy.BLOCK &&
+											EventCalendar.isVirtualTime()) {
+			this.strategy = OverflowStrategy.REJECT ;
+		} else {
+			this.strategy = strategy ;
+		}
+		if (capacity > 0 && this.strategy == OverflowStrategy.BLOCK) {
+			this.slots = new Semaphore(capacity) ;
+		} else {
+			this.slots = null ;
+		}
+	}
+
+	/**
+	 * @return	true if the senders must acquire a slot before submitting an
+	 * 			element.
+	 */
+	public boolean		blocksSenders()
+	{
+		return this.slots != null ;
+	}
+
+	/**
+	 * block the calling sender until the queue has room for one more element,
+	 * if the queue blocks its senders; the slot is released when the element
+	 * is polled.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void			acquireSlot() throws InterruptedException
+	{
+		if (this.slots != null) {
+			ComponentExecutors.acquire(this.slots) ;
+		}
+	}
+
+	/**
+	 * add an element to the queue if it is not full, otherwise apply the
+	 * overflow strategy.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	e != null
+	 * post	capacity == 0 || size() <= capacity
+	 * </pre>
+	 *
+	 * @param e	the arriving element.
+	 * @return	the element shed by the overflow strategy, i.e. the arriving
+	 * 			element or the oldest one, or null if none.
+	 */
+	public E			admit(E e)
+	{
+		assert	e != null ;
+
+		if (this.capacity == 0 || this.size() < this.capacity) {
+			this.offer(e) ;
+			return null ;
+		}
+		if (this.strategy == OverflowStrategy.DROP_OLDEST) {
+			E oldest = this.poll() ;
+			this.offer(e) ;
+			return oldest ;
+		}
+		// REJECT, or BLOCK with a sender which has not acquired a slot.
+		return e ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.utils.RingBufferQueue#poll()
+	 */
+	@Override
+	public E			poll()
+	{
+		E e = super.poll() ;
+		if (e != null && this.slots != null) {
+			this.slots.release() ;
+		}
+		return e ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.utils.RingBufferQueue#clear()
+	 */
+	@Override
+	public void			clear()
+	{
+		int n = this.size() ;
+		super.clear() ;
+		if (this.slots != null && n > 0) {
+			this.slots.release(n) ;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package fr.upmc.colins.farm3.utils;
+
+/**
+ * The enumeration <code>OverflowStrategy</code> defines what a component
+ * does with a request arriving when its queue of pending requests is full.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * <ul>
+ * <li><code>REJECT</code>: the arriving request is rejected, and a rejection
+ *   response is sent upstream in place of its response.</li>
+ * <li><code>DROP_OLDEST</code>: the oldest pending request is rejected to
+ *   make room for the arriving one.</li>
+ * <li><code>BLOCK</code>: the sender is blocked until the queue has room for
+ *   the request; in virtual time, where blocking a component would block the
+ *   calendar, it is replaced by <code>REJECT</code>.</li>
+ * </ul>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public enum				OverflowStrategy
+{
+	REJECT,
+	DROP_OLDEST,
+	BLOCK
+}
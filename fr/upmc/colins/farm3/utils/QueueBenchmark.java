@@ -0,0 +1,105 @@
+package fr.upmc.colins.farm3.utils;
+
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import fr.upmc.colins.farm3.objects.Request;
+
+/**
+ * The class <code>QueueBenchmark</code> compares the throughputs of the
+ * <code>LinkedBlockingQueue</code> formerly used for the queues of pending
+ * requests and of the <code>RingBufferQueue</code> which replaced it.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * As in the cores, virtual machines and request dispatchers, the queue is
+ * only accessed by one thread, the request lane of its owner.  Each measure
+ * first fills the queue up to a backlog of pending requests, then repeats
+ * bursts of arrivals, as produced by the request generator, each followed
+ * by as many removals, as the ends of service do.  The backlogs go beyond
+ * the default capacity of the ring, to measure the overflow deque too.  The
+ * program prints, for each backlog and queue, the number of requests added
+ * and removed per second.
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			QueueBenchmark
+{
+	/** number of requests added and removed before the measures.			*/
+	protected static final int	WARM_UP = 2000000 ;
+	/** number of requests added and removed by a measure.				*/
+	protected static final int	ITERATIONS = 10000000 ;
+	/** number of requests arriving in a burst.							*/
+	protected static final int	BURST = 8 ;
+	/** numbers of pending requests kept in the queues.					*/
+	protected static final int[]	BACKLOGS = { 0, 16, 200, 1000 } ;
+
+	/** requests put in the queues, created once to measure only the queues.	*/
+	protected static Request[]	requests ;
+
+	/**
+	 * add and remove <code>n</code> requests to and from a queue holding
+	 * <code>backlog</code> pending requests, by bursts.
+	 *
+	 * @param q			queue to be exercised.
+	 * @param backlog	number of pending requests kept in the queue.
+	 * @param n			number of requests to be added and removed.
+	 * @return			the number of requests removed, to keep the loop alive.
+	 */
+	protected static long	run(Queue<Request> q, int backlog, int n)
+	{
+		q.clear() ;
+		for (int i = 0 ; i < backlog ; i++) {
+			q.add(requests[i % requests.length]) ;
+		}
+		long removed = 0 ;
+		int next = 0 ;
+		for (int i = 0 ; i < n ; i += BURST) {
+			for (int j = 0 ; j < BURST ; j++) {
+				q.add(requests[next]) ;
+				next = (next + 1) % requests.length ;
+			}
+			for (int j = 0 ; j < BURST ; j++) {
+				if (q.remove() != null) {
+					removed++ ;
+				}
+			}
+		}
+		return removed ;
+	}
+
+	/**
+	 * exercise a queue with a given backlog, and print its throughput.
+	 *
+	 * @param name		name of the queue.
+	 * @param q			queue to be exercised.
+	 * @param backlog	number of pending requests kept in the queue.
+	 */
+	protected static void	measure(String name, Queue<Request> q, int backlog)
+	{
+		run(q, backlog, WARM_UP) ;
+		long start = System.nanoTime() ;
+		long removed = run(q, backlog, ITERATIONS) ;
+		long elapsed = System.nanoTime() - start ;
+		System.out.println(
+			String.format("backlog %5d %-20s : %11.0f requests/s",
+						  backlog, name, removed * 1.0e9 / elapsed)) ;
+	}
+
+	public static void	main(String[] args)
+	{
+		requests = new Request[4096] ;
+		for (int i = 0 ; i < requests.length ; i++) {
+			requests[i] = new Request(i, 1) ;
+		}
+		for (int backlog : BACKLOGS) {
+			measure("LinkedBlockingQueue",
+					new LinkedBlockingQueue<Request>(), backlog) ;
+			measure("RingBufferQueue",
+					new RingBufferQueue<Request>(), backlog) ;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package fr.upmc.colins.farm3.utils;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The class <code>RingBufferQueue</code> implements the FIFO queues of
+ * pending requests of the cores, virtual machines and request dispatchers.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The queue of pending requests of a component is only accessed by the
+ * tasks of its request lane, the single-threaded executor which runs the
+ * request arrivals and, in the cores, the end servicing events and the clock
+ * speed updates, posted there from the scheduled tasks thread and the control
+ * ports.  The tasks accessing the queue run one at a time, hence it needs
+ * neither locks nor atomic operations.  The queue stores its elements
+ * in a fixed array used as a ring buffer, with a power of two capacity, so
+ * that it does not allocate a node per element as
+ * <code>LinkedBlockingQueue</code> does.  When the ring is full, the
+ * elements are appended to an overflow deque, and moved back into the ring
+ * as it is drained, which keeps the FIFO order.
+ *
+ * The queue is not thread-safe: it must only be modified by its owner
+ * component; other threads can at best observe a stale size.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	tail - head >= 0 && tail - head <= ring.length
+ * invariant	overflow.isEmpty() || tail - head == ring.length
+ * </pre>
+ *
+ * <p>Created on : oct. 2026</p>
+ *
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			RingBufferQueue<E>
+extends		AbstractQueue<E>
+{
+	/** default capacity of the ring.										*/
+	public static final int		DEFAULT_CAPACITY = 256 ;
+
+	/** elements of the ring.												*/
+	protected final Object[]	ring ;
+	/** mask giving the index in the ring of a position.					*/
+	protected final int			mask ;
+	/** position of the first element of the ring.							*/
+	protected int				head ;
+	/** position following the last element of the ring.					*/
+	protected int				tail ;
+	/** elements added when the ring was full, created upon first need.	*/
+	protected ArrayDeque<E>		overflow ;
+
+	/**
+	 * create a queue with a ring of <code>DEFAULT_CAPACITY</code> elements.
+	 */
+	public				RingBufferQueue()
+	{
+		this(DEFAULT_CAPACITY) ;
+	}
+
+	/**
+	 * create a queue with a ring of at least <code>capacity</code> elements,
+	 * rounded up to a power of two.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	capacity > 0 && capacity <= 1 << 30
+	 * post	isEmpty()
+	 * </pre>
+	 *
+	 * @param capacity	minimum capacity of the ring.
+	 */
+	public				RingBufferQueue(int capacity)
+	{
+		super() ;
+
+		assert	capacity > 0 && capacity <= 1 << 30 ;
+
+		int c = Integer.highestOneBit(capacity) ;
+		if (c < capacity) {
+			c <<= 1 ;
+		}
+		this.ring = new Object[c] ;
+		this.mask = c - 1 ;
+		this.head = 0 ;
+		this.tail = 0 ;
+		this.overflow = null ;
+	}
+
+	/**
+	 * @see java.util.Queue#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean		offer(E e)
+	{
+		if (e == null) {
+			throw new NullPointerException() ;
+		}
+		if (this.tail - this.head == this.ring.length) {
+			if (this.overflow == null) {
+				this.overflow = new ArrayDeque<E>() ;
+			}
+			this.overflow.addLast(e) ;
+		} else {
+			this.ring[this.tail & this.mask] = e ;
+			this.tail++ ;
+		}
+		return true ;
+	}
+
+	/**
+	 * @see java.util.Queue#poll()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public E			poll()
+	{
+		if (this.head == this.tail) {
+			return null ;
+		}
+		int i = this.head & this.mask ;
+		E e = (E) this.ring[i] ;
+		this.ring[i] = null ;
+		this.head++ ;
+		if (this.overflow != null && !this.overflow.isEmpty()) {
+			this.ring[this.tail & this.mask] = this.overflow.pollFirst() ;
+			this.tail++ ;
+		}
+		return e ;
+	}
+
+	/**
+	 * @see java.util.Queue#peek()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public E			peek()
+	{
+		if (this.head == this.tail) {
+			return null ;
+		}
+		return (E) this.ring[this.head & this.mask] ;
+	}
+
+	/**
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int			size()
+	{
+		int size = this.tail - this.head ;
+		if (this.overflow != null) {
+			size += this.overflow.size() ;
+		}
+		return size ;
+	}
+
+	/**
+	 * @see java.util.AbstractCollection#isEmpty()
+	 */
+	@Override
+	public boolean		isEmpty()
+	{
+		return this.head == this.tail ;
+	}
+
+	/**
+	 * @see java.util.AbstractQueue#clear()
+	 */
+	@Override
+	public void			clear()
+	{
+		while (this.head != this.tail) {
+			this.ring[this.head & this.mask] = null ;
+			this.head++ ;
+		}
+		if (this.overflow != null) {
+			this.overflow.clear() ;
+		}
+	}
+
+	/**
+	 * return an iterator over the elements in FIFO order, which does not
+	 * support removal.
+	 *
+	 * @see java.util.AbstractCollection#iterator()
+	 */
+	@Override
+	public Iterator<E>	iterator()
+	{
+		return new Iterator<E>() {
+			protected int			position = head ;
+			protected Iterator<E>	overflowIterator = null ;
+
+			@Override
+			public boolean hasNext() {
+				if (this.position != tail) {
+					return true ;
+				}
+				if (overflow == null) {
+					return false ;
+				}
+				if (this.overflowIterator == null) {
+					this.overflowIterator = overflow.iterator() ;
+				}
+				return this.overflowIterator.hasNext() ;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public E next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException() ;
+				}
+				if (this.position != tail) {
+					return (E) ring[(this.position++) & mask] ;
+				}
+				return this.overflowIterator.next() ;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException() ;
+			}
+		} ;
+	}
+}
@@ -2,11 +2,13 @@ package fr.upmc.colins.farm3.vm;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import fr.upmc.colins.farm3.balancing.LoadBalancingMode;
+import fr.upmc.colins.farm3.balancing.LoadBalancingPolicyI;
 import fr.upmc.colins.farm3.connectors.RequestServiceConnector;
 import fr.upmc.colins.farm3.connectors.ResponseServiceConnector;
 import fr.upmc.colins.farm3.core.RequestArrivalI;
@@ -14,6 +16,10 @@ import fr.upmc.colins.farm3.core.ResponseArrivalI;
 import fr.upmc.colins.farm3.generator.RequestGeneratorOutboundPort;
 import fr.upmc.colins.farm3.objects.Request;
 import fr.upmc.colins.farm3.objects.Response;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
+import fr.upmc.colins.farm3.simulation.EventCalendar;
+import fr.upmc.colins.farm3.utils.BoundedRingBufferQueue;
+import fr.upmc.colins.farm3.utils.OverflowStrategy;
 import fr.upmc.colins.farm3.utils.TimeProcessing;
 import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.cvm.AbstractCVM;
@@ -25,7 +31,24 @@ import fr.upmc.components.exceptions.ComponentShutdownException;
  * <p><strong>Description</strong></p>
  * A virtual machine is a component that will make its cores execute the request.
  * The request are received from the request dispatcher.
- * The virtual machine will chose the least recently used cores to execute the request.
+ * The virtual machine chooses the core executing each request with its load
+ * balancing policy, set by <code>LOAD_BALANCING</code> (round robin by
+ * default), which is fed with the responses of the cores and the load they
+ * report.
+ * When <code>WORK_SHARING</code> is set, the virtual machine keeps the
+ * requests in its own queue, shared by its cores, and sends a request to a
+ * core only when the core has less than <code>CORE_QUEUE_THRESHOLD</code>
+ * outstanding requests; each response then frees the core for the next
+ * pending request, so that the virtual machine behaves like a single
+ * multi-server queue instead of independent single-server queues.  With
+ * <code>ResponseStatistics.FLUSH_PERIOD</code> greater than 0, cores are only
+ * known to be free when their statistics are flushed.
+ * The queue of the virtual machine holds at most <code>QUEUE_CAPACITY</code>
+ * requests (0 for an unbounded queue), with the overflow strategy
+ * <code>OVERFLOW_STRATEGY</code>; rejections of the virtual machine and of
+ * its cores are forwarded to the request dispatcher.
+ * The statistics of responses sent by the cores are merged and forwarded to
+ * the request dispatcher once per <code>ResponseStatistics.FLUSH_PERIOD</code>.
  * 
  * 
  * <p>Created on : jan. 2015</p>
@@ -38,6 +61,21 @@ extends		AbstractComponent
 {
 
 	protected String logId;
+
+	/** load balancing mode used by the virtual machines created hereafter.	*/
+	public static LoadBalancingMode			LOAD_BALANCING =
+											LoadBalancingMode.ROUND_ROBIN ;
+	/** true if the virtual machines created hereafter share their queue
+	 *  among their cores instead of pushing the requests to them.			*/
+	public static boolean					WORK_SHARING = false ;
+	/** maximum number of outstanding requests per core in work sharing.	*/
+	public static int						CORE_QUEUE_THRESHOLD = 1 ;
+	/** maximum number of pending requests of the virtual machines created
+	 *  hereafter, 0 if unbounded.											*/
+	public static int						QUEUE_CAPACITY = 0 ;
+	/** strategy applied when the queue of pending requests is full.		*/
+	public static OverflowStrategy			OVERFLOW_STRATEGY =
+												OverflowStrategy.REJECT ;
     
 	// -------------------------------------------------------------------------
 	// Constructors and instance variables
@@ -51,17 +89,27 @@ extends		AbstractComponent
 	/** request currently being serviced, null if any.						*/
 	protected Request						servicing ;
 	/** queue of pending requests.											*/
-	protected BlockingQueue<Request>		requestsQueue ;
+	protected BoundedRingBufferQueue<Request>	requestsQueue ;
 	/** sum of the service time of all completed requets.					*/
 	protected long							totalServicingTime ;
 	/** total number of completely serviced requests.						*/
 	protected int							totalNumberOfServicedRequests ;
+	/** total number of requests rejected because the queue was full.		*/
+	protected int							totalNumberOfRejectedRequests ;
 	
 	
 	/** inbound port for the request generator								*/
 	protected VMRequestArrivalInboundPort 	raip;
+	/** inbound port binding an idle virtual machine to its cores, if any.	*/
+	protected VMBindingInboundPort			bip;
 	/** outbound ports to the core											*/
-	protected Queue<RequestGeneratorOutboundPort> rgops;
+	protected ArrayList<RequestGeneratorOutboundPort> rgops;
+	/** policy choosing the core of each request, indexed as rgops.		*/
+	protected LoadBalancingPolicyI			policy ;
+	/** true if the queue of the virtual machine is shared by its cores.	*/
+	protected final boolean					workSharing ;
+	/** index of the first core considered by the next work sharing pass.	*/
+	protected int							nextSharingCore ;
 
 	/** mean time 															*/
 	protected Double 						meanTime = -1.0;
@@ -74,15 +122,20 @@ extends		AbstractComponent
 	/** this is true until the first request arrival event					*/
 	protected boolean cold = true;
 
+	/** statistics merged from the cores since the last flush.				*/
+	protected ResponseStatistics			pendingStatistics ;
+	/** a future pointing to the next flush of the statistics, if any.		*/
+	protected Future<?>						nextFlushTaskFuture ;
+
 
 	
 	/**
-	 * create a virtual machine
+	 * create a virtual machine which is not yet connected to any core.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * pre	true			// no precondition.
+	 * pre	id != null && inboundPortURI != null
 	 * post	true			// no postcondition.
 	 * </pre>
 	 *
@@ -91,33 +144,32 @@ extends		AbstractComponent
 	 * @param inboundPortURI		
 	 * 				URI of the port used to received requests, linked to the 
 	 * 				request dispatcher
-	 * @param outboundPortURIs		
-	 * 				URI of the ports used to send requests, linked to the core
-	 * @param coreRequestArrivalInboundPortUris 
-	 * 				URIs of the port to the core
 	 * @throws Exception
 	 */
-	public				VM(
+	protected			VM(
 		Integer id,
-		String inboundPortURI,
-		ArrayList<String> outboundPortURIs,
-		ArrayList<String> coreRequestArrivalInboundPortUris
+		String inboundPortURI
 		) throws Exception
 	{
 		super(true, true) ;
 
 		assert id != null;
 		assert inboundPortURI != null;
-		assert outboundPortURIs != null;
 		
 		this.logId = MessageFormat.format("[   VM {0}  ]", String.format("%04d", id));
 		this.id = id ;
 		this.vmIdle = true ;
 		this.servicing = null ;
-		this.requestsQueue = new LinkedBlockingQueue<Request>() ;
+		this.requestsQueue = new BoundedRingBufferQueue<Request>(
+										QUEUE_CAPACITY, OVERFLOW_STRATEGY) ;
 		this.totalServicingTime = 0L ;
 		this.totalNumberOfServicedRequests = 0 ;
+		this.totalNumberOfRejectedRequests = 0 ;
 		this.meanTime = 0.0;
+		this.pendingStatistics = new ResponseStatistics() ;
+		this.nextFlushTaskFuture = null ;
+		this.workSharing = WORK_SHARING ;
+		this.nextSharingCore = 0 ;
 
 		// inbound port for request arrival
 		this.addOfferedInterface(RequestArrivalI.class) ;
@@ -129,13 +181,133 @@ extends		AbstractComponent
 			this.raip.localPublishPort() ;
 		}
 		
-		this.rgops = new LinkedList<>();
+		this.rgops = new ArrayList<>();
 		this.respAips = new ArrayList<>();
 		// interface is added once.
 		this.addRequiredInterface(RequestArrivalI.class) ;
 		// receive response from cores
 		this.addOfferedInterface(ResponseArrivalI.class) ;
+
+		// outbound port to send response to request dispatcher
+		this.addRequiredInterface(ResponseArrivalI.class);
+		this.vmResponseGeneratorOutboundPort = new VMResponseGeneratorOutboundPort(inboundPortURI + "response", this);
+		this.addPort(vmResponseGeneratorOutboundPort);
+		
+		if(AbstractCVM.isDistributed){
+			vmResponseGeneratorOutboundPort.publishPort();
+		}else{
+			vmResponseGeneratorOutboundPort.localPublishPort();
+		}
+		
+		System.out.println(logId + " Virtual machine (id " + id + ") created") ;
 		
+		assert	id != null;
+		assert	!vmIdle || (servicing == null) ;
+		assert	vmIdle || (servicing != null) ;
+		assert	totalServicingTime >= 0 && totalNumberOfServicedRequests >= 0 ;
+	}
+
+	/**
+	 * create a virtual machine
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param id					
+	 * 				identifier of the VM
+	 * @param inboundPortURI		
+	 * 				URI of the port used to received requests, linked to the 
+	 * 				request dispatcher
+	 * @param outboundPortURIs		
+	 * 				URI of the ports used to send requests, linked to the core
+	 * @param coreRequestArrivalInboundPortUris 
+	 * 				URIs of the port to the core
+	 * @throws Exception
+	 */
+	public				VM(
+		Integer id,
+		String inboundPortURI,
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> coreRequestArrivalInboundPortUris
+		) throws Exception
+	{
+		this(id, inboundPortURI) ;
+		this.bindCores(outboundPortURIs, coreRequestArrivalInboundPortUris) ;
+	}
+
+	/**
+	 * create an idle virtual machine, which will be connected to its cores
+	 * through its binding inbound port.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	bindingInboundPortURI != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param id					
+	 * 				identifier of the VM
+	 * @param inboundPortURI		
+	 * 				URI of the port used to received requests, linked to the 
+	 * 				request dispatcher
+	 * @param bindingInboundPortURI
+	 * 				URI of the port used to bind the VM to its cores
+	 * @throws Exception
+	 */
+	public				VM(
+		Integer id,
+		String inboundPortURI,
+		String bindingInboundPortURI
+		) throws Exception
+	{
+		this(id, inboundPortURI) ;
+
+		assert bindingInboundPortURI != null;
+
+		this.addOfferedInterface(VMBindingI.class) ;
+		this.bip = new VMBindingInboundPort(bindingInboundPortURI, this) ;
+		this.addPort(this.bip) ;
+		if (AbstractCVM.isDistributed) {
+			this.bip.publishPort() ;
+		} else {
+			this.bip.localPublishPort() ;
+		}
+	}
+
+	/**
+	 * connect the virtual machine to its cores, which must be done once
+	 * before the first request arrives.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	this.rgops.isEmpty()
+	 * pre	outboundPortURIs.size() == coreRequestArrivalInboundPortUris.size()
+	 * post	!this.rgops.isEmpty()
+	 * </pre>
+	 *
+	 * @param outboundPortURIs		
+	 * 				URI of the ports used to send requests, linked to the core
+	 * @param coreRequestArrivalInboundPortUris 
+	 * 				URIs of the port to the core
+	 * @return	the URI of the port receiving the requests of the VM.
+	 * @throws Exception
+	 */
+	public String		bindCores(
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> coreRequestArrivalInboundPortUris
+		) throws Exception
+	{
+		assert outboundPortURIs != null;
+		assert this.rgops.isEmpty() ;
+		assert outboundPortURIs.size() ==
+								coreRequestArrivalInboundPortUris.size() ;
+
 		for (int i = 0; i < outboundPortURIs.size(); i++) {
 			String outboundPortURI = outboundPortURIs.get(i);
 			// outbound port for request departure (into a core)
@@ -154,7 +326,7 @@ extends		AbstractComponent
 			String vmResponseArrivalInboundPortUri = "vm-resp-raip-" + java.util.UUID.randomUUID();
 			
 			// create an inbound port for response from this core
-			VMResponseArrivalInboundPort respAip = new VMResponseArrivalInboundPort(vmResponseArrivalInboundPortUri, this);
+			VMResponseArrivalInboundPort respAip = new VMResponseArrivalInboundPort(vmResponseArrivalInboundPortUri, this, i);
 			this.respAips.add(respAip);
 			this.addPort(respAip);
 			if(AbstractCVM.isDistributed){
@@ -168,23 +340,60 @@ extends		AbstractComponent
 	
 		}
 		
-		// outbound port to send response to request dispatcher
-		this.addRequiredInterface(ResponseArrivalI.class);
-		this.vmResponseGeneratorOutboundPort = new VMResponseGeneratorOutboundPort(inboundPortURI + "response", this);
-		this.addPort(vmResponseGeneratorOutboundPort);
-		
-		if(AbstractCVM.isDistributed){
-			vmResponseGeneratorOutboundPort.publishPort();
-		}else{
-			vmResponseGeneratorOutboundPort.localPublishPort();
+		this.policy = LOAD_BALANCING.newPolicy(this.rgops.size()) ;
+
+		return this.raip.getPortURI() ;
+	}
+
+	/**
+	 * disconnect the virtual machine from its cores, once it has no more
+	 * pending or outstanding requests, so that it is idle again and may be
+	 * bound to other cores; the request dispatcher must have been unbound
+	 * from the virtual machine before.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	!ret || this.rgops.isEmpty()
+	 * </pre>
+	 *
+	 * @return	true if the virtual machine has been unbound, false if it
+	 * 			still has requests in progress.
+	 * @throws Exception
+	 */
+	public boolean		unbindCores() throws Exception
+	{
+		if (this.policy != null && (!this.requestsQueue.isEmpty() ||
+								this.policy.getTotalOutstanding() > 0)) {
+			System.out.println(logId + " Requests in progress, not unbound") ;
+			return false ;
 		}
-		
-		System.out.println(logId + " Virtual machine (id " + id + ") created") ;
-		
-		assert	id != null;
-		assert	!vmIdle || (servicing == null) ;
-		assert	vmIdle || (servicing != null) ;
-		assert	totalServicingTime >= 0 && totalNumberOfServicedRequests >= 0 ;
+		if (this.nextFlushTaskFuture != null) {
+			this.nextFlushTaskFuture.cancel(false) ;
+			this.nextFlushTaskFuture = null ;
+		}
+		this.flushStatistics() ;
+		for (int i = 0; i < this.rgops.size(); i++) {
+			RequestGeneratorOutboundPort rgop = this.rgops.get(i) ;
+			if (rgop.connected()) {
+				// the cores must no longer send their responses here
+				if (!this.cold) {
+					rgop.disconnectResponseConnection() ;
+				}
+				rgop.doDisconnection() ;
+			}
+			rgop.destroyPort() ;
+			this.respAips.get(i).destroyPort() ;
+		}
+		this.rgops.clear() ;
+		this.respAips.clear() ;
+		this.cold = true ;
+		this.nextSharingCore = 0 ;
+		this.meanTime = 0.0 ;
+		this.disconnectResponseConnection() ;
+		System.out.println(logId + " Unbound from its cores") ;
+		return true ;
 	}
 
 	// -------------------------------------------------------------------------
@@ -208,6 +417,11 @@ extends		AbstractComponent
 	@Override
 	public void			shutdown() throws ComponentShutdownException
 	{
+		if (this.nextFlushTaskFuture != null &&
+				!(this.nextFlushTaskFuture.isCancelled() ||
+						this.nextFlushTaskFuture.isDone())) {
+			this.nextFlushTaskFuture.cancel(true) ;
+		}
 		try {
 			for (RequestGeneratorOutboundPort rgop : rgops) {
 				if (rgop.connected()) {
@@ -245,28 +459,201 @@ extends		AbstractComponent
 	{
 		assert	r != null ;
 
+		this.admitRequest(r) ;
+		if (this.workSharing) {
+			this.shareWork() ;
+		} else if (!this.vmIdle) {
+			System.out.println(logId + " Queueing request " + r) ;
+		} else if (!this.requestsQueue.isEmpty()) {
+			this.beginServicingEvent() ;
+		}
+	}
+
+	/**
+	 * process the arrival of a batch of requests, queueing them and then, if
+	 * the virtual machine is idle, dispatching all of the pending requests
+	 * with one call per core.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	rs != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param rs
+	 * @throws Exception
+	 */
+	public void			requestsArrivalEvent(ArrayList<Request> rs)
+	throws Exception
+	{
+		assert	rs != null ;
+
+		for (Request r : rs) {
+			this.admitRequest(r) ;
+		}
+		if (this.workSharing) {
+			this.shareWork() ;
+		} else if (!this.vmIdle) {
+			System.out.println(logId + " Queueing requests " + rs) ;
+		} else if (!this.requestsQueue.isEmpty()) {
+			this.dispatchPendingRequests() ;
+		}
+	}
+
+	/**
+	 * timestamp a newly arrived request and put it in the queue, rejecting
+	 * the request shed by the overflow strategy if the queue is full; upon
+	 * the first arrival, ask the cores to connect their responses to the
+	 * virtual machine.
+	 *
+	 * @param r	the newly arrived request.
+	 * @throws Exception
+	 */
+	protected void		admitRequest(Request r) throws Exception
+	{
 		// ask the core to do the connection to the inbound port of the VM (for response)
 		if(cold){
-			RequestGeneratorOutboundPort[] rgopsArray = rgops.toArray(new RequestGeneratorOutboundPort[0]);
 			for (int i = 0; i < respAips.size(); i++) {
 				VMResponseArrivalInboundPort vmRespAip = respAips.get(i);
-				rgopsArray[i].connectResponseConnection(vmRespAip.getServerPortURI());
+				rgops.get(i).connectResponseConnection(vmRespAip.getServerPortURI());
 			}
 			cold = false;
 		}
 		
-		long t = System.currentTimeMillis() ;
+		long t = EventCalendar.currentTimeMillis() ;
 		System.out.println(logId + " Accepting request       " + r + " at " +
 												TimeProcessing.toString(t)) ;
 		r.setArrivalTime(t) ;
-		this.requestsQueue.add(r) ;
-		if (!this.vmIdle) {
-			System.out.println(logId + " Queueing request " + r) ;
-		} else {
-			this.beginServicingEvent() ;
+		Request shed = this.requestsQueue.admit(r) ;
+		if (shed != null) {
+			this.rejectRequest(shed) ;
+		}
+	}
+
+	/**
+	 * reject a request shed by the overflow strategy, sending a rejection
+	 * response to the request dispatcher.
+	 *
+	 * @param r	the rejected request.
+	 * @throws Exception
+	 */
+	protected void		rejectRequest(Request r) throws Exception
+	{
+		System.out.println(logId + " Rejecting request       " + r + " at " +
+				TimeProcessing.toString(EventCalendar.currentTimeMillis())) ;
+		this.totalNumberOfRejectedRequests++ ;
+		Response response = new Response(r.getUri()) ;
+		response.setRejected() ;
+		response.setLoad(this.getQueueLength(),
+										this.policy.getTotalClockSpeed()) ;
+		if (this.vmResponseGeneratorOutboundPort.connected()) {
+			this.vmResponseGeneratorOutboundPort.acceptResponse(response) ;
+		}
+	}
+
+	/**
+	 * @return	true if the senders must acquire a slot in the queue of the
+	 * 			virtual machine before sending it a request.
+	 */
+	public boolean		blocksSenders()
+	{
+		return this.requestsQueue.blocksSenders() ;
+	}
+
+	/**
+	 * block the calling sender until the queue of the virtual machine has room for
+	 * one more request, if the overflow strategy blocks the senders.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void			acquireQueueSlot() throws InterruptedException
+	{
+		this.requestsQueue.acquireSlot() ;
+	}
+
+	/**
+	 * dispatch all of the pending requests at once, choosing their cores
+	 * with the load balancing policy as <code>scheduleServicing</code> but
+	 * grouping the requests per core, so that each core receives its share
+	 * of the burst in a single call.
+	 */
+	protected void		dispatchPendingRequests()
+	{
+		this.vmIdle = false ;
+		long t = EventCalendar.currentTimeMillis() ;
+		LinkedHashMap<RequestGeneratorOutboundPort,ArrayList<Request>> batches =
+				new LinkedHashMap<RequestGeneratorOutboundPort,ArrayList<Request>>() ;
+		while (!this.requestsQueue.isEmpty()) {
+			Request r = this.requestsQueue.remove() ;
+			System.out.println(logId + " Dispatching request     " + r
+					+ " at " + TimeProcessing.toString(t)) ;
+			int target = this.policy.select() ;
+			this.policy.dispatched(target) ;
+			RequestGeneratorOutboundPort rgop = this.rgops.get(target) ;
+			ArrayList<Request> batch = batches.get(rgop) ;
+			if (batch == null) {
+				batch = new ArrayList<Request>() ;
+				batches.put(rgop, batch) ;
+			}
+			batch.add(r) ;
+			this.totalServicingTime += t - r.getArrivalTime() ;
+			this.totalNumberOfServicedRequests++ ;
+		}
+		for (Map.Entry<RequestGeneratorOutboundPort,ArrayList<Request>> e :
+														batches.entrySet()) {
+			try {
+				if (e.getValue().size() == 1) {
+					e.getKey().acceptRequest(e.getValue().get(0)) ;
+				} else {
+					e.getKey().acceptRequests(e.getValue()) ;
+				}
+			} catch (Exception ex) {
+				ex.printStackTrace() ;
+			}
 		}
+		this.servicing = null ;
+		this.vmIdle = true ;
 	}
 
+	/**
+	 * in work sharing mode, send pending requests to the cores having less
+	 * than <code>CORE_QUEUE_THRESHOLD</code> outstanding requests, starting
+	 * from the core following the last one served and grouping the requests
+	 * per core; the remaining requests wait in the queue of the virtual
+	 * machine until cores complete theirs.
+	 */
+	protected void		shareWork()
+	{
+		assert	this.workSharing ;
+
+		long t = EventCalendar.currentTimeMillis() ;
+		int nrofCores = this.rgops.size() ;
+		for (int n = 0 ; n < nrofCores && !this.requestsQueue.isEmpty() ; n++) {
+			int core = this.nextSharingCore ;
+			this.nextSharingCore = (core + 1) % nrofCores ;
+			ArrayList<Request> batch = new ArrayList<Request>() ;
+			while (!this.requestsQueue.isEmpty() &&
+					this.policy.getOutstanding(core) < CORE_QUEUE_THRESHOLD) {
+				Request r = this.requestsQueue.remove() ;
+				System.out.println(logId + " Dispatching request     " + r
+						+ " at " + TimeProcessing.toString(t)) ;
+				this.policy.dispatched(core) ;
+				batch.add(r) ;
+				this.totalServicingTime += t - r.getArrivalTime() ;
+				this.totalNumberOfServicedRequests++ ;
+			}
+			try {
+				if (batch.size() == 1) {
+					this.rgops.get(core).acceptRequest(batch.get(0)) ;
+				} else if (batch.size() > 1) {
+					this.rgops.get(core).acceptRequests(batch) ;
+				}
+			} catch (Exception e) {
+				e.printStackTrace() ;
+			}
+		}
+	}
 	
 	/**
 	 * process a begin servicing event, e.g. schedule a end servicing event
@@ -297,10 +684,10 @@ extends		AbstractComponent
 		try {
 			System.out.println(logId + " Dispatching request     "
 					+ this.servicing + " at "
-					+ TimeProcessing.toString(System.currentTimeMillis())) ;
-			RequestGeneratorOutboundPort rgop = this.rgops.poll();		
-			rgop.acceptRequest(request);
-			this.rgops.add(rgop);
+					+ TimeProcessing.toString(EventCalendar.currentTimeMillis())) ;
+			int target = this.policy.select() ;
+			this.policy.dispatched(target) ;
+			this.rgops.get(target).acceptRequest(request) ;
 			this.endServicingEvent() ;
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -323,7 +710,7 @@ extends		AbstractComponent
 	 */
 	public void			endServicingEvent() throws Exception
 	{
-		long t = System.currentTimeMillis() ;
+		long t = EventCalendar.currentTimeMillis() ;
 		long st = t - this.servicing.getArrivalTime() ; 
 		this.totalServicingTime += st ;
 		this.totalNumberOfServicedRequests++ ;
@@ -338,24 +725,37 @@ extends		AbstractComponent
 
 	/**
 	 * update the mean time of request processing (inside the virtual machine)
-	 * and forward the new mean time to the request dispatcher
+	 * and forward the new mean time to the request dispatcher, together with
+	 * the load of the virtual machine; rejections are forwarded as is.
+	 * @param core the index of the core which sent the response
 	 * @param response the received response
 	 */
-	public void 			responseArrivalEvent(Response response) {
+	public void 			responseArrivalEvent(int core, Response response) {
 		
 		System.out.println(logId + " Received a response from core");
-		
-		if(this.meanTime < 0){
-			// first set
-			this.meanTime = (double) response.getDuration();
-		}else{
-			this.meanTime = (this.meanTime + response.getDuration()) / 2.0;
+		this.policy.completed(core, 1) ;
+		if (response.hasLoad()) {
+			this.policy.reportLoad(core, response.getQueueLength(),
+											response.getClockSpeed()) ;
+		}
+		if (this.workSharing) {
+			this.shareWork() ;
 		}
-		//System.out.println(logId + " New mean time : " + this.meanTime);
-		
-		
 		
-		response.setDuration(this.meanTime);
+		if (response.isRejected()) {
+			this.totalNumberOfRejectedRequests++ ;
+		} else {
+			if(this.meanTime < 0){
+				// first set
+				this.meanTime = (double) response.getDuration();
+			}else{
+				this.meanTime = (this.meanTime + response.getDuration()) / 2.0;
+			}
+			//System.out.println(logId + " New mean time : " + this.meanTime);
+			
+			response.setDuration(this.meanTime);
+		}
+		response.setLoad(this.getQueueLength(), this.policy.getTotalClockSpeed()) ;
 		// send the new mean time of the virtual machine to the request dispatcher
 		try {
 			if(this.vmResponseGeneratorOutboundPort.connected()){
@@ -366,6 +766,95 @@ extends		AbstractComponent
 		}
 	}
 	
+	/**
+	 * merge the statistics received from a core into the pending ones, and
+	 * schedule their flush to the request dispatcher at the end of the period
+	 * if it is not already.
+	 * 
+	 * @param core			the index of the core which sent the statistics.
+	 * @param statistics	the received statistics.
+	 */
+	public void			responseStatisticsArrivalEvent(
+		int core,
+		ResponseStatistics statistics
+		)
+	{
+		assert	statistics != null ;
+
+		System.out.println(logId + " Received statistics from core "
+															+ statistics);
+		if (!statistics.isEmpty()) {
+			this.policy.completed(core, statistics.getCount()) ;
+		}
+		if (statistics.hasLoad()) {
+			this.policy.reportLoad(core, statistics.getQueueLength(),
+											statistics.getClockSpeed()) ;
+		}
+		if (this.workSharing) {
+			this.shareWork() ;
+		}
+		this.pendingStatistics.merge(statistics) ;
+		if (this.nextFlushTaskFuture == null) {
+			final VM fvm = this ;
+			ComponentTask task = new ComponentTask() {
+				@Override
+				public void run() {
+					try {
+						fvm.flushStatistics() ;
+					} catch (Exception e) {
+						e.printStackTrace() ;
+					}
+				}} ;
+			if (EventCalendar.isVirtualTime()) {
+				this.nextFlushTaskFuture = EventCalendar.getCalendar().
+						scheduleAfter(this, task, ResponseStatistics.FLUSH_PERIOD) ;
+			} else {
+				// the flush swaps the pending statistics, so it must run on
+				// the request lane like the arrivals that fill them.
+				final ComponentTask flush = task ;
+				this.nextFlushTaskFuture = this.scheduleTask(
+						new ComponentTask() {
+							@Override
+							public void run() {
+								fvm.runTask(flush) ;
+							}},
+						ResponseStatistics.FLUSH_PERIOD, TimeUnit.MILLISECONDS) ;
+			}
+		}
+	}
+
+	/**
+	 * send the merged statistics to the request dispatcher and start new
+	 * ones.
+	 *
+	 * @throws Exception
+	 */
+	public void			flushStatistics() throws Exception
+	{
+		this.nextFlushTaskFuture = null ;
+		if (this.pendingStatistics.isEmpty()) {
+			return ;
+		}
+		ResponseStatistics statistics = this.pendingStatistics ;
+		this.pendingStatistics = new ResponseStatistics() ;
+		statistics.setLoad(this.getQueueLength(),
+										this.policy.getTotalClockSpeed()) ;
+		if (this.vmResponseGeneratorOutboundPort.connected()) {
+			this.vmResponseGeneratorOutboundPort.
+								acceptResponseStatistics(statistics) ;
+		}
+	}
+
+	/**
+	 * @return	the number of requests waiting in the virtual machine or sent
+	 * 			to its cores and not yet completed.
+	 */
+	protected int		getQueueLength()
+	{
+		return this.requestsQueue.size()
+								+ (int) this.policy.getTotalOutstanding() ;
+	}
+
 	/**
 	 * Connect the virtual machine for response connection
 	 * @param furi	uri of outbound port of the virtual machine
@@ -380,4 +869,17 @@ extends		AbstractComponent
 					.doConnection(furi, ResponseServiceConnector.class.getCanonicalName());
 		}
 	}
+
+	/**
+	 * Disconnect the response connection from the request dispatcher, which
+	 * is unbound from the virtual machine
+	 * @throws Exception
+	 */
+	public void disconnectResponseConnection() throws Exception 
+	{
+		if (this.vmResponseGeneratorOutboundPort.connected()) {
+			System.out.println(logId + " Disconnect the response connection from the request dispatcher");
+			this.vmResponseGeneratorOutboundPort.doDisconnection();
+		}
+	}
 }
@@ -0,0 +1,61 @@
+package fr.upmc.colins.farm3.vm;
+
+import java.util.ArrayList;
+
+import fr.upmc.components.interfaces.TwoWayI;
+
+/**
+ * The interface <code>VMBindingI</code> defines the protocol to bind an idle
+ * virtual machine to the cores allocated to an application.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The interface can be both required and offered; it is offered by the
+ * virtual machines created in advance by the admission control, before any
+ * core is allocated to them.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public interface		VMBindingI
+extends		TwoWayI
+{
+	/**
+	 * connect the virtual machine to its cores.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	outboundPortURIs != null && coreRequestArrivalInboundPortUris != null
+	 * pre	outboundPortURIs.size() == coreRequestArrivalInboundPortUris.size()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param outboundPortURIs						URIs of the ports used to send requests to the cores.
+	 * @param coreRequestArrivalInboundPortUris	URIs of the ports of the cores.
+	 * @return										URI of the port receiving the requests of the virtual machine.
+	 * @throws Exception
+	 */
+	String				bindCores(
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> coreRequestArrivalInboundPortUris
+		) throws Exception ;
+
+	/**
+	 * disconnect the virtual machine from its cores once it has no more
+	 * requests in progress, so that it is idle again.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @return	true if the virtual machine has been unbound, false if it still has requests in progress.
+	 * @throws Exception
+	 */
+	boolean				unbindCores() throws Exception ;
+}
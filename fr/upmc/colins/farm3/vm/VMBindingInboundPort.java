@@ -0,0 +1,92 @@
+package fr.upmc.colins.farm3.vm;
+
+import java.util.ArrayList;
+
+import fr.upmc.components.ComponentI;
+import fr.upmc.components.ComponentI.ComponentService;
+import fr.upmc.components.ports.AbstractInboundPort;
+
+/**
+ * The class <code>VMBindingInboundPort</code> implements the inbound port
+ * through which an idle virtual machine is bound to its cores.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The port implements the <code>VMBindingI</code> interface as offered and
+ * upon a call, passes it to the owner virtual machine, in one of the threads
+ * of the component.
+ * 
+ * <p>Created on : oct. 2026</p>
+ * 
+ * @author	Colins-Alasca
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			VMBindingInboundPort
+extends		AbstractInboundPort
+implements	VMBindingI
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * create an inbound port.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	uri != null && owner != null
+	 * pre	owner.isOfferedInterface(VMBindingI.class)
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param uri			URI of the port.
+	 * @param owner			owner component of the port.
+	 * @throws Exception
+	 */
+	public				VMBindingInboundPort(
+		String uri,
+		ComponentI owner
+		) throws Exception
+	{
+		super(uri, VMBindingI.class, owner) ;
+
+		assert	uri != null && owner != null ;
+		assert	owner.isOfferedInterface(VMBindingI.class) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.vm.VMBindingI#bindCores(java.util.ArrayList, java.util.ArrayList)
+	 */
+	@Override
+	public String		bindCores(
+		ArrayList<String> outboundPortURIs,
+		ArrayList<String> coreRequestArrivalInboundPortUris
+		) throws Exception
+	{
+		final VM vm = (VM) this.owner ;
+		final ArrayList<String> fops = outboundPortURIs ;
+		final ArrayList<String> fcores = coreRequestArrivalInboundPortUris ;
+		return vm.handleRequestSync(
+				new ComponentService<String>() {
+					@Override
+					public String call() throws Exception {
+						return vm.bindCores(fops, fcores) ;
+					}
+				}) ;
+	}
+
+	/**
+	 * @see fr.upmc.colins.farm3.vm.VMBindingI#unbindCores()
+	 */
+	@Override
+	public boolean		unbindCores() throws Exception
+	{
+		final VM vm = (VM) this.owner ;
+		return vm.handleRequestSync(
+				new ComponentService<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						return vm.unbindCores() ;
+					}
+				}) ;
+	}
+}
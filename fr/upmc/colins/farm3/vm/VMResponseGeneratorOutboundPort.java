@@ -2,6 +2,7 @@ package fr.upmc.colins.farm3.vm;
 
 import fr.upmc.colins.farm3.core.ResponseArrivalI;
 import fr.upmc.colins.farm3.objects.Response;
+import fr.upmc.colins.farm3.objects.ResponseStatistics;
 import fr.upmc.components.ComponentI;
 import fr.upmc.components.ports.AbstractOutboundPort;
 
@@ -63,5 +64,11 @@ implements	ResponseArrivalI
 		((ResponseArrivalI)this.connector).acceptResponse(response) ;
 	}
 
+	@Override
+	public void acceptResponseStatistics(ResponseStatistics statistics)
+	throws Exception {
+		((ResponseArrivalI)this.connector).acceptResponseStatistics(statistics) ;
+	}
+
 
 }
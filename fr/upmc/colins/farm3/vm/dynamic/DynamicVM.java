@@ -33,6 +33,14 @@ extends VM
 
 	}
 
+	public DynamicVM(
+			Integer id, 
+			String inboundPortURI,
+			String bindingInboundPortURI
+			) throws Exception {
+		super(id, inboundPortURI, bindingInboundPortURI);
+	}
+
 	
 	
 }
@@ -51,6 +51,8 @@ import java.util.concurrent.TimeoutException;
 
 import net.jcip.annotations.GuardedBy;
 import fr.upmc.components.exceptions.ComponentShutdownException;
+import fr.upmc.components.executors.ComponentExecutors;
+import fr.upmc.components.executors.SerialExecutor;
 import fr.upmc.components.exceptions.ComponentStartException;
 import fr.upmc.components.interfaces.OfferedI;
 import fr.upmc.components.interfaces.RequiredI;
@@ -88,6 +90,12 @@ import fr.upmc.components.ports.PortI;
  * of requests.  At creation time, components may be given 0, 1 or more threads
  * as well as 0, 1 or more schedulable threads.  Schedulable threads are useful
  * when some service or task pust be executed at some specific time.
+ * Single threads are provided by <code>ComponentExecutors</code> depending
+ * upon the execution backend selected for the JVM: they are either dedicated
+ * to the component or borrowed from a pool shared by all components, the
+ * component then being executed as an actor processing its mailbox (see
+ * <code>fr.upmc.components.executors</code>).  In both cases, the requests
+ * (resp. the scheduled tasks) of the component are executed one at a time.
  * 
  * Concurrent execution can be used to service requests coming from client
  * components or to execute some task required by the component itself or
@@ -159,6 +167,12 @@ implements		ComponentI
 	// Internal concurrency behaviour
 	// ------------------------------------------------------------------------
 
+	/** true if the synchronous requests to a concurrent component executed
+	 *  by a serial executor run in the calling thread when the executor is
+	 *  idle; off by default, as the requests of a component may then be
+	 *  executed by any of the threads calling it.							*/
+	public static boolean	INLINE_SYNCHRONOUS_REQUESTS = false ;
+
 	/** true if the component executes concurrently.						*/
 	protected boolean	isConcurrent ;
 	/** true if the component can schedule tasks.							*/
@@ -420,7 +434,7 @@ implements		ComponentI
 		this();
 		this.isConcurrent = isConcurrent ;
 		if (isConcurrent) {
-			this.requestHandler = Executors.newSingleThreadExecutor() ;
+			this.requestHandler = ComponentExecutors.newRequestHandler() ;
 		}
 	}
 
@@ -447,7 +461,7 @@ implements		ComponentI
 			this.isConcurrent = true ;
 		}
 		if (nbThreads == 1) {
-			this.requestHandler = Executors.newSingleThreadExecutor() ;
+			this.requestHandler = ComponentExecutors.newRequestHandler() ;
 		} else if (nbThreads > 1) {
 			this.requestHandler = Executors.newFixedThreadPool(nbThreads) ;
 		}
@@ -478,7 +492,7 @@ implements		ComponentI
 		this.canScheduleTasks = canScheduleTasks ;
 		if (canScheduleTasks) {
 			this.scheduledTasksHandler =
-								Executors.newSingleThreadScheduledExecutor() ;
+							ComponentExecutors.newScheduledTasksHandler() ;
 		}
 	}
 
@@ -509,7 +523,7 @@ implements		ComponentI
 		}
 		if (nbSchedulableThreads == 1) {
 			this.scheduledTasksHandler =
-								Executors.newSingleThreadScheduledExecutor() ;
+							ComponentExecutors.newScheduledTasksHandler() ;
 		} else if (nbSchedulableThreads > 1) {
 			this.scheduledTasksHandler =
 						Executors.newScheduledThreadPool(nbSchedulableThreads) ;
@@ -1195,6 +1209,13 @@ implements		ComponentI
 	}
 
 	/**
+	 * handle a request and wait for its result; when the component is
+	 * executed by a serial executor, the request is executed by the calling
+	 * thread if it is already executing a task of the component, which would
+	 * otherwise deadlock, and, when <code>INLINE_SYNCHRONOUS_REQUESTS</code>
+	 * is true, if the executor is idle, which saves the hand-off to another
+	 * thread.
+	 * 
 	 * @see fr.upmc.components.ComponentI#handleRequestSync(fr.upmc.components.ComponentI.ComponentService)
 	 */
 	@Override
@@ -1207,7 +1228,21 @@ implements		ComponentI
 		assert	task != null ;
 
 		if (this.isConcurrent()) {
-			return this.handleRequest(task).get() ;
+			ExecutorService handler =
+				this.isConcurrent ? this.requestHandler
+								  : this.scheduledTasksHandler ;
+			if (handler instanceof SerialExecutor) {
+				SerialExecutor se = (SerialExecutor) handler ;
+				if (INLINE_SYNCHRONOUS_REQUESTS ? se.tryEnter()
+												: se.tryReenter()) {
+					try {
+						return task.call() ;
+					} finally {
+						se.exit() ;
+					}
+				}
+			}
+			return ComponentExecutors.awaitResult(this.handleRequest(task)) ;
 		} else {
 			return task.call() ;
 		}
@@ -1269,7 +1304,8 @@ implements		ComponentI
 		assert	this.canScheduleTasks ;
 		assert	request != null && delay >= 0 && u != null ;
 
-		return this.scheduleRequest(request, delay, u).get() ;
+		return ComponentExecutors.awaitResult(
+								this.scheduleRequest(request, delay, u)) ;
 	}
 
 	/**
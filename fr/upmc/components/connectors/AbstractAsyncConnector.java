@@ -0,0 +1,243 @@
+package fr.upmc.components.connectors;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import fr.upmc.components.executors.ComponentExecutors;
+
+/**
+ * The class <code>AbstractAsyncConnector</code> partially implements
+ * connectors which can send the one-way calls of their interface, i.e. calls
+ * without result, without blocking the caller.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * Between components of different processes, each call through a connector
+ * is a synchronous RMI round trip, so the caller stalls for the network
+ * latency even when the called method returns nothing.  When
+ * <code>ASYNCHRONOUS_ONE_WAY_CALLS</code> is true, the remote connectors
+ * derived from this class pass their one-way calls to a serial executor of
+ * their own, which sends them one after the other while the caller goes on;
+ * hence, the calls made through a connector are received in the order they
+ * have been made, as with synchronous calls, and the connectors can send
+ * their calls in parallel.  Local connectors, which calls do not cross the
+ * network, always make them synchronously.
+ * 
+ * A connector has at most <code>MAX_PENDING_CALLS</code> one-way calls
+ * passed to its sender and not yet made (0 if unbounded); when the bound is
+ * reached, the caller blocks until the sender has made one of them, so that
+ * a slow receiver pushes back on its senders as the bounded queues of
+ * pending requests do, instead of letting the calls pile up in the sender.
+ * 
+ * As the caller has already returned, an exception raised by an
+ * asynchronous call is only printed.  Upon disconnection, the connector
+ * waits for its pending calls to be sent, at most
+ * <code>DISCONNECTION_TIMEOUT</code> ms.
+ * 
+ * Subclasses make their one-way calls through <code>oneWay</code>, and
+ * their calls with results directly on the offering port.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	sender == null || isRemote
+ * </pre>
+ * 
+ * <p>Created on : 18 oct. 2026</p>
+ * 
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public abstract class	AbstractAsyncConnector
+extends		AbstractConnector
+{
+	/** true if the remote connectors send their one-way calls without
+	 *  blocking the caller.												*/
+	public static boolean		ASYNCHRONOUS_ONE_WAY_CALLS = false ;
+	/** maximum time in ms waited for the pending calls upon disconnection.	*/
+	public static long			DISCONNECTION_TIMEOUT = 10000L ;
+	/** maximum number of one-way calls of a connector waiting to be made
+	 *  by its sender, 0 if unbounded.										*/
+	public static int			MAX_PENDING_CALLS = 1024 ;
+
+	/** executor sending the one-way calls, created upon the first one.	*/
+	protected transient ExecutorService		sender ;
+	/** permits of the one-way calls which may still be passed to the
+	 *  sender, created upon the first one, null if unbounded.				*/
+	protected transient Semaphore			pendingCalls ;
+
+	/**
+	 * The interface <code>OneWayCall</code> is implemented by the calls
+	 * without result passed to <code>oneWay</code>.
+	 *
+	 * <p>Created on : 18 oct. 2026</p>
+	 * 
+	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+	 * @version	$Name$ -- $Revision$ -- $Date$
+	 */
+	public static interface	OneWayCall
+	{
+		/**
+		 * make the call on the offering port.
+		 * 
+		 * @throws Exception
+		 */
+		public void		call() throws Exception ;
+	}
+
+	/**
+	 * @return	true if the one-way calls are sent without blocking the caller.
+	 */
+	public boolean		isAsynchronous()
+	{
+		return ASYNCHRONOUS_ONE_WAY_CALLS && this.isRemote ;
+	}
+
+	/**
+	 * make a one-way call, either immediately or, if the connector is
+	 * asynchronous, by passing it to the sender of the connector, after
+	 * waiting for a permit if <code>MAX_PENDING_CALLS</code> calls are
+	 * already pending.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	c != null
+	 * pre	this.connected()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param c	the call to be made.
+	 * @throws Exception
+	 */
+	protected void		oneWay(final OneWayCall c) throws Exception
+	{
+		assert	c != null ;
+
+		if (!this.isAsynchronous()) {
+			c.call() ;
+		} else {
+			final Semaphore permits = this.getPendingCalls() ;
+			if (permits != null) {
+				ComponentExecutors.acquire(permits) ;
+			}
+			try {
+				this.getSender().execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							c.call() ;
+						} catch (Exception e) {
+							e.printStackTrace() ;
+						} finally {
+							if (permits != null) {
+								permits.release() ;
+							}
+						}
+					}
+				}) ;
+			} catch (RuntimeException e) {
+				if (permits != null) {
+					permits.release() ;
+				}
+				throw e ;
+			}
+		}
+	}
+
+	/**
+	 * @return	the permits of the pending one-way calls, created on demand,
+	 * 			or null if their number is unbounded.
+	 */
+	protected synchronized Semaphore	getPendingCalls()
+	{
+		if (this.pendingCalls == null && MAX_PENDING_CALLS > 0) {
+			this.pendingCalls = new Semaphore(MAX_PENDING_CALLS) ;
+		}
+		return this.pendingCalls ;
+	}
+
+	/**
+	 * @return	the executor sending the one-way calls, created on demand.
+	 */
+	protected synchronized ExecutorService	getSender()
+	{
+		if (this.sender == null) {
+			this.sender = ComponentExecutors.newOneWaySender() ;
+		}
+		return this.sender ;
+	}
+
+	/**
+	 * wait for the pending one-way calls to be sent, and release the sender.
+	 * 
+	 * @throws InterruptedException
+	 */
+	protected synchronized void	flush() throws InterruptedException
+	{
+		if (this.sender != null) {
+			this.sender.shutdown() ;
+			if (!this.sender.awaitTermination(DISCONNECTION_TIMEOUT,
+											  TimeUnit.MILLISECONDS)) {
+				System.out.println("one-way calls not sent before "
+													+ "disconnection.") ;
+			}
+			this.sender = null ;
+		}
+	}
+
+	/**
+	 * @see fr.upmc.components.connectors.AbstractConnector#disconnect()
+	 */
+	@Override
+	public synchronized void	disconnect() throws Exception
+	{
+		this.flush() ;
+		super.disconnect() ;
+	}
+
+	/**
+	 * @see fr.upmc.components.connectors.AbstractConnector#disconnectClient()
+	 */
+	@Override
+	public synchronized void	disconnectClient() throws Exception
+	{
+		this.flush() ;
+		super.disconnectClient() ;
+	}
+}
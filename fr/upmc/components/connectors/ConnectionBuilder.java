@@ -39,6 +39,7 @@ import java.rmi.Naming;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
 import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import fr.upmc.components.cvm.AbstractCVM;
 import fr.upmc.components.cvm.AbstractDistributedCVM;
@@ -56,6 +57,7 @@ import fr.upmc.components.ports.PortI;
 import fr.upmc.components.registry.ConnectionData;
 import fr.upmc.components.registry.ConnectionType;
 import fr.upmc.components.registry.GlobalRegistryClient;
+import fr.upmc.components.transport.SocketTransport;
 
 /**
  * The class <code>ConnectionBuilder</code> groups all the logic for the
@@ -80,9 +82,19 @@ import fr.upmc.components.registry.GlobalRegistryClient;
 public class			ConnectionBuilder {
 
 	public static ConnectionBuilder	SINGLETON ;
+	/** type of the connections to remote servers when not given.		*/
+	public static ConnectionType		DEFAULT_CONNECTION_TYPE =
+														ConnectionType.RMI ;
+	/** true if the socket connections to servers on the same host use the
+	 *  shared memory.													*/
+	public static boolean				SHARED_MEMORY_ON_SAME_HOST = true ;
 
 	protected final Hashtable<String,PortI>	localRegistry ;
 	protected final GlobalRegistryClient	globalRegistryClient ;
+	/** RMI stubs of the remote ports, by URI, kept as long as their entry
+	 *  is cached by the global registry client.							*/
+	protected final ConcurrentHashMap<String,ComponentImplementedI>
+															remoteReferences ;
 
 	/**
 	 * 
@@ -105,14 +117,23 @@ public class			ConnectionBuilder {
 		super();
 		this.localRegistry = localRegistry;
 		this.globalRegistryClient = globalRegistryClient;
+		this.remoteReferences =
+					new ConcurrentHashMap<String,ComponentImplementedI>() ;
+		if (globalRegistryClient != null) {
+			globalRegistryClient.addInvalidationListener(
+				new GlobalRegistryClient.InvalidationListenerI() {
+					@Override
+					public void invalidated(String key) {
+						remoteReferences.remove(key) ;
+					}
+				}) ;
+		}
 	}
 
 	/**
 	 * find the connection data for a socket-based communication in the
 	 * registry.
 	 * 
-	 * SOCKET COMMUNICATION NOT YET TERMINATED
-	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
@@ -135,9 +156,53 @@ public class			ConnectionBuilder {
 		return cd ;
 	}
 
+	/**
+	 * create a proxy to a remote port published on the socket transport;
+	 * the proxy uses a shared memory connection when the type is
+	 * <code>SHARED_MEMORY</code>, or when it is <code>SOCKET</code>,
+	 * <code>SHARED_MEMORY_ON_SAME_HOST</code> is true and the port is
+	 * published on the host of this JVM, as given by the configuration file.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	SocketTransport.isStarted()
+	 * pre	type == ConnectionType.SOCKET || type == ConnectionType.SHARED_MEMORY
+	 * post	ret instanceof PortI
+	 * </pre>
+	 *
+	 * @param remoteURI	uri identifying the port in the registry.
+	 * @param type		type of the connection.
+	 * @return			proxy to the component port.
+	 * @throws Exception
+	 */
+	protected ComponentImplementedI	getRemoteSocketProxy(
+		String remoteURI,
+		ConnectionType type
+		) throws Exception
+	{
+		ConnectionData cd =
+			this.getRemoteSocketInfo(remoteURI + SocketTransport.URI_SUFFIX) ;
+		boolean sharedMemory =
+			type == ConnectionType.SHARED_MEMORY ||
+				(SHARED_MEMORY_ON_SAME_HOST &&
+				 cd.getHostname().equals(AbstractDistributedCVM.thisHostname)) ;
+		if (AbstractCVM.DEBUG && sharedMemory) {
+			System.out.println("shared memory connection to " + remoteURI) ;
+		}
+		return (ComponentImplementedI)
+					SocketTransport.getTransport().createProxy(
+												remoteURI, cd, sharedMemory) ;
+	}
+
 	/**
 	 * find the remote reference corresponding to a port URI.
 	 * 
+	 * When <code>GlobalRegistryClient.CACHE_ENABLED</code> is true, the
+	 * stubs are kept and reused for the next connections to the same port,
+	 * until the global registry invalidates the entry of the port, which
+	 * happens when it is unpublished.
+	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
@@ -152,7 +217,13 @@ public class			ConnectionBuilder {
 	protected ComponentImplementedI	getRemoteReference(String remoteURI)
 	throws Exception
 	{
-		ComponentImplementedI inter = null ;
+		ComponentImplementedI inter =
+				GlobalRegistryClient.CACHE_ENABLED ?
+									this.remoteReferences.get(remoteURI)
+								:	null ;
+		if (inter != null) {
+			return inter ;
+		}
 		String info = this.globalRegistryClient.lookup(remoteURI) ;
 		ConnectionData cd = new ConnectionData(info) ;
 		if (cd.getType() == ConnectionType.RMI) {
@@ -175,6 +246,14 @@ public class			ConnectionBuilder {
 		} else { // cd.getType() == ConnectionType.SOCKET
 			throw new Exception("not a RMI port!") ;
 		}
+		if (GlobalRegistryClient.CACHE_ENABLED) {
+			this.remoteReferences.put(remoteURI, inter) ;
+			// the entry may have been invalidated since it has been looked up,
+			// before the stub was cached
+			if (!this.globalRegistryClient.isCached(remoteURI)) {
+				this.remoteReferences.remove(remoteURI, inter) ;
+			}
+		}
 		return inter ;
 	}
 
@@ -214,6 +293,45 @@ public class			ConnectionBuilder {
 		ConnectorI connector
 		) throws Exception
 	{
+		this.connectWith(serverPortURI, clientPortURI, connector,
+						 DEFAULT_CONNECTION_TYPE) ;
+	}
+
+	/**
+	 * connects two components through the named port (using port URI),
+	 * using the given type of connection when the client is local and the
+	 * server remote.
+	 * 
+	 * With the type <code>SOCKET</code>, the remote server port is reached
+	 * through a proxy of the socket transport instead of its RMI stub, which
+	 * goes through the shared memory when the server is on the same host
+	 * (see <code>getRemoteSocketProxy</code>), as with the type
+	 * <code>SHARED_MEMORY</code>; the other cases, including the server-side
+	 * connections of data and two way interfaces, always use RMI.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	type != null
+	 * pre	type == ConnectionType.RMI || SocketTransport.isStarted()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param serverPortURI	URI of the server port to connect.
+	 * @param clientPortURI	URI of the client port to connect.
+	 * @param connector		local connector to be used to connect.
+	 * @param type			type of the connection to a remote server.
+	 * @throws Exception 
+	 */
+	public void			connectWith(
+		String serverPortURI,
+		String clientPortURI,
+		ConnectorI connector,
+		ConnectionType type
+		) throws Exception
+	{
+		assert	type != null ;
+
 		PortI localServerPort = this.localRegistry.get(serverPortURI) ;
 		PortI localClientPort = this.localRegistry.get(clientPortURI) ;
 		if (localServerPort != null) {
@@ -273,8 +391,14 @@ public class			ConnectionBuilder {
 				System.out.println("remote connection of local client " +
 					clientPortURI + " to remote server " + serverPortURI) ;
 			}
-			PortI remoteServerPort =
+			PortI remoteServerPort ;
+			if (type != ConnectionType.RMI) {
+				remoteServerPort =
+					(PortI) this.getRemoteSocketProxy(serverPortURI, type) ;
+			} else {
+				remoteServerPort =
 							(PortI) this.getRemoteReference(serverPortURI) ;
+			}
 			remoteServerPort.setClientPortURI(clientPortURI) ;
 			connector.connectClient(
 					(OfferedI)remoteServerPort, (RequiredI)localClientPort) ;
@@ -34,8 +34,15 @@ package fr.upmc.components.cvm;
 // The fact that you are presently reading this means that you have had
 // knowledge of the CeCILL-C license and that you accept its terms.
 
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import fr.upmc.components.ComponentI;
@@ -260,6 +267,89 @@ implements	ComponentVirtualMachineI
 		assert	!LOCAL_REGISTRY.containsKey(port.getPortURI()) ;
 	}
 
+	// ------------------------------------------------------------------------
+	// Parallel instantiation
+	// ------------------------------------------------------------------------
+
+	/** maximum number of threads instantiating components in parallel; the
+	 *  instantiations mostly wait for the RMI registry, hence the default
+	 *  exceeds the number of processors.									*/
+	public static int			INSTANTIATION_PARALLELISM =
+							4 * Runtime.getRuntime().availableProcessors() ;
+	/** true in the threads executing instantiation tasks, in which nested
+	 *  calls to <code>instantiateInParallel</code> run sequentially.		*/
+	protected static final ThreadLocal<Boolean>	INSTANTIATING =
+													new ThreadLocal<Boolean>() ;
+
+	/**
+	 * execute independent instantiation tasks in parallel and return their
+	 * results in the order of the tasks; typically called from
+	 * <code>instantiateAndPublish</code>, each task creating a component or
+	 * a group of components, which constructors publish their ports.  The
+	 * tasks must only share thread safe objects, such as the virtual machine
+	 * when adding deployed components to it.  The parallelism applies at
+	 * one level only: when called from an instantiation task, for example
+	 * by a component constructor creating its subcomponents, the tasks are
+	 * executed sequentially in the calling thread.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	tasks != null
+	 * post	ret.size() == tasks.size()
+	 * </pre>
+	 *
+	 * @param tasks		instantiation tasks.
+	 * @return			the results of the tasks, in their order.
+	 * @throws Exception	the exception thrown by the first task failing.
+	 */
+	public static <T> List<T>	instantiateInParallel(
+		List<? extends Callable<T>> tasks
+		) throws Exception
+	{
+		assert	tasks != null ;
+
+		List<T> ret = new ArrayList<T>(tasks.size()) ;
+		int n = Math.min(tasks.size(), INSTANTIATION_PARALLELISM) ;
+		if (n <= 1 || INSTANTIATING.get() != null) {
+			for (Callable<T> task : tasks) {
+				ret.add(task.call()) ;
+			}
+			return ret ;
+		}
+		ExecutorService es = Executors.newFixedThreadPool(n) ;
+		try {
+			List<Future<T>> fs = new ArrayList<Future<T>>(tasks.size()) ;
+			for (final Callable<T> task : tasks) {
+				fs.add(es.submit(new Callable<T>() {
+					@Override
+					public T	call() throws Exception
+					{
+						INSTANTIATING.set(Boolean.TRUE) ;
+						try {
+							return task.call() ;
+						} finally {
+							INSTANTIATING.remove() ;
+						}
+					}
+				})) ;
+			}
+			for (Future<T> f : fs) {
+				try {
+					ret.add(f.get()) ;
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception) {
+						throw (Exception) e.getCause() ;
+					}
+					throw e ;
+				}
+			}
+		} finally {
+			es.shutdownNow() ;
+		}
+		return ret ;
+	}
+
 	// ------------------------------------------------------------------------
 	// Instance Methods
 	// ------------------------------------------------------------------------
@@ -340,7 +430,10 @@ implements	ComponentVirtualMachineI
 	{
 		assert	this.deploymentDone ;
 
-		for(ComponentI c : this.deployedComponents) {
+		// components may create others when starting, which are started by
+		// their creator, hence the loop goes over a copy
+		for(ComponentI c : this.deployedComponents.toArray(
+											new ComponentI[0])) {
 			c.start() ;
 		}
 	}
@@ -37,6 +37,7 @@ package fr.upmc.components.cvm;
 import java.io.File;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.util.ArrayList;
 import java.util.Set;
 
 import fr.upmc.components.cvm.config.ConfigurationFileParser;
@@ -48,6 +49,7 @@ import fr.upmc.components.interfaces.OfferedI;
 import fr.upmc.components.ports.PortI;
 import fr.upmc.components.registry.GlobalRegistry;
 import fr.upmc.components.registry.GlobalRegistryClient;
+import fr.upmc.components.transport.SocketTransport;
 
 /**
  * The class <code>AbstractDistributedCVM</code> defines the common properties
@@ -96,7 +98,12 @@ import fr.upmc.components.registry.GlobalRegistryClient;
  * 
  * cyclicBarrier = element cyclicBarrier {
  *   attribute hostname  { text },   # host on which the cyclic barrier is running
- *   attribute port      { xsd:int } # port number listen by the cyclic barrier
+ *   attribute port      { xsd:int },# port number listen by the cyclic barrier
+ *                                   # synchronisation through the central cyclic
+ *                                   # barrier or through a combining tree among
+ *                                   # the JVM which it builds (default central)
+ *   attribute topology  { "central" | "tree" }?,
+ *   attribute arity     { xsd:int }? # children per JVM in the tree (default 4)
  * }
  * 
  * globalRegistry = element globalRegistry {
@@ -185,6 +192,15 @@ implements	DistributedComponentVirtualMachineI
 	/** Global registry client; singleton.								*/
 	public final static GlobalRegistryClient	GLOBAL_REGISTRY_CLIENT =
 											new GlobalRegistryClient() ;
+	/** if true, the entries of the ports published during the instantiation
+	 *  phase are sent to the global registry in batches at its end.		*/
+	public static boolean				BATCH_PUBLICATIONS = true ;
+	/** keys of the entries waiting to be sent to the global registry, null
+	 *  when the entries are sent at each publication; guarded by the
+	 *  class.															*/
+	protected static ArrayList<String>	pendingPublicationKeys = null ;
+	/** values of the entries waiting to be sent to the global registry.	*/
+	protected static ArrayList<String>	pendingPublicationValues = null ;
 
 	/**
 	 * publish inbound ports (data inbound ports and two way ports) both
@@ -221,9 +237,32 @@ implements	DistributedComponentVirtualMachineI
 		if (AbstractCVM.isDistributed) {
 			assert	AbstractDistributedCVM.theRMIRegistry != null ;
 			AbstractDistributedCVM.theRMIRegistry.bind(portURI, port) ;
-			AbstractDistributedCVM.GLOBAL_REGISTRY_CLIENT.
-					put(portURI,
-						"rmi=" + AbstractDistributedCVM.thisHostname) ;
+			String[] keys ;
+			String[] values ;
+			if (SocketTransport.isStarted()) {
+				keys = new String[]{
+							portURI, portURI + SocketTransport.URI_SUFFIX} ;
+				values = new String[]{
+							"rmi=" + AbstractDistributedCVM.thisHostname,
+							SocketTransport.getTransport().getConnectionInfo(
+								((PortI)port).getImplementedInterface())} ;
+			} else {
+				keys = new String[]{portURI} ;
+				values = new String[]{
+							"rmi=" + AbstractDistributedCVM.thisHostname} ;
+			}
+			synchronized (AbstractDistributedCVM.class) {
+				if (pendingPublicationKeys != null) {
+					for (int i = 0 ; i < keys.length ; i++) {
+						pendingPublicationKeys.add(keys[i]) ;
+						pendingPublicationValues.add(values[i]) ;
+					}
+					keys = null ;
+				}
+			}
+			if (keys != null) {
+				AbstractDistributedCVM.GLOBAL_REGISTRY_CLIENT.put(keys, values) ;
+			}
 		}
 
 		//	LOCAL_REGISTRY.containsKey(port.getPortURI())
@@ -268,7 +307,27 @@ implements	DistributedComponentVirtualMachineI
 		if (AbstractCVM.isDistributed) {
 			assert	AbstractDistributedCVM.theRMIRegistry != null ;
 			AbstractDistributedCVM.theRMIRegistry.unbind(portURI) ;
-			AbstractDistributedCVM.GLOBAL_REGISTRY_CLIENT.remove(portURI) ;
+			boolean pending = false ;
+			synchronized (AbstractDistributedCVM.class) {
+				if (pendingPublicationKeys != null) {
+					for (String key : new String[]{
+							portURI, portURI + SocketTransport.URI_SUFFIX}) {
+						int i = pendingPublicationKeys.indexOf(key) ;
+						if (i >= 0) {
+							pendingPublicationKeys.remove(i) ;
+							pendingPublicationValues.remove(i) ;
+							pending = true ;
+						}
+					}
+				}
+			}
+			if (!pending) {
+				AbstractDistributedCVM.GLOBAL_REGISTRY_CLIENT.remove(portURI) ;
+				if (SocketTransport.isStarted()) {
+					AbstractDistributedCVM.GLOBAL_REGISTRY_CLIENT.
+							remove(portURI + SocketTransport.URI_SUFFIX) ;
+				}
+			}
 		}
 
 		//	LOCAL_REGISTRY.containsKey(port.getPortURI())
@@ -276,6 +335,59 @@ implements	DistributedComponentVirtualMachineI
 		//	TODO not published in the RMI registry of the current host
 	}
 
+	/**
+	 * start deferring the global registry entries of the ports published
+	 * from now on, until <code>endPublicationBatch</code> sends them all.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true				// no more preconditions.
+	 * post	true				// no more postconditions.
+	 * </pre>
+	 */
+	public static synchronized void	beginPublicationBatch()
+	{
+		if (pendingPublicationKeys == null) {
+			pendingPublicationKeys = new ArrayList<String>() ;
+			pendingPublicationValues = new ArrayList<String>() ;
+		}
+	}
+
+	/**
+	 * send the deferred global registry entries in batches of
+	 * <code>GlobalRegistryClient.MAX_BATCH_SIZE</code> entries per round
+	 * trip, and send the entries of the next publications immediately.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true				// no more preconditions.
+	 * post	true				// no more postconditions.
+	 * </pre>
+	 *
+	 * @throws Exception	if some of the keys were already bound.
+	 */
+	public static void	endPublicationBatch() throws Exception
+	{
+		String[] keys ;
+		String[] values ;
+		synchronized (AbstractDistributedCVM.class) {
+			if (pendingPublicationKeys == null) {
+				return ;
+			}
+			keys = pendingPublicationKeys.toArray(
+							new String[pendingPublicationKeys.size()]) ;
+			values = pendingPublicationValues.toArray(
+							new String[pendingPublicationValues.size()]) ;
+			pendingPublicationKeys = null ;
+			pendingPublicationValues = null ;
+		}
+		if (keys.length > 0) {
+			AbstractDistributedCVM.GLOBAL_REGISTRY_CLIENT.put(keys, values) ;
+		}
+	}
+
 	// ------------------------------------------------------------------------
 	// Internal dynamic state
 	// ------------------------------------------------------------------------
@@ -360,13 +472,19 @@ implements	DistributedComponentVirtualMachineI
 		} else {
 			AbstractDistributedCVM.theRMIRegistry = null ;
 		}
+		// Socket transport, on which the ports are published besides RMI
+		if (SocketTransport.ENABLED) {
+			SocketTransport.start(AbstractCVM.LOCAL_REGISTRY,
+								  AbstractDistributedCVM.thisHostname) ;
+		}
 		// Cyclic barrier initialisation
 		this.cyclicBarrierClient =
 			new DCVMCyclicBarrierClient(
 					DCVMCyclicBarrier.CYCLIC_BARRIER_HOSTNAME,
 					DCVMCyclicBarrier.CYCLIC_BARRIER_PORT,
 					AbstractDistributedCVM.thisHostname,
-					AbstractDistributedCVM.thisJVMURI) ;
+					AbstractDistributedCVM.thisJVMURI,
+					this.configurationParameters.isCyclicBarrierTree()) ;
 	}
 
 	// ------------------------------------------------------------------------
@@ -399,8 +517,13 @@ implements	DistributedComponentVirtualMachineI
 		this.initialise() ;
 		this.cyclicBarrierClient.waitBarrier() ;
 		// Instantiate the components and publish their ports on the
-		// different registry.
+		// different registry, the entries of the global registry being
+		// sent in batches at the end of the phase.
+		if (BATCH_PUBLICATIONS) {
+			AbstractDistributedCVM.beginPublicationBatch() ;
+		}
 		this.instantiateAndPublish() ;
+		AbstractDistributedCVM.endPublicationBatch() ;
 		this.cyclicBarrierClient.waitBarrier() ;
 		// Interconnect the components, lookup for their ports on the
 		// different registry.
@@ -475,8 +598,9 @@ implements	DistributedComponentVirtualMachineI
 	}
 
 	/**
-	 * simply establish that the instantiation of components and the publication
-	 * of the entry points are completed, so it should be called at the end of
+	 * establish that the instantiation of components and the publication
+	 * of the entry points are completed, sending the global registry entries
+	 * deferred during the phase, so it should be called at the end of
 	 * the user's own <code>instantiateAndPublish</code> method.
 	 * 
 	 * <p><strong>Contract</strong></p>
@@ -494,6 +618,7 @@ implements	DistributedComponentVirtualMachineI
 	{
 		assert	this.initialised ;
 
+		AbstractDistributedCVM.endPublicationBatch() ;
 		this.instantiationAndPublicationDone = true ;
 	}
 
@@ -553,6 +678,7 @@ implements	DistributedComponentVirtualMachineI
 		super.shutdown();
 		this.cyclicBarrierClient.waitBarrier() ;
 		this.cyclicBarrierClient.closeBarrier() ;
+		SocketTransport.stop() ;
 		GLOBAL_REGISTRY_CLIENT.shutdown() ;
 	}
 
@@ -566,6 +692,7 @@ implements	DistributedComponentVirtualMachineI
 		super.shutdownNow();
 		this.cyclicBarrierClient.waitBarrier() ;
 		this.cyclicBarrierClient.closeBarrier() ;
+		SocketTransport.stop() ;
 		GLOBAL_REGISTRY_CLIENT.shutdown() ;
 	}
 }
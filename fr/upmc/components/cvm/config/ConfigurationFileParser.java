@@ -89,6 +89,9 @@ public class			ConfigurationFileParser
 {
 	public static String	SCHEMA_FILENAME = "config" + File.separatorChar +
 															"deployment.rnc" ;
+	/** number of children of each JVM in the combining tree barrier when
+	 *  the configuration file does not give it.							*/
+	public static int		DEFAULT_CYCLIC_BARRIER_ARITY = 4 ;
 	protected DocumentBuilder db ;
 
 	/**
@@ -182,6 +185,8 @@ public class			ConfigurationFileParser
 		String		codebaseDirectory = null ;
 		String		cyclicBarrierHostname = null ;
 		int			cyclicBarrierPort = -1 ;
+		boolean		cyclicBarrierTree = false ;
+		int			cyclicBarrierArity = DEFAULT_CYCLIC_BARRIER_ARITY ;
 		String		globalRegistryHostname = null ;
 		int			globalRegistryPort = -1 ;
 		int			rmiRegistryPort = -1 ;
@@ -225,6 +230,20 @@ public class			ConfigurationFileParser
 							"/deployment/cyclicBarrier/@port",
 							doc,
 							XPathConstants.NODE)).getNodeValue()) ;
+			Node topologyNode = (Node)xpathEvaluator.evaluate(
+					"/deployment/cyclicBarrier/@topology",
+					doc,
+					XPathConstants.NODE) ;
+			if (topologyNode != null) {
+				cyclicBarrierTree = topologyNode.getNodeValue().equals("tree") ;
+			}
+			Node arityNode = (Node)xpathEvaluator.evaluate(
+					"/deployment/cyclicBarrier/@arity",
+					doc,
+					XPathConstants.NODE) ;
+			if (arityNode != null) {
+				cyclicBarrierArity = Integer.parseInt(arityNode.getNodeValue()) ;
+			}
 			globalRegistryHostname = ((Node)xpathEvaluator.evaluate(
 					"/deployment/globalRegistry/@hostname",
 					doc,
@@ -278,6 +297,8 @@ public class			ConfigurationFileParser
 										   codebaseDirectory,
 										   cyclicBarrierHostname,
 										   cyclicBarrierPort,
+										   cyclicBarrierTree,
+										   cyclicBarrierArity,
 										   globalRegistryHostname,
 										   globalRegistryPort,
 										   rmiRegistryPort,
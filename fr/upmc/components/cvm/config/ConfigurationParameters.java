@@ -60,6 +60,8 @@ public class			ConfigurationParameters
 	protected String					codebaseDirectory ;
 	protected String					cyclicBarrierHostname ;
 	protected int						cyclicBarrierPort ;
+	protected boolean					cyclicBarrierTree ;
+	protected int						cyclicBarrierArity ;
 	protected String					globalRegistryHostname ;
 	protected int						globalRegistryPort ;
 	protected int						rmiregistryPort ;
@@ -73,6 +75,8 @@ public class			ConfigurationParameters
 		String						codebaseDirectory,
 		String						cyclicBarrierHostname,
 		int							cyclicBarrierPort,
+		boolean						cyclicBarrierTree,
+		int							cyclicBarrierArity,
 		String						globalRegistryHostname,
 		int							globalRegistryPort,
 		int							rmiregistryPort,
@@ -87,6 +91,8 @@ public class			ConfigurationParameters
 		this.codebaseDirectory = codebaseDirectory;
 		this.cyclicBarrierHostname = cyclicBarrierHostname ;
 		this.cyclicBarrierPort = cyclicBarrierPort ;
+		this.cyclicBarrierTree = cyclicBarrierTree ;
+		this.cyclicBarrierArity = cyclicBarrierArity ;
 		this.globalRegistryHostname = globalRegistryHostname;
 		this.globalRegistryPort = globalRegistryPort;
 		this.rmiregistryPort = rmiregistryPort ;
@@ -124,6 +130,21 @@ public class			ConfigurationParameters
 		return this.cyclicBarrierPort;
 	}
 
+	/**
+	 * @return true if the JVM synchronise through a combining tree, the
+	 *         cyclic barrier server being only used to build it.
+	 */
+	public boolean		isCyclicBarrierTree() {
+		return this.cyclicBarrierTree;
+	}
+
+	/**
+	 * @return the number of children of each JVM in the combining tree.
+	 */
+	public int			getCyclicBarrierArity() {
+		return this.cyclicBarrierArity;
+	}
+
 	/**
 	 * @return the globalRegistryHostname
 	 */
@@ -188,6 +209,8 @@ public class			ConfigurationParameters
 					"codebase directory: " + this.codebaseDirectory + "; " +
 					"cyclicBarrier hostname: " + this.cyclicBarrierHostname + "; " +
 					"cyclicBarrier port: " + this.cyclicBarrierPort + "; " +
+					"cyclicBarrier tree: " + this.cyclicBarrierTree + "; " +
+					"cyclicBarrier arity: " + this.cyclicBarrierArity + "; " +
 					"global registry hostname: " + this.globalRegistryHostname + "; " +
 					"global registry port: " + this.globalRegistryPort + "; " +
 					"RMI registry creators: " + this.rmiRegistryCreators + "; " +
@@ -0,0 +1,164 @@
+package fr.upmc.components.cvm.pre.dcc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class <code>ConstructorCache</code> caches the constructors used to
+ * create components by reflection, as method handles keyed by the name of
+ * the class and the classes of the actual parameters.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The constructor invoked is, as with <code>Class.getConstructor</code>, the
+ * public constructor which parameter types are exactly the classes of the
+ * actual parameters, hence the parameters must not be null and must be of
+ * reified types (<code>Integer</code>, <code>Boolean</code>, etc.).  The
+ * first creation of a class with given parameter classes loads the class,
+ * looks up the constructor and adapts its method handle to take the
+ * parameters as an array; the following ones only look up the cache and
+ * invoke the handle, which exceptions are thrown as is instead of being
+ * wrapped in an <code>InvocationTargetException</code>.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	true
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			ConstructorCache
+{
+	/**
+	 * The class <code>Key</code> identifies a constructor by the name of
+	 * its class and the classes of its actual parameters.
+	 */
+	protected static class	Key
+	{
+		protected final String		classname ;
+		protected final Class<?>[]	parameterTypes ;
+		protected final int			hash ;
+
+		protected			Key(String classname, Class<?>[] parameterTypes)
+		{
+			this.classname = classname ;
+			this.parameterTypes = parameterTypes ;
+			this.hash = 31 * classname.hashCode() +
+										Arrays.hashCode(parameterTypes) ;
+		}
+
+		@Override
+		public int			hashCode()
+		{
+			return this.hash ;
+		}
+
+		@Override
+		public boolean		equals(Object o)
+		{
+			if (!(o instanceof Key)) {
+				return false ;
+			}
+			Key k = (Key) o ;
+			return this.hash == k.hash &&
+					this.classname.equals(k.classname) &&
+					Arrays.equals(this.parameterTypes, k.parameterTypes) ;
+		}
+	}
+
+	/** constructors by class name and parameter classes, as handles of
+	 *  type (Object[])Object.												*/
+	protected static final ConcurrentHashMap<Key,MethodHandle>	CONSTRUCTORS =
+									new ConcurrentHashMap<Key,MethodHandle>() ;
+
+	/**
+	 * create an object from the class of the given class name, invoking its
+	 * constructor matching the classes of the given parameters.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	classname != null && constructorParams != null
+	 * post	ret != null
+	 * </pre>
+	 *
+	 * @param classname			name of the class of the object.
+	 * @param constructorParams	parameters to be passed to the constructor.
+	 * @return					the new object.
+	 * @throws Exception		if the constructor does not exist or throws it.
+	 */
+	public static Object	newInstance(
+		String classname,
+		Object[] constructorParams
+		) throws Exception
+	{
+		assert	classname != null && constructorParams != null ;
+
+		Class<?>[] parameterTypes = new Class[constructorParams.length] ;
+		for (int i = 0 ; i < constructorParams.length ; i++) {
+			parameterTypes[i] = constructorParams[i].getClass() ;
+		}
+		Key k = new Key(classname, parameterTypes) ;
+		MethodHandle mh = CONSTRUCTORS.get(k) ;
+		if (mh == null) {
+			mh = MethodHandles.publicLookup().unreflectConstructor(
+						Class.forName(classname).getConstructor(parameterTypes))
+					.asType(MethodType.genericMethodType(parameterTypes.length))
+					.asSpreader(Object[].class, parameterTypes.length) ;
+			MethodHandle previous = CONSTRUCTORS.putIfAbsent(k, mh) ;
+			if (previous != null) {
+				mh = previous ;
+			}
+		}
+		try {
+			return (Object) mh.invokeExact(constructorParams) ;
+		} catch (Exception e) {
+			throw e ;
+		} catch (Error e) {
+			throw e ;
+		} catch (Throwable t) {
+			throw new Exception(t) ;
+		}
+	}
+
+	/**
+	 * create an object from the given class, invoking its constructor matching
+	 * the classes of the given parameters.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	c != null && constructorParams != null
+	 * post	ret != null
+	 * </pre>
+	 *
+	 * @param c					class of the object.
+	 * @param constructorParams	parameters to be passed to the constructor.
+	 * @return					the new object.
+	 * @throws Exception		if the constructor does not exist or throws it.
+	 */
+	public static Object	newInstance(
+		Class<?> c,
+		Object[] constructorParams
+		) throws Exception
+	{
+		assert	c != null ;
+
+		return newInstance(c.getName(), constructorParams) ;
+	}
+
+	/**
+	 * remove all of the constructors from the cache.
+	 */
+	public static void		clear()
+	{
+		CONSTRUCTORS.clear() ;
+	}
+}
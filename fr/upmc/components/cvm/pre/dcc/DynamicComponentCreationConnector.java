@@ -36,4 +36,17 @@ implements	DynamicComponentCreationI
 		((DynamicComponentCreationI)this.offering).
 								createComponent(classname, constructorParams) ;
 	}
+
+	/**
+	 * @see fr.upmc.components.cvm.pre.dcc.DynamicComponentCreationI#createComponents(java.lang.String[], java.lang.Object[][])
+	 */
+	@Override
+	public void			createComponents(
+		String[] classnames,
+		Object[][] constructorParams
+		) throws Exception
+	{
+		((DynamicComponentCreationI)this.offering).
+							createComponents(classnames, constructorParams) ;
+	}
 }
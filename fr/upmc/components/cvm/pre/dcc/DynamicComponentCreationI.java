@@ -44,4 +44,26 @@ extends OfferedI, RequiredI
 		String classname,
 		Object[] constructorParams
 		) throws Exception ;
+
+	/**
+	 * create several components in one call, in the order of the arrays,
+	 * each one being created and started before the next one, so that
+	 * components may connect in their constructor to the ones created before
+	 * them; when a creation fails, the following ones are not done.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	classnames.length == constructorParams.length
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param classnames		names of the classes of the components.
+	 * @param constructorParams	parameters of the constructor of each component.
+	 * @throws Exception
+	 */
+	public void			createComponents(
+		String[] classnames,
+		Object[][] constructorParams
+		) throws Exception ;
 }
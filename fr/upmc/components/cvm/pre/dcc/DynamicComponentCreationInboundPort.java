@@ -63,4 +63,27 @@ implements	DynamicComponentCreationI
 					}
 				}) ;
 	}
+
+	/**
+	 * @see fr.upmc.components.cvm.pre.dcc.DynamicComponentCreationI#createComponents(java.lang.String[], java.lang.Object[][])
+	 */
+	@Override
+	public void			createComponents(
+		String[] classnames,
+		Object[][] constructorParams
+		) throws Exception
+	{
+		final DynamicComponentCreator dcc =
+										(DynamicComponentCreator) this.owner ;
+		final String[] fClassnames = classnames ;
+		final Object[][] fConstructorParams = constructorParams ;
+		dcc.handleRequestSync(
+				new ComponentI.ComponentService<Void>() {
+					@Override
+					public Void call() throws Exception {
+						dcc.createComponents(fClassnames, fConstructorParams) ;
+						return null ;
+					}
+				}) ;
+	}
 }
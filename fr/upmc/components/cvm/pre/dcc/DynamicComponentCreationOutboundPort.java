@@ -51,4 +51,17 @@ implements	DynamicComponentCreationI
 		((DynamicComponentCreationI)this.connector).
 								createComponent(classname, constructorParams) ;
 	}
+
+	/**
+	 * @see fr.upmc.components.cvm.pre.dcc.DynamicComponentCreationI#createComponents(java.lang.String[], java.lang.Object[][])
+	 */
+	@Override
+	public void			createComponents(
+		String[] classnames,
+		Object[][] constructorParams
+		) throws Exception
+	{
+		((DynamicComponentCreationI)this.connector).
+							createComponents(classnames, constructorParams) ;
+	}
 }
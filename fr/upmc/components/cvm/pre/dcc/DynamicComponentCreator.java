@@ -1,7 +1,5 @@
 package fr.upmc.components.cvm.pre.dcc;
 
-import java.lang.reflect.Constructor;
-
 import fr.upmc.components.AbstractComponent;
 import fr.upmc.components.cvm.AbstractCVM;
 import fr.upmc.components.ports.PortI;
@@ -98,17 +96,37 @@ extends		AbstractComponent
 			System.out.println("DynamicComponentCreator creates: " + classname) ;
 		}
 
-		Class<?> cl = Class.forName(classname) ;
-		assert	cl != null ;
-		Class<?>[] parameterTypes = new Class[constructorParams.length] ;
-		for (int i = 0 ; i < constructorParams.length ; i++) {
-			parameterTypes[i] = constructorParams[i].getClass() ;
-		}
-		Constructor<?> cons = cl.getConstructor(parameterTypes) ;
-		assert	cons != null ;
 		AbstractComponent component =
-					(AbstractComponent) cons.newInstance(constructorParams) ;
+					(AbstractComponent) ConstructorCache.newInstance(
+											classname, constructorParams) ;
 		component.start() ;
 		this.assembly.addDeployedComponent(component) ;
 	}
+
+	/**
+	 * create and start components in the order of the arrays, each one
+	 * as <code>createComponent</code> does.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	classnames.length == constructorParams.length
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param classnames		names of the classes of the components.
+	 * @param constructorParams	parameters of the constructor of each component.
+	 * @throws Exception		if a creation did not succeed.
+	 */
+	public void		createComponents(
+		String[] classnames,
+		Object[][] constructorParams
+		) throws Exception
+	{
+		assert	classnames.length == constructorParams.length ;
+
+		for (int i = 0 ; i < classnames.length ; i++) {
+			this.createComponent(classnames[i], constructorParams[i]) ;
+		}
+	}
 }
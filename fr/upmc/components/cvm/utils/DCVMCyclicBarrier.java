@@ -34,19 +34,10 @@ package fr.upmc.components.cvm.utils;
 // The fact that you are presently reading this means that you have had
 // knowledge of the CeCILL-C license and that you accept its terms.
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.util.ArrayList;
 import java.util.Hashtable;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import fr.upmc.components.cvm.config.ConfigurationFileParser;
 import fr.upmc.components.cvm.config.ConfigurationParameters;
@@ -59,30 +50,40 @@ import fr.upmc.components.cvm.config.ConfigurationParameters;
  *
  * <p><strong>Description</strong></p>
  * 
- * The basic idea of the implementation is to map external processes to threads
- * in the virtual machine running the distributed cyclic barrier, and to use a
- * standard <code>java.util.concurrent.CyclicBarrier</code> to synchronise
- * these.  To couple the internal threads with the external processes, the
- * implementation uses sockets and their property of putting threads reading
- * from them into a wait.  First the cyclic barrier waits on a server socket for
- * the processes to connect, and create a thread and a socket for communicating
- * with each of them.  Each time processes need to synchronise, they send their
- * identification and a hostname and a port number on which they are waiting for
- * a release message.  The threads in the cyclic barrier receive these calls and
- * register the hostname and port number in a table and then synchronise on the
- * local cyclic barrier.  When released from the local cyclic barrier, the
- * release message is written on the sockets corresponding to each of the
- * external processes, and the cycle starts again.
+ * The basic idea of the implementation is to use sockets and their property
+ * of putting the external processes reading from them into a wait.  First the
+ * cyclic barrier waits on a server socket for the processes to connect, and
+ * keeps a connection with each of them.  Each time processes need to
+ * synchronise, they send their identification and a hostname and a port
+ * number on which they are waiting for a release message.  The cyclic barrier
+ * registers the connection of each of them in a table, and when all of the
+ * processes have sent their request, the release message is written on the
+ * connections corresponding to each of the external processes, and the cycle
+ * starts again.
+ * 
+ * All of the connections are served by a single thread running the event
+ * loop of a <code>SelectorLineServer</code> over non blocking sockets, so
+ * that, unlike the previous implementation mapping each external process to
+ * a thread waiting on a local <code>java.util.concurrent.CyclicBarrier</code>,
+ * the number of processes that can be synchronised is no longer bounded by a
+ * number of threads.
+ * 
+ * When the configuration file selects the tree topology, the cyclic barrier
+ * only serves the first synchronisation, which it uses to build a combining
+ * tree among the processes: instead of the release message, it sends each
+ * of them its rank in the tree, the number of its children and the host
+ * name and port number of its parent, as sent by the parent with its
+ * request (see <code>DCVMCyclicBarrierClient</code>).  The ranks follow the
+ * order of the JVM in the configuration file, so the first JVM is the root,
+ * and the parent of the rank r is the rank (r - 1) / arity.  The processes
+ * then synchronise through the tree and close their connection with the
+ * cyclic barrier, which terminates.
  * 
  * TODO: currently, the shutting down of the cyclic barrier depends upon the
  *       fact that when a process stops, the sockets is closed and the cyclic
- *       barrier receives a null string as ultimate message.  A cleaner
+ *       barrier receives an end of stream as ultimate message.  A cleaner
  *       explicit shutting down mechanism should be implemented.
  * 
- * TODO: the mechanism should be better abstracted by defining a wait barrier
- *       client which would hide the use of sockets from the processes to be
- *       synchronised.
- * 
  * <p><strong>Usage</strong></p>
  * 
  * The class <code>DCVMCyclicBarrier</code> is started in its own JVM,
@@ -96,7 +97,8 @@ import fr.upmc.components.cvm.config.ConfigurationParameters;
  * <p><strong>Invariant</strong></p>
  * 
  * <pre>
- * invariant	true	// TODO
+ * invariant	awaitingSites.size() <= numberOfArrivals
+ * invariant	numberOfArrivals < numberOfJVMsInDCVM
  * </pre>
  * 
  * <p>Created on : 2012-12-04</p>
@@ -105,63 +107,28 @@ import fr.upmc.components.cvm.config.ConfigurationParameters;
  * @version	$Name$ -- $Revision$ -- $Date$
  */
 public class			DCVMCyclicBarrier
+extends		SelectorLineServer
 {
-	/**
-	 * The class <code>HostPortSocket</code> defines a tuple of three values
-	 * (host name, port number and socket on which this host waits for a
-	 * release signal) that must be kept when a host has sent a request for
-	 * synchronisation to the cyclic barrier.
-	 *
-	 * <p><strong>Description</strong></p>
-	 * 
-	 * <p><strong>Invariant</strong></p>
-	 * 
-	 * <pre>
-	 * invariant	true	// TODO
-	 * </pre>
-	 * 
-	 * <p>Created on : 17 janv. 2014</p>
-	 * 
-	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
-	 * @version	$Name$ -- $Revision$ -- $Date$
-	 */
-	protected static class	HostPortSocket {
-		public HostPortSocket(String name, int port, Socket s) {
-			super();
-			this.name = name;
-			this.port = port;
-			this.s = s ;
-		}
-		public String	name ;
-		public int		port ;
-		public Socket	s ;
-	}
-
 	/**	Default cyclic barrier host name, configurable through the configuration file.	*/
 	public static String	CYCLIC_BARRIER_HOSTNAME = "bonaventure-ec2.rsr.lip6.fr" ;
 	/**	port number used by the cyclic barrier to listen to processes.		*/
 	public static int		CYCLIC_BARRIER_PORT = 55253 ;
-	// TODO: make this no longer a limit but simply a default.
-	/**	Max number of processes to be synchronised.							*/
-	public static int		MAX_NUMBER_OF_THREADS = 100 ;
 
 	public static boolean	DEBUG0 = true ;
 	public static boolean	DEBUG1 = true ;
 
 	/** Configuration parameters from the configuration file.				*/
 	protected ConfigurationParameters		configurationParameters ;
-	/**	Assemblies waiting for a release signal.								*/
-	protected final Hashtable<String,HostPortSocket>	awaitingSites ;
-	/** Server socket waiting for calls from assemblies.					*/
-	protected ServerSocket					ss ;
+	/**	Assemblies waiting for a release signal, by JVM URI.				*/
+	protected final Hashtable<String,Connection>	awaitingSites ;
 	/** Number of JVM in the current distributed assembly.					*/
 	protected final int						numberOfJVMsInDCVM ;
-	/** The executor service in charge of handling component requests.		*/
-	protected static ExecutorService		REQUEST_HANDLER ;
-	/** local cyclic barrier used to synchronise the assembly processing threads.	*/ 
-	protected CyclicBarrier					localCyclicBarrier ;
-	/**	synchroniser to finish the execution of this cyclic wait barrier.	*/
-	protected CountDownLatch				finished ;
+	/** Number of requests received in the current cycle.					*/
+	protected int							numberOfArrivals ;
+	/** true if the first release builds a combining tree.					*/
+	protected boolean						tree ;
+	/** number of children of each process in the combining tree.			*/
+	protected int							arity ;
 
 	// ------------------------------------------------------------------------
 	// Constructor
@@ -194,197 +161,176 @@ public class			DCVMCyclicBarrier
 		this.numberOfJVMsInDCVM =
 							this.configurationParameters.getJvms().length ;
 		this.awaitingSites =
-			new Hashtable<String,HostPortSocket>(
+			new Hashtable<String,Connection>(
 									(int) (1.5*this.numberOfJVMsInDCVM)) ;
+		this.numberOfArrivals = 0 ;
+		this.tree = this.configurationParameters.isCyclicBarrierTree() ;
+		this.arity = this.configurationParameters.getCyclicBarrierArity() ;
 		DCVMCyclicBarrier.CYCLIC_BARRIER_HOSTNAME =
 					this.configurationParameters.getCyclicBarrierHostname() ;
 		DCVMCyclicBarrier.CYCLIC_BARRIER_PORT =
 					this.configurationParameters.getCyclicBarrierPort() ;
-		this.ss = new ServerSocket(DCVMCyclicBarrier.CYCLIC_BARRIER_PORT) ;
-		REQUEST_HANDLER = Executors.newFixedThreadPool(MAX_NUMBER_OF_THREADS) ;
-		this.finished = new CountDownLatch(this.numberOfJVMsInDCVM) ;
-		this.localCyclicBarrier =
-			new CyclicBarrier(
-				this.numberOfJVMsInDCVM,
-				new Runnable() {
-					@Override
-					public void run() {
-						synchronized (awaitingSites) {
-							if (DEBUG0) {
-								System.out.println(
-									"DCVM Cyclic Barrier releases "
-									+ awaitingSites.size() +
-									" sites.") ;
-							}
-							for(HostPortSocket p : awaitingSites.values()) {
-								PrintStream ps;
-								try {
-									ps = new PrintStream(
-											p.s.getOutputStream(),
-											true);
-									ps.println("resume") ;
-								} catch (IOException e) {
-									e.printStackTrace();
-								}
-							}
-							awaitingSites.clear() ;
-						}
-					}
-			}) ;
+		this.open(DCVMCyclicBarrier.CYCLIC_BARRIER_PORT,
+				  this.numberOfJVMsInDCVM) ;
 	}
 
 	// ------------------------------------------------------------------------
-	// Service runnable
+	// Methods
 	// ------------------------------------------------------------------------
 
 	/**
-	 * The class <code>ServiceRunnable</code> implements the barrier as a
-	 * <code>Runnable</code> that receives the synchronisation requests from
-	 * assemblies, store them awaiting, and sends all of the stored assemblies
-	 * the release signal when all of them have sent their request.
-	 *
-	 * <p><strong>Description</strong></p>
+	 * register the external process which info has been received on the
+	 * connection <code>c</code> in the table of awaiting processes and, when
+	 * all of the processes have sent their request, send them the release
+	 * message.
 	 * 
-	 * The implementation relies on sockets and their waiting for reading
-	 * capability to force the waiting and then release of the processes to
-	 * be synchronised.
+	 * <p><strong>Contract</strong></p>
 	 * 
-	 * <p><strong>Invariant</strong></p>
+	 * <pre>
+	 * pre	true				// no more preconditions.
+	 * post	true				// no more postconditions.
+	 * </pre>
+	 * 
+	 * @see fr.upmc.components.cvm.utils.SelectorLineServer#lineReceived(fr.upmc.components.cvm.utils.SelectorLineServer.Connection, java.lang.String)
+	 */
+	@Override
+	protected void		lineReceived(Connection c, String message)
+	{
+		if (DEBUG0) {
+			System.out.println("DCVM Cyclic Barrier accepts: " + message) ;
+		}
+		String[] tokens = message.split("\\s") ;
+		// TODO: verify that the host name is known from the
+		// configuration file...
+		if (!this.awaitingSites.containsKey(tokens[0])) {	
+			// host name and port number to which the children connect
+			c.attachment = tokens[1] + " " + tokens[2] ;
+			this.awaitingSites.put(tokens[0], c) ; 
+		} else {
+			if (DEBUG1) {
+				System.out.println(
+					"DCVM Cyclic Barrier warning: " +
+					"jvm already registered " + tokens[0]);
+			}
+		}
+		this.numberOfArrivals++ ;
+		if (DEBUG1) {
+			System.out.println(
+				"DCVM Cyclic Barrier has received " +
+				this.awaitingSites.size() + " out of " +
+				this.numberOfJVMsInDCVM + " expected.") ;
+		}
+		if (this.numberOfArrivals == this.numberOfJVMsInDCVM) {
+			if (this.tree) {
+				this.releaseAsTree() ;
+			} else {
+				this.release() ;
+			}
+		}
+	}
+
+	/**
+	 * send the release message to all of the awaiting processes and start a
+	 * new cycle.
+	 * 
+	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * invariant	true	// TODO
+	 * pre	true			// no precondition.
+	 * post	awaitingSites.isEmpty() && numberOfArrivals == 0
 	 * </pre>
+	 *
+	 */
+	protected void		release()
+	{
+		if (DEBUG0) {
+			System.out.println(
+				"DCVM Cyclic Barrier releases "
+				+ this.awaitingSites.size() + " sites.") ;
+		}
+		for (Connection c : this.awaitingSites.values()) {
+			this.send(c, "resume") ;
+		}
+		this.awaitingSites.clear() ;
+		this.numberOfArrivals = 0 ;
+	}
+
+	/**
+	 * release the awaiting processes by sending each of them its position in
+	 * the combining tree, as the message <code>tree &lt;rank&gt;
+	 * &lt;children&gt; &lt;parent host&gt; &lt;parent port&gt;</code>, the
+	 * parent of the root being <code>- -</code>.
 	 * 
-	 * <p>Created on : 17 janv. 2014</p>
+	 * <p><strong>Contract</strong></p>
 	 * 
-	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
-	 * @version	$Name$ -- $Revision$ -- $Date$
+	 * <pre>
+	 * pre	arity > 0
+	 * post	awaitingSites.isEmpty() && numberOfArrivals == 0
+	 * </pre>
+	 *
 	 */
-	protected static class	ServiceRunnable
-	implements	Runnable
+	protected void		releaseAsTree()
 	{
-		protected Hashtable<String,HostPortSocket>	awaitingSites ;
-		protected int								numberOfJVMsInDCVM ;
-		protected Socket							s ;
-		protected BufferedReader					br ;
-		protected CyclicBarrier						localCyclicBarrier ;
-		protected CountDownLatch					finished ;
+		assert	this.arity > 0 ;
 
-		public				ServiceRunnable(
-			Hashtable<String, HostPortSocket> awaitingSites,
-			int numberOfJVMsInDCVM,
-			Socket s,
-			CyclicBarrier localCyclicBarrier,
-			CountDownLatch finished
-			)
-		{
-			super();
-			this.awaitingSites = awaitingSites;
-			this.numberOfJVMsInDCVM = numberOfJVMsInDCVM;
-			this.s = s ;
-			try {
-				this.br = new BufferedReader(
-						  	  new InputStreamReader(this.s.getInputStream()));
-			} catch (IOException e) {
-				e.printStackTrace();
+		ArrayList<String> ranks = new ArrayList<String>() ;
+		for (String jvm : this.configurationParameters.getJvms()) {
+			if (this.awaitingSites.containsKey(jvm) && !ranks.contains(jvm)) {
+				ranks.add(jvm) ;
 			}
-			this.localCyclicBarrier = localCyclicBarrier ;
-			this.finished = finished ;
 		}
-
-		/**
-		 * for each external process to be synchronised, a copy of this method
-		 * is the behaviour of the associated thread in the distributed cyclic
-		 * barrier, which repeatedly read the external process info written on
-		 * its socket, put the information in the hash table of awaiting
-		 * processes and wait on the local cyclic barrier to be released; this
-		 * is repeated until a null is returned from the read on socket, marking
-		 * the disconnection from the barrier by the external process.
-		 *  
-		 * <p><strong>Contract</strong></p>
-		 * 
-		 * <pre>
-		 * pre	true				// no more preconditions.
-		 * post	true				// no more postconditions.
-		 * </pre>
-		 * 
-		 * @see java.lang.Runnable#run()
-		 */
-		@Override
-		public void			run()
-		{
-			String message = null ;
-			try {
-				message = br.readLine() ;
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			while (message != null) {
-				if (DEBUG0) {
-					System.out.println("DCVM Cyclic Barrier accepts: "
-																	+ message) ;
-				}
-				String[] tokens = message.split("\\s") ;
-				synchronized (this.awaitingSites) {
-					// TODO: verify that the host name is known from the
-					// configuration file...
-					if (!this.awaitingSites.containsKey(tokens[0])) {	
-						this.awaitingSites.put(
-								tokens[0],
-								new HostPortSocket(
-										tokens[1],
-										Integer.parseInt(tokens[2]),
-										this.s)) ; 
-					} else {
-						if (DEBUG1) {
-							System.out.println(
-								"DCVM Cyclic Barrier warning: " +
-								"jvm already registered " + tokens[0]);
-						}
-					}
-					if (DEBUG1) {
-						System.out.println(
-							"DCVM Cyclic Barrier has received " +
-							this.awaitingSites.size() + " out of " +
-							this.numberOfJVMsInDCVM + " expected.") ;
-					}
-				}
-				try {
-					this.localCyclicBarrier.await() ;
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				} catch (BrokenBarrierException e) {
-					e.printStackTrace();
-				}
-				try {
-					message = br.readLine() ;
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
-			try {
-				s.close() ;
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			if (DEBUG1) {
-				System.out.println("DCVMCyclicBarrier.run() finished.") ;
+		for (String jvm : this.awaitingSites.keySet()) {
+			if (!ranks.contains(jvm)) {
+				ranks.add(jvm) ;
 			}
-			this.finished.countDown() ;
 		}
+		if (DEBUG0) {
+			System.out.println(
+				"DCVM Cyclic Barrier releases " + ranks.size() +
+				" sites in a tree of arity " + this.arity + ".") ;
+		}
+		int n = ranks.size() ;
+		for (int r = 0 ; r < n ; r++) {
+			int children = Math.max(0, Math.min(this.arity,
+												n - 1 - r * this.arity)) ;
+			String parent = r == 0 ?
+						"- -"
+					:	(String) this.awaitingSites.get(
+							ranks.get((r - 1) / this.arity)).attachment ;
+			this.send(this.awaitingSites.get(ranks.get(r)),
+					  DCVMCyclicBarrierClient.TREE_MESSAGE + " " + r + " " +
+					  children + " " + parent) ;
+		}
+		this.awaitingSites.clear() ;
+		this.numberOfArrivals = 0 ;
 	}
 
-	// ------------------------------------------------------------------------
-	// Methods
-	// ------------------------------------------------------------------------
+	/**
+	 * @see fr.upmc.components.cvm.utils.SelectorLineServer#connectionAccepted(fr.upmc.components.cvm.utils.SelectorLineServer.Connection)
+	 */
+	@Override
+	protected void		connectionAccepted(Connection c)
+	{
+		if (DEBUG0 && this.acceptedConnections == this.numberOfJVMsInDCVM) {
+			System.out.println("All connected!") ;
+		}
+	}
+
+	/**
+	 * @see fr.upmc.components.cvm.utils.SelectorLineServer#connectionClosed(fr.upmc.components.cvm.utils.SelectorLineServer.Connection)
+	 */
+	@Override
+	protected void		connectionClosed(Connection c)
+	{
+		if (DEBUG1) {
+			System.out.println("DCVMCyclicBarrier.run() finished.") ;
+		}
+	}
 
 	/**
 	 * wait for processes for their first connection on a server socket and
-	 * create a new <code>ServiceRunnable</code> for each of them, submitting
-	 * its execution to the executor service; these threads will then
-	 * synchronise with each other on a local standard cyclic barrier and
-	 * alternatively wait and release their external process by exchanging
-	 * messages through sockets.
+	 * serve their synchronisation requests until all of them have
+	 * disconnected.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
@@ -399,26 +345,8 @@ public class			DCVMCyclicBarrier
 		if (DEBUG0) {
 			System.out.println("DCVM Cyclic Barrier up and running!") ;
 		}
-		int connected = 0 ;
-		while (connected < this.numberOfJVMsInDCVM) {
-			try {
-				REQUEST_HANDLER.submit(
-					new ServiceRunnable(
-							this.awaitingSites,
-							this.numberOfJVMsInDCVM,
-							this.ss.accept(),
-							this.localCyclicBarrier,
-							this.finished)) ;
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			connected++ ;
-		}
-		if (DEBUG0) {
-			System.out.println("All connected!") ;
-		}
 		try {
-			this.ss.close() ;
+			this.runEventLoop() ;
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -445,11 +373,9 @@ public class			DCVMCyclicBarrier
 		try {
 			as = new DCVMCyclicBarrier(args[0]);
 			as.run() ;
-			as.finished.await() ;
 			if (DEBUG1) {
 				System.out.println("DCVM Cyclic Barrier shuts down!") ;
 			}
-			REQUEST_HANDLER.shutdown() ;
 			System.exit(0) ;
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.net.ServerSocket;
 import java.net.Socket;
 
 /**
@@ -12,10 +13,29 @@ import java.net.Socket;
  *
  * <p><strong>Description</strong></p>
  * 
+ * With the central topology, each call to <code>waitBarrier</code> sends the
+ * information of the JVM to the cyclic barrier server and waits for its
+ * release signal, the server being a central point receiving as many
+ * messages as there are JVM at each synchronisation.
+ * 
+ * With the tree topology, the client listens on a server socket of its own,
+ * which port number it sends with its first request to the cyclic barrier
+ * server.  The server then answers each JVM with its rank in a combining
+ * tree, the number of its children and the host and port of its parent, and
+ * the JVM connect to their parent and accept the connections of their
+ * children, after which the connection with the server is closed.  The
+ * following synchronisations are done in the tree: a JVM waits for an
+ * <code>arrive</code> message from each of its children, sends its own to its
+ * parent and waits for its <code>resume</code> message, which it then sends
+ * to its children; the root resumes as soon as all of its children have
+ * arrived.  A synchronisation then takes a number of message delays
+ * logarithmic in the number of JVM, and no process receives more messages
+ * than the arity of the tree.
+ * 
  * <p><strong>Invariant</strong></p>
  * 
  * <pre>
- * invariant	true
+ * invariant	!treeEstablished || tree
  * </pre>
  * 
  * <p>Created on : 21 janv. 2014</p>
@@ -25,6 +45,11 @@ import java.net.Socket;
  */
 public class			DCVMCyclicBarrierClient
 {
+	/** prefix of the release message giving the position in the tree.	*/
+	public static final String	TREE_MESSAGE = "tree" ;
+	/** backlog of the server socket accepting the children.				*/
+	protected static final int	CHILDREN_BACKLOG = 64 ;
+
 	/** socket used to exchange signals with the wait barrier.				*/
 	protected Socket			cyclicBarrierSignalingSocket ;
 	/**	a buffered reader to read from the socket.							*/
@@ -35,9 +60,29 @@ public class			DCVMCyclicBarrierClient
 	protected String			hostname ;
 	/**	URI of the JVM that is executing the process to be synchronised.	*/
 	protected String			jvmURI ;
+	/** true if the synchronisations use a combining tree.					*/
+	protected final boolean		tree ;
+	/** server socket accepting the children in the tree, until they are
+	 *  all connected.														*/
+	protected ServerSocket		childrenServerSocket ;
+	/** true once the tree has been built.									*/
+	protected boolean			treeEstablished ;
+	/** socket connected to the parent, null for the root.					*/
+	protected Socket			parentSocket ;
+	/**	a buffered reader to read from the parent.							*/
+	protected BufferedReader	parentBR ;
+	/** a print stream to write to the parent.								*/
+	protected PrintStream		parentPS ;
+	/** sockets connected to the children.									*/
+	protected Socket[]			childrenSockets ;
+	/**	buffered readers to read from the children.							*/
+	protected BufferedReader[]	childrenBRs ;
+	/** print streams to write to the children.							*/
+	protected PrintStream[]		childrenPSs ;
 
 	/**
-	 * create the client side object implementing the wait behaviour.
+	 * create the client side object implementing the wait behaviour with
+	 * the central topology.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
@@ -56,10 +101,45 @@ public class			DCVMCyclicBarrierClient
 		String hostname,
 		String jvmURI
 		) throws IOException
+	{
+		this(cyclicBarrierHostname, cyclicBarrierPort, hostname, jvmURI,
+			 false) ;
+	}
+
+	/**
+	 * create the client side object implementing the wait behaviour.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param cyclicBarrierHostname	name of the host running the cyclic barrier.
+	 * @param cyclicBarrierPort		port number listen by the cyclic barrier.
+	 * @param hostname				name of the host running this JVM.
+	 * @param jvmURI				URI of this JVM.
+	 * @param tree					true if the synchronisations use a
+	 * 								combining tree built by the cyclic barrier.
+	 * @throws IOException 
+	 */
+	public				DCVMCyclicBarrierClient(
+		String cyclicBarrierHostname,
+		int cyclicBarrierPort,
+		String hostname,
+		String jvmURI,
+		boolean tree
+		) throws IOException
 	{
 		super();
 		this.hostname = hostname ;
 		this.jvmURI = jvmURI ;
+		this.tree = tree ;
+		this.treeEstablished = false ;
+		if (tree) {
+			this.childrenServerSocket = new ServerSocket(0, CHILDREN_BACKLOG) ;
+		}
 		this.cyclicBarrierSignalingSocket =
 						new Socket(cyclicBarrierHostname, cyclicBarrierPort) ;
 		this.cyclicBarrierPS =
@@ -73,13 +153,13 @@ public class			DCVMCyclicBarrierClient
 
 	/**
 	 * signal the current virtual machine to the central distributed cyclic
-	 * barrier and then wait for the signal from the barrier before resuming
-	 * execution.
+	 * barrier, or to its parent in the tree once built, and then wait for the
+	 * release signal before resuming execution.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * pre	this.cyclicBarrierSignalingSocket.isConnected()
+	 * pre	treeEstablished || this.cyclicBarrierSignalingSocket.isConnected()
 	 * post	true			// no postcondition.
 	 * </pre>
 	 *
@@ -88,24 +168,124 @@ public class			DCVMCyclicBarrierClient
 	public void			waitBarrier()
 	throws IOException
 	{
+		if (this.treeEstablished) {
+			this.waitTreeBarrier() ;
+			return ;
+		}
+
 		assert	this.cyclicBarrierSignalingSocket.isConnected() ;
 
 		// send the necessary information to allow the cyclic barrier to call
 		// back to release the client process.
 		this.cyclicBarrierPS.println(
 				this.jvmURI + " " + this.hostname + " " +
-				this.cyclicBarrierSignalingSocket.getLocalPort()) ;
+				(this.tree ?
+					this.childrenServerSocket.getLocalPort()
+				:	this.cyclicBarrierSignalingSocket.getLocalPort())) ;
 		// this call waits until something is written by the cyclic barrier.
-		this.cyclicBarrierBR.readLine() ;
+		String release = this.cyclicBarrierBR.readLine() ;
+		if (this.tree && release != null &&
+										release.startsWith(TREE_MESSAGE)) {
+			this.joinTree(release.split("\\s")) ;
+		}
+	}
+
+	/**
+	 * connect to the parent and accept the connections of the children, as
+	 * given by the release message of the cyclic barrier
+	 * <code>tree &lt;rank&gt; &lt;children&gt; &lt;parent host&gt;
+	 * &lt;parent port&gt;</code>, the parent being <code>- -</code> for the
+	 * root, and close the connection with the cyclic barrier.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	tokens[0].equals(TREE_MESSAGE) && tokens.length == 5
+	 * post	treeEstablished
+	 * </pre>
+	 *
+	 * @param tokens	tokens of the release message.
+	 * @throws IOException
+	 */
+	protected void		joinTree(String[] tokens) throws IOException
+	{
+		assert	tokens[0].equals(TREE_MESSAGE) && tokens.length == 5 ;
+
+		int numberOfChildren = Integer.parseInt(tokens[2]) ;
+		if (!tokens[3].equals("-")) {
+			this.parentSocket =
+					new Socket(tokens[3], Integer.parseInt(tokens[4])) ;
+			this.parentSocket.setTcpNoDelay(true) ;
+			this.parentPS =
+				new PrintStream(this.parentSocket.getOutputStream(), true) ;
+			this.parentBR =
+				new BufferedReader(
+					new InputStreamReader(this.parentSocket.getInputStream())) ;
+		}
+		this.childrenSockets = new Socket[numberOfChildren] ;
+		this.childrenBRs = new BufferedReader[numberOfChildren] ;
+		this.childrenPSs = new PrintStream[numberOfChildren] ;
+		for (int i = 0 ; i < numberOfChildren ; i++) {
+			this.childrenSockets[i] = this.childrenServerSocket.accept() ;
+			this.childrenSockets[i].setTcpNoDelay(true) ;
+			this.childrenPSs[i] =
+				new PrintStream(
+					this.childrenSockets[i].getOutputStream(), true) ;
+			this.childrenBRs[i] =
+				new BufferedReader(
+					new InputStreamReader(
+						this.childrenSockets[i].getInputStream())) ;
+		}
+		this.childrenServerSocket.close() ;
+		this.childrenServerSocket = null ;
+		this.cyclicBarrierSignalingSocket.close() ;
+		this.treeEstablished = true ;
+	}
+
+	/**
+	 * synchronise through the tree: wait for the arrival of the children,
+	 * signal the arrival to the parent and wait for its release, then release
+	 * the children.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	treeEstablished
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @throws IOException	if a JVM of the tree has disconnected.
+	 */
+	protected void		waitTreeBarrier() throws IOException
+	{
+		assert	this.treeEstablished ;
+
+		for (int i = 0 ; i < this.childrenBRs.length ; i++) {
+			if (this.childrenBRs[i].readLine() == null) {
+				throw new IOException(
+						"a child of " + this.jvmURI + " left the barrier.") ;
+			}
+		}
+		if (this.parentSocket != null) {
+			this.parentPS.println("arrive") ;
+			if (this.parentBR.readLine() == null) {
+				throw new IOException(
+						"the parent of " + this.jvmURI + " left the barrier.") ;
+			}
+		}
+		for (int i = 0 ; i < this.childrenPSs.length ; i++) {
+			this.childrenPSs[i].println("resume") ;
+		}
 	}
 
 	/**
-	 * closing the connection with the central distributed cyclic barrier.
+	 * closing the connection with the central distributed cyclic barrier,
+	 * or with the parent and children in the tree.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * pre	this.cyclicBarrierSignalingSocket.isConnected()
+	 * pre	true			// no precondition.
 	 * post	this.cyclicBarrierSignalingSocket.isClosed()
 	 * </pre>
 	 *
@@ -113,8 +293,16 @@ public class			DCVMCyclicBarrierClient
 	 */
 	public void			closeBarrier() throws IOException
 	{
-		assert	this.cyclicBarrierSignalingSocket.isConnected() ;
-		
+		if (this.treeEstablished) {
+			if (this.parentSocket != null) {
+				this.parentSocket.close() ;
+			}
+			for (int i = 0 ; i < this.childrenSockets.length ; i++) {
+				this.childrenSockets[i].close() ;
+			}
+		} else if (this.childrenServerSocket != null) {
+			this.childrenServerSocket.close() ;
+		}
 		this.cyclicBarrierSignalingSocket.close() ;
 
 		assert	this.cyclicBarrierSignalingSocket.isClosed() ;
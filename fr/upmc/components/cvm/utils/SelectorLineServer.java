@@ -0,0 +1,425 @@
+package fr.upmc.components.cvm.utils;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * The class <code>SelectorLineServer</code> implements a server of a line
+ * based protocol as a single thread event loop over non blocking sockets,
+ * as used by the global registry and the distributed cyclic barrier.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The server accepts up to a given number of connections, one per JVM of
+ * the distributed assembly, and then closes its server socket; it runs
+ * until all of the accepted connections have been closed.  The lines
+ * received are passed to <code>lineReceived</code> in the thread of the
+ * event loop, which must not block; the lines sent with <code>send</code>,
+ * to any connection, are buffered and written when the loop has processed
+ * all of the lines readable from the ready connections, so that pipelined
+ * requests are answered with few writes, the remaining bytes being written
+ * when the socket accepts them.  As all of the processing is done by the event loop
+ * thread, the subclasses need no synchronisation and a single thread
+ * serves thousands of connections.
+ * 
+ * Lines are encoded in UTF-8 and terminated by a line feed, a preceding
+ * carriage return being ignored.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	acceptedConnections <= maxConnections
+ * </pre>
+ * 
+ * <p>Created on : 18 oct. 2026</p>
+ * 
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public abstract class	SelectorLineServer
+{
+	/** maximum length in bytes of a line received.						*/
+	public static int				MAX_LINE_LENGTH = 16 * 1024 * 1024 ;
+	/** initial size of the buffers of the connections.					*/
+	protected static final int		BUFFER_SIZE = 4096 ;
+	/** charset of the lines.												*/
+	protected static final Charset	UTF8 = Charset.forName("UTF-8") ;
+
+	/**
+	 * The class <code>Connection</code> holds the state of a connection
+	 * with a client, only accessed by the event loop thread.
+	 */
+	public static class	Connection
+	{
+		/** channel of the connection.										*/
+		protected final SocketChannel	channel ;
+		/** selection key of the channel.									*/
+		protected SelectionKey			key ;
+		/** bytes received and not yet processed, in write mode.			*/
+		protected ByteBuffer			in ;
+		/** bytes to be sent, in write mode.								*/
+		protected ByteBuffer			out ;
+		/** true if the connection has bytes to be flushed by the loop.	*/
+		protected boolean				flushRequested ;
+		/** true if the connection must be closed once flushed.			*/
+		protected boolean				closeWhenFlushed ;
+		/** true once the connection has been closed.						*/
+		protected boolean				closed ;
+		/** state of the connection defined by the server.				*/
+		public Object					attachment ;
+
+		protected			Connection(SocketChannel channel)
+		{
+			this.channel = channel ;
+			this.in = ByteBuffer.allocate(BUFFER_SIZE) ;
+			this.out = ByteBuffer.allocate(BUFFER_SIZE) ;
+			this.flushRequested = false ;
+			this.closeWhenFlushed = false ;
+			this.closed = false ;
+			this.attachment = null ;
+		}
+
+		public boolean		isClosed()
+		{
+			return this.closed ;
+		}
+
+		@Override
+		public String		toString()
+		{
+			return String.valueOf(this.channel.socket()
+												.getRemoteSocketAddress()) ;
+		}
+	}
+
+	/** selector of the server and connection channels.					*/
+	protected Selector				selector ;
+	/** channel accepting the connections, null once closed.				*/
+	protected ServerSocketChannel	serverChannel ;
+	/** number of connections to be accepted.								*/
+	protected int					maxConnections ;
+	/** number of connections accepted so far.								*/
+	protected int					acceptedConnections ;
+	/** number of connections currently open.								*/
+	protected int					openConnections ;
+	/** connections having bytes to be flushed by the loop.				*/
+	protected final ArrayList<Connection>	toFlush =
+											new ArrayList<Connection>() ;
+
+	// ------------------------------------------------------------------------
+	// Methods to be implemented by the servers
+	// ------------------------------------------------------------------------
+
+	/**
+	 * process a line received from a client, in the event loop thread.
+	 * 
+	 * @param c		connection on which the line has been received.
+	 * @param line	line received, without its terminator.
+	 */
+	protected abstract void	lineReceived(Connection c, String line) ;
+
+	/**
+	 * called when a connection has been accepted.
+	 * 
+	 * @param c		connection accepted.
+	 */
+	protected void		connectionAccepted(Connection c)
+	{
+	}
+
+	/**
+	 * called when a connection has been closed, by the client or by the
+	 * server.
+	 * 
+	 * @param c		connection closed.
+	 */
+	protected void		connectionClosed(Connection c)
+	{
+	}
+
+	// ------------------------------------------------------------------------
+	// Methods
+	// ------------------------------------------------------------------------
+
+	/**
+	 * open the server socket.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	port > 0 && maxConnections > 0
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param port				port on which the connections are accepted.
+	 * @param maxConnections	number of connections to be accepted.
+	 * @throws IOException
+	 */
+	protected void		open(int port, int maxConnections) throws IOException
+	{
+		assert	port > 0 && maxConnections > 0 ;
+
+		this.maxConnections = maxConnections ;
+		this.acceptedConnections = 0 ;
+		this.openConnections = 0 ;
+		this.selector = Selector.open() ;
+		this.serverChannel = ServerSocketChannel.open() ;
+		this.serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true) ;
+		this.serverChannel.bind(new InetSocketAddress(port), maxConnections) ;
+		this.serverChannel.configureBlocking(false) ;
+		this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT) ;
+	}
+
+	/**
+	 * buffer a line to be sent to a client.
+	 * 
+	 * @param c		connection to the client.
+	 * @param line	line to be sent, without its terminator.
+	 */
+	protected void		send(Connection c, String line)
+	{
+		this.sendBytes(c, (line + "\n").getBytes(UTF8)) ;
+	}
+
+	/**
+	 * buffer a text to be sent to a client, without terminator, and close
+	 * the connection once it has been written.
+	 * 
+	 * @param c		connection to the client.
+	 * @param text	text to be sent.
+	 */
+	protected void		sendAndClose(Connection c, String text)
+	{
+		this.sendBytes(c, text.getBytes(UTF8)) ;
+		c.closeWhenFlushed = true ;
+	}
+
+	protected void		sendBytes(Connection c, byte[] bytes)
+	{
+		if (c.closed) {
+			return ;
+		}
+		if (c.out.remaining() < bytes.length) {
+			ByteBuffer b = ByteBuffer.allocate(
+						Math.max(2 * c.out.capacity(),
+								 c.out.position() + bytes.length)) ;
+			c.out.flip() ;
+			b.put(c.out) ;
+			c.out = b ;
+		}
+		c.out.put(bytes) ;
+		if (!c.flushRequested) {
+			c.flushRequested = true ;
+			this.toFlush.add(c) ;
+		}
+	}
+
+	/**
+	 * write as much of the buffered bytes of a connection as its socket
+	 * accepts, waiting for it to become writable for the remaining ones.
+	 * 
+	 * @param c		connection to be flushed.
+	 */
+	protected void		flush(Connection c)
+	{
+		if (c.closed) {
+			return ;
+		}
+		try {
+			c.out.flip() ;
+			c.channel.write(c.out) ;
+			boolean flushed = !c.out.hasRemaining() ;
+			c.out.compact() ;
+			if (flushed) {
+				if (c.closeWhenFlushed) {
+					this.close(c) ;
+				} else {
+					c.key.interestOps(SelectionKey.OP_READ) ;
+				}
+			} else {
+				c.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE) ;
+			}
+		} catch (IOException e) {
+			this.close(c) ;
+		}
+	}
+
+	/**
+	 * close a connection.
+	 * 
+	 * @param c		connection to be closed.
+	 */
+	protected void		close(Connection c)
+	{
+		if (c.closed) {
+			return ;
+		}
+		c.closed = true ;
+		this.openConnections-- ;
+		c.key.cancel() ;
+		try {
+			c.channel.close() ;
+		} catch (IOException e) {
+			// nothing more can be done
+		}
+		this.connectionClosed(c) ;
+	}
+
+	/**
+	 * run the event loop until all of the connections to be accepted have
+	 * been accepted and then closed.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	the server has been opened
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @throws IOException
+	 */
+	protected void		runEventLoop() throws IOException
+	{
+		while (this.serverChannel != null || this.openConnections > 0) {
+			this.selector.select() ;
+			Iterator<SelectionKey> it =
+								this.selector.selectedKeys().iterator() ;
+			while (it.hasNext()) {
+				SelectionKey k = it.next() ;
+				it.remove() ;
+				if (!k.isValid()) {
+					continue ;
+				}
+				if (k.isAcceptable()) {
+					this.accept() ;
+					continue ;
+				}
+				Connection c = (Connection) k.attachment() ;
+				if (k.isReadable()) {
+					this.read(c) ;
+				}
+				if (!c.closed && k.isWritable()) {
+					this.flush(c) ;
+				}
+			}
+			for (int i = 0 ; i < this.toFlush.size() ; i++) {
+				Connection c = this.toFlush.get(i) ;
+				c.flushRequested = false ;
+				this.flush(c) ;
+			}
+			this.toFlush.clear() ;
+		}
+		this.selector.close() ;
+	}
+
+	protected void		accept() throws IOException
+	{
+		SocketChannel ch = this.serverChannel.accept() ;
+		if (ch == null) {
+			return ;
+		}
+		ch.setOption(StandardSocketOptions.TCP_NODELAY, true) ;
+		ch.configureBlocking(false) ;
+		Connection c = new Connection(ch) ;
+		c.key = ch.register(this.selector, SelectionKey.OP_READ, c) ;
+		this.acceptedConnections++ ;
+		this.openConnections++ ;
+		if (this.acceptedConnections >= this.maxConnections) {
+			this.serverChannel.close() ;
+			this.serverChannel = null ;
+		}
+		this.connectionAccepted(c) ;
+	}
+
+	/**
+	 * read the available bytes of a connection, process the complete lines
+	 * and flush the responses.
+	 * 
+	 * @param c		connection to be read.
+	 */
+	protected void		read(Connection c)
+	{
+		int n ;
+		try {
+			n = c.channel.read(c.in) ;
+		} catch (IOException e) {
+			n = -1 ;
+		}
+		if (n < 0) {
+			this.close(c) ;
+			return ;
+		}
+		c.in.flip() ;
+		byte[] bytes = c.in.array() ;
+		int start = c.in.position() ;
+		for (int i = start ; i < c.in.limit() && !c.closed ; i++) {
+			if (bytes[i] == '\n') {
+				int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i ;
+				c.in.position(i + 1) ;
+				this.lineReceived(c, new String(bytes, start, end - start,
+												UTF8)) ;
+				start = i + 1 ;
+			}
+		}
+		if (c.closed) {
+			return ;
+		}
+		c.in.position(start) ;
+		c.in.compact() ;
+		if (!c.in.hasRemaining()) {
+			if (c.in.capacity() >= MAX_LINE_LENGTH) {
+				System.out.println("line of more than " + MAX_LINE_LENGTH +
+								   " bytes received from " + c) ;
+				this.close(c) ;
+				return ;
+			}
+			ByteBuffer b = ByteBuffer.allocate(2 * c.in.capacity()) ;
+			c.in.flip() ;
+			b.put(c.in) ;
+			c.in = b ;
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package fr.upmc.components.examples.basic_cs;
+
+import fr.upmc.components.AbstractComponent;
+import fr.upmc.components.cvm.AbstractCVM;
+import fr.upmc.components.examples.basic_cs.components.URIConsumer;
+import fr.upmc.components.examples.basic_cs.components.URIProvider;
+import fr.upmc.components.examples.basic_cs.interfaces.URIInterface;
+import fr.upmc.components.executors.ComponentExecutors;
+import fr.upmc.components.executors.ExecutionBackend;
+import fr.upmc.components.ports.PortI;
+
+/**
+ * The class <code>LocalCallBenchmark</code> measures the cost of a
+ * synchronous call between two components of the same JVM, with and without
+ * the execution of the synchronous requests in the calling thread.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The benchmark deploys the provider of the client/server example and
+ * connects the outbound port of a consumer to it, as <code>CVM</code> does,
+ * but the consumer is not started: the main thread calls
+ * <code>getURI</code> through the outbound port, the connector and the
+ * inbound port, first with <code>INLINE_SYNCHRONOUS_REQUESTS</code> false,
+ * where each call is handed to the thread executing the provider, and then
+ * with it true.  The provider is executed by its dedicated thread, the
+ * default backend, unless another one is selected with the system property
+ * <code>ComponentExecutors.BACKEND_PROPERTY</code>; the average time of a
+ * call is printed for each case.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	true
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			LocalCallBenchmark
+extends		AbstractCVM
+{
+	protected static final String	URIGetterOutboundPortURI = "oport" ;
+	protected static final String	URIProviderInboundPortURI = "iport" ;
+	/** number of calls before the measures.								*/
+	protected static final int		WARM_UP = 100000 ;
+	/** number of calls measured in each case.								*/
+	protected static final int		CALLS = 500000 ;
+
+	/** the outbound port of the consumer.									*/
+	protected URIInterface			uriGetterPort ;
+
+	/**
+	 * @see fr.upmc.components.cvm.AbstractCVM#deploy()
+	 */
+	@Override
+	public void			deploy() throws Exception
+	{
+		URIProvider uriProvider =
+				new URIProvider("myURI", URIProviderInboundPortURI, false) ;
+		this.deployedComponents.add(uriProvider) ;
+		// the consumer only provides its outbound port, hence it is not
+		// deployed and does not start calling the provider.
+		URIConsumer uriConsumer = new URIConsumer(URIGetterOutboundPortURI) ;
+		PortI consumerOutboundPort =
+						uriConsumer.findPortFromURI(URIGetterOutboundPortURI) ;
+		consumerOutboundPort.doConnection(
+				URIProviderInboundPortURI,
+				"fr.upmc.components.examples.basic_cs.URIServiceConnector") ;
+		this.uriGetterPort = (URIInterface) consumerOutboundPort ;
+		super.deploy() ;
+	}
+
+	/**
+	 * call the provider <code>n</code> times and return the average time of
+	 * a call in nanoseconds.
+	 *
+	 * @param n	number of calls.
+	 * @return	the average time of a call in nanoseconds.
+	 * @throws Exception
+	 */
+	protected double	measure(int n) throws Exception
+	{
+		long start = System.nanoTime() ;
+		for (int i = 0 ; i < n ; i++) {
+			this.uriGetterPort.getURI() ;
+		}
+		return (System.nanoTime() - start) / (double) n ;
+	}
+
+	public static void	main(String[] args)
+	{
+		ComponentExecutors.configureBackend(
+									ExecutionBackend.DEDICATED_THREADS) ;
+		LocalCallBenchmark b = new LocalCallBenchmark() ;
+		try {
+			b.deploy() ;
+			b.start() ;
+			AbstractComponent.INLINE_SYNCHRONOUS_REQUESTS = false ;
+			b.measure(WARM_UP) ;
+			double handedOff = b.measure(CALLS) ;
+			AbstractComponent.INLINE_SYNCHRONOUS_REQUESTS = true ;
+			b.measure(WARM_UP) ;
+			double inline = b.measure(CALLS) ;
+			System.out.println(String.format(
+					"handed off to the provider : %8.0f ns/call", handedOff)) ;
+			System.out.println(String.format(
+					"inline in the caller       : %8.0f ns/call", inline)) ;
+			b.shutdown() ;
+			System.exit(0) ;
+		} catch (Exception e) {
+			e.printStackTrace() ;
+		}
+	}
+}
@@ -1,6 +1,6 @@
 package fr.upmc.components.examples.basic_cs;
 
-import fr.upmc.components.connectors.AbstractTwoWayConnector;
+import fr.upmc.components.connectors.AbstractConnector;
 import fr.upmc.components.examples.basic_cs.interfaces.URIInterface;
 
 /**
@@ -25,7 +25,7 @@ import fr.upmc.components.examples.basic_cs.interfaces.URIInterface;
  * @version	$Name$ -- $Revision$ -- $Date$
  */
 public class			URIServiceConnector
-extends		AbstractTwoWayConnector
+extends		AbstractConnector
 implements	URIInterface
 {
 	/**
@@ -0,0 +1,485 @@
+package fr.upmc.components.executors;
+
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class <code>ComponentExecutors</code> provides the executor services
+ * used by the components to handle their requests and scheduled tasks,
+ * depending upon the execution backend selected for the JVM.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * With the <code>DEDICATED_THREADS</code> backend, each component gets its
+ * own single thread executors, as created by the class
+ * <code>Executors</code>; the one of its requests is wrapped in a serial
+ * executor owning it, so that the synchronous requests can be executed by
+ * their caller when the component is idle, as with the other backends, if
+ * <code>AbstractComponent.INLINE_SYNCHRONOUS_REQUESTS</code> is set.
+ * With the <code>SHARED_POOL</code> backend, each component gets serial
+ * executors, i.e. mailboxes, whose tasks are executed by a
+ * <code>ForkJoinPool</code> in asynchronous (FIFO) mode shared by all of the
+ * components of the JVM, and whose scheduled tasks are triggered by a
+ * shared hashed wheel timer, with constant time scheduling and
+ * cancellation, which matters for components such as cores that schedule
+ * and cancel an end of service event for each request.  The thread count
+ * of the JVM then no longer depends upon the number of components.  The
+ * <code>VIRTUAL_THREADS</code> backend differs from the latter in that
+ * mailboxes are processed by virtual threads, so that a component blocked
+ * in a synchronous call to another one does not hold a platform thread.
+ * As the code base targets older Java versions, virtual threads are
+ * obtained by reflection, and the shared pool is used when the runtime
+ * does not provide them.
+ * 
+ * As synchronous calls among components block the calling thread until the
+ * called component has executed the request, the method
+ * <code>awaitResult</code> tells the shared pool that a worker is blocked so
+ * that it can add compensation threads and avoid starvation when many
+ * components are waiting for each other.
+ * 
+ * The backend must be selected before the creation of the components, as
+ * they create their executors in their constructors.  Component virtual
+ * machines call <code>configureBackend</code> so that the backend given by
+ * the system property <code>BACKEND_PROPERTY</code>, if any, overrides their
+ * default one, which allows to compare the backends on the same assembly.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	BACKEND != null
+ * </pre>
+ * 
+ * <p>Created on : 18 oct. 2026</p>
+ * 
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			ComponentExecutors
+{
+	/** system property giving the execution backend to be used.			*/
+	public static final String				BACKEND_PROPERTY =
+									"fr.upmc.components.executionBackend" ;
+	/** execution backend used when creating component executors.			*/
+	protected static ExecutionBackend		BACKEND =
+										ExecutionBackend.DEDICATED_THREADS ;
+	/** number of threads of the shared pool.								*/
+	public static int						SHARED_POOL_PARALLELISM =
+								Runtime.getRuntime().availableProcessors() ;
+	/** duration of a tick of the shared timer in ms, i.e. its precision.	*/
+	public static long						SHARED_TIMER_TICK = 1L ;
+	/** number of slots of the wheel of the shared timer.					*/
+	public static int						SHARED_TIMER_WHEEL_SIZE = 1024 ;
+
+	/** the pool shared by the components, created on demand.				*/
+	protected static ForkJoinPool				sharedPool = null ;
+	/** the timer shared by the components, created on demand.				*/
+	protected static HashedWheelTimer			sharedTimer = null ;
+	/** the executor starting a virtual thread per task, created on demand;
+	 *  the shared pool when the runtime has no virtual threads.			*/
+	protected static ExecutorService			virtualThreadExecutor = null ;
+	/** the threads sending the one-way calls of the connectors, created
+	 *  on demand.															*/
+	protected static ExecutorService			transportExecutor = null ;
+
+	/**
+	 * select the execution backend of the components created from now on.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	backend != null
+	 * post	getBackend() == backend
+	 * </pre>
+	 *
+	 * @param backend	the execution backend.
+	 */
+	public static synchronized void	setBackend(ExecutionBackend backend)
+	{
+		assert	backend != null ;
+
+		BACKEND = backend ;
+	}
+
+	/**
+	 * select the execution backend given by the system property
+	 * <code>BACKEND_PROPERTY</code> if it is set, otherwise
+	 * <code>defaultBackend</code>.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	defaultBackend != null
+	 * post	getBackend() != null
+	 * </pre>
+	 *
+	 * @param defaultBackend	backend used when the property is not set.
+	 * @throws IllegalArgumentException	if the property names no backend.
+	 */
+	public static void	configureBackend(ExecutionBackend defaultBackend)
+	{
+		assert	defaultBackend != null ;
+
+		String name = System.getProperty(BACKEND_PROPERTY) ;
+		if (name == null) {
+			setBackend(defaultBackend) ;
+		} else {
+			setBackend(ExecutionBackend.valueOf(name.trim().toUpperCase())) ;
+		}
+	}
+
+	/**
+	 * @return	the execution backend of the components created from now on.
+	 */
+	public static synchronized ExecutionBackend	getBackend()
+	{
+		return BACKEND ;
+	}
+
+	/**
+	 * create the executor handling the requests of a component, which
+	 * executes them one at a time.
+	 * 
+	 * @return	a new executor service.
+	 */
+	public static ExecutorService	newRequestHandler()
+	{
+		switch (getBackend()) {
+		case SHARED_POOL :
+			return new SerialExecutor(getSharedPool()) ;
+		case VIRTUAL_THREADS :
+			return new SerialExecutor(getVirtualThreadExecutor()) ;
+		default :
+			ExecutorService thread = Executors.newSingleThreadExecutor() ;
+			return new SerialExecutor(thread, thread) ;
+		}
+	}
+
+	/**
+	 * create the executor handling the scheduled tasks of a component, which
+	 * executes them one at a time.
+	 * 
+	 * @return	a new scheduled executor service.
+	 */
+	public static ScheduledExecutorService	newScheduledTasksHandler()
+	{
+		switch (getBackend()) {
+		case SHARED_POOL :
+			return new SerialScheduledExecutor(getSharedPool(),
+											   getSharedTimer()) ;
+		case VIRTUAL_THREADS :
+			return new SerialScheduledExecutor(getVirtualThreadExecutor(),
+											   getSharedTimer()) ;
+		default :
+			return Executors.newSingleThreadScheduledExecutor() ;
+		}
+	}
+
+	/**
+	 * create the executor sending the one-way calls of a connector, which
+	 * executes them one at a time in submission order.  As sending a remote
+	 * call blocks on the network, the senders borrow their threads from a
+	 * cached pool, or from virtual threads with the corresponding backend,
+	 * rather than from the shared pool of the components.
+	 * 
+	 * @return	a new executor service.
+	 */
+	public static ExecutorService	newOneWaySender()
+	{
+		if (getBackend() == ExecutionBackend.VIRTUAL_THREADS) {
+			return new SerialExecutor(getVirtualThreadExecutor()) ;
+		} else {
+			return new SerialExecutor(getTransportExecutor()) ;
+		}
+	}
+
+	/**
+	 * return the executor of the incoming synchronous calls of the
+	 * transport, which runs them in parallel as each of them may block until
+	 * a nested call returns: virtual threads with the corresponding backend,
+	 * the cached pool of the one-way senders otherwise.
+	 * 
+	 * @return	the executor of the incoming synchronous remote calls.
+	 */
+	public static Executor		getRemoteCallExecutor()
+	{
+		if (getBackend() == ExecutionBackend.VIRTUAL_THREADS) {
+			return getVirtualThreadExecutor() ;
+		} else {
+			return getTransportExecutor() ;
+		}
+	}
+
+	/**
+	 * The class <code>LocalTasks</code> gives access to the local queue of
+	 * the current worker of a <code>ForkJoinPool</code>, which is only
+	 * granted to the subclasses of <code>ForkJoinTask</code>.
+	 */
+	@SuppressWarnings("serial")
+	protected static abstract class	LocalTasks
+	extends		ForkJoinTask<Void>
+	{
+		/**
+		 * @return	the next task of the local queue of the current worker, null if none.
+		 */
+		protected static ForkJoinTask<?>	poll()
+		{
+			return pollNextLocalTask() ;
+		}
+	}
+
+	/**
+	 * wait for the result of a future, telling the shared pool that the
+	 * current thread is blocked if it is one of its workers.
+	 * 
+	 * The task computing the future has often just been pushed in the local
+	 * queue of the blocked worker, as the drainer of the target component,
+	 * where the pool may fail to have it stolen by another worker.  Hence,
+	 * as <code>ForkJoinTask.join</code> does, the worker first executes the
+	 * tasks of its local queue until the future is done or the queue is
+	 * empty, and only then blocks in <code>ForkJoinPool.managedBlock</code>,
+	 * which compensates for it while it is blocked.  As the worker may still
+	 * be executing a task of the calling component, it suspends its
+	 * ownership of the serial executors it has entered while it executes
+	 * the other tasks, so that a synchronous call back into the calling
+	 * component is not executed inline in the middle of its suspended task.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	f != null
+	 * post	f.isDone()
+	 * </pre>
+	 *
+	 * @param f	the future to be waited for.
+	 * @return	the result of the future.
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static <T> T	awaitResult(final Future<T> f)
+	throws InterruptedException, ExecutionException
+	{
+		assert	f != null ;
+
+		if (!f.isDone() &&
+						Thread.currentThread() instanceof ForkJoinWorkerThread) {
+			ForkJoinTask<?> t = LocalTasks.poll() ;
+			if (t != null) {
+				SerialExecutor.SuspendedOwnerships suspended =
+										SerialExecutor.suspendOwnerships() ;
+				try {
+					do {
+						t.quietlyInvoke() ;
+					} while (!f.isDone() && (t = LocalTasks.poll()) != null) ;
+				} finally {
+					SerialExecutor.resumeOwnerships(suspended) ;
+				}
+			}
+			ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+				@Override
+				public boolean block() throws InterruptedException {
+					try {
+						f.get() ;
+					} catch (ExecutionException e) {
+						// reported by the final get below
+					}
+					return true ;
+				}
+				@Override
+				public boolean isReleasable() {
+					return f.isDone() ;
+				}
+			}) ;
+		}
+		return f.get() ;
+	}
+
+	/**
+	 * acquire a permit of a semaphore, telling the shared pool that the
+	 * current thread is blocked if it is one of its workers, as
+	 * <code>awaitResult</code> does for futures.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	s != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param s	the semaphore of which a permit must be acquired.
+	 * @throws InterruptedException
+	 */
+	public static void	acquire(final Semaphore s) throws InterruptedException
+	{
+		assert	s != null ;
+
+		if (s.tryAcquire()) {
+			return ;
+		}
+		if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+			s.acquire() ;
+			return ;
+		}
+		// the permits are released by the tasks of the holder of the
+		// semaphore, which may be in the local queue of this worker
+		ForkJoinTask<?> t = LocalTasks.poll() ;
+		if (t != null) {
+			SerialExecutor.SuspendedOwnerships suspended =
+										SerialExecutor.suspendOwnerships() ;
+			try {
+				do {
+					t.quietlyInvoke() ;
+					if (s.tryAcquire()) {
+						return ;
+					}
+				} while ((t = LocalTasks.poll()) != null) ;
+			} finally {
+				SerialExecutor.resumeOwnerships(suspended) ;
+			}
+		}
+		final boolean[] acquired = new boolean[] { false } ;
+		ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+			@Override
+			public boolean block() throws InterruptedException {
+				if (!acquired[0]) {
+					s.acquire() ;
+					acquired[0] = true ;
+				}
+				return true ;
+			}
+			@Override
+			public boolean isReleasable() {
+				if (!acquired[0] && s.tryAcquire()) {
+					acquired[0] = true ;
+				}
+				return acquired[0] ;
+			}
+		}) ;
+	}
+
+	/**
+	 * @return	the pool shared by the components.
+	 */
+	protected static synchronized ForkJoinPool	getSharedPool()
+	{
+		if (sharedPool == null) {
+			sharedPool = new ForkJoinPool(
+							SHARED_POOL_PARALLELISM,
+							ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+							null,
+							true) ;
+		}
+		return sharedPool ;
+	}
+
+	/**
+	 * return the executor starting a virtual thread per task, or the shared
+	 * pool if the runtime does not provide virtual threads.
+	 * 
+	 * @return	the executor processing the mailboxes on virtual threads.
+	 */
+	protected static synchronized Executor	getVirtualThreadExecutor()
+	{
+		if (virtualThreadExecutor == null) {
+			try {
+				Method m = Executors.class.getMethod(
+										"newVirtualThreadPerTaskExecutor") ;
+				virtualThreadExecutor = (ExecutorService) m.invoke(null) ;
+			} catch (NoSuchMethodException e) {
+				System.out.println("Virtual threads are not available in " +
+								   "this runtime, using the shared pool.") ;
+				virtualThreadExecutor = getSharedPool() ;
+			} catch (Exception e) {
+				e.printStackTrace() ;
+				virtualThreadExecutor = getSharedPool() ;
+			}
+		}
+		return virtualThreadExecutor ;
+	}
+
+	/**
+	 * @return	the pool of threads sending the one-way calls of connectors.
+	 */
+	protected static synchronized ExecutorService	getTransportExecutor()
+	{
+		if (transportExecutor == null) {
+			transportExecutor = Executors.newCachedThreadPool(
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "component-transport") ;
+							t.setDaemon(true) ;
+							return t ;
+						}
+					}) ;
+		}
+		return transportExecutor ;
+	}
+
+	/**
+	 * @return	the timer shared by the components.
+	 */
+	protected static synchronized HashedWheelTimer	getSharedTimer()
+	{
+		if (sharedTimer == null) {
+			sharedTimer = new HashedWheelTimer(
+					SHARED_TIMER_TICK,
+					TimeUnit.MILLISECONDS,
+					SHARED_TIMER_WHEEL_SIZE,
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "component-timer") ;
+							t.setDaemon(true) ;
+							return t ;
+						}
+					}) ;
+		}
+		return sharedTimer ;
+	}
+}
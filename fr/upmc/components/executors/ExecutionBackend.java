@@ -0,0 +1,72 @@
+package fr.upmc.components.executors;
+
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+/**
+ * The enumeration <code>ExecutionBackend</code> defines the ways the threads
+ * executing the requests and the scheduled tasks of the components can be
+ * provided.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * <ul>
+ * <li><code>DEDICATED_THREADS</code>: each active component owns its thread
+ *   pools, i.e. at least one thread for its requests and one for its
+ *   scheduled tasks; this is the historical behaviour.</li>
+ * <li><code>SHARED_POOL</code>: components are mailbox-style actors whose
+ *   requests and tasks are executed by a work-stealing pool shared by all of
+ *   the components of the JVM, and scheduled tasks are triggered by a shared
+ *   timer; only one thread at a time executes the requests of a component
+ *   (resp. its scheduled tasks), as with dedicated threads.</li>
+ * <li><code>VIRTUAL_THREADS</code>: components are mailbox-style actors as
+ *   with <code>SHARED_POOL</code>, but their mailboxes are processed by
+ *   virtual threads, so that a component blocked in a synchronous call to
+ *   another component does not hold a platform thread; this backend requires
+ *   a Java runtime providing virtual threads (Java 21 or later), otherwise
+ *   <code>SHARED_POOL</code> is used instead.</li>
+ * </ul>
+ * 
+ * <p>Created on : 18 oct. 2026</p>
+ * 
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public enum				ExecutionBackend
+{
+	DEDICATED_THREADS,
+	SHARED_POOL,
+	VIRTUAL_THREADS
+}
@@ -0,0 +1,475 @@
+package fr.upmc.components.executors;
+
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The class <code>HashedWheelTimer</code> implements a hashed timing wheel
+ * triggering short tasks after a delay, with constant time scheduling and
+ * cancellation.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The wheel is an array of buckets, each bucket being a doubly linked list of
+ * timeouts.  A single worker thread advances the wheel by one bucket at each
+ * tick and expires the timeouts of the bucket whose remaining number of
+ * rounds is zero, the other ones having their number of rounds decremented.
+ * A delay longer than a turn of the wheel is hence represented by a number of
+ * rounds, which plays the role of the upper levels of a hierarchical wheel
+ * without cascading the timeouts.
+ * 
+ * Scheduling a timeout only puts it in a lock-free queue from which the
+ * worker moves it into its bucket at the next tick, and cancelling a timeout
+ * only changes its state and puts it in another lock-free queue from which
+ * the worker unlinks it from its bucket.  Both are therefore constant time
+ * operations, and the memory used by a pending timeout is a single node.
+ * The precision of the timer is the duration of a tick, timeouts being
+ * expired at most one tick late.  When no timeout is pending, the worker
+ * thread parks until the next scheduling instead of ticking.
+ * 
+ * The tasks of the timeouts are executed by the worker thread, so they must
+ * be short; they typically hand the actual work over to an executor.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	wheel.length is a power of two
+ * invariant	tickDuration > 0
+ * </pre>
+ * 
+ * <p>Created on : 18 oct. 2026</p>
+ * 
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			HashedWheelTimer
+{
+	/**
+	 * The class <code>Timeout</code> implements the handles of the tasks
+	 * scheduled in the timer, which are also the nodes of the buckets.
+	 *
+	 * <p><strong>Invariant</strong></p>
+	 * 
+	 * <pre>
+	 * invariant	true
+	 * </pre>
+	 * 
+	 * <p>Created on : 18 oct. 2026</p>
+	 * 
+	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+	 * @version	$Name$ -- $Revision$ -- $Date$
+	 */
+	public static class	Timeout
+	{
+		protected static final int	PENDING = 0 ;
+		protected static final int	CANCELLED = 1 ;
+		protected static final int	EXPIRED = 2 ;
+
+		/** timer in which the timeout is scheduled.						*/
+		protected final HashedWheelTimer	timer ;
+		/** task to be executed at expiration.								*/
+		protected final Runnable			task ;
+		/** expiration time in nanoseconds since the start of the timer.	*/
+		protected final long				deadline ;
+		/** state of the timeout.											*/
+		protected final AtomicInteger		state ;
+		/** remaining turns of the wheel, managed by the worker.			*/
+		protected long						remainingRounds ;
+		/** bucket containing the timeout, managed by the worker.			*/
+		protected Bucket					bucket ;
+		/** previous node in the bucket.									*/
+		protected Timeout					prev ;
+		/** next node in the bucket.										*/
+		protected Timeout					next ;
+
+		protected		Timeout(
+			HashedWheelTimer timer,
+			Runnable task,
+			long deadline
+			)
+		{
+			this.timer = timer ;
+			this.task = task ;
+			this.deadline = deadline ;
+			this.state = new AtomicInteger(PENDING) ;
+		}
+
+		/**
+		 * cancel the timeout if it has not expired yet.
+		 * 
+		 * @return	true if the timeout has been cancelled by this call.
+		 */
+		public boolean	cancel()
+		{
+			if (this.state.compareAndSet(PENDING, CANCELLED)) {
+				this.timer.cancelledTimeouts.add(this) ;
+				return true ;
+			}
+			return false ;
+		}
+
+		/**
+		 * @return	true if the timeout has been cancelled.
+		 */
+		public boolean	isCancelled()
+		{
+			return this.state.get() == CANCELLED ;
+		}
+
+		/**
+		 * @return	true if the timeout has expired.
+		 */
+		public boolean	isExpired()
+		{
+			return this.state.get() == EXPIRED ;
+		}
+
+		/**
+		 * execute the task if the timeout is still pending.
+		 * 
+		 * @return	true if the timeout has expired, false if it was cancelled.
+		 */
+		protected boolean	expire()
+		{
+			if (this.state.compareAndSet(PENDING, EXPIRED)) {
+				try {
+					this.task.run() ;
+				} catch (Throwable t) {
+					t.printStackTrace() ;
+				}
+				return true ;
+			}
+			return false ;
+		}
+	}
+
+	/**
+	 * The class <code>Bucket</code> implements the doubly linked lists of
+	 * timeouts in the slots of the wheel; it is used by the worker only.
+	 *
+	 * <p><strong>Invariant</strong></p>
+	 * 
+	 * <pre>
+	 * invariant	(head == null) == (tail == null)
+	 * </pre>
+	 * 
+	 * <p>Created on : 18 oct. 2026</p>
+	 * 
+	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+	 * @version	$Name$ -- $Revision$ -- $Date$
+	 */
+	protected static class	Bucket
+	{
+		protected Timeout	head ;
+		protected Timeout	tail ;
+
+		protected void	add(Timeout t)
+		{
+			t.bucket = this ;
+			t.prev = this.tail ;
+			t.next = null ;
+			if (this.tail == null) {
+				this.head = t ;
+			} else {
+				this.tail.next = t ;
+			}
+			this.tail = t ;
+		}
+
+		protected void	remove(Timeout t)
+		{
+			if (t.prev == null) {
+				this.head = t.next ;
+			} else {
+				t.prev.next = t.next ;
+			}
+			if (t.next == null) {
+				this.tail = t.prev ;
+			} else {
+				t.next.prev = t.prev ;
+			}
+			t.bucket = null ;
+			t.prev = null ;
+			t.next = null ;
+		}
+
+		/**
+		 * expire the timeouts of the bucket which have no remaining round
+		 * and decrement the rounds of the other ones; cancelled timeouts
+		 * are removed but accounted for by their cancellation.
+		 * 
+		 * @return	the number of timeouts expired.
+		 */
+		protected int	expireTimeouts()
+		{
+			int expired = 0 ;
+			Timeout t = this.head ;
+			while (t != null) {
+				Timeout next = t.next ;
+				if (t.isCancelled()) {
+					this.remove(t) ;
+				} else if (t.remainingRounds <= 0) {
+					this.remove(t) ;
+					if (t.expire()) {
+						expired++ ;
+					}
+				} else {
+					t.remainingRounds-- ;
+				}
+				t = next ;
+			}
+			return expired ;
+		}
+	}
+
+	/** slots of the wheel.												*/
+	protected final Bucket[]					wheel ;
+	/** mask used to compute the slot of a tick.							*/
+	protected final int							mask ;
+	/** duration of a tick in nanoseconds.									*/
+	protected final long						tickDuration ;
+	/** start time of the timer, from System.nanoTime().					*/
+	protected final long						startTime ;
+	/** timeouts scheduled but not yet put in their bucket.				*/
+	protected final ConcurrentLinkedQueue<Timeout>	newTimeouts ;
+	/** timeouts cancelled but not yet removed from their bucket.			*/
+	protected final ConcurrentLinkedQueue<Timeout>	cancelledTimeouts ;
+	/** number of timeouts scheduled and neither expired nor removed.		*/
+	protected final AtomicLong					pendingTimeouts ;
+	/** the worker thread advancing the wheel.								*/
+	protected final Thread						worker ;
+	/** true when the timer has been stopped.								*/
+	protected volatile boolean					stopped ;
+
+	/**
+	 * create and start a timer.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	tickDuration > 0 && unit != null && ticksPerWheel > 0
+	 * pre	threadFactory != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param tickDuration	duration of a tick.
+	 * @param unit			time unit of the duration of a tick.
+	 * @param ticksPerWheel	number of slots of the wheel, rounded up to a power of two.
+	 * @param threadFactory	factory creating the worker thread.
+	 */
+	public				HashedWheelTimer(
+		long tickDuration,
+		TimeUnit unit,
+		int ticksPerWheel,
+		ThreadFactory threadFactory
+		)
+	{
+		super() ;
+
+		assert	tickDuration > 0 && unit != null && ticksPerWheel > 0 ;
+		assert	threadFactory != null ;
+
+		int size = 1 ;
+		while (size < ticksPerWheel) {
+			size <<= 1 ;
+		}
+		this.wheel = new Bucket[size] ;
+		for (int i = 0 ; i < size ; i++) {
+			this.wheel[i] = new Bucket() ;
+		}
+		this.mask = size - 1 ;
+		this.tickDuration = unit.toNanos(tickDuration) ;
+		this.newTimeouts = new ConcurrentLinkedQueue<Timeout>() ;
+		this.cancelledTimeouts = new ConcurrentLinkedQueue<Timeout>() ;
+		this.pendingTimeouts = new AtomicLong(0L) ;
+		this.stopped = false ;
+		this.startTime = System.nanoTime() ;
+		this.worker = threadFactory.newThread(new Runnable() {
+			@Override
+			public void run() {
+				work() ;
+			}
+		}) ;
+		this.worker.start() ;
+	}
+
+	/**
+	 * schedule the execution of <code>task</code> by the worker thread after
+	 * <code>delay</code>.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	task != null && unit != null
+	 * post	ret != null
+	 * </pre>
+	 *
+	 * @param task	task to be executed.
+	 * @param delay	delay before the execution.
+	 * @param unit	time unit of the delay.
+	 * @return		the timeout, which may be used to cancel the execution.
+	 */
+	public Timeout		schedule(Runnable task, long delay, TimeUnit unit)
+	{
+		assert	task != null && unit != null ;
+
+		if (this.stopped) {
+			throw new IllegalStateException("timer has been stopped.") ;
+		}
+		long deadline = System.nanoTime() - this.startTime +
+										unit.toNanos(Math.max(0L, delay)) ;
+		Timeout t = new Timeout(this, task, deadline) ;
+		this.newTimeouts.add(t) ;
+		if (this.pendingTimeouts.getAndIncrement() == 0) {
+			LockSupport.unpark(this.worker) ;
+		}
+		return t ;
+	}
+
+	/**
+	 * @return	the number of timeouts scheduled and not yet expired, including
+	 * 			the cancelled ones not yet removed from the wheel.
+	 */
+	public long			pendingTimeouts()
+	{
+		return this.pendingTimeouts.get() ;
+	}
+
+	/**
+	 * stop the timer; the pending timeouts are never expired.
+	 */
+	public void			stop()
+	{
+		this.stopped = true ;
+		LockSupport.unpark(this.worker) ;
+	}
+
+	// -------------------------------------------------------------------------
+	// Worker
+	// -------------------------------------------------------------------------
+
+	/**
+	 * loop of the worker thread.
+	 */
+	protected void		work()
+	{
+		long tick = 0L ;
+		while (!this.stopped) {
+			if (this.pendingTimeouts.get() == 0) {
+				LockSupport.park(this) ;
+				// no timeout was pending, the elapsed ticks can be skipped
+				tick = Math.max(tick, this.currentTick() - 1L) ;
+				continue ;
+			}
+			this.waitForTick(tick + 1L) ;
+			if (this.stopped) {
+				break ;
+			}
+			tick++ ;
+			this.transferNewTimeouts(tick) ;
+			this.removeCancelledTimeouts() ;
+			int expired = this.wheel[(int) (tick & this.mask)].expireTimeouts() ;
+			if (expired > 0) {
+				this.pendingTimeouts.addAndGet(-expired) ;
+			}
+		}
+	}
+
+	/**
+	 * @return	the number of ticks elapsed since the start of the timer.
+	 */
+	protected long		currentTick()
+	{
+		return (System.nanoTime() - this.startTime) / this.tickDuration ;
+	}
+
+	/**
+	 * wait until the start time of <code>tick</code>.
+	 * 
+	 * @param tick	tick to be waited for.
+	 */
+	protected void		waitForTick(long tick)
+	{
+		long deadline = this.startTime + tick * this.tickDuration ;
+		long remaining ;
+		while (!this.stopped &&
+						(remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining) ;
+		}
+	}
+
+	/**
+	 * put the newly scheduled timeouts in their bucket.
+	 * 
+	 * @param tick	tick being processed.
+	 */
+	protected void		transferNewTimeouts(long tick)
+	{
+		Timeout t ;
+		while ((t = this.newTimeouts.poll()) != null) {
+			if (t.isCancelled()) {
+				// accounted for when polled from the cancelled queue
+				continue ;
+			}
+			// first tick at which the deadline is reached
+			long deadlineTick =
+				(t.deadline + this.tickDuration - 1L) / this.tickDuration ;
+			long expirationTick = Math.max(deadlineTick, tick) ;
+			t.remainingRounds = (expirationTick - tick) / this.wheel.length ;
+			this.wheel[(int) (expirationTick & this.mask)].add(t) ;
+		}
+	}
+
+	/**
+	 * remove the cancelled timeouts from their bucket.
+	 */
+	protected void		removeCancelledTimeouts()
+	{
+		Timeout t ;
+		while ((t = this.cancelledTimeouts.poll()) != null) {
+			if (t.bucket != null) {
+				t.bucket.remove(t) ;
+			}
+			this.pendingTimeouts.decrementAndGet() ;
+		}
+	}
+}
@@ -0,0 +1,549 @@
+package fr.upmc.components.executors;
+
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class <code>SerialExecutor</code> implements an executor service that
+ * executes its tasks one at a time, in submission order, by borrowing the
+ * threads of a backing executor shared with other serial executors.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * The serial executor is the mailbox of a component seen as an actor.
+ * Submitted tasks are put in a lock-free queue and the first task arriving
+ * in an empty mailbox submits a drainer to the backing executor.  The
+ * drainer executes the tasks of the mailbox until it is empty, or until it
+ * has executed <code>THROUGHPUT</code> tasks, in which case it resubmits
+ * itself to the backing executor to let other mailboxes progress.  Hence, at
+ * most one thread executes the tasks of a given serial executor at any time,
+ * and the executions of successive tasks are ordered by happens-before
+ * relationships, exactly as with a single thread executor, but without
+ * owning a thread.
+ * 
+ * A thread can also execute a task itself instead of submitting it, when
+ * it waits for its result anyway: <code>tryEnter</code> succeeds if the
+ * mailbox is idle, i.e. empty and not being drained, or if the calling
+ * thread is already executing a task of the executor (a re-entrant call,
+ * which would otherwise deadlock), and then the caller executes its task
+ * before calling <code>exit</code>; <code>tryReenter</code> only succeeds
+ * in the latter case.  The tasks submitted in the meantime
+ * wait in the mailbox and are drained after <code>exit</code>, so that the
+ * tasks are still executed one at a time.
+ * 
+ * A serial executor may also own its backing executor, typically a single
+ * thread executor dedicated to a component, which it then shuts down once
+ * it has itself been shut down and has executed its last task, or at once
+ * by <code>shutdownNow</code>, which then interrupts the task being
+ * executed.
+ * 
+ * A thread blocked in a task of the executor may execute tasks of other
+ * executors in the meantime, as pool workers do when waiting for a result.
+ * It must then call <code>suspendOwnerships</code> before and
+ * <code>resumeOwnerships</code> after, so that it is no longer seen as the
+ * owner of the executors whose tasks it has suspended: a call back into one
+ * of them from the other tasks would otherwise be taken for a re-entrant
+ * call and executed in the middle of the suspended task.  While suspended,
+ * the executor still has a pending task, so no other thread can enter it
+ * either and the tasks submitted in the meantime wait in the mailbox.
+ * 
+ * <code>shutdownNow</code> removes the tasks still in the mailbox and
+ * returns them; a drainer still running skips the tasks submitted
+ * concurrently.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	pending.get() >= 0
+ * invariant	owner == null || pending.get() > 0
+ * </pre>
+ * 
+ * <p>Created on : 18 oct. 2026</p>
+ * 
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SerialExecutor
+extends		AbstractExecutorService
+{
+	/** maximum number of tasks executed before yielding the thread.		*/
+	public static int			THROUGHPUT = 64 ;
+
+	/** serial executors of which the current thread executes a task, in
+	 *  the order in which it entered them.									*/
+	protected static final ThreadLocal<ArrayList<SerialExecutor>>	ENTERED =
+		new ThreadLocal<ArrayList<SerialExecutor>>() {
+			@Override
+			protected ArrayList<SerialExecutor> initialValue() {
+				return new ArrayList<SerialExecutor>() ;
+			}
+		} ;
+
+	/** executor providing the threads.									*/
+	protected final Executor					backingExecutor ;
+	/** backing executor shut down with this one, or null if not owned.	*/
+	protected final ExecutorService				ownedExecutor ;
+	/** tasks waiting for their execution.									*/
+	protected final ConcurrentLinkedQueue<Runnable>	mailbox ;
+	/** number of tasks in the mailbox or being executed.					*/
+	protected final AtomicInteger				pending ;
+	/** the drainer executing the tasks of the mailbox.						*/
+	protected final Runnable					drainer ;
+	/** true when the executor has been shut down.							*/
+	protected volatile boolean					shutdown ;
+	/** true when the tasks in the mailbox must be discarded.				*/
+	protected volatile boolean					discard ;
+	/** thread executing the tasks, or null if none.						*/
+	protected volatile Thread					owner ;
+	/** number of re-entrant entries of the owner, only used by the owner.	*/
+	protected int								reentrance ;
+
+	/**
+	 * create a serial executor borrowing the threads of
+	 * <code>backingExecutor</code>.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	backingExecutor != null
+	 * post	!this.isShutdown()
+	 * </pre>
+	 *
+	 * @param backingExecutor	executor providing the threads.
+	 */
+	public				SerialExecutor(Executor backingExecutor)
+	{
+		this(backingExecutor, null) ;
+	}
+
+	/**
+	 * create a serial executor borrowing the threads of
+	 * <code>backingExecutor</code>, which is shut down with it if it is
+	 * also <code>ownedExecutor</code>.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	backingExecutor != null
+	 * pre	ownedExecutor == null || ownedExecutor == backingExecutor
+	 * post	!this.isShutdown()
+	 * </pre>
+	 *
+	 * @param backingExecutor	executor providing the threads.
+	 * @param ownedExecutor		the backing executor if owned by the serial
+	 * 							executor, otherwise null.
+	 */
+	public				SerialExecutor(
+		Executor backingExecutor,
+		ExecutorService ownedExecutor
+		)
+	{
+		super() ;
+
+		assert	backingExecutor != null ;
+		assert	ownedExecutor == null || ownedExecutor == backingExecutor ;
+
+		this.backingExecutor = backingExecutor ;
+		this.ownedExecutor = ownedExecutor ;
+		this.mailbox = new ConcurrentLinkedQueue<Runnable>() ;
+		this.pending = new AtomicInteger(0) ;
+		this.shutdown = false ;
+		this.discard = false ;
+		this.owner = null ;
+		this.reentrance = 0 ;
+		this.drainer = new Runnable() {
+			@Override
+			public void run() {
+				drain() ;
+			}
+		} ;
+	}
+
+	/**
+	 * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+	 */
+	@Override
+	public void			execute(Runnable command)
+	{
+		if (command == null) {
+			throw new NullPointerException() ;
+		}
+		if (this.shutdown) {
+			throw new RejectedExecutionException(
+								"serial executor has been shut down.") ;
+		}
+		this.mailbox.add(command) ;
+		if (this.pending.getAndIncrement() == 0) {
+			this.backingExecutor.execute(this.drainer) ;
+		}
+	}
+
+	/**
+	 * execute the tasks of the mailbox until it is empty or the throughput
+	 * is reached; executed by a thread of the backing executor.
+	 */
+	protected void		drain()
+	{
+		int executed = 0 ;
+		ArrayList<SerialExecutor> entered = ENTERED.get() ;
+		entered.add(this) ;
+		this.owner = Thread.currentThread() ;
+		while (true) {
+			Runnable r = this.mailbox.poll() ;
+			// r can only be null if removed by shutdownNow, as tasks are
+			// added before pending is incremented
+			if (r != null && !this.discard) {
+				try {
+					r.run() ;
+				} catch (Throwable t) {
+					t.printStackTrace() ;
+				}
+			}
+			// the ownership is released before the mailbox may become idle,
+			// as another thread may then enter.
+			this.owner = null ;
+			if (this.pending.decrementAndGet() == 0) {
+				leave(entered, this) ;
+				if (this.shutdown) {
+					this.terminated() ;
+				}
+				return ;
+			}
+			if (++executed >= THROUGHPUT && !this.discard) {
+				leave(entered, this) ;
+				this.backingExecutor.execute(this.drainer) ;
+				return ;
+			}
+			this.owner = Thread.currentThread() ;
+		}
+	}
+
+	/**
+	 * try to make the calling thread execute a task of the executor itself,
+	 * which succeeds if the mailbox is idle or if the calling thread is
+	 * already executing a task of the executor; a successful call must be
+	 * followed by a call to <code>exit</code> once the task executed.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	!ret || isOwnedByCurrentThread()
+	 * </pre>
+	 *
+	 * @return	true if the calling thread may execute a task.
+	 */
+	public boolean		tryEnter()
+	{
+		Thread current = Thread.currentThread() ;
+		if (this.tryReenter()) {
+			return true ;
+		}
+		if (this.shutdown || !this.pending.compareAndSet(0, 1)) {
+			return false ;
+		}
+		this.owner = current ;
+		ENTERED.get().add(this) ;
+		return true ;
+	}
+
+	/**
+	 * try to make the calling thread execute a task of the executor itself,
+	 * which only succeeds if it is already executing a task of the executor;
+	 * a successful call must be followed by a call to <code>exit</code> once
+	 * the task executed.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	!ret || isOwnedByCurrentThread()
+	 * </pre>
+	 *
+	 * @return	true if the calling thread may execute a task.
+	 */
+	public boolean		tryReenter()
+	{
+		if (this.owner == Thread.currentThread()) {
+			this.reentrance++ ;
+			return true ;
+		}
+		return false ;
+	}
+
+	/**
+	 * end the execution of a task by the calling thread after a successful
+	 * <code>tryEnter</code>, and drain the tasks submitted in the meantime.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	isOwnedByCurrentThread()
+	 * post	true			// no postcondition.
+	 * </pre>
+	 */
+	public void			exit()
+	{
+		assert	this.isOwnedByCurrentThread() ;
+
+		if (this.reentrance > 0) {
+			this.reentrance-- ;
+			return ;
+		}
+		leave(ENTERED.get(), this) ;
+		this.owner = null ;
+		if (this.pending.decrementAndGet() != 0) {
+			if (this.discard) {
+				// the backing executor may have been shut down with this one
+				this.drain() ;
+			} else {
+				this.backingExecutor.execute(this.drainer) ;
+			}
+		} else if (this.shutdown) {
+			this.terminated() ;
+		}
+	}
+
+	/**
+	 * remove an executor from the ones entered by the current thread, which
+	 * is usually the last one.
+	 *
+	 * @param entered	executors entered by the current thread.
+	 * @param e			executor left by the current thread.
+	 */
+	protected static void	leave(ArrayList<SerialExecutor> entered, SerialExecutor e)
+	{
+		int last = entered.size() - 1 ;
+		if (last >= 0 && entered.get(last) == e) {
+			entered.remove(last) ;
+		} else {
+			entered.remove(e) ;
+		}
+	}
+
+	/**
+	 * make the current thread no longer the owner of the executors of which
+	 * it executes a task, before it executes tasks of other executors while
+	 * these ones are suspended; the returned ownerships must be given back
+	 * to <code>resumeOwnerships</code> by the same thread afterwards.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	true			// no precondition.
+	 * post	ret != null
+	 * </pre>
+	 *
+	 * @return	the suspended ownerships.
+	 */
+	public static SuspendedOwnerships	suspendOwnerships()
+	{
+		Thread current = Thread.currentThread() ;
+		ArrayList<SerialExecutor> entered = ENTERED.get() ;
+		SuspendedOwnerships suspended =
+							new SuspendedOwnerships(entered.size()) ;
+		for (SerialExecutor e : entered) {
+			if (e.owner == current) {
+				suspended.add(e) ;
+				e.owner = null ;
+				e.reentrance = 0 ;
+			}
+		}
+		return suspended ;
+	}
+
+	/**
+	 * make the current thread the owner again of the executors whose
+	 * ownerships have been suspended by <code>suspendOwnerships</code>.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	suspended != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param suspended	ownerships returned by <code>suspendOwnerships</code>.
+	 */
+	public static void	resumeOwnerships(SuspendedOwnerships suspended)
+	{
+		assert	suspended != null ;
+
+		Thread current = Thread.currentThread() ;
+		for (int i = 0 ; i < suspended.size ; i++) {
+			suspended.executors[i].owner = current ;
+			suspended.executors[i].reentrance = suspended.reentrances[i] ;
+		}
+	}
+
+	/**
+	 * The class <code>SuspendedOwnerships</code> records the executors whose
+	 * ownership has been suspended by a thread, with their re-entrance
+	 * counts.
+	 */
+	public static final class	SuspendedOwnerships
+	{
+		protected final SerialExecutor[]	executors ;
+		protected final int[]				reentrances ;
+		protected int						size ;
+
+		protected			SuspendedOwnerships(int capacity)
+		{
+			this.executors = new SerialExecutor[capacity] ;
+			this.reentrances = new int[capacity] ;
+			this.size = 0 ;
+		}
+
+		protected void		add(SerialExecutor e)
+		{
+			this.executors[this.size] = e ;
+			this.reentrances[this.size] = e.reentrance ;
+			this.size++ ;
+		}
+	}
+
+	/**
+	 * wake up the threads waiting for the termination, and shut down the
+	 * owned backing executor; called when the executor has been shut down
+	 * and has no more pending tasks.
+	 */
+	protected synchronized void	terminated()
+	{
+		this.notifyAll() ;
+		if (this.ownedExecutor != null) {
+			this.ownedExecutor.shutdown() ;
+		}
+	}
+
+	/**
+	 * @return	true if the calling thread is executing a task of the executor.
+	 */
+	public boolean		isOwnedByCurrentThread()
+	{
+		return this.owner == Thread.currentThread() ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdown()
+	 */
+	@Override
+	public synchronized void	shutdown()
+	{
+		this.shutdown = true ;
+		if (this.pending.get() == 0) {
+			this.terminated() ;
+		} else {
+			this.notifyAll() ;
+		}
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdownNow()
+	 */
+	@Override
+	public List<Runnable>	shutdownNow()
+	{
+		this.discard = true ;
+		this.shutdown() ;
+		List<Runnable> discarded = new ArrayList<Runnable>() ;
+		Runnable r ;
+		while ((r = this.mailbox.poll()) != null) {
+			discarded.add(r) ;
+		}
+		if (this.ownedExecutor != null) {
+			this.ownedExecutor.shutdownNow() ;
+		}
+		return discarded ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isShutdown()
+	 */
+	@Override
+	public boolean		isShutdown()
+	{
+		return this.shutdown ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isTerminated()
+	 */
+	@Override
+	public boolean		isTerminated()
+	{
+		if (this.discard && this.ownedExecutor != null) {
+			// the drainer may have been discarded by the owned executor
+			return this.ownedExecutor.isTerminated() ;
+		}
+		return this.shutdown && this.pending.get() == 0 ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#awaitTermination(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public boolean		awaitTermination(long timeout, TimeUnit unit)
+	throws InterruptedException
+	{
+		long deadline = System.nanoTime() + unit.toNanos(timeout) ;
+		synchronized (this) {
+			while (!this.isTerminated() &&
+							!(this.discard && this.ownedExecutor != null)) {
+				long remaining = deadline - System.nanoTime() ;
+				if (remaining <= 0) {
+					return false ;
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, remaining) ;
+			}
+		}
+		if (this.discard && this.ownedExecutor != null) {
+			// waited outside of the monitor, which the last task may need
+			return this.ownedExecutor.awaitTermination(
+							Math.max(0L, deadline - System.nanoTime()),
+							TimeUnit.NANOSECONDS) ;
+		}
+		return true ;
+	}
+}
@@ -0,0 +1,359 @@
+package fr.upmc.components.executors;
+
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class <code>SerialScheduledExecutor</code> extends the serial executor
+ * with the scheduling of delayed and periodic tasks, the delays being
+ * managed by a hashed wheel timer shared among serial executors.
+ *
+ * <p><strong>Description</strong></p>
+ * 
+ * Scheduling and cancelling a task are constant time operations in the
+ * timer.  When the delay of a scheduled task expires, the timer only submits
+ * the task to the mailbox of the serial executor, so the tasks are executed
+ * one at a time and in order, as with a single thread scheduled executor,
+ * but neither the timer nor the executing threads are owned by the executor.
+ * Periodic tasks rearm the timer after each execution, so that a periodic
+ * task never has more than one pending execution.
+ * 
+ * Contrary to <code>ScheduledThreadPoolExecutor</code>, the delayed tasks
+ * whose delay expires after the executor has been shut down are cancelled.
+ * 
+ * <p><strong>Invariant</strong></p>
+ * 
+ * <pre>
+ * invariant	timer != null
+ * </pre>
+ * 
+ * <p>Created on : 18 oct. 2026</p>
+ * 
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SerialScheduledExecutor
+extends		SerialExecutor
+implements	ScheduledExecutorService
+{
+	/**
+	 * The class <code>ScheduledTask</code> implements the futures of the tasks
+	 * scheduled in a serial scheduled executor.
+	 *
+	 * <p><strong>Description</strong></p>
+	 * 
+	 * As in <code>ScheduledThreadPoolExecutor</code>, a positive period
+	 * denotes a fixed rate task, a negative one a fixed delay task and a zero
+	 * one a one-shot task.
+	 * 
+	 * <p><strong>Invariant</strong></p>
+	 * 
+	 * <pre>
+	 * invariant	true
+	 * </pre>
+	 * 
+	 * <p>Created on : 18 oct. 2026</p>
+	 * 
+	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+	 * @version	$Name$ -- $Revision$ -- $Date$
+	 */
+	protected class		ScheduledTask<V>
+	extends		FutureTask<V>
+	implements	RunnableScheduledFuture<V>
+	{
+		/** period in nanoseconds, 0 for one-shot tasks.					*/
+		protected final long		period ;
+		/** next triggering time in nanoseconds, from System.nanoTime().	*/
+		protected volatile long		time ;
+		/** timeout of the pending triggering by the timer.					*/
+		protected volatile HashedWheelTimer.Timeout	trigger ;
+
+		public			ScheduledTask(
+			Callable<V> callable,
+			long time
+			)
+		{
+			super(callable) ;
+			this.period = 0L ;
+			this.time = time ;
+		}
+
+		public			ScheduledTask(
+			Runnable runnable,
+			V result,
+			long time,
+			long period
+			)
+		{
+			super(runnable, result) ;
+			this.period = period ;
+			this.time = time ;
+		}
+
+		/**
+		 * arm the shared timer to submit this task to the mailbox when its
+		 * triggering time is reached.
+		 */
+		protected void	arm()
+		{
+			final ScheduledTask<V> task = this ;
+			this.trigger = timer.schedule(
+				new Runnable() {
+					@Override
+					public void run() {
+						try {
+							execute(task) ;
+						} catch (RejectedExecutionException e) {
+							task.cancel(false) ;
+						}
+					}
+				},
+				Math.max(0L, this.time - System.nanoTime()),
+				TimeUnit.NANOSECONDS) ;
+		}
+
+		/**
+		 * @see java.util.concurrent.RunnableScheduledFuture#isPeriodic()
+		 */
+		@Override
+		public boolean	isPeriodic()
+		{
+			return this.period != 0L ;
+		}
+
+		/**
+		 * @see java.util.concurrent.Delayed#getDelay(java.util.concurrent.TimeUnit)
+		 */
+		@Override
+		public long		getDelay(TimeUnit unit)
+		{
+			return unit.convert(this.time - System.nanoTime(),
+								TimeUnit.NANOSECONDS) ;
+		}
+
+		/**
+		 * @see java.lang.Comparable#compareTo(java.lang.Object)
+		 */
+		@Override
+		public int		compareTo(Delayed o)
+		{
+			long d = this.getDelay(TimeUnit.NANOSECONDS) -
+									o.getDelay(TimeUnit.NANOSECONDS) ;
+			return d < 0 ? -1 : (d > 0 ? 1 : 0) ;
+		}
+
+		/**
+		 * @see java.util.concurrent.FutureTask#run()
+		 */
+		@Override
+		public void		run()
+		{
+			if (!this.isPeriodic()) {
+				super.run() ;
+			} else if (this.runAndReset()) {
+				if (this.period > 0) {
+					this.time += this.period ;
+				} else {
+					this.time = System.nanoTime() - this.period ;
+				}
+				if (!isShutdown()) {
+					this.arm() ;
+				}
+			}
+		}
+
+		/**
+		 * @see java.util.concurrent.FutureTask#cancel(boolean)
+		 */
+		@Override
+		public boolean	cancel(boolean mayInterruptIfRunning)
+		{
+			boolean cancelled = super.cancel(mayInterruptIfRunning) ;
+			HashedWheelTimer.Timeout t = this.trigger ;
+			if (cancelled && t != null) {
+				t.cancel() ;
+			}
+			return cancelled ;
+		}
+	}
+
+	/** timer triggering the scheduled tasks.								*/
+	protected final HashedWheelTimer	timer ;
+
+	/**
+	 * create a serial scheduled executor borrowing the threads of
+	 * <code>backingExecutor</code> and triggering its tasks with
+	 * <code>timer</code>.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	backingExecutor != null && timer != null
+	 * post	!this.isShutdown()
+	 * </pre>
+	 *
+	 * @param backingExecutor	executor providing the threads.
+	 * @param timer				timer triggering the scheduled tasks.
+	 */
+	public				SerialScheduledExecutor(
+		Executor backingExecutor,
+		HashedWheelTimer timer
+		)
+	{
+		super(backingExecutor) ;
+
+		assert	timer != null ;
+
+		this.timer = timer ;
+	}
+
+	/**
+	 * compute the triggering time of a task from its delay.
+	 * 
+	 * @param delay	delay of the task.
+	 * @param unit	time unit of the delay.
+	 * @return		triggering time in nanoseconds.
+	 */
+	protected long		triggerTime(long delay, TimeUnit unit)
+	{
+		return System.nanoTime() + unit.toNanos(Math.max(0L, delay)) ;
+	}
+
+	/**
+	 * arm a task after checking that the executor has not been shut down.
+	 * 
+	 * @param task	task to be armed.
+	 * @return		the task.
+	 */
+	protected <V> ScheduledTask<V>	arm(ScheduledTask<V> task)
+	{
+		if (this.isShutdown()) {
+			throw new RejectedExecutionException(
+								"serial executor has been shut down.") ;
+		}
+		task.arm() ;
+		return task ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ScheduledExecutorService#schedule(java.lang.Runnable, long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public ScheduledFuture<?>	schedule(
+		Runnable command,
+		long delay,
+		TimeUnit unit
+		)
+	{
+		if (command == null || unit == null) {
+			throw new NullPointerException() ;
+		}
+		return this.arm(new ScheduledTask<Void>(
+							command, null, this.triggerTime(delay, unit), 0L)) ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ScheduledExecutorService#schedule(java.util.concurrent.Callable, long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public <V> ScheduledFuture<V>	schedule(
+		Callable<V> callable,
+		long delay,
+		TimeUnit unit
+		)
+	{
+		if (callable == null || unit == null) {
+			throw new NullPointerException() ;
+		}
+		return this.arm(new ScheduledTask<V>(
+								callable, this.triggerTime(delay, unit))) ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate(java.lang.Runnable, long, long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public ScheduledFuture<?>	scheduleAtFixedRate(
+		Runnable command,
+		long initialDelay,
+		long period,
+		TimeUnit unit
+		)
+	{
+		if (command == null || unit == null) {
+			throw new NullPointerException() ;
+		}
+		if (period <= 0) {
+			throw new IllegalArgumentException() ;
+		}
+		return this.arm(new ScheduledTask<Void>(
+							command, null,
+							this.triggerTime(initialDelay, unit),
+							unit.toNanos(period))) ;
+	}
+
+	/**
+	 * @see java.util.concurrent.ScheduledExecutorService#scheduleWithFixedDelay(java.lang.Runnable, long, long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public ScheduledFuture<?>	scheduleWithFixedDelay(
+		Runnable command,
+		long initialDelay,
+		long delay,
+		TimeUnit unit
+		)
+	{
+		if (command == null || unit == null) {
+			throw new NullPointerException() ;
+		}
+		if (delay <= 0) {
+			throw new IllegalArgumentException() ;
+		}
+		return this.arm(new ScheduledTask<Void>(
+							command, null,
+							this.triggerTime(initialDelay, unit),
+							-unit.toNanos(delay))) ;
+	}
+}
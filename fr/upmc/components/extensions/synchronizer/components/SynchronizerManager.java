@@ -1,9 +1,9 @@
 package fr.upmc.components.extensions.synchronizer.components;
 
-import java.lang.reflect.Constructor;
 import java.util.Hashtable;
 
 import fr.upmc.components.AbstractComponent;
+import fr.upmc.components.cvm.pre.dcc.ConstructorCache;
 import fr.upmc.components.extensions.synchronizer.components.syncTools.ArrayBlockingQueue;
 import fr.upmc.components.extensions.synchronizer.components.syncTools.CountDownLatch;
 import fr.upmc.components.extensions.synchronizer.components.syncTools.CyclicBarrier;
@@ -119,16 +119,9 @@ extends AbstractComponent
 		assert clas != null;
 		assert constructorParams != null;
 		
-		Class<?>[] parameterTypes = new Class[constructorParams.length] ;
-		for(int i = 0 ; i < constructorParams.length ; i++) {
-			parameterTypes[i] = constructorParams[i].getClass() ;
-		}
-		
-		Constructor<?> cons = null;
-		cons = clas.getConstructor(parameterTypes);
-		
 		AbstractComponent component = 
-				(AbstractComponent) cons.newInstance(constructorParams);
+				(AbstractComponent) ConstructorCache.newInstance(
+												clas, constructorParams);
 		
 		component.start();
 		
@@ -60,6 +60,8 @@ public class			ConnectionData
 	protected String			hostname ;
 	/** port number on which the RMI registry can be called.				*/
 	protected int				port ;
+	/** name of the offered interface of a socket port, or null.			*/
+	protected String			interfaceName ;
 
 	/**
 	 * create a connection data object from the information received by the
@@ -90,7 +92,9 @@ public class			ConnectionData
 
 	/**
 	 * create a connection data object from the raw information received by the
-	 * registry through a socket communication (hence one string).
+	 * registry through a socket communication (hence one string), either
+	 * "rmi=host" or "socket=host:port", optionally followed by ":interface"
+	 * giving the offered interface of the port.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
@@ -115,6 +119,9 @@ public class			ConnectionData
 			String[] temp2 = temp1[1].split(":") ;
 			this.hostname = temp2[0] ;
 			this.port = Integer.parseInt(temp2[1]) ;
+			if (temp2.length > 2) {
+				this.interfaceName = temp2[2] ;
+			}
 		}
 	}
 
@@ -142,4 +149,11 @@ public class			ConnectionData
 	public int				getPort() {
 		return this.port;
 	}
+
+	/**
+	 * @return the name of the offered interface of a socket port, or null
+	 */
+	public String			getInterfaceName() {
+		return this.interfaceName;
+	}
 }
@@ -40,8 +40,10 @@ package fr.upmc.components.registry;
  *
  * <p><strong>Description</strong></p>
  * 
- * Currently RMI, that is fully implemented, and socket that is still to be
- * completed before becoming operational.
+ * Currently RMI, the default, socket, implemented by the NIO transport of
+ * the package <code>fr.upmc.components.transport</code>, and shared memory,
+ * implemented by the same transport with memory-mapped ring buffers between
+ * JVM of the same host and negotiated over its socket connections.
  * 
  * <p><strong>Invariant</strong></p>
  * 
@@ -56,5 +58,6 @@ package fr.upmc.components.registry;
  */
 public enum ConnectionType {
 	RMI,
-	SOCKET
+	SOCKET,
+	SHARED_MEMORY
 }
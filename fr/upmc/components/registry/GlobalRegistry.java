@@ -34,20 +34,14 @@ package fr.upmc.components.registry;
 // The fact that you are presently reading this means that you have had
 // knowledge of the CeCILL-C license and that you accept its terms.
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.Hashtable;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import fr.upmc.components.cvm.config.ConfigurationFileParser;
 import fr.upmc.components.cvm.config.ConfigurationParameters;
+import fr.upmc.components.cvm.utils.SelectorLineServer;
 
 /**
  * The class <code>GlobalRegistry</code> implements the global registry for the
@@ -66,20 +60,48 @@ import fr.upmc.components.cvm.config.ConfigurationParameters;
  * Protocol (spaces are used to split the strings, so they are meaningful):
  * 
  * <pre>
- * Requests              Responses
+ * Requests                       Responses
  * 
- * lookup <key>          ok <value>
- *                       nok
- * put <key> <value>     ok
- *                       nok bound!
- * remove <key>          ok
- *                       nok not_bound!
- * shutdown              ok
- * <anything else>       nok unkonwn_command!
+ * lookup <key>                   ok <value>
+ *                                nok
+ * mlookup <key1> ... <keyn>      ok <value1> ... <valuen>
+ * put <key> <value>              ok
+ *                                nok bound!
+ * mput <key1> <value1> ...       ok
+ *      <keyn> <valuen>           nok bound! <keyi> ... <keyj>
+ * remove <key>                   ok
+ *                                nok not_bound!
+ * subscribe                      ok
+ * shutdown                       ok
+ * <anything else>                nok unkonwn_command!
  * </pre>
  * 
- * When the static variable <code>DEBUG</code> is set to true, the registry
- * provides with a log on STDOUT of the commands it executes.
+ * The bulk commands <code>mlookup</code> and <code>mput</code> process
+ * several keys in one round trip: <code>mlookup</code> returns
+ * <code>MISSING</code> in place of the value of the keys not bound, and
+ * <code>mput</code> binds all of the keys not already bound, returning the
+ * keys which were.  The requests of a client are processed in their order
+ * of arrival and their responses are sent in the same order, so a client may
+ * send several requests without waiting for their responses (pipelining);
+ * the responses are written when all of the requests received have been
+ * processed.
+ * 
+ * A client caching the values it looks up sends a <code>subscribe</code>
+ * request, after which the registry pushes it a line
+ * <code>invalidate &lt;key&gt;</code> each time a key is removed by any
+ * client; these lines are not responses and may come between any two
+ * responses, but never before the response to a lookup which has returned
+ * the value removed.
+ * 
+ * The registry is served by a single thread event loop over non blocking
+ * sockets (see <code>SelectorLineServer</code>), which processes all of the
+ * requests in turn, so that the number of JVM in an assembly is no longer
+ * bounded by a number of threads; the directory remains a concurrent map,
+ * so that it may be read by other threads.
+ * 
+ * When the static variable <code>DEBUG0</code> is set to true, the registry
+ * provides with a log on STDOUT of its life cycle, and when
+ * <code>DEBUG1</code> is set to true, of the commands it executes.
  *  
  * <p><strong>Invariant</strong></p>
  * 
@@ -93,357 +115,181 @@ import fr.upmc.components.cvm.config.ConfigurationParameters;
  * @version	$Name$ -- $Revision$ -- $Date$
  */
 public class			GlobalRegistry
+extends		SelectorLineServer
 {
 	/** Default name of the host running the registry; is configurable.		*/
 	public static String				REGISTRY_HOSTNAME = "localhost" ;
 	/** Registry port number listen for commands; is configurable.			*/
 	public static int					REGISTRY_PORT = 55252 ;
+	/** Value returned by mlookup for the keys not bound.					*/
+	public static final String			MISSING = "-" ;
 
 	/** If true, an echo of some commands executed is provided on STDOUT.	*/
 	public static final boolean			DEBUG0 = true ;
 	/** If true, a log of the commands executed is provided on STDOUT.		*/
 	public static final boolean			DEBUG1 = false ;
 
-	/** Directory of information, a hashtable with String keys and values.	*/
-	protected Hashtable<String,String>	directory ;
+	/** Directory of information, a map with String keys and values.		*/
+	protected ConcurrentHashMap<String,String>	directory ;
+	/** Clients to which the invalidations of the keys are pushed.			*/
+	protected HashSet<Connection>		subscribers ;
 	/** Configuration parameters from the configuration file.				*/
 	protected ConfigurationParameters	configurationParameters ;
 	/** Number of JVM in the current distributed component virtual machine.	*/
 	protected final int					numberOfJVMsInDCVM ;
 
-	/** The server socket used to listen on the port number REGISTRY_PORT.	*/
-	protected ServerSocket	ss ;
-
-	protected static final int			MAX_NUMBER_OF_THREADS = 100 ; 
-	/** The executor service in charge of handling component requests.		*/
-	protected static ExecutorService	REQUEST_HANDLER ;
-	/**	synchroniser to finish the execution of this global registry.		*/
-	protected CountDownLatch			finished ;
-
 	// ------------------------------------------------------------------------
-	// Tasks for the executor framework
+	// Constructor
 	// ------------------------------------------------------------------------
 
 	/**
-	 * The class <code>ProcessLookup</code> implements a runnable task used to
-	 * look up the registry for a given key.
-	 *
-	 * <p><strong>Description</strong></p>
+	 * create a registry object, using the configuration file to know the number
+	 * of clients that will connect, and therefore that will have to disconnect
+	 * for the registry to terminate its execution.
 	 * 
-	 * <p><strong>Invariant</strong></p>
+	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * invariant	true
+	 * pre	true			// no precondition.
+	 * post	true			// no postcondition.
 	 * </pre>
-	 * 
-	 * <p>Created on : 2012-10-22</p>
-	 * 
-	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
-	 * @version	$Name$ -- $Revision$ -- $Date$
-	 */
-	protected static class	ProcessLookup
-	implements Runnable
-	{
-
-		protected PrintStream				ps ;
-		protected String					key ;
-		protected Hashtable<String,String>	directory ;
-
-		public				ProcessLookup(
-			PrintStream ps,
-			String key,
-			Hashtable<String,String> directory
-			)
-		{
-			super();
-			this.ps = ps ;
-			this.key = key ;
-			this.directory = directory ;
-		}
-
-
-		@Override
-		public void		run()
-		{
-			String result = null ;
-			synchronized(this.directory) {
-				result = this.directory.get(this.key) ;
-			}
-			if (result == null) {
-				this.ps.println("nok") ;
-			} else {
-				if (DEBUG1) {
-					System.out.println("GLobal registry looking up " +
-									   this.key + " found " + result) ;
-				}
-				this.ps.println("ok " + result) ;
-			}
-		}
-	}
-
-	/**
-	 * The class <code>ProcessPut</code> implements a runnable task used to
-	 * update the registry with the association of a given key to a given
-	 * value.
 	 *
-	 * <p><strong>Description</strong></p>
-	 * 
-	 * <p><strong>Invariant</strong></p>
-	 * 
-	 * <pre>
-	 * invariant	true
-	 * </pre>
-	 * 
-	 * <p>Created on : 2012-10-22</p>
-	 * 
-	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
-	 * @version	$Name$ -- $Revision$ -- $Date$
-	 */
-	protected static class	ProcessPut implements Runnable {
-
-		protected PrintStream				ps ;
-		protected String					key ;
-		protected String					value ;
-		protected Hashtable<String,String>	directory ;
-
-		public				ProcessPut(
-			PrintStream ps,
-			String key,
-			String value,
-			Hashtable<String,String> directory
-			)
-		{
-			super();
-			this.ps = ps ;
-			this.key = key;
-			this.value = value;
-			this.directory = directory;
-		}
-
-		@Override
-		public void run() {
-			String result = null ;
-			synchronized (this.directory) {
-				result = this.directory.get(key) ;
-			}
-			if (result != null) {
-				ps.println("nok bound!") ;
-			} else {
-				this.directory.put(this.key, this.value) ;
-				ps.println("ok") ;
-			}
-		}		
-	}
-
-	/**
-	 * The class <code>ProcessRemove</code> implements a runnable task used to
-	 * remove the association of a given key from the registry.
-	 *
-	 * <p><strong>Description</strong></p>
-	 * 
-	 * <p><strong>Invariant</strong></p>
-	 * 
-	 * <pre>
-	 * invariant	true
-	 * </pre>
-	 * 
-	 * <p>Created on : 2012-10-22</p>
-	 * 
-	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
-	 * @version	$Name$ -- $Revision$ -- $Date$
+	 * @param configFileName
+	 * @throws Exception
 	 */
-	protected static class	ProcessRemove implements Runnable
+	public				GlobalRegistry(String configFileName) throws Exception
 	{
-		protected PrintStream				ps ;
-		protected String					key ;
-		protected Hashtable<String,String>	directory ;
+		super();
 
-		public				ProcessRemove(
-			PrintStream ps,
-			String key,
-			Hashtable<String, String> directory
-			)
-		{
-			super();
-			this.ps = ps ;
-			this.key = key;
-			this.directory = directory;
+		File configFile = new File(configFileName) ;
+		ConfigurationFileParser cfp = new ConfigurationFileParser() ;
+		if (!cfp.validateConfigurationFile(configFile)) {
+			throw new Exception("invalid configuration file " + configFileName) ;
 		}
+		this.configurationParameters = cfp.parseConfigurationFile(configFile) ;
+		this.numberOfJVMsInDCVM =
+								this.configurationParameters.getJvms().length ;
 
-		@Override
-		public void run() {
-			String result = null ;
-			synchronized (this.directory) {
-				result = this.directory.get(key) ;
-			}
-			if (result == null) {
-				ps.println("nok not_bound!") ;
-			} else {
-				this.directory.remove(this.key) ;
-				ps.println("ok") ;
-			}
-		}		
+		this.directory = new ConcurrentHashMap<String,String>() ;
+		this.subscribers = new HashSet<Connection>() ;
+		this.open(REGISTRY_PORT, this.numberOfJVMsInDCVM) ;
 	}
 
+	// ------------------------------------------------------------------------
+	// Methods
+	// ------------------------------------------------------------------------
+
 	/**
-	 * The class <code>ServiceRunnable</code> implements the behaviour of the
-	 * registry exchanging with one client; its processes the requests from the
-	 * clients until the latter explicitly disconnects with a "shutdown" request
-	 * of implicitly with a null string request.
-	 *
-	 * <p><strong>Description</strong></p>
+	 * process one request and return its response.
 	 * 
-	 * <p><strong>Invariant</strong></p>
+	 * <p><strong>Contract</strong></p>
 	 * 
 	 * <pre>
-	 * invariant	true
+	 * pre	tokens.length > 0
+	 * post	ret != null
 	 * </pre>
 	 * 
-	 * <p>Created on : 30 janv. 2014</p>
-	 * 
-	 * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
-	 * @version	$Name$ -- $Revision$ -- $Date$
+	 * @param c			connection on which the request has been received.
+	 * @param tokens	tokens of the request.
+	 * @return			the response to the request.
 	 */
-	protected static class	ServiceRunnable
-	implements	Runnable
+	protected String	process(Connection c, String[] tokens)
 	{
-		protected Hashtable<String,String>	directory ;
-		protected Socket					s ;
-		protected BufferedReader			br ;
-		protected PrintStream				ps ;
-		protected CountDownLatch			finished ;
-
-		public			ServiceRunnable(
-			Socket 						s,
-			Hashtable<String,String>	directory,
-			CountDownLatch				finished
-			)
-		{
-			if (DEBUG1) { System.out.println("Registry creating a service runnable") ; }
-			this.s = s ;
-			this.directory = directory ;
-			this.finished = finished ;
-			try {
-				this.br = new BufferedReader(
-						new InputStreamReader(this.s.getInputStream())) ;
-				this.ps = new PrintStream(s.getOutputStream(), true) ;
-			} catch (IOException e) {
-				e.printStackTrace();
-				if (DEBUG1) { System.out.println("...service runnable created") ; }
-			}
-		}
-
-		@Override
-		public void		run()
-		{
+		if (tokens[0].equals("lookup") && tokens.length == 2) {
+			String result = this.directory.get(tokens[1]) ;
 			if (DEBUG1) {
-				System.out.println("Service runnable running...") ;
+				System.out.println("GLobal registry looking up " +
+								   tokens[1] + " found " + result) ;
 			}
-			String message = null ;
-			try {
-				message = br.readLine() ;
-			} catch (IOException e1) {
-				e1.printStackTrace();
+			return result == null ? "nok" : "ok " + result ;
+		} else if (tokens[0].equals("mlookup")) {
+			StringBuilder sb = new StringBuilder("ok") ;
+			for (int i = 1 ; i < tokens.length ; i++) {
+				String result = this.directory.get(tokens[i]) ;
+				sb.append(' ').append(result == null ? MISSING : result) ;
 			}
-			if (DEBUG0) {
-				System.out.println("GlobalRegistry processing " + message) ;
+			return sb.toString() ;
+		} else if (tokens[0].equals("put") && tokens.length == 3) {
+			if (this.directory.putIfAbsent(tokens[1], tokens[2]) != null) {
+				return "nok bound!" ;
 			}
-			String[] tokens = message.split("\\s") ;
-			while (message != null && !tokens[0].equals("shutdown")) {
-				if (tokens[0].equals("lookup")) {
-					new ProcessLookup(this.ps, tokens[1], this.directory).run() ;
-				} else if (tokens[0].equals("put")) {
-					new ProcessPut(this.ps, tokens[1], tokens[2], this.directory).run() ;
-				} else if (tokens[0].equals("remove")) {
-					new ProcessRemove(this.ps, tokens[1], this.directory).run() ;
-				} else {
-					ps.println("nok unkonwn_command!") ;
-				}
-				try {
-					message = br.readLine() ;
-				} catch (IOException e1) {
-					e1.printStackTrace();
-				}
-				if (DEBUG0) {
-					System.out.println("GlobalRegistry processing " + message) ;
-				}
-				if (message != null) {
-					tokens = message.split("\\s") ;
-					if (DEBUG1) {
-						System.out.println(
-								"GlobalRegistry next command " + tokens[0] +
-								" " + (!tokens[0].equals("shutdown"))) ;
+			return "ok" ;
+		} else if (tokens[0].equals("mput") && tokens.length % 2 == 1) {
+			StringBuilder bound = null ;
+			for (int i = 1 ; i < tokens.length ; i += 2) {
+				if (this.directory.putIfAbsent(tokens[i], tokens[i + 1])
+																	!= null) {
+					if (bound == null) {
+						bound = new StringBuilder("nok bound!") ;
 					}
+					bound.append(' ').append(tokens[i]) ;
 				}
 			}
-			try {
-				this.ps.print("ok") ;
-				this.ps.close() ;
-				this.br.close() ;
-				s.close() ;
-			} catch (IOException e) {
-				e.printStackTrace();
+			return bound == null ? "ok" : bound.toString() ;
+		} else if (tokens[0].equals("remove") && tokens.length == 2) {
+			if (this.directory.remove(tokens[1]) == null) {
+				return "nok not_bound!" ;
 			}
-			if (DEBUG1) {
-				System.out.println("GlobalRegistry exits ") ;
+			for (Connection subscriber : this.subscribers) {
+				this.send(subscriber, "invalidate " + tokens[1]) ;
 			}
-			this.finished.countDown() ;
+			return "ok" ;
+		} else if (tokens[0].equals("subscribe") && tokens.length == 1) {
+			this.subscribers.add(c) ;
+			return "ok" ;
+		} else {
+			return "nok unkonwn_command!" ;
 		}
 	}
 
-	// ------------------------------------------------------------------------
-	// Constructor
-	// ------------------------------------------------------------------------
-
 	/**
-	 * create a registry object, using the configuration file to know the number
-	 * of clients that will connect, and therefore that will have to disconnect
-	 * for the registry to terminate its execution.
-	 * 
-	 * <p><strong>Contract</strong></p>
-	 * 
-	 * <pre>
-	 * pre	true			// no precondition.
-	 * post	true			// no postcondition.
-	 * </pre>
-	 *
-	 * @param configFileName
-	 * @throws Exception
+	 * @see fr.upmc.components.cvm.utils.SelectorLineServer#lineReceived(fr.upmc.components.cvm.utils.SelectorLineServer.Connection, java.lang.String)
 	 */
-	public				GlobalRegistry(String configFileName) throws Exception
+	@Override
+	protected void		lineReceived(Connection c, String message)
 	{
-		super();
-
-		File configFile = new File(configFileName) ;
-		ConfigurationFileParser cfp = new ConfigurationFileParser() ;
-		if (!cfp.validateConfigurationFile(configFile)) {
-			throw new Exception("invalid configuration file " + configFileName) ;
+		if (DEBUG1) {
+			System.out.println("GlobalRegistry processing " + message) ;
 		}
-		this.configurationParameters = cfp.parseConfigurationFile(configFile) ;
-		this.numberOfJVMsInDCVM =
-								this.configurationParameters.getJvms().length ;
+		String[] tokens = message.split("\\s") ;
+		if (tokens[0].equals("shutdown")) {
+			this.sendAndClose(c, "ok") ;
+		} else {
+			this.send(c, this.process(c, tokens)) ;
+		}
+	}
 
-		this.directory =
-					new Hashtable<String,String>(this.numberOfJVMsInDCVM) ;
-		REQUEST_HANDLER =
-					Executors.newFixedThreadPool(this.numberOfJVMsInDCVM) ;
-		this.finished = new CountDownLatch(this.numberOfJVMsInDCVM) ;
-		try {
-			this.ss = new ServerSocket(REGISTRY_PORT) ;
-		} catch (IOException e) {
-			e.printStackTrace();
+	/**
+	 * @see fr.upmc.components.cvm.utils.SelectorLineServer#connectionAccepted(fr.upmc.components.cvm.utils.SelectorLineServer.Connection)
+	 */
+	@Override
+	protected void		connectionAccepted(Connection c)
+	{
+		if (DEBUG1) {
+			System.out.println("Global registry accepted a new connection.") ;
+		}
+		if (DEBUG0 && this.acceptedConnections == this.numberOfJVMsInDCVM) {
+			System.out.println("All connected!") ;
 		}
 	}
 
-	// ------------------------------------------------------------------------
-	// Methods
-	// ------------------------------------------------------------------------
+	/**
+	 * @see fr.upmc.components.cvm.utils.SelectorLineServer#connectionClosed(fr.upmc.components.cvm.utils.SelectorLineServer.Connection)
+	 */
+	@Override
+	protected void		connectionClosed(Connection c)
+	{
+		this.subscribers.remove(c) ;
+		if (DEBUG1) {
+			System.out.println("GlobalRegistry exits ") ;
+		}
+	}
 
 	/**
-	 * runs the registry, repeated accepting connections on its server socket,
-	 * decoding the request (in the format defined by the above protocol),
-	 * executing it and returning the result (in the format defined by the
-	 * above protocol) on the output stream of the socket.
+	 * runs the registry, accepting the connections of the JVM of the
+	 * assembly, decoding the requests (in the format defined by the above
+	 * protocol), executing them and returning their results (in the format
+	 * defined by the above protocol), until all of the JVM have disconnected.
 	 * 
 	 * <p><strong>Contract</strong></p>
 	 * 
@@ -455,38 +301,13 @@ public class			GlobalRegistry
 	 */
 	public void			run()
 	{
-		Socket s = null ;
 		if (DEBUG0) {
 			System.out.println("Registry up and running!") ;
 		}
-		int count = 0 ;
-		while (count < this.numberOfJVMsInDCVM) {
-			try {
-				REQUEST_HANDLER.submit(new ServiceRunnable(ss.accept(),
-														   this.directory,
-														   this.finished)) ;
-				count++ ;
-				if (DEBUG1) {
-					System.out.println(
-							"Global registry accepted a new connection.") ;
-				}
-			} catch (IOException e) {
-				try {
-					if (s != null) { s.close() ; } ;
-					ss.close() ;
-				} catch (IOException e1) {
-					;
-				}
-				e.printStackTrace();
-			}
-		}
-		if (DEBUG0) {
-			System.out.println("All connected!") ;
-		}
 		try {
-			this.ss.close() ;
+			this.runEventLoop() ;
 		} catch (IOException e) {
-			;
+			e.printStackTrace();
 		}
 	}
 
@@ -511,11 +332,9 @@ public class			GlobalRegistry
 		try {
 			reg = new GlobalRegistry(args[0]);
 			reg.run() ;
-			reg.finished.await() ;
 			if (DEBUG0) {
 				System.out.println("Global registry shuts down!") ;
 			}
-			REQUEST_HANDLER.shutdownNow() ;
 			System.exit(0) ;
 		} catch (Exception e) {
 			e.printStackTrace();
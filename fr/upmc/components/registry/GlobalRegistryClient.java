@@ -34,12 +34,25 @@ package fr.upmc.components.registry;
 // The fact that you are presently reading this means that you have had
 // knowledge of the CeCILL-C license and that you accept its terms.
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import fr.upmc.components.executors.ComponentExecutors;
 
 /**
  * The class <code>RegistryClient</code> provides a convenient intermediary
@@ -52,6 +65,26 @@ import java.net.UnknownHostException;
  * 
  * value ::= rmi=<hostname> | socket=<hostname>:<port>
  * 
+ * The client pipelines the requests on its connection to the registry: the
+ * requesting threads write their requests without waiting for the responses
+ * of the previous ones, and a reader thread completes the futures of the
+ * requests in the order of the responses, which is the order of the
+ * requests.  Many requests may hence be in flight at the same time, and the
+ * bulk methods send their keys with the <code>mlookup</code> and
+ * <code>mput</code> commands, by batches of <code>MAX_BATCH_SIZE</code>
+ * keys written together.
+ * 
+ * When <code>CACHE_ENABLED</code> is true, the values looked up are kept in
+ * a local cache, and the client subscribes to the invalidations pushed by
+ * the registry when a key is removed, so that the same keys are looked up
+ * only once as long as they remain bound.  The cache is filled and
+ * invalidated by the reader thread, in the order in which the responses and
+ * invalidations are received, so that a value removed is never cached
+ * again.  Invalidation listeners, such as the cache of the remote
+ * references of <code>ConnectionBuilder</code>, are notified after the
+ * removal from the cache; when the connection to the registry is lost, all
+ * of the cached keys are invalidated.
+ * 
  * <p><strong>Invariant</strong></p>
  * 
  * <pre>
@@ -65,11 +98,84 @@ import java.net.UnknownHostException;
  */
 public class			GlobalRegistryClient {
 
+	/** maximum number of keys of a bulk request.							*/
+	public static int			MAX_BATCH_SIZE = 256 ;
+	/** true if the values looked up are cached until invalidated.		*/
+	public static boolean		CACHE_ENABLED = true ;
+	/** prefix of the invalidations pushed by the registry.				*/
+	protected static final String	INVALIDATE_PREFIX = "invalidate " ;
+
 	protected static int		BUFFER_SIZE = 512 ;
 	protected InetAddress		registryHost ;
 	protected Socket			s ;
 	protected PrintStream		ps ;
 	protected BufferedReader	br ;
+	/** requests sent and waiting for their response, in the order of the
+	 *  requests.															*/
+	protected final ConcurrentLinkedQueue<Reply>	pendingReplies ;
+	/** values looked up and not invalidated since, by key.				*/
+	protected final ConcurrentHashMap<String,String>	cache ;
+	/** listeners notified of the invalidations of the keys.				*/
+	protected final CopyOnWriteArrayList<InvalidationListenerI>	listeners ;
+
+	/**
+	 * The interface <code>InvalidationListenerI</code> is implemented by the
+	 * caches depending upon the values of the registry, which must be
+	 * notified when a key is invalidated; it is called by the reader thread
+	 * of the client and must not block.
+	 */
+	public static interface	InvalidationListenerI
+	{
+		/**
+		 * notify that the value of a key may have changed.
+		 * 
+		 * @param key	the key invalidated.
+		 */
+		public void		invalidated(String key) ;
+	}
+
+	/**
+	 * The class <code>Reply</code> is the future of the response to a
+	 * request, which result is the value of the response, i.e. the response
+	 * without its leading "ok".
+	 */
+	protected static class	Reply
+	extends		FutureTask<String>
+	{
+		protected static final Callable<String>	NONE =
+			new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					throw new IllegalStateException() ;
+				}
+			} ;
+
+		/** keys looked up by the request, which values are cached, or
+		 *  null if none.													*/
+		protected final String[]	cacheKeys ;
+
+		public				Reply(String[] cacheKeys)
+		{
+			super(NONE) ;
+			this.cacheKeys = cacheKeys ;
+		}
+
+		protected void		complete(String response)
+		{
+			if (response.equals("ok")) {
+				this.set(response) ;
+			} else if (response.startsWith("ok ")) {
+				this.set(response.substring(3)) ;
+			} else {
+				this.setException(new Exception(response)) ;
+			}
+		}
+
+		protected void		fail(Throwable t)
+		{
+			this.setException(t) ;
+		}
+	}
 
 	/**
 	 * create a client, per JVM client object required.
@@ -89,6 +195,232 @@ public class			GlobalRegistryClient {
 		this.s = null ;
 		this.ps = null ;
 		this.br = null ;
+		this.pendingReplies = new ConcurrentLinkedQueue<Reply>() ;
+		this.cache = new ConcurrentHashMap<String,String>() ;
+		this.listeners = new CopyOnWriteArrayList<InvalidationListenerI>() ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Connection
+	// ------------------------------------------------------------------------
+
+	/**
+	 * connect to the registry if not already connected, start the thread
+	 * reading the responses and subscribe to the invalidations if the cache
+	 * is enabled; must be called with the lock of the client.
+	 * 
+	 * @throws IOException
+	 */
+	protected void		connect() throws IOException
+	{
+		if (this.registryHost == null) {
+			try {
+				this.registryHost =
+					InetAddress.getByName(GlobalRegistry.REGISTRY_HOSTNAME) ;
+			} catch (UnknownHostException e) {
+				e.printStackTrace();
+			}
+		}
+		if (this.s == null) {
+			this.s = new Socket(this.registryHost, GlobalRegistry.REGISTRY_PORT) ;
+			this.s.setTcpNoDelay(true) ;
+			this.ps = new PrintStream(
+						new BufferedOutputStream(s.getOutputStream()), false) ;
+			this.br = new BufferedReader(
+								new InputStreamReader(s.getInputStream())) ;
+			final Socket socket = this.s ;
+			final BufferedReader reader = this.br ;
+			Thread t = new Thread(new Runnable() {
+								@Override
+								public void run() {
+									readResponses(socket, reader) ;
+								}
+							}, "global-registry-client") ;
+			t.setDaemon(true) ;
+			t.start() ;
+			if (CACHE_ENABLED) {
+				this.pendingReplies.add(new Reply(null)) ;
+				this.ps.println("subscribe") ;
+			}
+		}
+	}
+
+	/**
+	 * read the responses of the registry and complete the futures of the
+	 * requests in their order, until the connection is closed.
+	 * 
+	 * @param socket	socket of the connection.
+	 * @param reader	reader of the responses.
+	 */
+	protected void		readResponses(Socket socket, BufferedReader reader)
+	{
+		Throwable failure = null ;
+		try {
+			String response = reader.readLine() ;
+			while (response != null) {
+				if (response.startsWith(INVALIDATE_PREFIX)) {
+					this.invalidate(
+							response.substring(INVALIDATE_PREFIX.length())) ;
+				} else {
+					Reply r = this.pendingReplies.poll() ;
+					if (r != null) {
+						if (r.cacheKeys != null && response.startsWith("ok ")) {
+							this.fill(r.cacheKeys, response.substring(3)) ;
+						}
+						r.complete(response) ;
+					}
+				}
+				response = reader.readLine() ;
+			}
+		} catch (IOException e) {
+			failure = e ;
+		}
+		synchronized (this) {
+			if (this.s == socket) {
+				this.s = null ;
+			}
+			Reply r ;
+			while ((r = this.pendingReplies.poll()) != null) {
+				r.fail(new IOException("connection to the global registry " +
+									   "closed", failure)) ;
+			}
+			// no more invalidation will be received for the cached keys
+			for (String key : this.cache.keySet()) {
+				this.invalidate(key) ;
+			}
+		}
+	}
+
+	/**
+	 * cache the values looked up by a request.
+	 * 
+	 * @param keys		keys looked up.
+	 * @param values	values of the response, separated by spaces.
+	 */
+	protected void		fill(String[] keys, String values)
+	{
+		String[] tokens = values.split("\\s") ;
+		for (int i = 0 ; i < keys.length && i < tokens.length ; i++) {
+			if (!tokens[i].equals(GlobalRegistry.MISSING)) {
+				this.cache.put(keys[i], tokens[i]) ;
+			}
+		}
+	}
+
+	/**
+	 * remove a key from the cache and notify the listeners.
+	 * 
+	 * @param key	key invalidated.
+	 */
+	protected void		invalidate(String key)
+	{
+		this.cache.remove(key) ;
+		for (InvalidationListenerI l : this.listeners) {
+			l.invalidated(key) ;
+		}
+	}
+
+	/**
+	 * @param key	a key.
+	 * @return		true if the value of the key is cached.
+	 */
+	public boolean		isCached(String key)
+	{
+		return this.cache.containsKey(key) ;
+	}
+
+	public void			addInvalidationListener(InvalidationListenerI l)
+	{
+		this.listeners.add(l) ;
+	}
+
+	public void			removeInvalidationListener(InvalidationListenerI l)
+	{
+		this.listeners.remove(l) ;
+	}
+
+	/**
+	 * send commands to the registry without waiting for their responses.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	commands != null
+	 * pre	cacheKeys == null || cacheKeys.size() == commands.size()
+	 * post	ret.size() == commands.size()
+	 * </pre>
+	 *
+	 * @param commands	commands to be sent.
+	 * @param cacheKeys	keys looked up by each command which values must be
+	 * 					cached, or null if none.
+	 * @return			the futures of the responses, in the same order.
+	 * @throws Exception
+	 */
+	protected List<Future<String>>	sendCommands(
+		List<String> commands,
+		List<String[]> cacheKeys
+		) throws Exception
+	{
+		List<Future<String>> replies =
+							new ArrayList<Future<String>>(commands.size()) ;
+		synchronized (this) {
+			this.connect() ;
+			for (int i = 0 ; i < commands.size() ; i++) {
+				Reply r = new Reply(cacheKeys == null ? null : cacheKeys.get(i)) ;
+				this.pendingReplies.add(r) ;
+				this.ps.println(commands.get(i)) ;
+				replies.add(r) ;
+			}
+			this.ps.flush() ;
+			if (this.ps.checkError()) {
+				throw new IOException("error sending to the global registry") ;
+			}
+		}
+		return replies ;
+	}
+
+	/**
+	 * send a command to the registry without waiting for its response.
+	 * 
+	 * @param command	command to be sent.
+	 * @param cacheKey	key looked up by the command which value must be
+	 * 					cached, or null if none.
+	 * @return			the future of the value of the response.
+	 * @throws Exception
+	 */
+	protected Future<String>	sendCommandAsync(
+		String command,
+		String cacheKey
+		) throws Exception
+	{
+		ArrayList<String> commands = new ArrayList<String>(1) ;
+		commands.add(command) ;
+		ArrayList<String[]> cacheKeys = null ;
+		if (cacheKey != null) {
+			cacheKeys = new ArrayList<String[]>(1) ;
+			cacheKeys.add(new String[]{ cacheKey }) ;
+		}
+		return this.sendCommands(commands, cacheKeys).get(0) ;
+	}
+
+	/**
+	 * wait for the value of a response, throwing the exception of a negative
+	 * response.
+	 * 
+	 * @param f			future of the response.
+	 * @return			the value of the response.
+	 * @throws Exception
+	 */
+	protected static String	await(Future<String> f) throws Exception
+	{
+		try {
+			return ComponentExecutors.awaitResult(f) ;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause() ;
+			}
+			throw e ;
+		}
 	}
 
 	// ------------------------------------------------------------------------
@@ -112,29 +444,7 @@ public class			GlobalRegistryClient {
 	protected String	sendCommand(String command)
 	throws Exception
 	{
-		String result = null ;
-
-		if (this.registryHost == null) {
-			try {
-				this.registryHost =
-					InetAddress.getByName(GlobalRegistry.REGISTRY_HOSTNAME) ;
-			} catch (UnknownHostException e) {
-				e.printStackTrace();
-			}
-		}
-		if (this.s == null) {
-			this.s = new Socket(this.registryHost, GlobalRegistry.REGISTRY_PORT) ;
-			this.ps = new PrintStream(s.getOutputStream(), true) ;
-			this.br = new BufferedReader(
-								new InputStreamReader(s.getInputStream())) ;
-		} 
-		ps.println(command) ;
-		result = this.br.readLine() ;
-		String[] tokens = result.split("\\s") ;
-		if (!tokens[0].equals("ok")) {
-			throw new Exception(result) ;
-		}
-		return tokens.length > 1 ? tokens[1] : tokens[0] ;
+		return await(this.sendCommandAsync(command, null)) ;
 	}
 
 	/**
@@ -151,8 +461,100 @@ public class			GlobalRegistryClient {
 	 * @return			result of the request.
 	 * @throws Exception
 	 */
-	public synchronized String	lookup(String key) throws Exception {
-		return this.sendCommand("lookup " + key) ;
+	public String		lookup(String key) throws Exception {
+		String value = CACHE_ENABLED ? this.cache.get(key) : null ;
+		if (value != null) {
+			return value ;
+		}
+		return await(this.lookupAsync(key)) ;
+	}
+
+	/**
+	 * send a lookup command to the registry without waiting for its result;
+	 * the future fails if the key is not bound.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	key != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param key		key to be looked up.
+	 * @return			the future of the value bound to the key.
+	 * @throws Exception
+	 */
+	public Future<String>	lookupAsync(String key) throws Exception {
+		if (CACHE_ENABLED) {
+			String value = this.cache.get(key) ;
+			if (value != null) {
+				Reply r = new Reply(null) ;
+				r.complete("ok " + value) ;
+				return r ;
+			}
+			return this.sendCommandAsync("lookup " + key, key) ;
+		}
+		return this.sendCommandAsync("lookup " + key, null) ;
+	}
+
+	/**
+	 * look up several keys with mlookup commands, sent together.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	keys != null
+	 * post	ret.length == keys.length
+	 * </pre>
+	 *
+	 * @param keys		keys to be looked up.
+	 * @return			the values bound to the keys, null for the keys not
+	 * 					bound.
+	 * @throws Exception
+	 */
+	public String[]		lookup(String[] keys) throws Exception {
+		assert	keys != null ;
+
+		String[] values = new String[keys.length] ;
+		ArrayList<Integer> missing = new ArrayList<Integer>(keys.length) ;
+		for (int i = 0 ; i < keys.length ; i++) {
+			values[i] = CACHE_ENABLED ? this.cache.get(keys[i]) : null ;
+			if (values[i] == null) {
+				missing.add(i) ;
+			}
+		}
+		if (missing.isEmpty()) {
+			return values ;
+		}
+		ArrayList<String> commands = new ArrayList<String>() ;
+		ArrayList<String[]> cacheKeys = new ArrayList<String[]>() ;
+		for (int i = 0 ; i < missing.size() ; i += MAX_BATCH_SIZE) {
+			int n = Math.min(missing.size() - i, MAX_BATCH_SIZE) ;
+			String[] batch = new String[n] ;
+			StringBuilder sb = new StringBuilder("mlookup") ;
+			for (int j = 0 ; j < n ; j++) {
+				batch[j] = keys[missing.get(i + j)] ;
+				sb.append(' ').append(batch[j]) ;
+			}
+			commands.add(sb.toString()) ;
+			cacheKeys.add(batch) ;
+		}
+		List<Future<String>> replies =
+				this.sendCommands(commands, CACHE_ENABLED ? cacheKeys : null) ;
+		int n = 0 ;
+		for (Future<String> r : replies) {
+			for (String v : await(r).split("\\s")) {
+				if (n >= missing.size()) {
+					throw new Exception("too many values in a mlookup response") ;
+				}
+				values[missing.get(n++)] =
+							v.equals(GlobalRegistry.MISSING) ? null : v ;
+			}
+		}
+		if (n != missing.size()) {
+			throw new Exception("too few values in a mlookup response") ;
+		}
+		return values ;
 	}
 
 	/**
@@ -169,10 +571,72 @@ public class			GlobalRegistryClient {
 	 * @param value		value (information) associated to the key.
 	 * @throws Exception
 	 */
-	public synchronized void	put(String key, String value) throws Exception {
+	public void			put(String key, String value) throws Exception {
 		this.sendCommand("put " + key + " " + value) ;
 	}
 
+	/**
+	 * send a put command to the registry without waiting for its result;
+	 * the future fails if the key is already bound.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	key != null && value != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param key		key under which the information must be stored.
+	 * @param value		value (information) associated to the key.
+	 * @return			the future of the response.
+	 * @throws Exception
+	 */
+	public Future<String>	putAsync(String key, String value)
+	throws Exception {
+		return this.sendCommandAsync("put " + key + " " + value, null) ;
+	}
+
+	/**
+	 * put several bindings with mput commands, sent together; the keys not
+	 * already bound are bound even if some of the others are.
+	 * 
+	 * <p><strong>Contract</strong></p>
+	 * 
+	 * <pre>
+	 * pre	keys != null && values != null && keys.length == values.length
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param keys		keys under which the information must be stored.
+	 * @param values	values associated to the keys with the same index.
+	 * @throws Exception	listing the keys already bound, if any.
+	 */
+	public void			put(String[] keys, String[] values) throws Exception {
+		assert	keys != null && values != null ;
+		assert	keys.length == values.length ;
+
+		ArrayList<String> commands = new ArrayList<String>() ;
+		for (int i = 0 ; i < keys.length ; i += MAX_BATCH_SIZE) {
+			StringBuilder sb = new StringBuilder("mput") ;
+			for (int j = i ; j < Math.min(keys.length, i + MAX_BATCH_SIZE) ;
+																		j++) {
+				sb.append(' ').append(keys[j]).append(' ').append(values[j]) ;
+			}
+			commands.add(sb.toString()) ;
+		}
+		Exception bound = null ;
+		for (Future<String> r : this.sendCommands(commands, null)) {
+			try {
+				await(r) ;
+			} catch (Exception e) {
+				bound = e ;
+			}
+		}
+		if (bound != null) {
+			throw bound ;
+		}
+	}
+
 	/**
 	 * send a remove command to the registry.
 	 * 
@@ -186,7 +650,8 @@ public class			GlobalRegistryClient {
 	 * @param key		key under which the value to remove is stored.
 	 * @throws Exception
 	 */
-	public synchronized void	remove(String key) throws Exception {
+	public void			remove(String key) throws Exception {
+		this.cache.remove(key) ;
 		this.sendCommand("remove " + key) ;
 	}
 
@@ -202,7 +667,7 @@ public class			GlobalRegistryClient {
 	 *
 	 * @throws Exception
 	 */
-	public synchronized void	shutdown() throws Exception {
+	public void			shutdown() throws Exception {
 		this.sendCommand("shutdown") ;
 	}
 }
@@ -0,0 +1,58 @@
+package fr.upmc.components.transport;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The interface <code>CompactCodecI</code> defines the hand-written binary
+ * encodings of the objects frequently sent by the socket transport, which
+ * replace their Java serialisation.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * A codec writes only the values of the fields of an object, without any
+ * class metadata; the class of the object is identified by the small
+ * integer under which its codec has been registered in
+ * <code>CompactCodecs</code>, which must be the same in all of the JVM of
+ * an assembly.
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public interface		CompactCodecI<T>
+{
+	/**
+	 * write the fields of an object.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	o != null && out != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param o				object to be encoded.
+	 * @param out			output receiving the encoding.
+	 * @throws IOException
+	 */
+	void				encode(T o, DataOutput out) throws IOException ;
+
+	/**
+	 * create an object from the fields written by <code>encode</code>.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	in != null
+	 * post	ret != null
+	 * </pre>
+	 *
+	 * @param in			input providing the encoding.
+	 * @return				the decoded object.
+	 * @throws IOException
+	 */
+	T					decode(DataInput in) throws IOException ;
+}
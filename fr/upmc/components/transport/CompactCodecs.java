@@ -0,0 +1,280 @@
+package fr.upmc.components.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class <code>CompactCodecs</code> is the registry of the compact codecs
+ * and implements the encoding of the values sent by the socket transport.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * A value is written as a tag byte followed by its encoding: null has no
+ * encoding, strings and the boxed integers, longs, doubles and booleans have
+ * built-in encodings, the objects which class has a registered codec are
+ * written as the identifier of the codec followed by the fields written by
+ * the codec, and any other object is written as its Java serialisation.
+ * Integers and longs are written as zig-zag variable length integers, which
+ * take one byte for the small values.
+ *
+ * The codecs must be registered under the same identifiers in all of the
+ * JVM of an assembly, before the first connection.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	BY_CLASS.size() == BY_ID.size()
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			CompactCodecs
+{
+	protected static final byte		TAG_NULL = 0 ;
+	protected static final byte		TAG_SERIALIZED = 1 ;
+	protected static final byte		TAG_CODEC = 2 ;
+	protected static final byte		TAG_STRING = 3 ;
+	protected static final byte		TAG_INTEGER = 4 ;
+	protected static final byte		TAG_LONG = 5 ;
+	protected static final byte		TAG_DOUBLE = 6 ;
+	protected static final byte		TAG_BOOLEAN = 7 ;
+
+	/**
+	 * The class <code>Entry</code> associates a codec with its class and
+	 * identifier.
+	 */
+	protected static class	Entry
+	{
+		protected final int					id ;
+		protected final Class<?>			codedClass ;
+		protected final CompactCodecI<?>	codec ;
+
+		protected			Entry(
+			int id,
+			Class<?> codedClass,
+			CompactCodecI<?> codec
+			)
+		{
+			this.id = id ;
+			this.codedClass = codedClass ;
+			this.codec = codec ;
+		}
+	}
+
+	/** codecs by exact class of their objects.							*/
+	protected static final ConcurrentHashMap<Class<?>,Entry>	BY_CLASS =
+									new ConcurrentHashMap<Class<?>,Entry>() ;
+	/** codecs by identifier.												*/
+	protected static final ConcurrentHashMap<Integer,Entry>	BY_ID =
+									new ConcurrentHashMap<Integer,Entry>() ;
+
+	/**
+	 * register the codec of the objects of a class, the subclasses having
+	 * to register their own codec.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	id >= 0 && c != null && codec != null
+	 * post	hasCodec(c)
+	 * </pre>
+	 *
+	 * @param id		identifier of the codec, the same in all of the JVM.
+	 * @param c			class of the encoded objects.
+	 * @param codec		codec of the objects.
+	 */
+	public static synchronized <T> void	register(
+		int id,
+		Class<T> c,
+		CompactCodecI<T> codec
+		)
+	{
+		assert	id >= 0 && c != null && codec != null ;
+
+		Entry previous = BY_ID.get(id) ;
+		if (previous != null && previous.codedClass != c) {
+			throw new IllegalArgumentException(
+					"codec identifier " + id + " already used for " +
+					previous.codedClass.getName()) ;
+		}
+		Entry e = new Entry(id, c, codec) ;
+		BY_ID.put(id, e) ;
+		BY_CLASS.put(c, e) ;
+	}
+
+	public static boolean	hasCodec(Class<?> c)
+	{
+		return BY_CLASS.containsKey(c) ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Values
+	// ------------------------------------------------------------------------
+
+	/**
+	 * write a value, with its codec if its class has one.
+	 *
+	 * @param out			output receiving the encoding.
+	 * @param value			value to be written, possibly null.
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public static void	writeValue(DataOutput out, Object value)
+	throws IOException
+	{
+		if (value == null) {
+			out.writeByte(TAG_NULL) ;
+			return ;
+		}
+		Class<?> c = value.getClass() ;
+		Entry e = BY_CLASS.get(c) ;
+		if (e != null) {
+			out.writeByte(TAG_CODEC) ;
+			writeVarInt(out, e.id) ;
+			((CompactCodecI<Object>) e.codec).encode(value, out) ;
+		} else if (c == String.class) {
+			out.writeByte(TAG_STRING) ;
+			out.writeUTF((String) value) ;
+		} else if (c == Integer.class) {
+			out.writeByte(TAG_INTEGER) ;
+			writeVarInt(out, (Integer) value) ;
+		} else if (c == Long.class) {
+			out.writeByte(TAG_LONG) ;
+			writeVarLong(out, (Long) value) ;
+		} else if (c == Double.class) {
+			out.writeByte(TAG_DOUBLE) ;
+			out.writeDouble((Double) value) ;
+		} else if (c == Boolean.class) {
+			out.writeByte(TAG_BOOLEAN) ;
+			out.writeBoolean((Boolean) value) ;
+		} else {
+			out.writeByte(TAG_SERIALIZED) ;
+			ByteArrayOutputStream bos = new ByteArrayOutputStream() ;
+			ObjectOutputStream oos = new ObjectOutputStream(bos) ;
+			oos.writeObject(value) ;
+			oos.close() ;
+			writeVarInt(out, bos.size()) ;
+			out.write(bos.toByteArray()) ;
+		}
+	}
+
+	/**
+	 * read a value written by <code>writeValue</code>.
+	 *
+	 * @param in			input providing the encoding.
+	 * @return				the value, possibly null.
+	 * @throws IOException
+	 */
+	public static Object	readValue(DataInput in) throws IOException
+	{
+		byte tag = in.readByte() ;
+		switch (tag) {
+		case TAG_NULL :
+			return null ;
+		case TAG_CODEC :
+			int id = readVarInt(in) ;
+			Entry e = BY_ID.get(id) ;
+			if (e == null) {
+				throw new IOException("unknown codec " + id) ;
+			}
+			return e.codec.decode(in) ;
+		case TAG_STRING :
+			return in.readUTF() ;
+		case TAG_INTEGER :
+			return readVarInt(in) ;
+		case TAG_LONG :
+			return readVarLong(in) ;
+		case TAG_DOUBLE :
+			return in.readDouble() ;
+		case TAG_BOOLEAN :
+			return in.readBoolean() ;
+		case TAG_SERIALIZED :
+			byte[] bytes = new byte[readVarInt(in)] ;
+			in.readFully(bytes) ;
+			ObjectInputStream ois =
+				new ObjectInputStream(new ByteArrayInputStream(bytes)) ;
+			try {
+				return ois.readObject() ;
+			} catch (ClassNotFoundException ex) {
+				throw new IOException(ex) ;
+			} finally {
+				ois.close() ;
+			}
+		default :
+			throw new IOException("invalid value tag " + tag) ;
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Variable length integers
+	// ------------------------------------------------------------------------
+
+	/**
+	 * write an int as a zig-zag variable length integer of 1 to 5 bytes.
+	 *
+	 * @param out			output receiving the encoding.
+	 * @param v				value to be written.
+	 * @throws IOException
+	 */
+	public static void	writeVarInt(DataOutput out, int v) throws IOException
+	{
+		int z = (v << 1) ^ (v >> 31) ;
+		while ((z & ~0x7F) != 0) {
+			out.writeByte((z & 0x7F) | 0x80) ;
+			z >>>= 7 ;
+		}
+		out.writeByte(z) ;
+	}
+
+	public static int	readVarInt(DataInput in) throws IOException
+	{
+		int z = 0 ;
+		for (int shift = 0 ; shift < 35 ; shift += 7) {
+			byte b = in.readByte() ;
+			z |= (b & 0x7F) << shift ;
+			if ((b & 0x80) == 0) {
+				return (z >>> 1) ^ -(z & 1) ;
+			}
+		}
+		throw new IOException("malformed variable length int") ;
+	}
+
+	/**
+	 * write a long as a zig-zag variable length integer of 1 to 10 bytes.
+	 *
+	 * @param out			output receiving the encoding.
+	 * @param v				value to be written.
+	 * @throws IOException
+	 */
+	public static void	writeVarLong(DataOutput out, long v) throws IOException
+	{
+		long z = (v << 1) ^ (v >> 63) ;
+		while ((z & ~0x7FL) != 0L) {
+			out.writeByte((int) ((z & 0x7F) | 0x80)) ;
+			z >>>= 7 ;
+		}
+		out.writeByte((int) z) ;
+	}
+
+	public static long	readVarLong(DataInput in) throws IOException
+	{
+		long z = 0L ;
+		for (int shift = 0 ; shift < 70 ; shift += 7) {
+			byte b = in.readByte() ;
+			z |= (long) (b & 0x7F) << shift ;
+			if ((b & 0x80) == 0) {
+				return (z >>> 1) ^ -(z & 1L) ;
+			}
+		}
+		throw new IOException("malformed variable length long") ;
+	}
+}
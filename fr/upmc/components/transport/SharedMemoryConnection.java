@@ -0,0 +1,332 @@
+package fr.upmc.components.transport;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The class <code>SharedMemoryConnection</code> represents a connection of
+ * the transport between two JVM of the same host, which exchange their
+ * frames through two memory-mapped ring buffers, one per direction.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The connection is negotiated over the socket connection between the two
+ * transports: the client creates the two rings and sends their paths in a
+ * call to the reserved port <code>ATTACH_URI</code>, upon which the server
+ * maps them and creates its side of the connection; the client deletes the
+ * files once both sides have mapped them.  The socket connection remains
+ * open and detects the termination of the peer: closing it closes the
+ * shared memory connection.  On the server side, both connections share
+ * the same executor of the incoming calls, so that the one-way calls of a
+ * client are executed in the order in which they are received on either
+ * one.
+ *
+ * Sending threads copy their frames into the outgoing ring, waiting for
+ * the peer to free some space when it is full.  Each side runs a reader
+ * thread copying the bytes of the incoming ring into the read buffer; when
+ * the ring is empty, the thread spins <code>SPIN_TRIES</code> times, then
+ * yields <code>YIELD_TRIES</code> times and then parks for increasing
+ * durations up to <code>MAX_PARK_NANOS</code>, trading the latency of the
+ * first call after an idle period for the processor time of idle
+ * connections.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	in != null && out != null
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SharedMemoryConnection
+extends		TransportConnection
+{
+	/** capacity in bytes of the rings of the new connections, a power of
+	 *  two.																*/
+	public static int				RING_SIZE = 1024 * 1024 ;
+	/** number of polls of an empty ring before yielding.					*/
+	public static int				SPIN_TRIES = 200 ;
+	/** number of yields before parking.									*/
+	public static int				YIELD_TRIES = 50 ;
+	/** maximum time in ns during which a reader thread is parked.			*/
+	public static long				MAX_PARK_NANOS = 1000000L ;
+	/** URI of the reserved port attaching the shared memory connections.	*/
+	public static final String		ATTACH_URI = "@shared-memory-attach" ;
+	/** prefix of the endpoints of the shared memory connections.			*/
+	public static final String		ENDPOINT_PREFIX = "shm:" ;
+
+	/** ring of the incoming bytes.										*/
+	protected final SharedMemoryRing	in ;
+	/** ring of the outgoing bytes.										*/
+	protected final SharedMemoryRing	out ;
+	/** thread reading the incoming ring.									*/
+	protected final Thread				reader ;
+	/** connection which executor also executes the incoming calls of this
+	 *  one, or null if it has its own.										*/
+	protected TransportConnection		executorOwner ;
+
+	/**
+	 * open a shared memory connection to the transport at the other end of
+	 * a socket connection.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	transport != null && sc != null
+	 * pre	SharedMemoryRing.isSupported()
+	 * post	!ret.isClosed()
+	 * </pre>
+	 *
+	 * @param transport		transport managing the connection.
+	 * @param sc			socket connection to the remote transport.
+	 * @return				the shared memory connection.
+	 * @throws Throwable	if the remote transport refuses the connection.
+	 */
+	public static SharedMemoryConnection	connect(
+		SocketTransport transport,
+		SocketConnection sc
+		) throws Throwable
+	{
+		assert	transport != null && sc != null ;
+		assert	SharedMemoryRing.isSupported() ;
+
+		SharedMemoryRing out = SharedMemoryRing.create(RING_SIZE) ;
+		SharedMemoryRing in = null ;
+		try {
+			in = SharedMemoryRing.create(RING_SIZE) ;
+			transport.call(sc, ATTACH_URI, "attach",
+						   new String[]{ String.class.getName(),
+										 String.class.getName() },
+						   new Object[]{ out.getFile().getPath(),
+										 in.getFile().getPath() },
+						   false) ;
+		} finally {
+			out.getFile().delete() ;
+			if (in != null) {
+				in.getFile().delete() ;
+			}
+		}
+		SharedMemoryConnection c =
+			new SharedMemoryConnection(
+					transport, ENDPOINT_PREFIX + sc.getEndpoint(), in, out) ;
+		sc.setDependent(c) ;
+		c.reader.start() ;
+		return c ;
+	}
+
+	/**
+	 * attach the server side of a shared memory connection requested by the
+	 * client at the other end of a socket connection.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	transport != null && sc != null && arguments.length == 2
+	 * post	!ret.isClosed()
+	 * </pre>
+	 *
+	 * @param transport		transport managing the connection.
+	 * @param sc			socket connection on which the request came.
+	 * @param arguments		paths of the rings from and to the client.
+	 * @return				the shared memory connection.
+	 * @throws IOException	if the rings can not be mapped.
+	 */
+	public static SharedMemoryConnection	attach(
+		SocketTransport transport,
+		SocketConnection sc,
+		Object[] arguments
+		) throws IOException
+	{
+		assert	transport != null && sc != null && arguments.length == 2 ;
+
+		if (!SharedMemoryRing.isSupported()) {
+			throw new IOException("shared memory not supported") ;
+		}
+		SharedMemoryConnection c =
+			new SharedMemoryConnection(
+					transport,
+					ENDPOINT_PREFIX + sc.getEndpoint(),
+					SharedMemoryRing.open((String) arguments[0]),
+					SharedMemoryRing.open((String) arguments[1])) ;
+		c.executorOwner = sc ;
+		sc.setDependent(c) ;
+		c.reader.start() ;
+		return c ;
+	}
+
+	/**
+	 * create a connection over two mapped rings.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	transport != null && endpoint != null
+	 * pre	in != null && out != null
+	 * post	!isClosed()
+	 * </pre>
+	 *
+	 * @param transport	transport managing the connection.
+	 * @param endpoint	identification of the remote transport.
+	 * @param in		ring of the incoming bytes.
+	 * @param out		ring of the outgoing bytes.
+	 */
+	protected			SharedMemoryConnection(
+		SocketTransport transport,
+		String endpoint,
+		SharedMemoryRing in,
+		SharedMemoryRing out
+		)
+	{
+		super(transport, endpoint) ;
+
+		assert	in != null && out != null ;
+
+		this.in = in ;
+		this.out = out ;
+		this.reader = new Thread(new Runnable() {
+							@Override
+							public void run() {
+								readLoop() ;
+							}
+						}, "shared-memory-reader") ;
+		this.reader.setDaemon(true) ;
+		this.executorOwner = null ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Methods used by the sending threads
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @see fr.upmc.components.transport.TransportConnection#isFlushed()
+	 */
+	@Override
+	public boolean		isFlushed()
+	{
+		return this.out.isEmpty() ;
+	}
+
+	/**
+	 * copy the frame into the outgoing ring, waiting for free space as long
+	 * as it is full.
+	 *
+	 * @see fr.upmc.components.transport.TransportConnection#sendFrame(java.nio.ByteBuffer)
+	 */
+	@Override
+	protected void		sendFrame(ByteBuffer frame) throws IOException
+	{
+		synchronized (this.out) {
+			int idle = 0 ;
+			while (frame.hasRemaining()) {
+				if (this.out.write(frame) > 0) {
+					idle = 0 ;
+				} else if (this.closed) {
+					throw new IOException("connection to " + this.endpoint +
+																" closed") ;
+				} else {
+					this.backOff(idle++) ;
+				}
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Methods used by the reader thread
+	// ------------------------------------------------------------------------
+
+	protected void		readLoop()
+	{
+		int idle = 0 ;
+		try {
+			while (!this.closed) {
+				if (this.in.read(this.readBuffer) > 0) {
+					this.framesReceived() ;
+					idle = 0 ;
+				} else {
+					this.backOff(idle++) ;
+				}
+			}
+		} catch (Throwable t) {
+			this.close(t) ;
+		}
+	}
+
+	/**
+	 * wait before polling again a ring which has been found empty or full
+	 * <code>idle</code> times in a row.
+	 *
+	 * @param idle	number of unsuccessful polls so far.
+	 */
+	protected void		backOff(int idle)
+	{
+		if (idle < SPIN_TRIES) {
+			return ;
+		} else if (idle < SPIN_TRIES + YIELD_TRIES) {
+			Thread.yield() ;
+		} else {
+			int parks = Math.min(idle - SPIN_TRIES - YIELD_TRIES, 10) ;
+			LockSupport.parkNanos(
+						Math.min(MAX_PARK_NANOS, 1000L << parks)) ;
+		}
+	}
+
+	/**
+	 * @see fr.upmc.components.transport.TransportConnection#getCallExecutor()
+	 */
+	@Override
+	protected ExecutorService	getCallExecutor()
+	{
+		if (this.executorOwner != null) {
+			return this.executorOwner.getCallExecutor() ;
+		}
+		return super.getCallExecutor() ;
+	}
+
+	/**
+	 * @see fr.upmc.components.transport.TransportConnection#closeMedium()
+	 */
+	@Override
+	protected void		closeMedium()
+	{
+		LockSupport.unpark(this.reader) ;
+	}
+}
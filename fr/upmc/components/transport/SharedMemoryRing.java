@@ -0,0 +1,419 @@
+package fr.upmc.components.transport;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The class <code>SharedMemoryRing</code> implements a single producer,
+ * single consumer byte ring buffer in a memory-mapped file, through which
+ * two JVM of the same host exchange bytes without system calls.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * The file begins with a header holding the write position, only updated
+ * by the producer, and the read position, only updated by the consumer,
+ * each on its own cache line; the data follows, with a capacity which is a
+ * power of two.  The positions are the total numbers of bytes written and
+ * read, so the ring holds <code>write - read</code> bytes.  The positions
+ * are published with release stores and read with volatile loads through a
+ * <code>long</code> view <code>VarHandle</code> of the mapping, which the
+ * page alignment of the mapping keeps aligned: the bytes copied into the
+ * ring before publishing the write position are visible to the consumer
+ * reading that position, and the space freed by the consumer is only
+ * reused once it has copied the bytes out.  As the view handles appeared in
+ * Java 9 while the code base targets Java 7, the view handle is obtained by
+ * reflection and only used through the method handles of its access modes,
+ * which are invoked exactly; the rings are not supported by older JVM, on
+ * which <code>isSupported</code> returns false.
+ *
+ * The ring is a stream of bytes: the frames of the connections are written
+ * by chunks as the space becomes available, so that they may be larger than
+ * the ring.  A ring is used by one thread at a time on each side; the
+ * callers synchronise the producers of a JVM.
+ *
+ * The mapping is released by the garbage collector; the file itself may be
+ * deleted as soon as both sides have mapped it.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	Integer.bitCount(capacity) == 1
+ * invariant	0 <= write - read && write - read <= capacity
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SharedMemoryRing
+{
+	/** offset of the write position in the file.							*/
+	protected static final int		WRITE_POSITION_OFFSET = 0 ;
+	/** offset of the read position in the file, on another cache line.	*/
+	protected static final int		READ_POSITION_OFFSET = 64 ;
+	/** size of the header preceding the data.								*/
+	protected static final int		HEADER_SIZE = 128 ;
+
+	/** volatile load of a position in the header of a mapping, as a long
+	 *  in the native byte order, null if unavailable.					*/
+	protected static final MethodHandle	GET_VOLATILE ;
+	/** plain load of a position, null if unavailable.						*/
+	protected static final MethodHandle	GET ;
+	/** release store of a position, null if unavailable.					*/
+	protected static final MethodHandle	SET_RELEASE ;
+	static {
+		MethodHandle getVolatile = null ;
+		MethodHandle get = null ;
+		MethodHandle setRelease = null ;
+		try {
+			// MethodHandles.byteBufferViewVarHandle(long[].class, nativeOrder)
+			Method view = MethodHandles.class.getMethod(
+									"byteBufferViewVarHandle",
+									Class.class, ByteOrder.class) ;
+			Object positions = view.invoke(null, long[].class,
+										   ByteOrder.nativeOrder()) ;
+			Class<?> modes =
+						Class.forName("java.lang.invoke.VarHandle$AccessMode") ;
+			Method toMethodHandle =
+						Class.forName("java.lang.invoke.VarHandle")
+										.getMethod("toMethodHandle", modes) ;
+			getVolatile = accessor(positions, toMethodHandle, modes,
+								   "GET_VOLATILE", long.class, ByteBuffer.class,
+								   int.class) ;
+			get = accessor(positions, toMethodHandle, modes, "GET",
+						   long.class, ByteBuffer.class, int.class) ;
+			setRelease = accessor(positions, toMethodHandle, modes,
+								  "SET_RELEASE", void.class, ByteBuffer.class,
+								  int.class, long.class) ;
+		} catch (Throwable t) {
+			getVolatile = null ;
+			get = null ;
+			setRelease = null ;
+		}
+		GET_VOLATILE = getVolatile ;
+		GET = get ;
+		SET_RELEASE = setRelease ;
+	}
+
+	/**
+	 * return the method handle of an access mode of a view handle, adapted
+	 * to the given type.
+	 *
+	 * @param positions			view handle.
+	 * @param toMethodHandle	method <code>VarHandle.toMethodHandle</code>.
+	 * @param modes				enumeration <code>VarHandle.AccessMode</code>.
+	 * @param mode				name of the access mode.
+	 * @param rtype				return type of the method handle.
+	 * @param ptypes			parameter types of the method handle.
+	 * @return					the method handle.
+	 * @throws Exception		if the runtime does not provide the access mode.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected static MethodHandle	accessor(
+		Object positions,
+		Method toMethodHandle,
+		Class<?> modes,
+		String mode,
+		Class<?> rtype,
+		Class<?>... ptypes
+		) throws Exception
+	{
+		MethodHandle h = (MethodHandle) toMethodHandle.invoke(
+							positions, Enum.valueOf((Class) modes, mode)) ;
+		return h.asType(MethodType.methodType(rtype, ptypes)) ;
+	}
+
+	/**
+	 * @return	true if the rings can be used in this JVM.
+	 */
+	public static boolean	isSupported()
+	{
+		return SET_RELEASE != null ;
+	}
+
+	/**
+	 * @return	the directory in which the files of the rings are created,
+	 * 			the memory file system when the host has one.
+	 */
+	public static File		getDirectory()
+	{
+		File shm = new File("/dev/shm") ;
+		if (shm.isDirectory() && shm.canWrite()) {
+			return shm ;
+		}
+		return new File(System.getProperty("java.io.tmpdir")) ;
+	}
+
+	/**
+	 * create a new ring in a new file of the ring directory.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	isSupported() && Integer.bitCount(capacity) == 1
+	 * post	ret.getFile().exists()
+	 * </pre>
+	 *
+	 * @param capacity		capacity of the ring in bytes.
+	 * @return				the new ring.
+	 * @throws IOException
+	 */
+	public static SharedMemoryRing	create(int capacity) throws IOException
+	{
+		assert	isSupported() && Integer.bitCount(capacity) == 1 ;
+
+		File f = File.createTempFile("bcm-", ".ring", getDirectory()) ;
+		try {
+			return new SharedMemoryRing(f, HEADER_SIZE + capacity) ;
+		} catch (IOException e) {
+			f.delete() ;
+			throw e ;
+		}
+	}
+
+	/**
+	 * map a ring created by another JVM.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	isSupported() && path != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param path			path of the file of the ring.
+	 * @return				the ring.
+	 * @throws IOException	if the file is not the one of a ring.
+	 */
+	public static SharedMemoryRing	open(String path) throws IOException
+	{
+		assert	isSupported() && path != null ;
+
+		File f = new File(path) ;
+		long length = f.length() ;
+		if (length <= HEADER_SIZE || length > Integer.MAX_VALUE ||
+							Long.bitCount(length - HEADER_SIZE) != 1) {
+			throw new IOException(path + " is not a shared memory ring") ;
+		}
+		return new SharedMemoryRing(f, (int) length) ;
+	}
+
+	/** file of the ring.													*/
+	protected final File				file ;
+	/** mapping of the file, holding the positions in its header.		*/
+	protected final MappedByteBuffer	mapping ;
+	/** capacity of the ring in bytes.										*/
+	protected final int					capacity ;
+	/** view of the data used by the producer.								*/
+	protected final ByteBuffer			producerView ;
+	/** view of the data used by the consumer.								*/
+	protected final ByteBuffer			consumerView ;
+
+	protected			SharedMemoryRing(File file, int length)
+	throws IOException
+	{
+		super() ;
+
+		this.file = file ;
+		RandomAccessFile raf = new RandomAccessFile(file, "rw") ;
+		try {
+			if (raf.length() < length) {
+				raf.setLength(length) ;
+			}
+			this.mapping =
+				raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L,
+									 length) ;
+		} finally {
+			raf.close() ;
+		}
+		this.capacity = length - HEADER_SIZE ;
+		this.mapping.position(HEADER_SIZE) ;
+		ByteBuffer data = this.mapping.slice() ;
+		this.producerView = data.duplicate() ;
+		this.consumerView = data.duplicate() ;
+	}
+
+	public File			getFile()
+	{
+		return this.file ;
+	}
+
+	public int			getCapacity()
+	{
+		return this.capacity ;
+	}
+
+	protected long		getWritePosition()
+	{
+		return this.loadVolatile(WRITE_POSITION_OFFSET) ;
+	}
+
+	protected long		getReadPosition()
+	{
+		return this.loadVolatile(READ_POSITION_OFFSET) ;
+	}
+
+	/**
+	 * @param offset	offset of a position in the header.
+	 * @return			the position, read with a volatile load.
+	 */
+	protected long		loadVolatile(int offset)
+	{
+		try {
+			return (long) GET_VOLATILE.invokeExact((ByteBuffer) this.mapping,
+												   offset) ;
+		} catch (Throwable t) {
+			throw new RuntimeException(t) ;
+		}
+	}
+
+	/**
+	 * @param offset	offset of a position in the header.
+	 * @return			the position, read with a plain load by its only writer.
+	 */
+	protected long		load(int offset)
+	{
+		try {
+			return (long) GET.invokeExact((ByteBuffer) this.mapping, offset) ;
+		} catch (Throwable t) {
+			throw new RuntimeException(t) ;
+		}
+	}
+
+	/**
+	 * publish a position with a release store.
+	 *
+	 * @param offset	offset of the position in the header.
+	 * @param position	new value of the position.
+	 */
+	protected void		storeRelease(int offset, long position)
+	{
+		try {
+			SET_RELEASE.invokeExact((ByteBuffer) this.mapping, offset,
+									position) ;
+		} catch (Throwable t) {
+			throw new RuntimeException(t) ;
+		}
+	}
+
+	/**
+	 * @return	true if the consumer has read all of the bytes written.
+	 */
+	public boolean		isEmpty()
+	{
+		return this.getWritePosition() == this.getReadPosition() ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Producer side
+	// ------------------------------------------------------------------------
+
+	/**
+	 * write as many of the remaining bytes of <code>src</code> as the free
+	 * space of the ring accepts, advancing the position of <code>src</code>.
+	 *
+	 * @param src	bytes to be written.
+	 * @return		the number of bytes written, 0 if the ring is full.
+	 */
+	public int			write(ByteBuffer src)
+	{
+		long w = this.load(WRITE_POSITION_OFFSET) ;
+		int free = this.capacity - (int) (w - this.getReadPosition()) ;
+		int n = Math.min(free, src.remaining()) ;
+		if (n == 0) {
+			return 0 ;
+		}
+		int index = (int) w & (this.capacity - 1) ;
+		int first = Math.min(n, this.capacity - index) ;
+		int limit = src.limit() ;
+		src.limit(src.position() + first) ;
+		this.producerView.clear() ;
+		this.producerView.position(index) ;
+		this.producerView.put(src) ;
+		if (first < n) {
+			src.limit(src.position() + n - first) ;
+			this.producerView.clear() ;
+			this.producerView.put(src) ;
+		}
+		src.limit(limit) ;
+		this.storeRelease(WRITE_POSITION_OFFSET, w + n) ;
+		return n ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Consumer side
+	// ------------------------------------------------------------------------
+
+	/**
+	 * read as many of the available bytes of the ring as <code>dst</code>
+	 * can hold, advancing the position of <code>dst</code>.
+	 *
+	 * @param dst	buffer receiving the bytes.
+	 * @return		the number of bytes read, 0 if the ring is empty.
+	 */
+	public int			read(ByteBuffer dst)
+	{
+		long r = this.load(READ_POSITION_OFFSET) ;
+		int available = (int) (this.getWritePosition() - r) ;
+		int n = Math.min(available, dst.remaining()) ;
+		if (n == 0) {
+			return 0 ;
+		}
+		int index = (int) r & (this.capacity - 1) ;
+		int first = Math.min(n, this.capacity - index) ;
+		this.consumerView.limit(index + first) ;
+		this.consumerView.position(index) ;
+		dst.put(this.consumerView) ;
+		if (first < n) {
+			this.consumerView.limit(n - first) ;
+			this.consumerView.position(0) ;
+			dst.put(this.consumerView) ;
+		}
+		this.storeRelease(READ_POSITION_OFFSET, r + n) ;
+		return n ;
+	}
+}
@@ -0,0 +1,209 @@
+package fr.upmc.components.transport;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class <code>SocketConnection</code> represents a connection of the
+ * socket transport between two JVM, over which all of the calls from the
+ * ports of one JVM to the ports of the other one are multiplexed.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * Sending threads encode their messages themselves and append the frames to
+ * a write queue, which the selector thread of the transport writes with
+ * gathering writes as soon as the channel accepts them; the selector thread
+ * also reads the incoming frames and hands them to <code>received</code>
+ * (see <code>TransportConnection</code>).
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	channel != null && endpoint != null
+ * invariant	!closed || pendingReplies.isEmpty()
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SocketConnection
+extends		TransportConnection
+{
+	/** maximum number of frames written by one gathering write.			*/
+	protected static final int	MAX_GATHERED_FRAMES = 64 ;
+
+	/** channel of the connection.											*/
+	protected final SocketChannel						channel ;
+	/** frames waiting to be written.										*/
+	protected final ConcurrentLinkedQueue<ByteBuffer>	writeQueue ;
+	/** true if the connection is waiting for the selector thread to write.	*/
+	protected final AtomicBoolean						writeRequested ;
+	/** selection key of the channel, only used by the selector thread.	*/
+	protected SelectionKey								key ;
+
+	/**
+	 * create a connection over a connected channel.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	transport != null && channel != null && endpoint != null
+	 * post	!isClosed()
+	 * </pre>
+	 *
+	 * @param transport	transport managing the connection.
+	 * @param channel	connected channel.
+	 * @param endpoint	"host:port" of the remote transport, or the remote
+	 * 					address for accepted connections.
+	 */
+	public				SocketConnection(
+		SocketTransport transport,
+		SocketChannel channel,
+		String endpoint
+		)
+	{
+		super(transport, endpoint) ;
+
+		assert	channel != null ;
+
+		this.channel = channel ;
+		this.writeQueue = new ConcurrentLinkedQueue<ByteBuffer>() ;
+		this.writeRequested = new AtomicBoolean(false) ;
+		this.key = null ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Methods used by the sending threads
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @see fr.upmc.components.transport.TransportConnection#isFlushed()
+	 */
+	@Override
+	public boolean		isFlushed()
+	{
+		return this.writeQueue.isEmpty() ;
+	}
+
+	/**
+	 * queue the frame for the selector thread.
+	 *
+	 * @see fr.upmc.components.transport.TransportConnection#sendFrame(java.nio.ByteBuffer)
+	 */
+	@Override
+	protected void		sendFrame(ByteBuffer frame) throws IOException
+	{
+		this.writeQueue.add(frame) ;
+		if (this.writeRequested.compareAndSet(false, true)) {
+			this.transport.requestWrite(this) ;
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Methods used by the selector thread
+	// ------------------------------------------------------------------------
+
+	/**
+	 * write as many of the queued frames as the channel accepts.
+	 *
+	 * @return				true if the write queue has been emptied.
+	 * @throws IOException
+	 */
+	protected boolean	write() throws IOException
+	{
+		this.writeRequested.set(false) ;
+		ByteBuffer[] frames = new ByteBuffer[MAX_GATHERED_FRAMES] ;
+		while (true) {
+			int n = 0 ;
+			Iterator<ByteBuffer> it = this.writeQueue.iterator() ;
+			while (n < MAX_GATHERED_FRAMES && it.hasNext()) {
+				frames[n++] = it.next() ;
+			}
+			if (n == 0) {
+				return true ;
+			}
+			this.channel.write(frames, 0, n) ;
+			for (int i = 0 ; i < n ; i++) {
+				if (frames[i].hasRemaining()) {
+					return false ;
+				}
+				this.writeQueue.poll() ;
+				frames[i] = null ;
+			}
+		}
+	}
+
+	/**
+	 * read the available bytes of the channel and process the complete
+	 * frames received.
+	 *
+	 * @throws IOException	if the channel has been closed by the peer or a
+	 * 						frame is invalid.
+	 */
+	protected void		read() throws IOException
+	{
+		if (this.channel.read(this.readBuffer) < 0) {
+			throw new EOFException("connection to " + this.endpoint +
+														" closed by peer") ;
+		}
+		this.framesReceived() ;
+	}
+
+	/**
+	 * @see fr.upmc.components.transport.TransportConnection#closeMedium()
+	 */
+	@Override
+	protected void		closeMedium()
+	{
+		if (this.key != null) {
+			this.key.cancel() ;
+		}
+		try {
+			this.channel.close() ;
+		} catch (IOException e) {
+			// nothing more can be done
+		}
+	}
+}
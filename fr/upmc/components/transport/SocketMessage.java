@@ -0,0 +1,294 @@
+package fr.upmc.components.transport;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The class <code>SocketMessage</code> represents the messages exchanged by
+ * the socket transport: calls of methods of published inbound ports and
+ * replies to the calls that are not one-way.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * A call gives the URI of the called port, the name and parameter types of
+ * the called method and the actual parameters; a reply carries the
+ * correlation identifier of its call and either the result or the
+ * exception thrown by the method.  Messages are written one per frame of
+ * the connection with a hand-written encoding, in which the actual
+ * parameters, results and exceptions are written by
+ * <code>CompactCodecs</code>, hence without any class metadata when they
+ * have a registered codec.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	isCall() == (portURI != null)
+ * invariant	!isCall() || !oneWay || correlationId == 0L
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SocketMessage
+{
+	protected static final byte	CALL = 0 ;
+	protected static final byte	ONE_WAY_CALL = 1 ;
+	protected static final byte	REPLY = 2 ;
+	protected static final byte	EXCEPTION_REPLY = 3 ;
+
+	/** identifier matching a reply with its call, 0 for one-way calls.	*/
+	protected final long		correlationId ;
+	/** URI of the called port, null for replies.							*/
+	protected final String		portURI ;
+	/** name of the called method.											*/
+	protected final String		methodName ;
+	/** names of the parameter types of the called method.				*/
+	protected final String[]	parameterTypes ;
+	/** actual parameters of the call.										*/
+	protected final Object[]	arguments ;
+	/** true if the caller does not wait for a reply.						*/
+	protected final boolean		oneWay ;
+	/** result of the call, in replies.									*/
+	protected final Object		result ;
+	/** exception thrown by the called method, in replies.					*/
+	protected final Throwable	exception ;
+
+	protected				SocketMessage(
+		long correlationId,
+		String portURI,
+		String methodName,
+		String[] parameterTypes,
+		Object[] arguments,
+		boolean oneWay,
+		Object result,
+		Throwable exception
+		)
+	{
+		super() ;
+		this.correlationId = correlationId ;
+		this.portURI = portURI ;
+		this.methodName = methodName ;
+		this.parameterTypes = parameterTypes ;
+		this.arguments = arguments ;
+		this.oneWay = oneWay ;
+		this.result = result ;
+		this.exception = exception ;
+	}
+
+	/**
+	 * create a call message.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	portURI != null && methodName != null && parameterTypes != null
+	 * post	ret.isCall()
+	 * </pre>
+	 *
+	 * @param correlationId		identifier of the call, 0 if one-way.
+	 * @param portURI			URI of the called port.
+	 * @param methodName		name of the called method.
+	 * @param parameterTypes	names of the parameter types of the method.
+	 * @param arguments			actual parameters, null if none.
+	 * @param oneWay			true if no reply is expected.
+	 * @return					the call message.
+	 */
+	public static SocketMessage	newCall(
+		long correlationId,
+		String portURI,
+		String methodName,
+		String[] parameterTypes,
+		Object[] arguments,
+		boolean oneWay
+		)
+	{
+		assert	portURI != null && methodName != null && parameterTypes != null ;
+
+		return new SocketMessage(correlationId, portURI, methodName,
+								 parameterTypes, arguments, oneWay,
+								 null, null) ;
+	}
+
+	/**
+	 * create a reply message.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	exception == null || result == null
+	 * post	!ret.isCall()
+	 * </pre>
+	 *
+	 * @param correlationId	identifier of the call.
+	 * @param result		result of the call.
+	 * @param exception		exception thrown by the call, or null.
+	 * @return				the reply message.
+	 */
+	public static SocketMessage	newReply(
+		long correlationId,
+		Object result,
+		Throwable exception
+		)
+	{
+		assert	exception == null || result == null ;
+
+		return new SocketMessage(correlationId, null, null, null, null,
+								 false, result, exception) ;
+	}
+
+	/**
+	 * read a message written by <code>writeTo</code>.
+	 *
+	 * @param in			input providing the encoding of the message.
+	 * @return				the message.
+	 * @throws IOException
+	 */
+	public static SocketMessage	readFrom(DataInput in) throws IOException
+	{
+		long correlationId = CompactCodecs.readVarLong(in) ;
+		byte kind = in.readByte() ;
+		switch (kind) {
+		case CALL :
+		case ONE_WAY_CALL :
+			String portURI = in.readUTF() ;
+			String methodName = in.readUTF() ;
+			String[] parameterTypes = new String[CompactCodecs.readVarInt(in)] ;
+			for (int i = 0 ; i < parameterTypes.length ; i++) {
+				parameterTypes[i] = in.readUTF() ;
+			}
+			Object[] arguments = new Object[CompactCodecs.readVarInt(in)] ;
+			for (int i = 0 ; i < arguments.length ; i++) {
+				arguments[i] = CompactCodecs.readValue(in) ;
+			}
+			return newCall(correlationId, portURI, methodName,
+						   parameterTypes, arguments, kind == ONE_WAY_CALL) ;
+		case REPLY :
+			return newReply(correlationId, CompactCodecs.readValue(in), null) ;
+		case EXCEPTION_REPLY :
+			return newReply(correlationId, null,
+							(Throwable) CompactCodecs.readValue(in)) ;
+		default :
+			throw new IOException("invalid message kind " + kind) ;
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Methods
+	// ------------------------------------------------------------------------
+
+	/**
+	 * write the message.
+	 *
+	 * @param out			output receiving the encoding of the message.
+	 * @throws IOException
+	 */
+	public void			writeTo(DataOutput out) throws IOException
+	{
+		CompactCodecs.writeVarLong(out, this.correlationId) ;
+		if (this.isCall()) {
+			out.writeByte(this.oneWay ? ONE_WAY_CALL : CALL) ;
+			out.writeUTF(this.portURI) ;
+			out.writeUTF(this.methodName) ;
+			CompactCodecs.writeVarInt(out, this.parameterTypes.length) ;
+			for (String t : this.parameterTypes) {
+				out.writeUTF(t) ;
+			}
+			if (this.arguments == null) {
+				CompactCodecs.writeVarInt(out, 0) ;
+			} else {
+				CompactCodecs.writeVarInt(out, this.arguments.length) ;
+				for (Object a : this.arguments) {
+					CompactCodecs.writeValue(out, a) ;
+				}
+			}
+		} else if (this.exception != null) {
+			out.writeByte(EXCEPTION_REPLY) ;
+			CompactCodecs.writeValue(out, this.exception) ;
+		} else {
+			out.writeByte(REPLY) ;
+			CompactCodecs.writeValue(out, this.result) ;
+		}
+	}
+
+	public boolean		isCall()
+	{
+		return this.portURI != null ;
+	}
+
+	public long			getCorrelationId()
+	{
+		return this.correlationId ;
+	}
+
+	public String		getPortURI()
+	{
+		return this.portURI ;
+	}
+
+	public String		getMethodName()
+	{
+		return this.methodName ;
+	}
+
+	public String[]		getParameterTypes()
+	{
+		return this.parameterTypes ;
+	}
+
+	public Object[]		getArguments()
+	{
+		return this.arguments ;
+	}
+
+	public boolean		isOneWay()
+	{
+		return this.oneWay ;
+	}
+
+	public Object		getResult()
+	{
+		return this.result ;
+	}
+
+	public Throwable	getException()
+	{
+		return this.exception ;
+	}
+}
@@ -0,0 +1,196 @@
+package fr.upmc.components.transport;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+
+import fr.upmc.components.ports.PortI;
+
+/**
+ * The class <code>SocketPortProxy</code> implements the invocation handler
+ * of the dynamic proxies standing for remote inbound ports reached through
+ * the socket transport.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * A proxy implements the offered interface of the remote port and
+ * <code>PortI</code>, so that it can be connected by the connectors exactly
+ * like an RMI stub.  The calls to the methods other than those of
+ * <code>Object</code> are sent to the remote port; the calls to the void
+ * methods of the offered interface are one-way when
+ * <code>SocketTransport.isOneWay</code> says so, while the calls to the
+ * methods of <code>PortI</code>, used to set up the connections, always wait
+ * for their execution.  The connection to the remote transport is
+ * looked up at each call, so that a proxy survives the reopening of a
+ * connection; it is a shared memory connection when the proxy has been
+ * created for a port on the same host.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	transport != null && portURI != null && host != null
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SocketPortProxy
+implements	InvocationHandler
+{
+	/** transport through which the calls are sent.						*/
+	protected final SocketTransport						transport ;
+	/** URI of the remote port.											*/
+	protected final String								portURI ;
+	/** host of the transport of the remote port.							*/
+	protected final String								host ;
+	/** port of the transport of the remote port.							*/
+	protected final int									port ;
+	/** true if the calls go through a shared memory connection.			*/
+	protected final boolean								sharedMemory ;
+	/** names of the parameter types of the methods called so far.		*/
+	protected final ConcurrentHashMap<Method,String[]>	signatures ;
+
+	/**
+	 * create a proxy to a remote port.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	transport != null && portURI != null && host != null
+	 * pre	offered != null && offered.isInterface()
+	 * post	ret instanceof PortI && offered.isInstance(ret)
+	 * </pre>
+	 *
+	 * @param transport		transport through which the calls are sent.
+	 * @param portURI		URI of the remote port.
+	 * @param host			host of the transport of the remote port.
+	 * @param port			port of the transport of the remote port.
+	 * @param sharedMemory	true if the calls go through a shared memory
+	 * 						connection.
+	 * @param offered		offered interface implemented by the remote port.
+	 * @return				the proxy.
+	 */
+	public static Object	newProxy(
+		SocketTransport transport,
+		String portURI,
+		String host,
+		int port,
+		boolean sharedMemory,
+		Class<?> offered
+		)
+	{
+		assert	offered != null && offered.isInterface() ;
+
+		Class<?>[] interfaces ;
+		if (PortI.class.isAssignableFrom(offered)) {
+			interfaces = new Class<?>[]{ offered } ;
+		} else {
+			interfaces = new Class<?>[]{ offered, PortI.class } ;
+		}
+		return Proxy.newProxyInstance(
+					offered.getClassLoader(),
+					interfaces,
+					new SocketPortProxy(transport, portURI, host, port,
+										sharedMemory)) ;
+	}
+
+	protected			SocketPortProxy(
+		SocketTransport transport,
+		String portURI,
+		String host,
+		int port,
+		boolean sharedMemory
+		)
+	{
+		super() ;
+
+		assert	transport != null && portURI != null && host != null ;
+
+		this.transport = transport ;
+		this.portURI = portURI ;
+		this.host = host ;
+		this.port = port ;
+		this.sharedMemory = sharedMemory ;
+		this.signatures = new ConcurrentHashMap<Method,String[]>() ;
+	}
+
+	/**
+	 * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method, java.lang.Object[])
+	 */
+	@Override
+	public Object		invoke(Object proxy, Method method, Object[] args)
+	throws Throwable
+	{
+		if (method.getDeclaringClass() == Object.class) {
+			String name = method.getName() ;
+			if (name.equals("equals")) {
+				return proxy == args[0] ;
+			} else if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy) ;
+			} else {
+				return "SocketPortProxy[" + this.portURI + "@" +
+										this.host + ":" + this.port + "]" ;
+			}
+		}
+		boolean oneWay = SocketTransport.isOneWay(method) ;
+		return this.transport.call(
+						this.transport.getConnection(this.host, this.port,
+													 this.sharedMemory),
+						this.portURI,
+						method.getName(),
+						this.getSignature(method),
+						args,
+						oneWay) ;
+	}
+
+	protected String[]	getSignature(Method method)
+	{
+		String[] signature = this.signatures.get(method) ;
+		if (signature == null) {
+			Class<?>[] types = method.getParameterTypes() ;
+			signature = new String[types.length] ;
+			for (int i = 0 ; i < types.length ; i++) {
+				signature[i] = types[i].getName() ;
+			}
+			this.signatures.put(method, signature) ;
+		}
+		return signature ;
+	}
+}
@@ -0,0 +1,792 @@
+package fr.upmc.components.transport;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.upmc.components.cvm.AbstractCVM;
+import fr.upmc.components.executors.ComponentExecutors;
+import fr.upmc.components.ports.PortI;
+import fr.upmc.components.registry.ConnectionData;
+
+/**
+ * The class <code>SocketTransport</code> implements the socket-based
+ * communication between the components of different JVM, an alternative to
+ * RMI selected per connection by <code>ConnectionBuilder</code>.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * Each JVM of a distributed assembly runs one transport, which listens on
+ * an ephemeral port for the calls to its published inbound ports, and opens
+ * at most one connection to each other transport, multiplexing all of the
+ * calls from its components to the ports of that JVM.  A single selector
+ * thread accepts the connections and performs all of the reads and writes
+ * with non blocking channels; the encoding of the calls is done by the
+ * calling threads and their execution by the executors of the incoming
+ * connection (see <code>TransportConnection</code>), so that the selector
+ * thread only moves bytes.
+ *
+ * The calls go through dynamic proxies implementing the offered interface
+ * of the remote port (see <code>SocketPortProxy</code>), and are resolved on
+ * the server side among the methods of the offered interface of the port and
+ * of <code>PortI</code> only, never of its concrete class.  The calls wait
+ * for their reply, except the calls to the void methods of offered
+ * interfaces declared one-way with <code>declareOneWay</code>, or to all of
+ * them when <code>ONE_WAY_VOID_CALLS</code> is true, which are sent without
+ * waiting for the execution of the call; the exceptions they raise are then
+ * only reported on the server side.  As a void method may still have to be
+ * completed before the caller goes on, such as the methods connecting the
+ * components, the one-way calls are opt-in.  The one-way calls from a JVM to another
+ * one are executed in the order in which they have been sent, and each
+ * synchronous call after the one-way calls sent before it, while the
+ * synchronous calls of different callers run in parallel.
+ *
+ * Between two JVM of the same host, the calls may rather go through a
+ * shared memory connection (see <code>SharedMemoryConnection</code>),
+ * negotiated over the socket connection upon the first call of a proxy
+ * created with <code>sharedMemory</code> true; the frames are then copied
+ * into memory-mapped ring buffers instead of being sent on the loopback
+ * interface.  The socket connection then only carries the calls of the
+ * other proxies and detects the termination of the peer.
+ *
+ * The transport publishes a port with URI <code>u</code> in the global
+ * registry under the key <code>u + URI_SUFFIX</code>, with the connection
+ * information <code>socket=host:port:interface</code>.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	SINGLETON == null || SINGLETON.getPort() > 0
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public class			SocketTransport
+implements	Runnable
+{
+	// ------------------------------------------------------------------------
+	// Static configuration
+	// ------------------------------------------------------------------------
+
+	/** true if distributed CVM start a transport and publish their ports
+	 *  on it.																*/
+	public static boolean			ENABLED = false ;
+	/** true if the calls to all of the void methods of offered interfaces
+	 *  are sent without waiting for their execution.						*/
+	public static boolean			ONE_WAY_VOID_CALLS = false ;
+	/** maximum size in bytes of an encoded message.						*/
+	public static int				MAX_FRAME_SIZE = 64 * 1024 * 1024 ;
+	/** maximum time in ms given to the pending frames to be written when
+	 *  the transport is stopped.											*/
+	public static long				SHUTDOWN_TIMEOUT = 10000L ;
+	/** suffix of the keys of the socket publications in the registry.	*/
+	public static final String		URI_SUFFIX = "@socket" ;
+
+	/** transport of the current JVM, null if not started.					*/
+	protected static SocketTransport	SINGLETON = null ;
+	/** void methods of offered interfaces declared one-way.				*/
+	protected static final Set<Method>	ONE_WAY_METHODS =
+			Collections.newSetFromMap(new ConcurrentHashMap<Method,Boolean>()) ;
+
+	protected static final HashMap<String,Class<?>>	PRIMITIVE_TYPES ;
+	static {
+		PRIMITIVE_TYPES = new HashMap<String,Class<?>>() ;
+		Class<?>[] primitives = { boolean.class, byte.class, char.class,
+								  short.class, int.class, long.class,
+								  float.class, double.class, void.class } ;
+		for (Class<?> c : primitives) {
+			PRIMITIVE_TYPES.put(c.getName(), c) ;
+		}
+	}
+
+	/**
+	 * declare the void methods of an offered interface with the given names
+	 * as one-way, i.e. their calls do not wait for their execution; the
+	 * methods must not need to be completed before their caller goes on.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	offered != null && methodNames != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param offered		offered interface declaring the methods.
+	 * @param methodNames	names of the methods sent one-way.
+	 * @throws IllegalArgumentException	if a name is not the one of a void
+	 * 									method of the interface.
+	 */
+	public static void	declareOneWay(
+		Class<?> offered,
+		String... methodNames
+		)
+	{
+		assert	offered != null && methodNames != null ;
+
+		List<String> names = Arrays.asList(methodNames) ;
+		int found = 0 ;
+		for (Method m : offered.getMethods()) {
+			if (names.contains(m.getName()) &&
+									m.getReturnType() == void.class) {
+				ONE_WAY_METHODS.add(m) ;
+				found++ ;
+			}
+		}
+		if (found < names.size()) {
+			throw new IllegalArgumentException(
+						"no void method among " + names + " in " + offered) ;
+		}
+	}
+
+	/**
+	 * @param m	method of the offered interface of a remote port.
+	 * @return	true if the calls to the method are sent one-way.
+	 */
+	public static boolean	isOneWay(Method m)
+	{
+		return m.getReturnType() == void.class &&
+			   !m.getDeclaringClass().isAssignableFrom(PortI.class) &&
+			   (ONE_WAY_VOID_CALLS || ONE_WAY_METHODS.contains(m)) ;
+	}
+
+	/**
+	 * start the transport of the current JVM, if not already started.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	localRegistry != null && hostname != null
+	 * post	isStarted()
+	 * </pre>
+	 *
+	 * @param localRegistry	registry of the ports published in the JVM.
+	 * @param hostname		name of the host given to the remote transports.
+	 * @return				the transport of the current JVM.
+	 * @throws IOException
+	 */
+	public static synchronized SocketTransport	start(
+		Hashtable<String,PortI> localRegistry,
+		String hostname
+		) throws IOException
+	{
+		if (SINGLETON == null) {
+			SINGLETON = new SocketTransport(localRegistry, hostname) ;
+			SINGLETON.selectorThread.start() ;
+		}
+		return SINGLETON ;
+	}
+
+	public static synchronized boolean	isStarted()
+	{
+		return SINGLETON != null ;
+	}
+
+	/**
+	 * @return				the transport of the current JVM.
+	 * @throws IOException	if the transport has not been started.
+	 */
+	public static synchronized SocketTransport	getTransport()
+	throws IOException
+	{
+		if (SINGLETON == null) {
+			throw new IOException("socket transport not started") ;
+		}
+		return SINGLETON ;
+	}
+
+	/**
+	 * stop the transport of the current JVM, if started, after having given
+	 * the pending frames <code>SHUTDOWN_TIMEOUT</code> ms to be written.
+	 *
+	 * @throws InterruptedException
+	 */
+	public static void	stop() throws InterruptedException
+	{
+		SocketTransport t ;
+		synchronized (SocketTransport.class) {
+			t = SINGLETON ;
+			SINGLETON = null ;
+		}
+		if (t != null) {
+			t.shutdown() ;
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Transport
+	// ------------------------------------------------------------------------
+
+	/** registry of the ports published in the JVM.						*/
+	protected final Hashtable<String,PortI>			localRegistry ;
+	/** name of the host given to the remote transports.					*/
+	protected final String								hostname ;
+	/** selector multiplexing the server and connection channels.			*/
+	protected final Selector							selector ;
+	/** channel accepting the connections of the remote transports.		*/
+	protected final ServerSocketChannel					serverChannel ;
+	/** port on which the transport accepts connections.					*/
+	protected final int									port ;
+	/** thread performing the selections.									*/
+	protected final Thread								selectorThread ;
+	/** connections opened to remote transports, by "host:port" for the
+	 *  socket connections and "shm:host:port" for the shared memory ones.	*/
+	protected final ConcurrentHashMap<String,TransportConnection>	connections ;
+	/** connections accepted from remote transports.						*/
+	protected final ConcurrentLinkedQueue<TransportConnection>	accepted ;
+	/** connections to be registered by the selector thread.				*/
+	protected final ConcurrentLinkedQueue<SocketConnection>	registrations ;
+	/** connections having frames to be written by the selector thread.	*/
+	protected final ConcurrentLinkedQueue<SocketConnection>	writeRequests ;
+	/** generator of the call correlation identifiers.						*/
+	protected final AtomicLong							nextCorrelationId ;
+	/** methods of the local ports, by interface, name and parameter types.	*/
+	protected final ConcurrentHashMap<String,Method>	methods ;
+	/** false when the transport is being stopped.							*/
+	protected volatile boolean							running ;
+
+	protected			SocketTransport(
+		Hashtable<String,PortI> localRegistry,
+		String hostname
+		) throws IOException
+	{
+		super() ;
+
+		assert	localRegistry != null && hostname != null ;
+
+		this.localRegistry = localRegistry ;
+		this.hostname = hostname ;
+		this.selector = Selector.open() ;
+		this.serverChannel = ServerSocketChannel.open() ;
+		this.serverChannel.bind(new InetSocketAddress(0)) ;
+		this.serverChannel.configureBlocking(false) ;
+		this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT) ;
+		this.port = this.serverChannel.socket().getLocalPort() ;
+		this.connections =
+						new ConcurrentHashMap<String,TransportConnection>() ;
+		this.accepted = new ConcurrentLinkedQueue<TransportConnection>() ;
+		this.registrations = new ConcurrentLinkedQueue<SocketConnection>() ;
+		this.writeRequests = new ConcurrentLinkedQueue<SocketConnection>() ;
+		this.nextCorrelationId = new AtomicLong(0L) ;
+		this.methods = new ConcurrentHashMap<String,Method>() ;
+		this.running = true ;
+		this.selectorThread = new Thread(this, "socket-transport") ;
+		this.selectorThread.setDaemon(true) ;
+		if (AbstractCVM.DEBUG) {
+			System.out.println("socket transport listening on " +
+								this.hostname + ":" + this.port) ;
+		}
+	}
+
+	public String		getHostname()
+	{
+		return this.hostname ;
+	}
+
+	public int			getPort()
+	{
+		return this.port ;
+	}
+
+	/**
+	 * return the information published in the global registry for a port
+	 * implementing the given offered interface.
+	 *
+	 * @param offered	offered interface implemented by the port.
+	 * @return			the connection information of the port.
+	 */
+	public String		getConnectionInfo(Class<?> offered)
+	{
+		return "socket=" + this.hostname + ":" + this.port + ":" +
+															offered.getName() ;
+	}
+
+	/**
+	 * create a proxy to a remote port published on the socket transport.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	portURI != null && cd.getType() == ConnectionType.SOCKET
+	 * pre	cd.getInterfaceName() != null
+	 * post	ret instanceof PortI
+	 * </pre>
+	 *
+	 * @param portURI		URI of the remote port.
+	 * @param cd			connection data of the remote port.
+	 * @param sharedMemory	true if the calls go through a shared memory
+	 * 						connection, the remote port being on the same
+	 * 						host.
+	 * @return				a proxy implementing the offered interface of the
+	 * 						port.
+	 * @throws Exception
+	 */
+	public Object		createProxy(
+		String portURI,
+		ConnectionData cd,
+		boolean sharedMemory
+		) throws Exception
+	{
+		assert	portURI != null && cd.getInterfaceName() != null ;
+
+		Class<?> offered = Class.forName(cd.getInterfaceName()) ;
+		return SocketPortProxy.newProxy(this, portURI, cd.getHostname(),
+										cd.getPort(), sharedMemory, offered) ;
+	}
+
+	/**
+	 * return the connection to a remote transport, opening it if needed.
+	 *
+	 * @param host			host of the remote transport.
+	 * @param port			port of the remote transport.
+	 * @return				the connection to the remote transport.
+	 * @throws IOException
+	 */
+	public SocketConnection	getConnection(String host, int port)
+	throws IOException
+	{
+		String endpoint = host + ":" + port ;
+		SocketConnection c = (SocketConnection) this.connections.get(endpoint) ;
+		if (c != null && !c.isClosed()) {
+			return c ;
+		}
+		synchronized (this.connections) {
+			c = (SocketConnection) this.connections.get(endpoint) ;
+			if (c == null || c.isClosed()) {
+				if (!this.running) {
+					throw new IOException("socket transport stopped") ;
+				}
+				SocketChannel ch =
+						SocketChannel.open(new InetSocketAddress(host, port)) ;
+				ch.setOption(StandardSocketOptions.TCP_NODELAY, true) ;
+				ch.configureBlocking(false) ;
+				c = new SocketConnection(this, ch, endpoint) ;
+				this.connections.put(endpoint, c) ;
+				this.registrations.add(c) ;
+				this.selector.wakeup() ;
+			}
+		}
+		return c ;
+	}
+
+	/**
+	 * return the connection to a remote transport, opening it if needed;
+	 * with <code>sharedMemory</code>, the connection is a shared memory
+	 * connection negotiated over the socket connection, or the socket
+	 * connection itself if the shared memory is not supported by one of
+	 * the JVM, in which case the negotiation is not retried until the
+	 * socket connection is reopened.
+	 *
+	 * @param host			host of the remote transport.
+	 * @param port			port of the remote transport.
+	 * @param sharedMemory	true if the remote transport is on the same host
+	 * 						and a shared memory connection should be used.
+	 * @return				the connection to the remote transport.
+	 * @throws IOException
+	 */
+	public TransportConnection	getConnection(
+		String host,
+		int port,
+		boolean sharedMemory
+		) throws IOException
+	{
+		if (!sharedMemory) {
+			return this.getConnection(host, port) ;
+		}
+		String key = SharedMemoryConnection.ENDPOINT_PREFIX + host + ":" + port ;
+		TransportConnection c = this.connections.get(key) ;
+		if (c != null && !c.isClosed()) {
+			return c ;
+		}
+		synchronized (this.connections) {
+			c = this.connections.get(key) ;
+			if (c == null || c.isClosed()) {
+				SocketConnection sc = this.getConnection(host, port) ;
+				c = sc ;
+				if (SharedMemoryRing.isSupported()) {
+					try {
+						c = SharedMemoryConnection.connect(this, sc) ;
+					} catch (Throwable t) {
+						if (AbstractCVM.DEBUG) {
+							System.out.println("shared memory connection to "
+									+ sc.getEndpoint() + " refused: " + t) ;
+						}
+					}
+				}
+				this.connections.put(key, c) ;
+			}
+		}
+		return c ;
+	}
+
+	/**
+	 * call a method of a remote port, waiting for its result unless the call
+	 * is one-way.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	c != null && portURI != null && methodName != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param c					connection to the transport of the port.
+	 * @param portURI			URI of the remote port.
+	 * @param methodName		name of the called method.
+	 * @param parameterTypes	names of the parameter types of the method.
+	 * @param arguments			actual parameters, null if none.
+	 * @param oneWay			true if the call does not wait for its reply.
+	 * @return					the result of the call, null if one-way.
+	 * @throws Throwable		the exception thrown by the remote method or by
+	 * 							the transport.
+	 */
+	public Object		call(
+		TransportConnection c,
+		String portURI,
+		String methodName,
+		String[] parameterTypes,
+		Object[] arguments,
+		boolean oneWay
+		) throws Throwable
+	{
+		if (oneWay) {
+			c.send(SocketMessage.newCall(0L, portURI, methodName,
+										 parameterTypes, arguments, true)) ;
+			return null ;
+		}
+		long id = this.nextCorrelationId.incrementAndGet() ;
+		TransportConnection.Reply r = c.expectReply(id) ;
+		try {
+			c.send(SocketMessage.newCall(id, portURI, methodName,
+										 parameterTypes, arguments, false)) ;
+		} catch (IOException e) {
+			c.cancelReply(id) ;
+			throw e ;
+		}
+		try {
+			return ComponentExecutors.awaitResult(r) ;
+		} catch (ExecutionException e) {
+			throw e.getCause() ;
+		}
+	}
+
+	/**
+	 * execute an incoming call on the local port and send back its reply;
+	 * called by the call executor of the connection.
+	 *
+	 * @param c		connection on which the call has been received.
+	 * @param call	message of the call.
+	 */
+	protected void		invoke(TransportConnection c, SocketMessage call)
+	{
+		Object result = null ;
+		Throwable exception = null ;
+		try {
+			if (SharedMemoryConnection.ATTACH_URI.equals(call.getPortURI()) &&
+											c instanceof SocketConnection) {
+				this.accepted.add(SharedMemoryConnection.attach(
+							this, (SocketConnection) c, call.getArguments())) ;
+				result = Boolean.TRUE ;
+			} else {
+				PortI p = this.localRegistry.get(call.getPortURI()) ;
+				if (p == null) {
+					throw new Exception("unknown port " + call.getPortURI()) ;
+				}
+				Method m = this.findMethod(p.getImplementedInterface(),
+										   call.getMethodName(),
+										   call.getParameterTypes()) ;
+				result = m.invoke(p, call.getArguments()) ;
+			}
+		} catch (InvocationTargetException e) {
+			exception = e.getCause() ;
+		} catch (Throwable t) {
+			exception = t ;
+		}
+		if (call.isOneWay()) {
+			if (exception != null) {
+				System.out.println("one-way call of " + call.getMethodName() +
+								   " on " + call.getPortURI() + " failed") ;
+				exception.printStackTrace() ;
+			}
+			return ;
+		}
+		try {
+			try {
+				c.send(SocketMessage.newReply(call.getCorrelationId(),
+											  result, exception)) ;
+			} catch (NotSerializableException e) {
+				c.send(SocketMessage.newReply(call.getCorrelationId(),
+											  null, e)) ;
+			}
+		} catch (IOException e) {
+			if (!c.isClosed()) {
+				e.printStackTrace() ;
+			}
+		}
+	}
+
+	/**
+	 * find the method called on a local port among the methods of its
+	 * offered interface and of <code>PortI</code>, so that a remote caller
+	 * can not reach the other public methods of the concrete port class.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	offered != null && methodName != null && parameterTypes != null
+	 * post	return != null
+	 * </pre>
+	 *
+	 * @param offered			interface implemented by the port.
+	 * @param methodName		name of the called method.
+	 * @param parameterTypes	names of the parameter types of the method.
+	 * @return					the called method.
+	 * @throws Exception		if the method is not in the offered interface
+	 * 							nor in <code>PortI</code>.
+	 */
+	protected Method	findMethod(
+		Class<?> offered,
+		String methodName,
+		String[] parameterTypes
+		) throws Exception
+	{
+		StringBuilder sb = new StringBuilder(offered.getName()) ;
+		sb.append('#').append(methodName) ;
+		for (String t : parameterTypes) {
+			sb.append(',').append(t) ;
+		}
+		String signature = sb.toString() ;
+		Method m = this.methods.get(signature) ;
+		if (m == null) {
+			Class<?>[] types = new Class<?>[parameterTypes.length] ;
+			for (int i = 0 ; i < types.length ; i++) {
+				types[i] = PRIMITIVE_TYPES.get(parameterTypes[i]) ;
+				if (types[i] == null) {
+					types[i] = Class.forName(parameterTypes[i], false,
+											 offered.getClassLoader()) ;
+				}
+			}
+			try {
+				m = offered.getMethod(methodName, types) ;
+			} catch (NoSuchMethodException e) {
+				m = PortI.class.getMethod(methodName, types) ;
+			}
+			this.methods.put(signature, m) ;
+		}
+		return m ;
+	}
+
+	/**
+	 * ask the selector thread to write the queued frames of a connection.
+	 *
+	 * @param c	connection having frames to be written.
+	 */
+	protected void		requestWrite(SocketConnection c)
+	{
+		this.writeRequests.add(c) ;
+		this.selector.wakeup() ;
+	}
+
+	protected void		connectionClosed(TransportConnection c)
+	{
+		this.connections.remove(c.getEndpoint(), c) ;
+		this.accepted.remove(c) ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Selector thread
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void			run()
+	{
+		while (this.running) {
+			try {
+				this.selector.select() ;
+			} catch (IOException e) {
+				e.printStackTrace() ;
+				break ;
+			}
+			SocketConnection c ;
+			while ((c = this.registrations.poll()) != null) {
+				try {
+					c.key = c.channel.register(this.selector,
+											   SelectionKey.OP_READ, c) ;
+				} catch (IOException e) {
+					c.close(e) ;
+					continue ;
+				}
+				if (!c.isFlushed()) {
+					this.handleWrite(c) ;
+				}
+			}
+			while ((c = this.writeRequests.poll()) != null) {
+				this.handleWrite(c) ;
+			}
+			Iterator<SelectionKey> it =
+								this.selector.selectedKeys().iterator() ;
+			while (it.hasNext()) {
+				SelectionKey k = it.next() ;
+				it.remove() ;
+				if (k.channel() == this.serverChannel) {
+					this.handleAccept() ;
+					continue ;
+				}
+				c = (SocketConnection) k.attachment() ;
+				try {
+					if (k.isReadable()) {
+						c.read() ;
+					}
+					if (k.isValid() && k.isWritable()) {
+						this.handleWrite(c) ;
+					}
+				} catch (IOException e) {
+					c.close(this.running ? e : null) ;
+				} catch (CancelledKeyException e) {
+					c.close(null) ;
+				}
+			}
+		}
+	}
+
+	protected void		handleAccept()
+	{
+		try {
+			SocketChannel ch = this.serverChannel.accept() ;
+			if (ch == null) {
+				return ;
+			}
+			ch.setOption(StandardSocketOptions.TCP_NODELAY, true) ;
+			ch.configureBlocking(false) ;
+			SocketConnection c =
+				new SocketConnection(this, ch,
+									 String.valueOf(ch.getRemoteAddress())) ;
+			c.key = ch.register(this.selector, SelectionKey.OP_READ, c) ;
+			this.accepted.add(c) ;
+		} catch (IOException e) {
+			e.printStackTrace() ;
+		}
+	}
+
+	protected void		handleWrite(SocketConnection c)
+	{
+		if (c.key == null) {
+			// not registered yet, written upon registration.
+			return ;
+		}
+		try {
+			if (c.write()) {
+				c.key.interestOps(SelectionKey.OP_READ) ;
+			} else {
+				c.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE) ;
+			}
+		} catch (IOException e) {
+			c.close(e) ;
+		} catch (CancelledKeyException e) {
+			c.close(null) ;
+		}
+	}
+
+	/**
+	 * stop the selector thread and close the connections, after having
+	 * given the pending frames <code>SHUTDOWN_TIMEOUT</code> ms to be
+	 * written.
+	 *
+	 * @throws InterruptedException
+	 */
+	protected void		shutdown() throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT ;
+		while (System.currentTimeMillis() < deadline && !this.isFlushed()) {
+			Thread.sleep(1L) ;
+		}
+		this.running = false ;
+		this.selector.wakeup() ;
+		this.selectorThread.join(SHUTDOWN_TIMEOUT) ;
+		for (TransportConnection c : this.connections.values()) {
+			c.close(null) ;
+		}
+		for (TransportConnection c : this.accepted) {
+			c.close(null) ;
+		}
+		try {
+			this.serverChannel.close() ;
+			this.selector.close() ;
+		} catch (IOException e) {
+			e.printStackTrace() ;
+		}
+	}
+
+	protected boolean	isFlushed()
+	{
+		for (TransportConnection c : this.connections.values()) {
+			if (!c.isClosed() && !c.isFlushed()) {
+				return false ;
+			}
+		}
+		for (TransportConnection c : this.accepted) {
+			if (!c.isClosed() && !c.isFlushed()) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+}
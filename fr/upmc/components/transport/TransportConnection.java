@@ -0,0 +1,452 @@
+package fr.upmc.components.transport;
+
+// Copyright Jacques Malenfant, Univ. Pierre et Marie Curie.
+// 
+// Jacques.Malenfant@lip6.fr
+// 
+// This software is a computer program whose purpose is to provide a
+// basic component programming model to program with components
+// distributed applications in the Java programming language.
+// 
+// This software is governed by the CeCILL-C license under French law and
+// abiding by the rules of distribution of free software.  You can use,
+// modify and/ or redistribute the software under the terms of the
+// CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+// URL "http://www.cecill.info".
+// 
+// As a counterpart to the access to the source code and  rights to copy,
+// modify and redistribute granted by the license, users are provided only
+// with a limited warranty  and the software's author,  the holder of the
+// economic rights,  and the successive licensors  have only  limited
+// liability. 
+// 
+// In this respect, the user's attention is drawn to the risks associated
+// with loading,  using,  modifying and/or developing or reproducing the
+// software by the user in light of its specific status of free software,
+// that may mean  that it is complicated to manipulate,  and  that  also
+// therefore means  that it is reserved for developers  and  experienced
+// professionals having in-depth computer knowledge. Users are therefore
+// encouraged to load and test the software's suitability as regards their
+// requirements in conditions enabling the security of their systems and/or 
+// data to be ensured and,  more generally, to use and operate it in the 
+// same conditions as regards security. 
+// 
+// The fact that you are presently reading this means that you have had
+// knowledge of the CeCILL-C license and that you accept its terms.
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import fr.upmc.components.executors.ComponentExecutors;
+
+/**
+ * The class <code>TransportConnection</code> implements the part of the
+ * connections of the transport between two JVM that does not depend upon
+ * the medium carrying their frames.
+ *
+ * <p><strong>Description</strong></p>
+ *
+ * Messages are sent as frames made of their length followed by their
+ * encoding (see <code>SocketMessage</code>).  Sending threads encode their
+ * messages themselves and hand the frames to the medium, which delivers
+ * the frames received from the peer to <code>received</code>.  Replies are
+ * matched with the calls waiting for them by their correlation identifier,
+ * while the incoming calls are executed outside of the thread reading the
+ * medium.  The one-way calls are executed by a serial executor, hence in the
+ * order of their arrival.  The synchronous calls go through the same serial
+ * executor, so that they start after the one-way calls received before them,
+ * but only to be handed to a pool where they run in parallel; hence, a call
+ * blocked in a nested call, or simply long, does not hold up the calls of the
+ * other callers multiplexed on the connection.
+ *
+ * A connection may be linked to other connections that depend upon it and
+ * are closed with it, such as a shared memory connection negotiated over a
+ * socket connection.
+ *
+ * <p><strong>Invariant</strong></p>
+ *
+ * <pre>
+ * invariant	endpoint != null
+ * invariant	!closed || pendingReplies.isEmpty()
+ * </pre>
+ *
+ * <p>Created on : 18 oct. 2026</p>
+ *
+ * @author	<a href="mailto:Jacques.Malenfant@lip6.fr">Jacques Malenfant</a>
+ * @version	$Name$ -- $Revision$ -- $Date$
+ */
+public abstract class	TransportConnection
+{
+	/** initial size of the read buffer.									*/
+	protected static final int	READ_BUFFER_SIZE = 16 * 1024 ;
+
+	/** transport managing the connection.									*/
+	protected final SocketTransport						transport ;
+	/** identification of the remote transport.							*/
+	protected final String								endpoint ;
+	/** calls sent on the connection and waiting for their reply.			*/
+	protected final ConcurrentHashMap<Long,Reply>		pendingReplies ;
+	/** buffer of the incoming frames, only used by the reading thread.	*/
+	protected ByteBuffer								readBuffer ;
+	/** executor of the incoming one-way calls, created upon the first one.	*/
+	protected ExecutorService							callExecutor ;
+	/** connection closed with this one, or null if none.					*/
+	protected volatile TransportConnection				dependent ;
+	/** true when the connection has been closed.							*/
+	protected volatile boolean							closed ;
+
+	/**
+	 * The class <code>Reply</code> is the future of the result of a call
+	 * waiting for its reply, which is completed by the thread reading the
+	 * frames.
+	 */
+	public static class	Reply
+	extends		FutureTask<Object>
+	{
+		protected static final Callable<Object>	NONE =
+			new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					throw new IllegalStateException() ;
+				}
+			} ;
+
+		public				Reply()
+		{
+			super(NONE) ;
+		}
+
+		protected void		complete(SocketMessage reply)
+		{
+			if (reply.getException() != null) {
+				this.setException(reply.getException()) ;
+			} else {
+				this.set(reply.getResult()) ;
+			}
+		}
+
+		protected void		fail(Throwable t)
+		{
+			this.setException(t) ;
+		}
+	}
+
+	/**
+	 * The class <code>FrameOutputStream</code> collects a message after a
+	 * reserved length field, and then gives the frame without copying it.
+	 */
+	protected static class	FrameOutputStream
+	extends		ByteArrayOutputStream
+	{
+		public				FrameOutputStream()
+		{
+			super(256) ;
+			this.count = 4 ;
+		}
+
+		public ByteBuffer	toFrame()
+		{
+			int length = this.count - 4 ;
+			this.buf[0] = (byte) (length >>> 24) ;
+			this.buf[1] = (byte) (length >>> 16) ;
+			this.buf[2] = (byte) (length >>> 8) ;
+			this.buf[3] = (byte) length ;
+			return ByteBuffer.wrap(this.buf, 0, this.count) ;
+		}
+	}
+
+	/**
+	 * create a connection.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	transport != null && endpoint != null
+	 * post	!isClosed()
+	 * </pre>
+	 *
+	 * @param transport	transport managing the connection.
+	 * @param endpoint	identification of the remote transport.
+	 */
+	public				TransportConnection(
+		SocketTransport transport,
+		String endpoint
+		)
+	{
+		super() ;
+
+		assert	transport != null && endpoint != null ;
+
+		this.transport = transport ;
+		this.endpoint = endpoint ;
+		this.pendingReplies = new ConcurrentHashMap<Long,Reply>() ;
+		this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE) ;
+		this.callExecutor = null ;
+		this.dependent = null ;
+		this.closed = false ;
+	}
+
+	// ------------------------------------------------------------------------
+	// Methods used by the sending threads
+	// ------------------------------------------------------------------------
+
+	public String		getEndpoint()
+	{
+		return this.endpoint ;
+	}
+
+	public boolean		isClosed()
+	{
+		return this.closed ;
+	}
+
+	/**
+	 * @return	true if all of the frames sent so far have been handed to the
+	 * 			peer.
+	 */
+	public abstract boolean	isFlushed() ;
+
+	/**
+	 * register a call waiting for its reply; must be done before sending
+	 * the call.
+	 *
+	 * @param correlationId	identifier of the call.
+	 * @return				the future of the result of the call.
+	 * @throws IOException	if the connection is closed.
+	 */
+	public Reply		expectReply(long correlationId) throws IOException
+	{
+		Reply r = new Reply() ;
+		this.pendingReplies.put(correlationId, r) ;
+		if (this.closed) {
+			this.pendingReplies.remove(correlationId) ;
+			throw new IOException("connection to " + this.endpoint +
+																" closed") ;
+		}
+		return r ;
+	}
+
+	/**
+	 * forget a call which reply is no longer expected.
+	 *
+	 * @param correlationId	identifier of the call.
+	 */
+	public void			cancelReply(long correlationId)
+	{
+		this.pendingReplies.remove(correlationId) ;
+	}
+
+	/**
+	 * encode a message in the calling thread and hand its frame to the
+	 * medium.
+	 *
+	 * <p><strong>Contract</strong></p>
+	 *
+	 * <pre>
+	 * pre	m != null
+	 * post	true			// no postcondition.
+	 * </pre>
+	 *
+	 * @param m				message to be sent.
+	 * @throws IOException	if the message can not be encoded or the
+	 * 						connection is closed.
+	 */
+	public void			send(SocketMessage m) throws IOException
+	{
+		assert	m != null ;
+
+		if (this.closed) {
+			throw new IOException("connection to " + this.endpoint +
+																" closed") ;
+		}
+		FrameOutputStream fos = new FrameOutputStream() ;
+		DataOutputStream dos = new DataOutputStream(fos) ;
+		m.writeTo(dos) ;
+		dos.flush() ;
+		ByteBuffer frame = fos.toFrame() ;
+		if (frame.remaining() - 4 > SocketTransport.MAX_FRAME_SIZE) {
+			throw new IOException("message of " + (frame.remaining() - 4) +
+								  " bytes exceeds the maximum frame size") ;
+		}
+		this.sendFrame(frame) ;
+	}
+
+	/**
+	 * hand a frame to the medium, in the order of the calls.
+	 *
+	 * @param frame			the frame, length included.
+	 * @throws IOException	if the medium is closed.
+	 */
+	protected abstract void	sendFrame(ByteBuffer frame) throws IOException ;
+
+	// ------------------------------------------------------------------------
+	// Methods used by the thread reading the medium
+	// ------------------------------------------------------------------------
+
+	/**
+	 * process the complete frames at the beginning of the read buffer,
+	 * which has been filled from the medium, and keep the bytes of the last
+	 * incomplete frame, growing the buffer if the frame does not fit in.
+	 *
+	 * @throws IOException	if a frame is invalid.
+	 */
+	protected void		framesReceived() throws IOException
+	{
+		this.readBuffer.flip() ;
+		while (this.readBuffer.remaining() >= 4) {
+			int start = this.readBuffer.position() ;
+			int length = this.readBuffer.getInt(start) ;
+			if (length < 0 || length > SocketTransport.MAX_FRAME_SIZE) {
+				throw new IOException("invalid frame length " + length) ;
+			}
+			if (this.readBuffer.remaining() < 4 + length) {
+				if (this.readBuffer.capacity() < 4 + length) {
+					ByteBuffer b = ByteBuffer.allocate(4 + length) ;
+					b.put(this.readBuffer) ;
+					b.flip() ;
+					this.readBuffer = b ;
+				}
+				break ;
+			}
+			this.readBuffer.position(start + 4 + length) ;
+			this.received(this.readBuffer.array(),
+						  this.readBuffer.arrayOffset() + start + 4,
+						  length) ;
+		}
+		this.readBuffer.compact() ;
+	}
+
+	/**
+	 * decode and process a frame received from the peer.
+	 *
+	 * @param bytes			array containing the frame.
+	 * @param offset		offset of the encoded message, after its length.
+	 * @param length		length of the encoded message.
+	 * @throws IOException	if the frame is invalid.
+	 */
+	protected void		received(byte[] bytes, int offset, int length)
+	throws IOException
+	{
+		DataInputStream dis =
+			new DataInputStream(
+						new ByteArrayInputStream(bytes, offset, length)) ;
+		SocketMessage m = SocketMessage.readFrom(dis) ;
+		if (dis.available() != 0) {
+			throw new IOException("frame of " + length + " bytes has " +
+								  dis.available() + " trailing bytes") ;
+		}
+		if (m.isCall()) {
+			this.execute(m) ;
+		} else {
+			Reply r = this.pendingReplies.remove(m.getCorrelationId()) ;
+			if (r != null) {
+				r.complete(m) ;
+			}
+		}
+	}
+
+	/**
+	 * return the serial executor of the incoming one-way calls, creating it
+	 * if needed.
+	 *
+	 * @return	the serial executor of the incoming calls.
+	 */
+	protected synchronized ExecutorService	getCallExecutor()
+	{
+		if (this.callExecutor == null) {
+			this.callExecutor = ComponentExecutors.newOneWaySender() ;
+		}
+		return this.callExecutor ;
+	}
+
+	/**
+	 * execute an incoming call, in order on the serial executor if it is
+	 * one-way, and otherwise on the executor of the synchronous remote calls
+	 * once the one-way calls received before it have been executed.
+	 *
+	 * @param call	message of the call.
+	 */
+	protected void		execute(final SocketMessage call)
+	{
+		final Runnable invocation = new Runnable() {
+			@Override
+			public void run() {
+				transport.invoke(TransportConnection.this, call) ;
+			}
+		} ;
+		if (call.isOneWay()) {
+			this.getCallExecutor().execute(invocation) ;
+		} else {
+			this.getCallExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					ComponentExecutors.getRemoteCallExecutor().
+														execute(invocation) ;
+				}
+			}) ;
+		}
+	}
+
+	/**
+	 * link a connection to be closed with this one.
+	 *
+	 * @param c	the dependent connection.
+	 */
+	protected void		setDependent(TransportConnection c)
+	{
+		this.dependent = c ;
+		if (this.closed) {
+			c.close(null) ;
+		}
+	}
+
+	/**
+	 * close the connection and its dependent, failing the calls still
+	 * waiting for their reply.
+	 *
+	 * @param cause	reason of the closing, or null if normal.
+	 */
+	protected void		close(Throwable cause)
+	{
+		synchronized (this) {
+			if (this.closed) {
+				return ;
+			}
+			this.closed = true ;
+		}
+		this.closeMedium() ;
+		IOException failure =
+			new IOException("connection to " + this.endpoint + " closed",
+							cause) ;
+		for (Long id : this.pendingReplies.keySet()) {
+			Reply r = this.pendingReplies.remove(id) ;
+			if (r != null) {
+				r.fail(failure) ;
+			}
+		}
+		synchronized (this) {
+			if (this.callExecutor != null) {
+				this.callExecutor.shutdown() ;
+			}
+		}
+		TransportConnection d = this.dependent ;
+		if (d != null) {
+			d.close(cause) ;
+		}
+		this.transport.connectionClosed(this) ;
+	}
+
+	/**
+	 * release the medium of the connection.
+	 */
+	protected abstract void	closeMedium() ;
+}